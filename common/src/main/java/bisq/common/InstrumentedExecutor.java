@@ -0,0 +1,248 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import lombok.Getter;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Wraps the executor of the UserThread to find out which tasks stall it. For each call site which submitted a task
+ * we keep a histogram of the execution times. We also track the queue size and the time the tasks waited in the
+ * queue. Tasks which take longer than the threshold get logged with their call site.
+ * <p/>
+ * Tasks scheduled with the UserThread timers are attributed to the call site which scheduled them. The task of the
+ * timer implementation which dispatches the due timers to the UserThread only counts for the queue statistics, so
+ * that the execution of a timer is recorded only once.
+ */
+@Slf4j
+public class InstrumentedExecutor implements Executor {
+    // Bucket i counts the tasks with an execution time in [2^(i-1), 2^i) ms, bucket 0 the ones below 1 ms and the
+    // last bucket all longer ones.
+    public static final int NUM_HISTOGRAM_BUCKETS = 16;
+    private static final int MAX_RECENT_SLOW_TASKS = 20;
+    private static final Set<String> SKIPPED_CLASS_NAMES = Set.of(InstrumentedExecutor.class.getName(),
+            UserThread.class.getName());
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+
+    @Value
+    public static class SlowTask {
+        String callSite;
+        long queueLatencyMs;
+        long executionTimeMs;
+        long date;
+    }
+
+    public static class TaskStats {
+        private final AtomicLongArray histogram = new AtomicLongArray(NUM_HISTOGRAM_BUCKETS);
+        private final LongAdder numTasks = new LongAdder();
+        private final LongAdder totalExecutionTimeNanos = new LongAdder();
+        private final AtomicLong maxExecutionTimeNanos = new AtomicLong();
+
+        private void add(long executionTimeNanos) {
+            histogram.incrementAndGet(getHistogramBucket(TimeUnit.NANOSECONDS.toMillis(executionTimeNanos)));
+            numTasks.increment();
+            totalExecutionTimeNanos.add(executionTimeNanos);
+            maxExecutionTimeNanos.accumulateAndGet(executionTimeNanos, Math::max);
+        }
+
+        public long[] getHistogram() {
+            return IntStream.range(0, NUM_HISTOGRAM_BUCKETS).mapToLong(histogram::get).toArray();
+        }
+
+        public long getNumTasks() {
+            return numTasks.sum();
+        }
+
+        public long getTotalExecutionTimeMs() {
+            return TimeUnit.NANOSECONDS.toMillis(totalExecutionTimeNanos.sum());
+        }
+
+        public long getMaxExecutionTimeMs() {
+            return TimeUnit.NANOSECONDS.toMillis(maxExecutionTimeNanos.get());
+        }
+
+        @Override
+        public String toString() {
+            return "numTasks=" + getNumTasks() +
+                    ", totalExecutionTimeMs=" + getTotalExecutionTimeMs() +
+                    ", maxExecutionTimeMs=" + getMaxExecutionTimeMs();
+        }
+    }
+
+    @Getter
+    private final Executor delegate;
+    private final long slowTaskThresholdNanos;
+    private final Map<String, TaskStats> taskStatsByCallSite = new ConcurrentHashMap<>();
+    private final AtomicInteger queueSize = new AtomicInteger();
+    private final LongAdder numQueuedTasks = new LongAdder();
+    private final LongAdder totalQueueLatencyNanos = new LongAdder();
+    private final LongAdder numSlowTasks = new LongAdder();
+    private final Deque<SlowTask> recentSlowTasks = new ArrayDeque<>();
+
+    public InstrumentedExecutor(Executor delegate, long slowTaskThresholdMs) {
+        this.delegate = delegate;
+        this.slowTaskThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowTaskThresholdMs);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Executor
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public void execute(Runnable command) {
+        execute(command, true);
+    }
+
+    private void execute(Runnable command, boolean recordExecution) {
+        String callSite = recordExecution ? getCallSite() : null;
+        long submitTime = System.nanoTime();
+        queueSize.incrementAndGet();
+        delegate.execute(() -> {
+            queueSize.decrementAndGet();
+            long startTime = System.nanoTime();
+            long queueLatency = startTime - submitTime;
+            numQueuedTasks.increment();
+            totalQueueLatencyNanos.add(queueLatency);
+            try {
+                command.run();
+            } finally {
+                if (recordExecution) {
+                    onTaskCompleted(callSite, queueLatency, System.nanoTime() - startTime);
+                }
+            }
+        });
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    // Used for the timers, which get dispatched from the timer implementations instead of their call site
+    Runnable wrap(Runnable runnable) {
+        String callSite = getCallSite();
+        return () -> {
+            long startTime = System.nanoTime();
+            try {
+                runnable.run();
+            } finally {
+                onTaskCompleted(callSite, 0, System.nanoTime() - startTime);
+            }
+        };
+    }
+
+    // Used by the timer implementations for dispatching the due timers, which were wrapped when they got scheduled
+    void executeTimerDispatch(Runnable command) {
+        execute(command, false);
+    }
+
+    public int getQueueSize() {
+        return queueSize.get();
+    }
+
+    public long getAverageQueueLatencyMs() {
+        long numTasks = numQueuedTasks.sum();
+        return numTasks > 0 ? TimeUnit.NANOSECONDS.toMillis(totalQueueLatencyNanos.sum() / numTasks) : 0;
+    }
+
+    public long getNumSlowTasks() {
+        return numSlowTasks.sum();
+    }
+
+    public List<SlowTask> getRecentSlowTasks() {
+        synchronized (recentSlowTasks) {
+            return new ArrayList<>(recentSlowTasks);
+        }
+    }
+
+    public Optional<SlowTask> getSlowestRecentTask() {
+        return getRecentSlowTasks().stream().max(Comparator.comparingLong(SlowTask::getExecutionTimeMs));
+    }
+
+    public Map<String, TaskStats> getTaskStatsByCallSite() {
+        return Map.copyOf(taskStatsByCallSite);
+    }
+
+    public void logSummary(int numCallSites) {
+        String topCallSites = taskStatsByCallSite.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, TaskStats> e) ->
+                        e.getValue().getTotalExecutionTimeMs()).reversed())
+                .limit(numCallSites)
+                .map(e -> e.getKey() + ": " + e.getValue())
+                .collect(Collectors.joining("\n"));
+        log.info("UserThread queueSize={}, averageQueueLatencyMs={}, numSlowTasks={}. Call sites with the highest " +
+                        "total execution time:\n{}",
+                getQueueSize(), getAverageQueueLatencyMs(), getNumSlowTasks(), topCallSites);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private void onTaskCompleted(String callSite, long queueLatencyNanos, long executionTimeNanos) {
+        taskStatsByCallSite.computeIfAbsent(callSite, key -> new TaskStats()).add(executionTimeNanos);
+        if (executionTimeNanos >= slowTaskThresholdNanos) {
+            numSlowTasks.increment();
+            SlowTask slowTask = new SlowTask(callSite,
+                    TimeUnit.NANOSECONDS.toMillis(queueLatencyNanos),
+                    TimeUnit.NANOSECONDS.toMillis(executionTimeNanos),
+                    System.currentTimeMillis());
+            synchronized (recentSlowTasks) {
+                if (recentSlowTasks.size() == MAX_RECENT_SLOW_TASKS) {
+                    recentSlowTasks.removeFirst();
+                }
+                recentSlowTasks.addLast(slowTask);
+            }
+            log.warn("Slow task on UserThread from {} took {} ms after waiting {} ms in the queue",
+                    callSite, slowTask.getExecutionTimeMs(), slowTask.getQueueLatencyMs());
+        }
+    }
+
+    static int getHistogramBucket(long executionTimeMs) {
+        return Math.min(64 - Long.numberOfLeadingZeros(executionTimeMs), NUM_HISTOGRAM_BUCKETS - 1);
+    }
+
+    private static String getCallSite() {
+        return STACK_WALKER.walk(frames -> frames
+                .filter(frame -> !SKIPPED_CLASS_NAMES.contains(frame.getClassName()))
+                .findFirst()
+                .map(frame -> frame.getClassName() + "." + frame.getMethodName() + ":" + frame.getLineNumber())
+                .orElse("unknown"));
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.function.LongSupplier;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Hashed timing wheel. The entries are kept in doubly linked lists in the slot of their deadline tick, so scheduling
+ * and cancelling is O(1) and a tick only visits the entries of one slot. Entries with a deadline more than one
+ * revolution ahead stay in their slot until their tick is reached.
+ * <p/>
+ * The actions of all entries which are due at a tick are passed to the dispatcher as a single task.
+ */
+@ThreadSafe
+class TimingWheel {
+    static class Entry {
+        private final Runnable action;
+        private long deadlineTick;
+        private int slot = -1;
+        private Entry prev, next;
+
+        Entry(Runnable action) {
+            this.action = action;
+        }
+    }
+
+    private final long tickMs;
+    private final int mask;
+    private final Entry[] slots;
+    private final LongSupplier clock;
+    private final Executor dispatcher;
+    private final long startMs;
+    // The last processed tick
+    private long currentTick;
+    private int size;
+
+    TimingWheel(long tickMs, int numSlots, LongSupplier clock, Executor dispatcher) {
+        checkArgument(tickMs > 0, "tickMs must be positive");
+        checkArgument(Integer.bitCount(numSlots) == 1, "numSlots must be a power of two");
+        this.tickMs = tickMs;
+        this.mask = numSlots - 1;
+        this.slots = new Entry[numSlots];
+        this.clock = clock;
+        this.dispatcher = dispatcher;
+        this.startMs = clock.getAsLong();
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    long now() {
+        return clock.getAsLong();
+    }
+
+    // Reschedules the entry if it is already scheduled
+    synchronized void schedule(Entry entry, long delayMs) {
+        if (entry.slot >= 0) {
+            unlink(entry);
+        }
+        long deadlineTick = Math.floorDiv(now() + delayMs - startMs + tickMs - 1, tickMs);
+        entry.deadlineTick = Math.max(deadlineTick, currentTick + 1);
+        link(entry, (int) (entry.deadlineTick & mask));
+    }
+
+    synchronized void cancel(Entry entry) {
+        if (entry.slot >= 0) {
+            unlink(entry);
+        }
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    // Processes all ticks up to the current time. If we fell behind more than one revolution, a single revolution
+    // visits all slots.
+    void advance() {
+        List<Runnable> dueActions = new ArrayList<>();
+        synchronized (this) {
+            long targetTick = Math.floorDiv(now() - startMs, tickMs);
+            for (long tick = Math.max(currentTick + 1, targetTick - mask); tick <= targetTick; tick++) {
+                Entry entry = slots[(int) (tick & mask)];
+                while (entry != null) {
+                    Entry next = entry.next;
+                    if (entry.deadlineTick <= targetTick) {
+                        unlink(entry);
+                        dueActions.add(entry.action);
+                    }
+                    entry = next;
+                }
+            }
+            currentTick = Math.max(currentTick, targetTick);
+        }
+        if (!dueActions.isEmpty()) {
+            dispatcher.execute(() -> dueActions.forEach(Runnable::run));
+        }
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private void link(Entry entry, int slot) {
+        entry.slot = slot;
+        entry.prev = null;
+        entry.next = slots[slot];
+        if (entry.next != null) {
+            entry.next.prev = entry;
+        }
+        slots[slot] = entry;
+        size++;
+    }
+
+    private void unlink(Entry entry) {
+        if (entry.prev != null) {
+            entry.prev.next = entry.next;
+        } else {
+            slots[entry.slot] = entry.next;
+        }
+        if (entry.next != null) {
+            entry.next.prev = entry.prev;
+        }
+        entry.slot = -1;
+        entry.prev = entry.next = null;
+        size--;
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.time.Duration;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Alternative to the {@link FrameRateTimer} for headless apps with many concurrent timers, like the seed node.
+ * Instead of running all registered timers at each frame, the timers are kept in a shared {@link TimingWheel} and
+ * only the due timers get dispatched to the UserThread. Scheduling and stopping a timer is O(1).
+ * <p/>
+ * Selected with {@code UserThread.setTimerClass(TimingWheelTimer.class)}.
+ */
+@Slf4j
+public class TimingWheelTimer implements Timer {
+    private static final int NUM_SLOTS = 512;
+
+    private static class TimingWheelHolder {
+        private static final TimingWheel TIMING_WHEEL = new TimingWheel(MasterTimer.FRAME_INTERVAL_MS,
+                NUM_SLOTS,
+                System::currentTimeMillis,
+                UserThread::executeTimerDispatch);
+
+        static {
+            ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                    .setNameFormat("TimingWheelTimer")
+                    .setDaemon(true)
+                    .build());
+            executor.scheduleAtFixedRate(() -> {
+                try {
+                    TIMING_WHEEL.advance();
+                } catch (Throwable t) {
+                    log.error("Exception at advancing timing wheel", t);
+                }
+            }, MasterTimer.FRAME_INTERVAL_MS, MasterTimer.FRAME_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private final TimingWheel timingWheel;
+    private TimingWheel.Entry entry;
+    private volatile boolean stopped;
+
+    public TimingWheelTimer() {
+        this(TimingWheelHolder.TIMING_WHEEL);
+    }
+
+    @VisibleForTesting
+    TimingWheelTimer(TimingWheel timingWheel) {
+        this.timingWheel = timingWheel;
+    }
+
+    @Override
+    public Timer runLater(Duration delay, Runnable runnable) {
+        entry = new TimingWheel.Entry(() -> onTimeout(runnable, -1));
+        timingWheel.schedule(entry, delay.toMillis());
+        return this;
+    }
+
+    @Override
+    public Timer runPeriodically(Duration interval, Runnable runnable) {
+        long intervalMs = interval.toMillis();
+        entry = new TimingWheel.Entry(() -> onTimeout(runnable, intervalMs));
+        timingWheel.schedule(entry, intervalMs);
+        return this;
+    }
+
+    @Override
+    public void stop() {
+        stopped = true;
+        if (entry != null) {
+            timingWheel.cancel(entry);
+        }
+    }
+
+    // Called on the UserThread
+    private void onTimeout(Runnable runnable, long intervalMs) {
+        if (stopped) {
+            return;
+        }
+        try {
+            runnable.run();
+        } catch (Throwable t) {
+            log.error("exception in TimingWheelTimer", t);
+            stop();
+            return;
+        }
+        // Like at the FrameRateTimer the next interval starts after the execution
+        if (intervalMs >= 0 && !stopped) {
+            timingWheel.schedule(entry, intervalMs);
+        } else {
+            stopped = true;
+        }
+    }
+}
@@ -58,10 +58,31 @@ public class UserThread {
         timerClass = FrameRateTimer.class;
     }
 
+    /**
+     * Wraps the current executor with an {@link InstrumentedExecutor}, which logs the tasks taking longer than
+     * slowTaskThresholdMs and keeps statistics about the tasks per call site.
+     */
+    public static InstrumentedExecutor instrumentExecutor(long slowTaskThresholdMs) {
+        InstrumentedExecutor instrumentedExecutor = new InstrumentedExecutor(executor, slowTaskThresholdMs);
+        executor = instrumentedExecutor;
+        log.info("Instrumented UserThread executor with slow task threshold of {} ms", slowTaskThresholdMs);
+        return instrumentedExecutor;
+    }
+
     public static void execute(Runnable command) {
         UserThread.executor.execute(command);
     }
 
+    // Used by the timer implementations for running the due timers on the UserThread. The timer runnables are already
+    // instrumented when they get scheduled, so we do not instrument the dispatching task again.
+    static void executeTimerDispatch(Runnable command) {
+        if (executor instanceof InstrumentedExecutor) {
+            ((InstrumentedExecutor) executor).executeTimerDispatch(command);
+        } else {
+            executor.execute(command);
+        }
+    }
+
     // Prefer FxTimer if a delay is needed in a JavaFx class (gui module)
     public static Timer runAfterRandomDelay(Runnable runnable, long minDelayInSec, long maxDelayInSec) {
         return UserThread.runAfterRandomDelay(runnable, minDelayInSec, maxDelayInSec, TimeUnit.SECONDS);
@@ -77,7 +98,7 @@ public class UserThread {
     }
 
     public static Timer runAfter(Runnable runnable, long delay, TimeUnit timeUnit) {
-        return getTimer().runLater(Duration.ofMillis(timeUnit.toMillis(delay)), runnable);
+        return getTimer().runLater(Duration.ofMillis(timeUnit.toMillis(delay)), maybeInstrument(runnable));
     }
 
     public static Timer runPeriodically(Runnable runnable, long intervalInSec) {
@@ -85,7 +106,11 @@ public class UserThread {
     }
 
     public static Timer runPeriodically(Runnable runnable, long interval, TimeUnit timeUnit) {
-        return getTimer().runPeriodically(Duration.ofMillis(timeUnit.toMillis(interval)), runnable);
+        return getTimer().runPeriodically(Duration.ofMillis(timeUnit.toMillis(interval)), maybeInstrument(runnable));
+    }
+
+    private static Runnable maybeInstrument(Runnable runnable) {
+        return executor instanceof InstrumentedExecutor ? ((InstrumentedExecutor) executor).wrap(runnable) : runnable;
     }
 
     private static Timer getTimer() {
@@ -81,6 +81,7 @@ public class Config {
     public static final String BAN_LIST = "banList";
     public static final String NODE_PORT = "nodePort";
     public static final String USE_LOCALHOST_FOR_P2P = "useLocalhostForP2P";
+    public static final String USE_NIO_NETWORK_ENGINE = "useNioNetworkEngine";
     public static final String MAX_CONNECTIONS = "maxConnections";
     public static final String SOCKS_5_PROXY_BTC_ADDRESS = "socks5ProxyBtcAddress";
     public static final String SOCKS_5_PROXY_HTTP_ADDRESS = "socks5ProxyHttpAddress";
@@ -109,8 +110,12 @@ public class Config {
     public static final String RPC_PORT = "rpcPort";
     public static final String RPC_BLOCK_NOTIFICATION_PORT = "rpcBlockNotificationPort";
     public static final String RPC_BLOCK_NOTIFICATION_HOST = "rpcBlockNotificationHost";
+    public static final String RPC_BLOCK_BATCH_SIZE = "rpcBlockBatchSize";
     public static final String DUMP_BLOCKCHAIN_DATA = "dumpBlockchainData";
+    public static final String DUMP_BLOCKCHAIN_DATA_INCREMENTAL = "dumpBlockchainDataIncremental";
     public static final String FULL_DAO_NODE = "fullDaoNode";
+    public static final String USE_INCREMENTAL_DAO_STATE_HASH = "useIncrementalDaoStateHash";
+    public static final String USE_DAO_STATE_DELTA_SNAPSHOTS = "useDaoStateDeltaSnapshots";
     public static final String GENESIS_TX_ID = "genesisTxId";
     public static final String GENESIS_BLOCK_HEIGHT = "genesisBlockHeight";
     public static final String GENESIS_TOTAL_SUPPLY = "genesisTotalSupply";
@@ -127,6 +132,8 @@ public class Config {
     public static final String BTC_FEES_TS = "bitcoinFeesTs";
     public static final String BTC_FEE_INFO = "bitcoinFeeInfo";
     public static final String BYPASS_MEMPOOL_VALIDATION = "bypassMempoolValidation";
+    public static final String USER_THREAD_SLOW_TASK_THRESHOLD_MS = "userThreadSlowTaskThresholdMs";
+    public static final String USE_JOURNALED_PERSISTENCE = "useJournaledPersistence";
 
     // Default values for certain options
     public static final int UNSPECIFIED_PORT = -1;
@@ -177,6 +184,7 @@ public class Config {
     public final List<String> seedNodes;
     public final List<String> banList;
     public final boolean useLocalhostForP2P;
+    public final boolean useNioNetworkEngine;
     public final int maxConnections;
     public final String socks5ProxyBtcAddress;
     public final String socks5ProxyHttpAddress;
@@ -204,9 +212,13 @@ public class Config {
     public final int rpcPort;
     public final int rpcBlockNotificationPort;
     public final String rpcBlockNotificationHost;
+    public final int rpcBlockBatchSize;
     public final boolean dumpBlockchainData;
+    public final boolean dumpBlockchainDataIncremental;
     public final boolean fullDaoNode;
     public final boolean fullDaoNodeOptionSetExplicitly;
+    public final boolean useIncrementalDaoStateHash;
+    public final boolean useDaoStateDeltaSnapshots;
     public final String genesisTxId;
     public final int genesisBlockHeight;
     public final long genesisTotalSupply;
@@ -217,6 +229,8 @@ public class Config {
     public final boolean preventPeriodicShutdownAtSeedNode;
     public final boolean republishMailboxEntries;
     public final boolean bypassMempoolValidation;
+    public final int userThreadSlowTaskThresholdMs;
+    public final boolean useJournaledPersistence;
 
     // Properties derived from options but not exposed as options themselves
     public final File torDir;
@@ -425,6 +439,14 @@ public class Config {
                         .ofType(boolean.class)
                         .defaultsTo(false);
 
+        ArgumentAcceptingOptionSpec<Boolean> useNioNetworkEngineOpt =
+                parser.accepts(USE_NIO_NETWORK_ENGINE, "Read the messages of all connections with a few selector " +
+                        "threads instead of a thread per connection. Only supported with useLocalhostForP2P.")
+                        .availableIf(USE_LOCALHOST_FOR_P2P)
+                        .withRequiredArg()
+                        .ofType(boolean.class)
+                        .defaultsTo(false);
+
         ArgumentAcceptingOptionSpec<Integer> maxConnectionsOpt =
                 parser.accepts(MAX_CONNECTIONS, "Max. connections a peer will try to keep")
                         .withRequiredArg()
@@ -506,16 +528,16 @@ public class Config {
                         .defaultsTo(1000);
 
         ArgumentAcceptingOptionSpec<Integer> sendMsgThrottleTriggerOpt =
-                parser.accepts(SEND_MSG_THROTTLE_TRIGGER, "Time in ms when we trigger a sleep if 2 messages are sent")
+                parser.accepts(SEND_MSG_THROTTLE_TRIGGER, "Min. average time in ms between 2 messages sent to a peer")
                         .withRequiredArg()
                         .ofType(int.class)
-                        .defaultsTo(20); // Time in ms when we trigger a sleep if 2 messages are sent
+                        .defaultsTo(20); // Rate limit of the outbound queue of a connection
 
         ArgumentAcceptingOptionSpec<Integer> sendMsgThrottleSleepOpt =
-                parser.accepts(SEND_MSG_THROTTLE_SLEEP, "Pause in ms to sleep if we get too many messages to send")
+                parser.accepts(SEND_MSG_THROTTLE_SLEEP, "Time in ms worth of messages which can be sent to a peer in a burst")
                         .withRequiredArg()
                         .ofType(int.class)
-                        .defaultsTo(50); // Pause in ms to sleep if we get too many messages to send
+                        .defaultsTo(50); // Burst size of the outbound queue is sendMsgThrottleSleep / sendMsgThrottleTrigger
 
         ArgumentAcceptingOptionSpec<String> btcNodesOpt =
                 parser.accepts(BTC_NODES, "Custom nodes used for BitcoinJ as comma separated IP addresses.")
@@ -588,6 +610,15 @@ public class Config {
                         .withRequiredArg()
                         .defaultsTo("");
 
+        ArgumentAcceptingOptionSpec<Integer> rpcBlockBatchSizeOpt =
+                parser.accepts(RPC_BLOCK_BATCH_SIZE, "Number of blocks requested in one JSON-RPC batch request " +
+                        "from Bitcoin Core at parsing of past blocks by a DAO full node. If set to a value > 0 " +
+                        "multiple batches are requested ahead while blocks are parsed. 0 requests one block after " +
+                        "another.")
+                        .withRequiredArg()
+                        .ofType(int.class)
+                        .defaultsTo(0);
+
         ArgumentAcceptingOptionSpec<Boolean> dumpBlockchainDataOpt =
                 parser.accepts(DUMP_BLOCKCHAIN_DATA, "If set to true the blockchain data " +
                         "from RPC requests to Bitcoin Core are stored as json file in the data dir.")
@@ -595,6 +626,17 @@ public class Config {
                         .ofType(boolean.class)
                         .defaultsTo(false);
 
+        ArgumentAcceptingOptionSpec<Boolean> dumpBlockchainDataIncrementalOpt =
+                parser.accepts(DUMP_BLOCKCHAIN_DATA_INCREMENTAL, "If set to true together with " +
+                        DUMP_BLOCKCHAIN_DATA + " only the json files of the txs and tx outputs changed by a new " +
+                        "block are written instead of rewriting all files at each block. Note that this changes the " +
+                        "format of the blocks: Instead of json/all/blocks.json the json lines file " +
+                        "json/all/blocks.jsonl with one block per line is written, to which the new blocks get " +
+                        "appended.")
+                        .withRequiredArg()
+                        .ofType(boolean.class)
+                        .defaultsTo(false);
+
         ArgumentAcceptingOptionSpec<Boolean> fullDaoNodeOpt =
                 parser.accepts(FULL_DAO_NODE, "If set to true the node requests the blockchain data via RPC requests " +
                         "from Bitcoin Core and provide the validated BSQ txs to the network. It requires that the " +
@@ -603,6 +645,22 @@ public class Config {
                         .ofType(Boolean.class)
                         .defaultsTo(DEFAULT_FULL_DAO_NODE);
 
+        ArgumentAcceptingOptionSpec<Boolean> useIncrementalDaoStateHashOpt =
+                parser.accepts(USE_INCREMENTAL_DAO_STATE_HASH, "If set to true the DAO state hashes of the full mode " +
+                        "DAO monitor are created from an incrementally maintained commitment instead of the " +
+                        "serialized DAO state. Those hashes are only comparable with nodes using that mode as well.")
+                        .withRequiredArg()
+                        .ofType(boolean.class)
+                        .defaultsTo(false);
+
+        ArgumentAcceptingOptionSpec<Boolean> useDaoStateDeltaSnapshotsOpt =
+                parser.accepts(USE_DAO_STATE_DELTA_SNAPSHOTS, "If set to true DAO state snapshots only persist the " +
+                        "changes since the previous snapshot instead of the full DAO state. A full snapshot is " +
+                        "written periodically to compact the deltas.")
+                        .withRequiredArg()
+                        .ofType(boolean.class)
+                        .defaultsTo(false);
+
         ArgumentAcceptingOptionSpec<String> genesisTxIdOpt =
                 parser.accepts(GENESIS_TX_ID, "Genesis transaction ID when not using the hard coded one")
                         .withRequiredArg()
@@ -672,6 +730,22 @@ public class Config {
                         .ofType(boolean.class)
                         .defaultsTo(false);
 
+        ArgumentAcceptingOptionSpec<Integer> userThreadSlowTaskThresholdMsOpt =
+                parser.accepts(USER_THREAD_SLOW_TASK_THRESHOLD_MS,
+                        "If set to a value > 0 the tasks of the user thread get instrumented and tasks which " +
+                                "take longer than the given ms get logged with their call site")
+                        .withRequiredArg()
+                        .ofType(int.class)
+                        .defaultsTo(0);
+
+        ArgumentAcceptingOptionSpec<Boolean> useJournaledPersistenceOpt =
+                parser.accepts(USE_JOURNALED_PERSISTENCE,
+                        "If set to true, changes of large data stores like the trade statistics get appended to a " +
+                                "journal file instead of rewriting the whole file [experimental]")
+                        .withRequiredArg()
+                        .ofType(boolean.class)
+                        .defaultsTo(false);
+
         try {
             CompositeOptionSet options = new CompositeOptionSet();
 
@@ -756,6 +830,7 @@ public class Config {
             this.seedNodes = options.valuesOf(seedNodesOpt);
             this.banList = options.valuesOf(banListOpt);
             this.useLocalhostForP2P = !this.baseCurrencyNetwork.isMainnet() && options.valueOf(useLocalhostForP2POpt);
+            this.useNioNetworkEngine = options.valueOf(useNioNetworkEngineOpt);
             this.maxConnections = options.valueOf(maxConnectionsOpt);
             this.socks5ProxyBtcAddress = options.valueOf(socks5ProxyBtcAddressOpt);
             this.socks5ProxyHttpAddress = options.valueOf(socks5ProxyHttpAddressOpt);
@@ -776,9 +851,13 @@ public class Config {
             this.rpcPort = options.valueOf(rpcPortOpt);
             this.rpcBlockNotificationPort = options.valueOf(rpcBlockNotificationPortOpt);
             this.rpcBlockNotificationHost = options.valueOf(rpcBlockNotificationHostOpt);
+            this.rpcBlockBatchSize = options.valueOf(rpcBlockBatchSizeOpt);
             this.dumpBlockchainData = options.valueOf(dumpBlockchainDataOpt);
+            this.dumpBlockchainDataIncremental = options.valueOf(dumpBlockchainDataIncrementalOpt);
             this.fullDaoNode = options.valueOf(fullDaoNodeOpt);
             this.fullDaoNodeOptionSetExplicitly = options.has(fullDaoNodeOpt);
+            this.useIncrementalDaoStateHash = options.valueOf(useIncrementalDaoStateHashOpt);
+            this.useDaoStateDeltaSnapshots = options.valueOf(useDaoStateDeltaSnapshotsOpt);
             this.genesisTxId = options.valueOf(genesisTxIdOpt);
             this.genesisBlockHeight = options.valueOf(genesisBlockHeightOpt);
             this.genesisTotalSupply = options.valueOf(genesisTotalSupplyOpt);
@@ -790,6 +869,8 @@ public class Config {
             this.preventPeriodicShutdownAtSeedNode = options.valueOf(preventPeriodicShutdownAtSeedNodeOpt);
             this.republishMailboxEntries = options.valueOf(republishMailboxEntriesOpt);
             this.bypassMempoolValidation = options.valueOf(bypassMempoolValidationOpt);
+            this.userThreadSlowTaskThresholdMs = options.valueOf(userThreadSlowTaskThresholdMsOpt);
+            this.useJournaledPersistence = options.valueOf(useJournaledPersistenceOpt);
         } catch (OptionException ex) {
             throw new ConfigException("problem parsing option '%s': %s",
                     ex.options().get(0),
@@ -20,8 +20,6 @@ package bisq.common.crypto;
 import bisq.common.util.Utilities;
 
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.collect.ListMultimap;
-import com.google.common.collect.MultimapBuilder;
 import com.google.common.primitives.Bytes;
 import com.google.common.primitives.ImmutableIntArray;
 import com.google.common.primitives.Ints;
@@ -38,10 +36,10 @@ import java.math.BigInteger;
 import java.util.ArrayDeque;
 import java.util.Arrays;
 import java.util.Deque;
-import java.util.Iterator;
-import java.util.NoSuchElementException;
 import java.util.Optional;
-import java.util.PrimitiveIterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
@@ -216,6 +214,32 @@ public class Equihash {
             }
         }
 
+        /**
+         * Searches the nonces in parallel on the common fork-join pool. Each worker takes the next unsearched
+         * nonce until a solution is found at a lower nonce, so we return the same solution as {@link #findSolution}.
+         */
+        public Solution findSolutionInParallel() {
+            AtomicLong nextNonce = new AtomicLong();
+            AtomicReference<Solution> bestSolution = new AtomicReference<>();
+            IntStream.range(0, ForkJoinPool.getCommonPoolParallelism()).parallel()
+                    .forEach(i -> searchNonces(nextNonce, bestSolution));
+            return bestSolution.get();
+        }
+
+        private void searchNonces(AtomicLong nextNonce, AtomicReference<Solution> bestSolution) {
+            while (true) {
+                long nonce = nextNonce.getAndIncrement();
+                Solution solution = bestSolution.get();
+                if (solution != null && solution.nonce < nonce) {
+                    return;
+                }
+                withHashPrefix(seed, nonce).findInputs().ifPresent(inputs ->
+                        bestSolution.accumulateAndGet(new Solution(nonce, inputs),
+                                (previous, found) -> previous == null || found.nonce < previous.nonce ?
+                                        found : previous));
+            }
+        }
+
         @VisibleForTesting
         int countAllSolutionsForNonce(long nonce) {
             return (int) withHashPrefix(seed, nonce).streamInputsHits()
@@ -263,11 +287,16 @@ public class Equihash {
         }
 
         private XorTable computeAllHashes() {
-            var tableValues = IntStream.range(0, N).flatMap(i -> {
+            int rowWidth = k + 2;
+            int[] tableValues = new int[N * rowWidth];
+            IntStream.range(0, N).parallel().forEach(i -> {
                 int[] hash = hashInputs(i);
-                return IntStream.range(0, k + 2).map(j -> j <= k ? hash[j] & (N / 2 - 1) : i);
+                for (int j = 0; j <= k; j++) {
+                    tableValues[i * rowWidth + j] = hash[j] & (N / 2 - 1);
+                }
+                tableValues[i * rowWidth + k + 1] = i;
             });
-            return new XorTable(k + 1, 1, ImmutableIntArray.copyOf(tableValues.parallel()));
+            return new XorTable(k + 1, 1, tableValues, tableValues.length);
         }
 
         private boolean testDifficultyCondition(int[] inputs) {
@@ -304,98 +333,113 @@ public class Equihash {
         }
     }
 
+    // The rows are stored flat in an int array, so the collision search does not need to box or allocate per row.
     private static class XorTable {
         private final int hashWidth, indexTupleWidth, rowWidth, numRows;
-        private final ImmutableIntArray values;
+        private final int[] values;
 
-        XorTable(int hashWidth, int indexTupleWidth, ImmutableIntArray values) {
+        XorTable(int hashWidth, int indexTupleWidth, int[] values, int length) {
             this.hashWidth = hashWidth;
             this.indexTupleWidth = indexTupleWidth;
             this.values = values;
             rowWidth = hashWidth + indexTupleWidth;
-            numRows = (values.length() + rowWidth - 1) / rowWidth;
+            numRows = (length + rowWidth - 1) / rowWidth;
         }
 
         ImmutableIntArray getRow(int index) {
-            return values.subArray(index * rowWidth, index * rowWidth + hashWidth + indexTupleWidth);
+            return ImmutableIntArray.copyOf(Arrays.copyOfRange(values, index * rowWidth, (index + 1) * rowWidth));
         }
     }
 
+    // Keeps the row indices with the same key as a linked list in insertion order. The links are stored as
+    // index + 1, so that the zero initialized arrays represent empty lists.
     private static class IntListMultimap {
-        final int[] shortLists;
-        final ListMultimap<Integer, Integer> overspillMultimap;
+        final int[] heads, tails, links;
 
-        IntListMultimap(int keyUpperBound) {
-            shortLists = new int[keyUpperBound * 4];
-            overspillMultimap = MultimapBuilder.hashKeys().arrayListValues().build();
+        IntListMultimap(int keyUpperBound, int valueUpperBound) {
+            heads = new int[keyUpperBound];
+            tails = new int[keyUpperBound];
+            links = new int[valueUpperBound];
         }
 
-        PrimitiveIterator.OfInt get(int key) {
-            return new PrimitiveIterator.OfInt() {
-                int i;
-                Iterator<Integer> overspillIterator;
+        // Returns -1 if there is no value for the key
+        int first(int key) {
+            return heads[key] - 1;
+        }
 
-                private Iterator<Integer> overspillIterator() {
-                    if (overspillIterator == null) {
-                        overspillIterator = overspillMultimap.get(key).iterator();
-                    }
-                    return overspillIterator;
-                }
+        // Returns -1 if there is no further value for the key of the given value
+        int next(int value) {
+            return links[value] - 1;
+        }
 
-                @Override
-                public int nextInt() {
-                    if (!hasNext()) {
-                        throw new NoSuchElementException();
-                    }
-                    return i < 4 ? ~shortLists[key * 4 + i++] : overspillIterator().next();
-                }
+        // assumes non-negative values which are put only once:
+        void put(int key, int value) {
+            if (tails[key] == 0) {
+                heads[key] = value + 1;
+            } else {
+                links[tails[key] - 1] = value + 1;
+            }
+            tails[key] = value + 1;
+        }
+    }
 
-                @Override
-                public boolean hasNext() {
-                    return i < 4 && shortLists[key * 4 + i] < 0 || i == 4 && overspillIterator().hasNext();
-                }
-            };
+    private static class IntArrayBuilder {
+        private int[] values;
+        private int length;
+
+        IntArrayBuilder(int initialCapacity) {
+            values = new int[Math.max(initialCapacity, 16)];
         }
 
-        // assumes non-negative values only:
-        void put(int key, int value) {
-            for (int i = 0; i < 4; i++) {
-                if (shortLists[key * 4 + i] == 0) {
-                    shortLists[key * 4 + i] = ~value;
-                    return;
-                }
+        void add(int value) {
+            ensureCapacity(1);
+            values[length++] = value;
+        }
+
+        void addAll(int[] source, int from, int count) {
+            ensureCapacity(count);
+            System.arraycopy(source, from, values, length, count);
+            length += count;
+        }
+
+        private void ensureCapacity(int count) {
+            if (length + count > values.length) {
+                values = Arrays.copyOf(values, Math.max(values.length * 2, length + count));
             }
-            overspillMultimap.put(key, value);
         }
     }
 
     // Apply a single iteration of Wagner's Algorithm.
     private XorTable findCollisions(XorTable table, boolean isPartial) {
-        int newHashWidth = isPartial ? table.hashWidth - 1 : 0;
-        int newIndexTupleWidth = table.indexTupleWidth * 2;
+        int hashWidth = table.hashWidth;
+        int indexTupleWidth = table.indexTupleWidth;
+        int rowWidth = table.rowWidth;
+        int[] values = table.values;
+        int newHashWidth = isPartial ? hashWidth - 1 : 0;
+        int newIndexTupleWidth = indexTupleWidth * 2;
         int newRowWidth = newHashWidth + newIndexTupleWidth;
-        var newTableValues = ImmutableIntArray.builder(
-                newRowWidth * (isPartial ? tableCapacity : 10));
+        var newTableValues = new IntArrayBuilder(newRowWidth * (isPartial ? tableCapacity : 10));
 
-        var indexMultimap = new IntListMultimap(N / 2);
+        var indexMultimap = new IntListMultimap(N / 2, table.numRows);
         for (int i = 0; i < table.numRows; i++) {
-            var row = table.getRow(i);
-            var collisionIndices = indexMultimap.get(row.get(0));
-            while (collisionIndices.hasNext()) {
-                var collidingRow = table.getRow(collisionIndices.nextInt());
+            int rowOffset = i * rowWidth;
+            int key = values[rowOffset];
+            for (int c = indexMultimap.first(key); c >= 0; c = indexMultimap.next(c)) {
+                int collidingRowOffset = c * rowWidth;
                 if (isPartial) {
-                    for (int j = 1; j < table.hashWidth; j++) {
-                        newTableValues.add(collidingRow.get(j) ^ row.get(j));
+                    for (int j = 1; j < hashWidth; j++) {
+                        newTableValues.add(values[collidingRowOffset + j] ^ values[rowOffset + j]);
                     }
-                } else if (!collidingRow.subArray(1, table.hashWidth).equals(row.subArray(1, table.hashWidth))) {
+                } else if (!Arrays.equals(values, collidingRowOffset + 1, collidingRowOffset + hashWidth,
+                        values, rowOffset + 1, rowOffset + hashWidth)) {
                     continue;
                 }
-                newTableValues.addAll(collidingRow.subArray(table.hashWidth, collidingRow.length()));
-                newTableValues.addAll(row.subArray(table.hashWidth, row.length()));
+                newTableValues.addAll(values, collidingRowOffset + hashWidth, indexTupleWidth);
+                newTableValues.addAll(values, rowOffset + hashWidth, indexTupleWidth);
             }
-            indexMultimap.put(row.get(0), i);
+            indexMultimap.put(key, i);
         }
-        return new XorTable(newHashWidth, newIndexTupleWidth, newTableValues.build());
+        return new XorTable(newHashWidth, newIndexTupleWidth, newTableValues.values, newTableValues.length);
     }
 
     private static int[] sortInputs(int[] inputs) {
@@ -42,7 +42,8 @@ public class EquihashProofOfWorkService extends ProofOfWorkService {
         return CompletableFuture.supplyAsync(() -> {
             long ts = System.currentTimeMillis();
             byte[] seed = getSeed(payload, challenge);
-            byte[] solution = new Equihash(90, 5, scaledDifficulty).puzzle(seed).findSolution().serialize();
+            byte[] solution = new Equihash(90, 5, scaledDifficulty).puzzle(seed).findSolutionInParallel()
+                    .serialize();
             long counter = Longs.fromByteArray(Arrays.copyOf(solution, 8));
             var proofOfWork = new ProofOfWork(payload, counter, challenge, difficulty,
                     System.currentTimeMillis() - ts, solution, getVersion());
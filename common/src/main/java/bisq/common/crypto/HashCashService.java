@@ -18,11 +18,21 @@
 package bisq.common.crypto;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.primitives.Bytes;
 import com.google.common.primitives.Longs;
 
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
 import java.nio.charset.StandardCharsets;
 
+import java.util.Arrays;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -34,6 +44,10 @@ import lombok.extern.slf4j.Slf4j;
  */
 @Slf4j
 public class HashCashService extends ProofOfWorkService {
+    // Below 2^12 expected hashes the minting takes only a few ms, which does not pay off the thread handover
+    @VisibleForTesting
+    static final int MIN_LOG2_DIFFICULTY_FOR_PARALLEL_MINTING = 12;
+
     HashCashService() {
         super(0);
     }
@@ -42,21 +56,76 @@ public class HashCashService extends ProofOfWorkService {
     public CompletableFuture<ProofOfWork> mint(byte[] payload,
                                                byte[] challenge,
                                                double difficulty) {
-        return CompletableFuture.supplyAsync(() -> {
-            long ts = System.currentTimeMillis();
-            int log2Difficulty = toNumLeadingZeros(difficulty);
-            byte[] hash;
-            long counter = 0;
-            do {
-                hash = toSha256Hash(payload, challenge, ++counter);
+        return mint(payload, challenge, difficulty, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Searches the counters on the given pool. Above {@link #MIN_LOG2_DIFFICULTY_FOR_PARALLEL_MINTING} the counter
+     * space is interleaved over {@code pool.getParallelism()} workers, each with its own digest and pre-image buffer.
+     * In both cases we return the lowest valid counter, so the result does not depend on the parallelism.
+     * <p/>
+     * The minting gets aborted if the returned future is cancelled.
+     */
+    @VisibleForTesting
+    CompletableFuture<ProofOfWork> mint(byte[] payload,
+                                        byte[] challenge,
+                                        double difficulty,
+                                        ForkJoinPool pool) {
+        CompletableFuture<ProofOfWork> future = new CompletableFuture<>();
+        pool.execute(() -> {
+            try {
+                long ts = System.currentTimeMillis();
+                int log2Difficulty = toNumLeadingZeros(difficulty);
+                int numWorkers = log2Difficulty >= MIN_LOG2_DIFFICULTY_FOR_PARALLEL_MINTING ? pool.getParallelism() : 1;
+                AtomicLong bestCounter = new AtomicLong(Long.MAX_VALUE);
+                LongAdder numHashes = new LongAdder();
+                IntStream.range(0, numWorkers).parallel().forEach(worker ->
+                        searchCounters(payload, challenge, log2Difficulty, worker + 1, numWorkers,
+                                bestCounter, numHashes, future));
+                if (future.isDone()) {
+                    log.info("Minting proofOfWork got cancelled after {} hashes", numHashes.sum());
+                    return;
+                }
+                long counter = bestCounter.get();
+                byte[] solution = Longs.toByteArray(counter);
+                long duration = System.currentTimeMillis() - ts;
+                ProofOfWork proofOfWork = new ProofOfWork(payload, counter, challenge, difficulty,
+                        duration, solution, 0);
+                log.info("Completed minting proofOfWork with {} hashes/sec on {} threads: {}",
+                        numHashes.sum() * 1000 / Math.max(duration, 1), numWorkers, proofOfWork);
+                future.complete(proofOfWork);
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
             }
-            while (numberOfLeadingZeros(hash) <= log2Difficulty);
-            byte[] solution = Longs.toByteArray(counter);
-            ProofOfWork proofOfWork = new ProofOfWork(payload, counter, challenge, difficulty,
-                    System.currentTimeMillis() - ts, solution, 0);
-            log.info("Completed minting proofOfWork: {}", proofOfWork);
-            return proofOfWork;
         });
+        return future;
+    }
+
+    // Checks the counters firstCounter, firstCounter + stride, ... until a lower or equal valid counter is known
+    private static void searchCounters(byte[] payload,
+                                       byte[] challenge,
+                                       int log2Difficulty,
+                                       long firstCounter,
+                                       int stride,
+                                       AtomicLong bestCounter,
+                                       LongAdder numHashes,
+                                       CompletableFuture<ProofOfWork> future) {
+        MessageDigest digest = getSha256Digest();
+        byte[] preImage = Arrays.copyOf(Bytes.concat(payload, challenge), payload.length + challenge.length + 8);
+        byte[] hash = new byte[32];
+        long numHashesOfWorker = 0;
+        try {
+            for (long counter = firstCounter; counter < bestCounter.get() && !future.isDone(); counter += stride) {
+                toSha256Hash(digest, preImage, counter, hash);
+                numHashesOfWorker++;
+                if (numberOfLeadingZeros(hash) > log2Difficulty) {
+                    bestCounter.accumulateAndGet(counter, Math::min);
+                    return;
+                }
+            }
+        } finally {
+            numHashes.add(numHashesOfWorker);
+        }
     }
 
     @Override
@@ -100,6 +169,29 @@ public class HashCashService extends ProofOfWorkService {
         return Hash.getSha256Hash(preImage);
     }
 
+    // Same as above, but reuses the digest and the buffers. The counter gets written to the last 8 bytes of preImage.
+    private static void toSha256Hash(MessageDigest digest, byte[] preImage, long counter, byte[] hash) {
+        int offset = preImage.length - 8;
+        for (int i = 7; i >= 0; i--) {
+            preImage[offset + i] = (byte) counter;
+            counter >>= 8;
+        }
+        try {
+            digest.update(preImage);
+            digest.digest(hash, 0, hash.length);
+        } catch (DigestException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static MessageDigest getSha256Digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     // Borrowed from Integer.numberOfLeadingZeros and adjusted for byte
     @VisibleForTesting
     static int numberOfLeadingZeros(byte i) {
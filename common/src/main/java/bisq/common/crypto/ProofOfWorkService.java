@@ -22,8 +22,11 @@ import com.google.common.base.Preconditions;
 import java.nio.charset.StandardCharsets;
 
 import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import lombok.Getter;
 
@@ -51,6 +54,15 @@ public abstract class ProofOfWorkService {
 
     abstract boolean verify(ProofOfWork proofOfWork);
 
+    // Verifies the proofs of work on the common fork-join pool, as nodes need to validate many of them at once
+    // (e.g. all BSQ swap offers if the required difficulty changed).
+    boolean[] verify(List<ProofOfWork> proofsOfWork) {
+        boolean[] results = new boolean[proofsOfWork.size()];
+        IntStream.range(0, results.length).parallel()
+                .forEach(i -> results[i] = verify(proofsOfWork.get(i)));
+        return results;
+    }
+
     public byte[] getPayload(String itemId) {
         return itemId.getBytes(StandardCharsets.UTF_8);
     }
@@ -73,4 +85,34 @@ public abstract class ProofOfWorkService {
                 proofOfWork.getDifficulty() >= controlDifficulty &&
                 verify(proofOfWork);
     }
+
+    /**
+     * Batch version of {@link #verify(ProofOfWork, String, String, double)}. The cheap challenge and difficulty
+     * checks are done first, so that only the remaining proofs of work get verified in parallel.
+     *
+     * @return The verification results in the order of the given proofs of work
+     */
+    public boolean[] verify(List<ProofOfWork> proofsOfWork,
+                            List<String> itemIds,
+                            List<String> ownerIds,
+                            double controlDifficulty) {
+
+        Preconditions.checkArgument(proofsOfWork.size() == itemIds.size() && proofsOfWork.size() == ownerIds.size());
+        Preconditions.checkArgument(proofsOfWork.stream().allMatch(proofOfWork -> proofOfWork.getVersion() == version));
+
+        int[] candidates = IntStream.range(0, proofsOfWork.size())
+                .filter(i -> Arrays.equals(proofsOfWork.get(i).getChallenge(),
+                        getChallenge(itemIds.get(i), ownerIds.get(i))))
+                .filter(i -> proofsOfWork.get(i).getDifficulty() >= controlDifficulty)
+                .toArray();
+        boolean[] candidateResults = verify(Arrays.stream(candidates)
+                .mapToObj(proofsOfWork::get)
+                .collect(Collectors.toList()));
+
+        boolean[] results = new boolean[proofsOfWork.size()];
+        for (int i = 0; i < candidates.length; i++) {
+            results[candidates[i]] = candidateResults[i];
+        }
+        return results;
+    }
 }
@@ -0,0 +1,35 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common.persistence;
+
+import bisq.common.proto.persistable.PersistableEnvelope;
+
+/**
+ * A persistable which supports the journaled mode of the {@link PersistenceManager}. Its mutations get appended as
+ * records to a journal file instead of rewriting the whole file. A record is a persistable of the same type which
+ * contains only the changed entries, so the journal can only be used for data which gets added or updated but not
+ * removed by single mutations.
+ */
+public interface JournaledPersistableEnvelope extends PersistableEnvelope {
+    /**
+     * Called when the journal gets replayed after the persisted data has been read.
+     *
+     * @param record A record which got passed to {@link PersistenceManager#appendToJournal}
+     */
+    void applyJournalRecord(PersistableEnvelope record);
+}
@@ -33,15 +33,20 @@ import com.google.inject.Inject;
 
 import javax.inject.Named;
 
+import java.nio.file.Files;
 import java.nio.file.Path;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.RandomAccessFile;
 
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LongSummaryStatistics;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -71,6 +76,19 @@ import static com.google.common.base.Preconditions.checkNotNull;
  * the write operations got triggered way too often specially for the very frequent changes at SequenceNumberMap and
  * the very large DaoState (at dao blockchain sync that slowed down sync).
  *
+ * For large stores which change by single entries, like the SequenceNumberMap or the trade statistics, the journaled
+ * mode can be enabled with the useJournaledPersistence option. In that mode the changed entries are appended to a
+ * journal file at each mutation. The journal gets replayed when reading the persisted data, also if we get initialized
+ * only after reading like by the StoreServices. It gets truncated after the whole persistable has been written, which
+ * happens once MAX_JOURNAL_RECORDS have been appended. The journal only contains added or changed entries, so after
+ * removing entries {@link #requestPersistenceAfterRemoval()} has to be called, which writes the whole persistable
+ * right away. Otherwise the journal replay after a crash would bring back the removed entries from the last written
+ * file.
+ *
+ * Persistables are serialized on the UserThread to avoid concurrent mutations while serializing. Large persistables
+ * which implement {@link SnapshotPersistableEnvelope} only provide a snapshot on the UserThread, which gets serialized
+ * on the write thread. The serialization times are tracked per persistable and logged at shut down.
+ *
  *
  * @param <T>   The type of the {@link PersistableEnvelope} to be written or read from disk
  */
@@ -82,9 +100,19 @@ public class PersistenceManager<T extends PersistableEnvelope> {
     ///////////////////////////////////////////////////////////////////////////////////////////
 
     public static final Map<String, PersistenceManager<?>> ALL_PERSISTENCE_MANAGERS = new HashMap<>();
+    private static final String JOURNAL_FILE_POSTFIX = ".journal";
+    // After that many journal records we write the whole persistable and truncate the journal
+    private static final int MAX_JOURNAL_RECORDS = 10_000;
+    // Max. time we wait at shut down for the write thread to complete the remaining writes
+    private static final long SHUTDOWN_TIMEOUT_SEC = 2;
     private static boolean flushAtShutdownCalled;
+    private static boolean useJournal;
     private static final AtomicBoolean allServicesInitialized = new AtomicBoolean(false);
 
+    public static void setUseJournal(boolean useJournal) {
+        PersistenceManager.useJournal = useJournal;
+    }
+
     public static void onAllServicesInitialized() {
         allServicesInitialized.set(true);
 
@@ -169,10 +197,29 @@ public class PersistenceManager<T extends PersistableEnvelope> {
 
         if (openInstances.decrementAndGet() == 0) {
             log.info("flushAllDataToDisk completed");
+            if (doShutdown) {
+                logSerializationStats();
+            }
             completeHandler.handleResult();
         }
     }
 
+    private static void logSerializationStats() {
+        Map<String, LongSummaryStatistics> statsByFileName = new HashMap<>();
+        ALL_PERSISTENCE_MANAGERS.forEach((fileName, persistenceManager) ->
+                statsByFileName.put(fileName, persistenceManager.getSerializeDurationStats()));
+
+        StringBuilder sb = new StringBuilder("Serialization times (count / average / max msec):");
+        statsByFileName.entrySet().stream()
+                .filter(entry -> entry.getValue().getCount() > 0)
+                .sorted(Comparator.comparingLong(entry -> -entry.getValue().getMax()))
+                .forEach(entry -> sb.append("\n    ").append(entry.getKey()).append(": ")
+                        .append(entry.getValue().getCount()).append(" / ")
+                        .append(Math.round(entry.getValue().getAverage())).append(" / ")
+                        .append(entry.getValue().getMax()));
+        log.info(sb.toString());
+    }
+
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Enum
@@ -220,6 +267,18 @@ public class PersistenceManager<T extends PersistableEnvelope> {
     @Nullable
     private Timer timer;
     private ExecutorService writeToDiskExecutor;
+    private boolean journaled;
+    private File journalFile;
+    // Set if we got read before we got initialized and there was no persisted file, so we could not replay the journal
+    // as we had no persistable yet
+    private volatile boolean replayJournalAtInitialize;
+    // Only accessed from the writeToDiskExecutor thread
+    @Nullable
+    private FileOutputStream journalOutputStream;
+    // Only accessed from the UserThread
+    private int numJournalRecords;
+    // Guarded by itself as we serialize on the UserThread or on the writeToDiskExecutor thread
+    private final LongSummaryStatistics serializeDurationStats = new LongSummaryStatistics();
     public final AtomicBoolean initCalled = new AtomicBoolean(false);
     public final AtomicBoolean readCalled = new AtomicBoolean(false);
 
@@ -273,7 +332,14 @@ public class PersistenceManager<T extends PersistableEnvelope> {
         this.fileName = fileName;
         this.source = source;
         storageFile = new File(dir, fileName);
+        journaled = useJournal && persistable instanceof JournaledPersistableEnvelope;
+        journalFile = new File(dir, fileName + JOURNAL_FILE_POSTFIX);
         ALL_PERSISTENCE_MANAGERS.put(fileName, this);
+
+        if (journaled && replayJournalAtInitialize) {
+            replayJournalAtInitialize = false;
+            replayJournal(null, journalFile);
+        }
     }
 
     public void shutdown() {
@@ -284,7 +350,18 @@ public class PersistenceManager<T extends PersistableEnvelope> {
         }
 
         if (writeToDiskExecutor != null) {
+            if (journaled) {
+                writeToDiskExecutor.execute(this::closeJournal);
+            }
             writeToDiskExecutor.shutdown();
+            try {
+                if (!writeToDiskExecutor.awaitTermination(SHUTDOWN_TIMEOUT_SEC, TimeUnit.SECONDS)) {
+                    log.warn("Writing {} to disk has not completed after {} sec at shut down",
+                            fileName, SHUTDOWN_TIMEOUT_SEC);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
         }
     }
 
@@ -347,8 +424,18 @@ public class PersistenceManager<T extends PersistableEnvelope> {
 
         readCalled.set(true);
 
+        // The journal belongs only to our own file and not to other files read with our instance. The StoreServices
+        // initialize us with the persisted data, so if we are not initialized yet we read our own file.
+        boolean isOwnFile = this.fileName == null || fileName.equals(this.fileName);
+        File journalFile = new File(dir, fileName + JOURNAL_FILE_POSTFIX);
         File storageFile = new File(dir, fileName);
         if (!storageFile.exists()) {
+            if (journaled && isOwnFile) {
+                return replayJournal(null, journalFile);
+            }
+            if (useJournal && this.fileName == null) {
+                replayJournalAtInitialize = true;
+            }
             return null;
         }
 
@@ -358,7 +445,8 @@ public class PersistenceManager<T extends PersistableEnvelope> {
             //noinspection unchecked
             T persistableEnvelope = (T) persistenceProtoResolver.fromProto(proto);
             log.info("Reading {} completed in {} ms", fileName, System.currentTimeMillis() - ts);
-            return persistableEnvelope;
+            boolean replayJournal = useJournal && isOwnFile && persistableEnvelope instanceof JournaledPersistableEnvelope;
+            return replayJournal ? replayJournal(persistableEnvelope, journalFile) : persistableEnvelope;
         } catch (Throwable t) {
             log.error("Reading {} failed with {}.", fileName, t.getMessage());
             try {
@@ -378,10 +466,82 @@ public class PersistenceManager<T extends PersistableEnvelope> {
     }
 
 
+    // Applies the records of the journal to the persisted data. If we have no persisted data but a journal, we apply
+    // the records to our initial persistable.
+    @Nullable
+    private T replayJournal(@Nullable T persisted, File journalFile) {
+        if (!journalFile.exists()) {
+            return persisted;
+        }
+
+        long ts = System.currentTimeMillis();
+        T target = persisted != null ? persisted : persistable;
+        int numRecords = 0;
+        try {
+            byte[] bytes = Files.readAllBytes(journalFile.toPath());
+            ByteArrayInputStream inputStream = new ByteArrayInputStream(bytes);
+            while (inputStream.available() > 0) {
+                int validLength = bytes.length - inputStream.available();
+                try {
+                    protobuf.PersistableEnvelope proto = protobuf.PersistableEnvelope.parseDelimitedFrom(inputStream);
+                    ((JournaledPersistableEnvelope) target).applyJournalRecord(persistenceProtoResolver.fromProto(proto));
+                    numRecords++;
+                } catch (Throwable t) {
+                    // The last record might be incomplete if we did not shut down properly. We cut it off, so that
+                    // new records do not get appended after it.
+                    log.warn("Reading record {} of journal {} failed with {}. We truncate the journal.",
+                            numRecords + 1, journalFile.getName(), t.toString());
+                    try (RandomAccessFile file = new RandomAccessFile(journalFile, "rw")) {
+                        file.setLength(validLength);
+                    }
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            log.error("Reading journal {} failed", journalFile.getName(), e);
+        }
+
+        log.info("Replaying {} records of journal {} completed in {} ms",
+                numRecords, journalFile.getName(), System.currentTimeMillis() - ts);
+        if (numRecords == 0) {
+            return persisted;
+        }
+        // We write the replayed data at the next persistence
+        persistenceRequested = true;
+        return target;
+    }
+
+
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Write file to disk
     ///////////////////////////////////////////////////////////////////////////////////////////
 
+    /**
+     * If the journaled mode is enabled, the record gets appended to the journal, otherwise we fall back to
+     * {@link #requestPersistence()}.
+     *
+     * @param record A persistable of the type of our persistable with the changed entries. If null we fall back to
+     *               {@link #requestPersistence()}.
+     */
+    public void appendToJournal(@Nullable PersistableEnvelope record) {
+        // Until we have read the persisted data, which replays the journal, we must not append to it
+        if (!journaled || record == null || !readCalled.get() || !allServicesInitialized.get()) {
+            requestPersistence();
+            return;
+        }
+        if (flushAtShutdownCalled) {
+            log.warn("We have started the shut down routine already. We ignore that appendToJournal call.");
+            return;
+        }
+
+        protobuf.PersistableEnvelope serialized = (protobuf.PersistableEnvelope) record.toPersistableMessage();
+        getWriteToDiskExecutor().execute(() -> writeToJournal(serialized));
+
+        if (++numJournalRecords >= MAX_JOURNAL_RECORDS) {
+            requestPersistence();
+        }
+    }
+
     public void requestPersistence() {
         if (flushAtShutdownCalled) {
             log.warn("We have started the shut down routine already. We ignore that requestPersistence call.");
@@ -399,6 +559,24 @@ public class PersistenceManager<T extends PersistableEnvelope> {
         maybeStartTimerForPersistence();
     }
 
+    /**
+     * To be called after entries got removed from the persistable. In the journaled mode we write the whole
+     * persistable right away and truncate the journal, as the removal cannot be recorded in the journal. Otherwise
+     * we use the delayed write of {@link #requestPersistence()}.
+     */
+    public void requestPersistenceAfterRemoval() {
+        if (!journaled || !readCalled.get() || !allServicesInitialized.get()) {
+            requestPersistence();
+            return;
+        }
+        if (flushAtShutdownCalled) {
+            log.warn("We have started the shut down routine already. We ignore that requestPersistenceAfterRemoval call.");
+            return;
+        }
+
+        persistNow(null);
+    }
+
     private void maybeStartTimerForPersistence() {
         // We write to disk with a delay to avoid frequent write operations. Depending on the priority those delays
         // can be rather long.
@@ -411,21 +589,23 @@ public class PersistenceManager<T extends PersistableEnvelope> {
     }
 
     public void persistNow(@Nullable Runnable completeHandler) {
-        long ts = System.currentTimeMillis();
+        if (persistable instanceof SnapshotPersistableEnvelope) {
+            persistSnapshot((SnapshotPersistableEnvelope) persistable, completeHandler);
+            return;
+        }
+
         try {
             // The serialisation is done on the user thread to avoid threading issue with potential mutations of the
             // persistable object. Keeping it on the user thread we are in a synchronize model.
-            protobuf.PersistableEnvelope serialized = (protobuf.PersistableEnvelope) persistable.toPersistableMessage();
+            protobuf.PersistableEnvelope serialized = serialize(persistable);
+            // All journal records appended so far are contained in the serialized data. The ones appended later are
+            // written after the data by our single threaded executor, so they do not get lost by truncating the journal.
+            numJournalRecords = 0;
 
             // For the write to disk task we use a thread. We do not have any issues anymore if the persistable objects
             // gets mutated while the thread is running as we have serialized it already and do not operate on the
             // reference to the persistable object.
             getWriteToDiskExecutor().execute(() -> writeToDisk(serialized, completeHandler));
-
-            long duration = System.currentTimeMillis() - ts;
-            if (duration > 100) {
-                log.info("Serializing {} took {} msec", fileName, duration);
-            }
         } catch (Throwable e) {
             log.error("Error in saveToFile toProtoMessage: {}, {}", persistable.getClass().getSimpleName(), fileName);
             e.printStackTrace();
@@ -433,6 +613,51 @@ public class PersistenceManager<T extends PersistableEnvelope> {
         }
     }
 
+    public LongSummaryStatistics getSerializeDurationStats() {
+        LongSummaryStatistics stats = new LongSummaryStatistics();
+        synchronized (serializeDurationStats) {
+            stats.combine(serializeDurationStats);
+        }
+        return stats;
+    }
+
+    private void persistSnapshot(SnapshotPersistableEnvelope snapshotPersistable, @Nullable Runnable completeHandler) {
+        // Only the snapshot is taken on the user thread. As it can be serialized concurrently to later mutations of
+        // the persistable we do that on the write thread.
+        PersistableEnvelope snapshot = snapshotPersistable.getSnapshot();
+        // The snapshot contains all journal records appended so far. It might contain some of the later ones as
+        // well, but those are written to the journal after the data and applying them again at replay is harmless.
+        numJournalRecords = 0;
+
+        getWriteToDiskExecutor().execute(() -> {
+            protobuf.PersistableEnvelope serialized;
+            try {
+                serialized = serialize(snapshot);
+            } catch (Throwable e) {
+                log.error("Error in saveToFile toProtoMessage: {}, {}", persistable.getClass().getSimpleName(), fileName, e);
+                // The shut down routine relies on getting the completeHandler called
+                if (completeHandler != null) {
+                    UserThread.execute(completeHandler);
+                }
+                return;
+            }
+            writeToDisk(serialized, completeHandler);
+        });
+    }
+
+    private protobuf.PersistableEnvelope serialize(PersistableEnvelope envelope) {
+        long ts = System.currentTimeMillis();
+        protobuf.PersistableEnvelope serialized = (protobuf.PersistableEnvelope) envelope.toPersistableMessage();
+        long duration = System.currentTimeMillis() - ts;
+        synchronized (serializeDurationStats) {
+            serializeDurationStats.accept(duration);
+        }
+        if (duration > 100) {
+            log.info("Serializing {} took {} msec on thread {}", fileName, duration, Thread.currentThread().getName());
+        }
+        return serialized;
+    }
+
     public void writeToDisk(protobuf.PersistableEnvelope serialized, @Nullable Runnable completeHandler) {
         if (!allServicesInitialized.get()) {
             log.warn("Application has not completed start up yet so we do not permit writing data to disk.");
@@ -472,6 +697,10 @@ public class PersistenceManager<T extends PersistableEnvelope> {
 
             FileUtil.renameFile(tempFile, storageFile);
             usedTempFilePath = tempFile.toPath();
+
+            if (journaled) {
+                truncateJournal();
+            }
         } catch (Throwable t) {
             // If an error occurred, don't attempt to reuse this path again, in case temp file cleanup fails.
             usedTempFilePath = null;
@@ -504,6 +733,43 @@ public class PersistenceManager<T extends PersistableEnvelope> {
         }
     }
 
+    // Called on the writeToDiskExecutor thread
+    private void writeToJournal(protobuf.PersistableEnvelope record) {
+        try {
+            if (journalOutputStream == null) {
+                journalOutputStream = new FileOutputStream(journalFile, true);
+            }
+            record.writeDelimitedTo(journalOutputStream);
+            // For private data we want to be sure the record hits the disk, network data could be recovered
+            if (source.flushAtShutDown) {
+                journalOutputStream.getFD().sync();
+            }
+        } catch (Throwable t) {
+            log.error("Error at writing to journal {}. We request persistence of the whole data.",
+                    journalFile.getName(), t);
+            closeJournal();
+            UserThread.execute(this::requestPersistence);
+        }
+    }
+
+    // Called on the writeToDiskExecutor thread
+    private void truncateJournal() throws IOException {
+        closeJournal();
+        journalOutputStream = new FileOutputStream(journalFile, false);
+    }
+
+    // Called on the writeToDiskExecutor thread
+    private void closeJournal() {
+        if (journalOutputStream != null) {
+            try {
+                journalOutputStream.close();
+            } catch (IOException e) {
+                log.error("Cannot close journal {}", journalFile.getName(), e);
+            }
+            journalOutputStream = null;
+        }
+    }
+
     private ExecutorService getWriteToDiskExecutor() {
         if (writeToDiskExecutor == null) {
             String name = "Write-" + fileName + "_to-disk";
@@ -522,6 +788,7 @@ public class PersistenceManager<T extends PersistableEnvelope> {
                 ",\n     source=" + source +
                 ",\n     usedTempFilePath=" + usedTempFilePath +
                 ",\n     persistenceRequested=" + persistenceRequested +
+                ",\n     journaled=" + journaled +
                 "\n}";
     }
 }
@@ -0,0 +1,34 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common.persistence;
+
+import bisq.common.proto.persistable.PersistableEnvelope;
+
+/**
+ * A persistable which can provide a snapshot of its state which does not get affected by later mutations. The
+ * {@link PersistenceManager} takes the snapshot on the UserThread and serializes it on its write thread, so the
+ * UserThread is not blocked by the serialization of large persistables.
+ */
+public interface SnapshotPersistableEnvelope extends PersistableEnvelope {
+    /**
+     * Called on the UserThread, so it must be cheap. The returned persistable gets serialized on another thread
+     * while the original one might get mutated. It can be the persistable itself if its state is kept in
+     * concurrent collections of immutable entries and a weakly consistent view of them is acceptable.
+     */
+    PersistableEnvelope getSnapshot();
+}
@@ -23,6 +23,7 @@ import bisq.common.app.DevEnv;
 import bisq.common.app.Log;
 import bisq.common.app.Version;
 import bisq.common.config.Config;
+import bisq.common.persistence.PersistenceManager;
 import bisq.common.util.GcUtil;
 import bisq.common.util.Profiler;
 import bisq.common.util.Utilities;
@@ -59,6 +60,8 @@ public class CommonSetup {
         // Full DAO nodes (like seed nodes) do not use the GC triggers as it is expected they have sufficient RAM allocated.
         GcUtil.setDISABLE_GC_CALLS(config.fullDaoNode);
 
+        PersistenceManager.setUseJournal(config.useJournaledPersistence);
+
         setSystemProperties();
         setupSigIntHandlers(gracefulShutDownHandler);
 
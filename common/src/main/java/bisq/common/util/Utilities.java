@@ -63,6 +63,7 @@ import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -111,6 +112,17 @@ public class Utilities {
         return MoreExecutors.listeningDecorator(getThreadPoolExecutor(name, corePoolSize, maximumPoolSize, keepAliveTimeInSec, workQueue));
     }
 
+    /**
+     * The other thread pool executors of this class have a bounded queue and drop tasks once the queue and all
+     * threads are busy, so the futures of those tasks never complete. This one uses an unbounded queue instead, so
+     * every submitted task gets executed. Use it if the caller waits for the futures.
+     */
+    public static ListeningExecutorService getUnboundedListeningExecutorService(String name,
+                                                                                int numThreads,
+                                                                                long keepAliveTimeInSec) {
+        return getListeningExecutorService(name, numThreads, numThreads, keepAliveTimeInSec, new LinkedBlockingQueue<>());
+    }
+
     public static ThreadPoolExecutor getThreadPoolExecutor(String name,
                                                            int corePoolSize,
                                                            int maximumPoolSize,
@@ -0,0 +1,95 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class InstrumentedExecutorTest {
+    @Test
+    public void testHistogramBucket() {
+        assertEquals(0, InstrumentedExecutor.getHistogramBucket(0));
+        assertEquals(1, InstrumentedExecutor.getHistogramBucket(1));
+        assertEquals(2, InstrumentedExecutor.getHistogramBucket(3));
+        assertEquals(11, InstrumentedExecutor.getHistogramBucket(1024));
+        assertEquals(InstrumentedExecutor.NUM_HISTOGRAM_BUCKETS - 1, InstrumentedExecutor.getHistogramBucket(1_000_000));
+    }
+
+    @Test
+    public void testQueueSizeAndCallSite() {
+        List<Runnable> queue = new ArrayList<>();
+        InstrumentedExecutor executor = new InstrumentedExecutor(queue::add, 1000);
+        executor.execute(() -> {
+        });
+        executor.execute(() -> {
+        });
+        assertEquals(2, executor.getQueueSize());
+
+        queue.forEach(Runnable::run);
+        assertEquals(0, executor.getQueueSize());
+
+        Map<String, InstrumentedExecutor.TaskStats> taskStatsByCallSite = executor.getTaskStatsByCallSite();
+        assertEquals(2, taskStatsByCallSite.size());
+        assertTrue(taskStatsByCallSite.keySet().stream()
+                .allMatch(callSite -> callSite.startsWith(InstrumentedExecutorTest.class.getName() + ".testQueueSizeAndCallSite:")));
+        assertEquals(0, executor.getNumSlowTasks());
+    }
+
+    @Test
+    public void testTimerRecordedOnce() {
+        List<Runnable> queue = new ArrayList<>();
+        InstrumentedExecutor executor = new InstrumentedExecutor(queue::add, 1000);
+        Runnable timerRunnable = executor.wrap(() -> {
+        });
+        executor.executeTimerDispatch(timerRunnable);
+        assertEquals(1, executor.getQueueSize());
+
+        queue.forEach(Runnable::run);
+        assertEquals(0, executor.getQueueSize());
+
+        Map<String, InstrumentedExecutor.TaskStats> taskStatsByCallSite = executor.getTaskStatsByCallSite();
+        assertEquals(1, taskStatsByCallSite.size());
+        Map.Entry<String, InstrumentedExecutor.TaskStats> entry = taskStatsByCallSite.entrySet().iterator().next();
+        assertTrue(entry.getKey().startsWith(InstrumentedExecutorTest.class.getName() + ".testTimerRecordedOnce:"));
+        assertEquals(1, entry.getValue().getNumTasks());
+    }
+
+    @Test
+    public void testSlowTask() {
+        InstrumentedExecutor executor = new InstrumentedExecutor(Runnable::run, 10);
+        executor.execute(() -> {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException ignore) {
+            }
+        });
+        executor.execute(() -> {
+        });
+
+        assertEquals(1, executor.getNumSlowTasks());
+        InstrumentedExecutor.SlowTask slowTask = executor.getSlowestRecentTask().orElseThrow();
+        assertTrue(slowTask.getExecutionTimeMs() >= 20);
+        assertTrue(slowTask.getCallSite().startsWith(InstrumentedExecutorTest.class.getName() + ".testSlowTask:"));
+    }
+}
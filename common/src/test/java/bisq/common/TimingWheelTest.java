@@ -0,0 +1,111 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common;
+
+import java.time.Duration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class TimingWheelTest {
+    private final AtomicLong clock = new AtomicLong(1000);
+    private final AtomicInteger numDispatches = new AtomicInteger();
+    private TimingWheel timingWheel;
+
+    @Before
+    public void setUp() {
+        timingWheel = new TimingWheel(100, 8, clock::get, runnable -> {
+            numDispatches.incrementAndGet();
+            runnable.run();
+        });
+    }
+
+    @Test
+    public void testRunLater() {
+        List<String> fired = new ArrayList<>();
+        new TimingWheelTimer(timingWheel).runLater(Duration.ofMillis(250), () -> fired.add("a"));
+        // More than one revolution of the wheel ahead
+        new TimingWheelTimer(timingWheel).runLater(Duration.ofMillis(1000), () -> fired.add("b"));
+        new TimingWheelTimer(timingWheel).runLater(Duration.ofMillis(220), () -> fired.add("c"));
+
+        advanceTo(1200);
+        assertEquals(List.of(), fired);
+        advanceTo(1300);
+        assertEquals(List.of("c", "a"), fired);
+        assertEquals(1, numDispatches.get());
+        advanceTo(1900);
+        assertEquals(List.of("c", "a"), fired);
+        advanceTo(2000);
+        assertEquals(List.of("c", "a", "b"), fired);
+        assertEquals(0, timingWheel.size());
+    }
+
+    @Test
+    public void testStop() {
+        AtomicInteger counter = new AtomicInteger();
+        Timer timer = new TimingWheelTimer(timingWheel).runLater(Duration.ofMillis(100), counter::incrementAndGet);
+        timer.stop();
+        assertEquals(0, timingWheel.size());
+
+        advanceTo(2000);
+        assertEquals(0, counter.get());
+        assertEquals(0, numDispatches.get());
+    }
+
+    @Test
+    public void testRunPeriodically() {
+        AtomicInteger counter = new AtomicInteger();
+        Timer timer = new TimingWheelTimer(timingWheel).runPeriodically(Duration.ofMillis(300), counter::incrementAndGet);
+
+        advanceTo(1300);
+        assertEquals(1, counter.get());
+        advanceTo(1600);
+        assertEquals(2, counter.get());
+
+        timer.stop();
+        advanceTo(3000);
+        assertEquals(2, counter.get());
+        assertEquals(0, timingWheel.size());
+    }
+
+    @Test
+    public void testCatchUpAfterFallingBehind() {
+        AtomicInteger counter = new AtomicInteger();
+        for (int i = 1; i <= 20; i++) {
+            new TimingWheelTimer(timingWheel).runLater(Duration.ofMillis(i * 100), counter::incrementAndGet);
+        }
+        clock.set(5000);
+        timingWheel.advance();
+        assertEquals(20, counter.get());
+        assertEquals(0, timingWheel.size());
+    }
+
+    private void advanceTo(long timeMs) {
+        while (clock.get() < timeMs) {
+            clock.addAndGet(50);
+            timingWheel.advance();
+        }
+    }
+}
@@ -26,7 +26,10 @@ import com.google.common.collect.ConcurrentHashMultiset;
 import com.google.common.collect.ImmutableMultiset;
 import com.google.common.collect.Multiset;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -34,6 +37,7 @@ import org.junit.Ignore;
 import org.junit.Test;
 
 import static java.lang.Double.POSITIVE_INFINITY;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
@@ -82,6 +86,37 @@ public class EquihashTest {
         assertEquals(solution.toString(), roundTrippedSolution.toString());
     }
 
+    @Test
+    public void testFindSolutionInParallel() {
+        Equihash equihash = new Equihash(90, 5, 4.0);
+        for (int i = 0; i < 4; i++) {
+            byte[] seed = Utilities.intsToBytesBE(new int[]{0, 0, 0, 0, 0, 0, 0, i});
+            Solution solution = equihash.puzzle(seed).findSolutionInParallel();
+
+            assertTrue(solution.verify());
+            assertEquals(equihash.puzzle(seed).findSolution().toString(), solution.toString());
+        }
+    }
+
+    @Test
+    public void testBatchVerify() {
+        var service = ProofOfWorkService.forVersion(1).orElseThrow();
+        List<ProofOfWork> proofsOfWork = new ArrayList<>();
+        List<String> itemIds = new ArrayList<>();
+        List<String> ownerIds = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            proofsOfWork.add(service.mint("item" + i, "owner", 1.0).join());
+            itemIds.add("item" + i);
+            ownerIds.add("owner");
+        }
+        // Wrong owner, hence a wrong challenge
+        ownerIds.set(1, "other owner");
+
+        assertArrayEquals(new boolean[]{true, false, true}, service.verify(proofsOfWork, itemIds, ownerIds, 1.0));
+        // Insufficient difficulty
+        assertArrayEquals(new boolean[]{false, false, false}, service.verify(proofsOfWork, itemIds, ownerIds, 2.0));
+    }
+
     @Test
     @Ignore
     public void benchmarkFindSolution() {
@@ -134,6 +169,46 @@ public class EquihashTest {
         System.out.println("Mean time to verify one solution: " + duration.dividedBy(1_000_000).toNanos() + " ns");
     }
 
+    @Test
+    @Ignore
+    public void benchmarkFindSolutionInParallel() {
+        double adjustedDifficulty = Equihash.adjustDifficulty(2.0);
+        Equihash equihash = new Equihash(90, 5, adjustedDifficulty);
+
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        for (int i = 0; i < 1000; i++) {
+            byte[] seed = Utilities.intsToBytesBE(new int[]{0, 0, 0, 0, 0, 0, 0, i});
+            equihash.puzzle(seed).findSolutionInParallel();
+        }
+        stopwatch.stop();
+        var duration = stopwatch.elapsed();
+
+        System.out.println("For Equihash-90-5 with real difficulty 2.0, adjusted difficulty " + adjustedDifficulty +
+                " and parallelism " + ForkJoinPool.getCommonPoolParallelism() + " ...");
+        System.out.println("Total elapsed solution time: " + duration.toMillis() + " ms");
+        System.out.println("Mean time to solve one puzzle: " + duration.dividedBy(1000).toMillis() + " ms");
+    }
+
+    @Test
+    @Ignore
+    public void benchmarkBatchVerify() {
+        var service = ProofOfWorkService.forVersion(1).orElseThrow();
+        List<ProofOfWork> proofsOfWork = IntStream.range(0, 100)
+                .mapToObj(i -> service.mint("item" + i, "owner", 1.0).join())
+                .collect(Collectors.toList());
+
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        for (int i = 0; i < 1000; i++) {
+            service.verify(proofsOfWork);
+        }
+        stopwatch.stop();
+        var duration = stopwatch.elapsed();
+
+        System.out.println("For Equihash-90-5 with parallelism " + ForkJoinPool.getCommonPoolParallelism() + " ...");
+        System.out.println("Total elapsed verification time: " + duration.toMillis() + " ms");
+        System.out.println("Mean time to verify one solution: " + duration.dividedBy(100_000).toNanos() + " ns");
+    }
+
     private static final int SAMPLE_NO = 10000;
 
     @Test
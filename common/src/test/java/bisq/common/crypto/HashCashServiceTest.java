@@ -7,7 +7,10 @@ import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -43,6 +46,37 @@ public class HashCashServiceTest {
         assertEquals(1024, HashCashService.toNumLeadingZeros(Double.POSITIVE_INFINITY));
     }
 
+    @Test
+    public void testParallelMintReturnsLowestCounter() {
+        ForkJoinPool singleThreadPool = new ForkJoinPool(1);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        double difficulty = Math.scalb(1.0, HashCashService.MIN_LOG2_DIFFICULTY_FOR_PARALLEL_MINTING);
+        HashCashService service = new HashCashService();
+        for (int i = 0; i < 5; i++) {
+            byte[] payload = ("payload" + i).getBytes(StandardCharsets.UTF_8);
+            byte[] challenge = ("challenge" + i).getBytes(StandardCharsets.UTF_8);
+            ProofOfWork expected = service.mint(payload, challenge, difficulty, singleThreadPool).join();
+            ProofOfWork actual = service.mint(payload, challenge, difficulty, pool).join();
+
+            assertTrue(service.verify(actual));
+            assertEquals(expected.getCounter(), actual.getCounter());
+        }
+        pool.shutdown();
+        singleThreadPool.shutdown();
+    }
+
+    @Test
+    public void testCancelMint() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        byte[] bytes = "payload".getBytes(StandardCharsets.UTF_8);
+        CompletableFuture<ProofOfWork> future = new HashCashService().mint(bytes, bytes, Math.scalb(1.0, 60), pool);
+        future.cancel(true);
+
+        assertTrue(future.isCancelled());
+        assertTrue(pool.awaitQuiescence(10, TimeUnit.SECONDS));
+        pool.shutdown();
+    }
+
     // @Ignore
     @Test
     public void testDiffIncrease() throws ExecutionException, InterruptedException {
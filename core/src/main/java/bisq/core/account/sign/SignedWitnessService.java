@@ -69,6 +69,8 @@ public class SignedWitnessService {
     public static final long SIGNER_AGE_DAYS = 30;
     private static final long SIGNER_AGE = SIGNER_AGE_DAYS * ChronoUnit.DAYS.getDuration().toMillis();
     public static final Coin MINIMUM_TRADE_AMOUNT_FOR_SIGNING = Coin.parseCoin("0.0025");
+    // Prevent DoS attack: an attacker floods the SignedWitness db with a long chain that takes lots of time to verify.
+    private static final int MAX_SIGNING_CHAIN_LENGTH = 1000;
 
     private final KeyRing keyRing;
     private final P2PService p2PService;
@@ -94,6 +96,10 @@ public class SignedWitnessService {
     private final Map<P2PDataStorage.ByteArray, Boolean> verifySignatureWithDSAKeyResultCache = new HashMap<>();
     private final Map<P2PDataStorage.ByteArray, Boolean> verifySignatureWithECKeyResultCache = new HashMap<>();
 
+    // Walking all signing chains is expensive as well, so we keep the earliest signer date per ownerPubKey which
+    // gives us one signing chain to check and lets us skip witnesses without any chain.
+    private final SignerTrustIndex signerTrustIndex = new SignerTrustIndex(SIGNER_AGE);
+
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Constructor
@@ -444,7 +450,7 @@ public class SignedWitnessService {
 
     private boolean verifySigner(SignedWitness signedWitness) {
         return getSignedWitnessSetByOwnerPubKey(signedWitness.getWitnessOwnerPubKey(), new Stack<>()).stream()
-                .anyMatch(w -> isValidSignerWitnessInternal(w, signedWitness.getDate(), new Stack<>()));
+                .anyMatch(w -> isValidSignerWitness(w, signedWitness.getDate()));
     }
 
     /**
@@ -456,10 +462,9 @@ public class SignedWitnessService {
      * @return true if accountAgeWitness is allowed to sign at time, false otherwise.
      */
     private boolean isSignerAccountAgeWitness(AccountAgeWitness accountAgeWitness, long time) {
-        Stack<P2PDataStorage.ByteArray> excludedPubKeys = new Stack<>();
         Set<SignedWitness> signedWitnessSet = getSignedWitnessSet(accountAgeWitness);
         for (SignedWitness signedWitness : signedWitnessSet) {
-            if (isValidSignerWitnessInternal(signedWitness, time, excludedPubKeys)) {
+            if (isValidSignerWitness(signedWitness, time)) {
                 return true;
             }
         }
@@ -467,6 +472,53 @@ public class SignedWitnessService {
         return false;
     }
 
+    private boolean isValidSignerWitness(SignedWitness signedWitness, long childSignedWitnessDateMillis) {
+        if (!signerTrustIndex.hasSigningChain(signedWitness, childSignedWitnessDateMillis)) {
+            return false;
+        }
+        if (isValidSigningChainFromIndex(signedWitness, childSignedWitnessDateMillis)) {
+            return true;
+        }
+        // The signing chain from the index contains a banned signer, an invalid signature or a loop, so we need to
+        // search for another one.
+        return isValidSignerWitnessInternal(signedWitness, childSignedWitnessDateMillis, new Stack<>());
+    }
+
+    /**
+     * Applies the same checks as isValidSignerWitnessInternal but only to the signing chain from the signerTrustIndex,
+     * which has the earliest signer dates. So in most cases we do not need to search through all signing chains.
+     *
+     * @return true if the signing chain is valid, false if it is invalid or too long.
+     */
+    private boolean isValidSigningChainFromIndex(SignedWitness signedWitness, long childSignedWitnessDateMillis) {
+        Set<P2PDataStorage.ByteArray> chainPubKeys = new HashSet<>();
+        SignedWitness current = signedWitness;
+        long childDateMillis = childSignedWitnessDateMillis;
+        for (int i = 0; i < MAX_SIGNING_CHAIN_LENGTH; i++) {
+            if (filterManager.isWitnessSignerPubKeyBanned(Utils.HEX.encode(current.getWitnessOwnerPubKey())) ||
+                    !verifySignature(current)) {
+                return false;
+            }
+            if (current.isSignedByArbitrator()) {
+                return true;
+            }
+            if (!verifyDate(current, childDateMillis)) {
+                return false;
+            }
+            chainPubKeys.add(new P2PDataStorage.ByteArray(current.getSignerPubKey()));
+            chainPubKeys.add(new P2PDataStorage.ByteArray(current.getWitnessOwnerPubKey()));
+
+            SignedWitness signerWitness = signerTrustIndex.getSignerWitness(current.getSignerPubKey());
+            if (signerWitness == null ||
+                    chainPubKeys.contains(new P2PDataStorage.ByteArray(signerWitness.getSignerPubKey()))) {
+                return false;
+            }
+            childDateMillis = current.getDate();
+            current = signerWitness;
+        }
+        return false;
+    }
+
     /**
      * Helper to isValidAccountAgeWitness(accountAgeWitness)
      *
@@ -478,6 +530,10 @@ public class SignedWitnessService {
     private boolean isValidSignerWitnessInternal(SignedWitness signedWitness,
                                                  long childSignedWitnessDateMillis,
                                                  Stack<P2PDataStorage.ByteArray> excludedPubKeys) {
+        // The index never misses a valid signing chain, so we can skip the witnesses without one.
+        if (!signerTrustIndex.hasSigningChain(signedWitness, childSignedWitnessDateMillis)) {
+            return false;
+        }
         if (filterManager.isWitnessSignerPubKeyBanned(Utils.HEX.encode(signedWitness.getWitnessOwnerPubKey()))) {
             return false;
         }
@@ -491,7 +547,7 @@ public class SignedWitnessService {
             if (!verifyDate(signedWitness, childSignedWitnessDateMillis)) {
                 return false;
             }
-            if (excludedPubKeys.size() >= 2000) {
+            if (excludedPubKeys.size() >= 2 * MAX_SIGNING_CHAIN_LENGTH) {
                 // Prevent DoS attack: an attacker floods the SignedWitness db with a long chain that takes lots of time to verify.
                 return false;
             }
@@ -525,6 +581,7 @@ public class SignedWitnessService {
     @VisibleForTesting
     public void addToMap(SignedWitness signedWitness) {
         signedWitnessMap.putIfAbsent(signedWitness.getHashAsByteArray(), signedWitness);
+        signerTrustIndex.add(signedWitness);
 
         P2PDataStorage.ByteArray accountAgeWitnessHash = new P2PDataStorage.ByteArray(signedWitness.getAccountAgeWitnessHash());
         signedWitnessSetByAccountAgeWitnessHash.putIfAbsent(accountAgeWitnessHash, new HashSet<>());
@@ -552,6 +609,7 @@ public class SignedWitnessService {
     @VisibleForTesting
     public void removeSignedWitness(SignedWitness signedWitness) {
         signedWitnessMap.remove(signedWitness.getHashAsByteArray());
+        signerTrustIndex.remove(signedWitness);
 
         P2PDataStorage.ByteArray accountAgeWitnessHash = new P2PDataStorage.ByteArray(signedWitness.getAccountAgeWitnessHash());
         if (signedWitnessSetByAccountAgeWitnessHash.containsKey(accountAgeWitnessHash)) {
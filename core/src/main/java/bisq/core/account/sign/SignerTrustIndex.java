@@ -0,0 +1,166 @@
+/*
+ * This file is part of Bisq.
+ *
+ * bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.account.sign;
+
+import bisq.network.p2p.storage.P2PDataStorage;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Keeps for each owner pubKey the earliest date from which it can sign other accounts and the SignedWitness by which
+ * it got that date. The index is only based on the dates of the SignedWitnesses, so it is updated incrementally when
+ * a SignedWitness gets added and does not need to walk the signing chains at each lookup.
+ * <p/>
+ * Signatures, banned signers and loops in the signing chain are not considered here. The SignedWitnessService checks
+ * those on the signing chain found in the index. As the index only over-approximates the valid signers, a
+ * SignedWitness without a signing chain in the index is never valid.
+ */
+@NotThreadSafe
+class SignerTrustIndex {
+    private static class SignerEntry {
+        private final long signerSince;
+        private final SignedWitness signedWitness;
+
+        private SignerEntry(long signerSince, SignedWitness signedWitness) {
+            this.signerSince = signerSince;
+            this.signedWitness = signedWitness;
+        }
+    }
+
+    private final long signerAge;
+    private final Map<P2PDataStorage.ByteArray, Set<SignedWitness>> signedWitnessSetBySignerPubKey = new HashMap<>();
+    private final Map<P2PDataStorage.ByteArray, SignerEntry> signerEntryByOwnerPubKey = new HashMap<>();
+
+    SignerTrustIndex(long signerAge) {
+        this.signerAge = signerAge;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    void add(SignedWitness signedWitness) {
+        P2PDataStorage.ByteArray signerPubKey = new P2PDataStorage.ByteArray(signedWitness.getSignerPubKey());
+        if (signedWitnessSetBySignerPubKey.computeIfAbsent(signerPubKey, key -> new HashSet<>()).add(signedWitness)) {
+            propagate(signedWitness);
+        }
+    }
+
+    // A removal can make signer dates later, which we cannot propagate incrementally, so we rebuild the index.
+    // Removals only happen in tests.
+    void remove(SignedWitness signedWitness) {
+        P2PDataStorage.ByteArray signerPubKey = new P2PDataStorage.ByteArray(signedWitness.getSignerPubKey());
+        Set<SignedWitness> set = signedWitnessSetBySignerPubKey.get(signerPubKey);
+        if (set == null || !set.remove(signedWitness)) {
+            return;
+        }
+        if (set.isEmpty()) {
+            signedWitnessSetBySignerPubKey.remove(signerPubKey);
+        }
+
+        signerEntryByOwnerPubKey.clear();
+        List<SignedWitness> signedWitnesses = new ArrayList<>();
+        signedWitnessSetBySignerPubKey.values().forEach(signedWitnesses::addAll);
+        signedWitnesses.forEach(this::propagate);
+    }
+
+    /**
+     * @return True if the signedWitness might be valid for signing a child SignedWitness at childSignedWitnessDate.
+     * If false is returned there is no valid signing chain for the signedWitness.
+     */
+    boolean hasSigningChain(SignedWitness signedWitness, long childSignedWitnessDate) {
+        if (signedWitness.isSignedByArbitrator()) {
+            return true;
+        }
+        return getSignerSince(signedWitness) <= childSignedWitnessDate;
+    }
+
+    /**
+     * @return The SignedWitness by which the ownerPubKey got a signer at the earliest date or null if the
+     * ownerPubKey is not a signer.
+     */
+    @Nullable
+    SignedWitness getSignerWitness(byte[] ownerPubKey) {
+        SignerEntry signerEntry = signerEntryByOwnerPubKey.get(new P2PDataStorage.ByteArray(ownerPubKey));
+        return signerEntry != null ? signerEntry.signedWitness : null;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    // Returns the date from which the owner of the signedWitness can sign by that signedWitness or Long.MAX_VALUE
+    // if the signer of the signedWitness was not a signer at the date of the signedWitness.
+    private long getSignerSince(SignedWitness signedWitness) {
+        if (signedWitness.isSignedByArbitrator()) {
+            return Long.MIN_VALUE;
+        }
+        SignerEntry signerEntry = signerEntryByOwnerPubKey.get(
+                new P2PDataStorage.ByteArray(signedWitness.getSignerPubKey()));
+        if (signerEntry == null || signerEntry.signerSince > signedWitness.getDate()) {
+            return Long.MAX_VALUE;
+        }
+        // We protect against an overflow by a manipulated date
+        return signedWitness.getDate() > Long.MAX_VALUE - signerAge ?
+                Long.MAX_VALUE :
+                signedWitness.getDate() + signerAge;
+    }
+
+    // The dates of the signers only get earlier by adding a SignedWitness, so we can propagate them like at a
+    // shortest path search. Each owner pubKey gets its final date when it is polled the first time from the queue.
+    private void propagate(SignedWitness signedWitness) {
+        PriorityQueue<SignerEntry> queue = new PriorityQueue<>(Comparator.comparingLong(e -> e.signerSince));
+        long signerSince = getSignerSince(signedWitness);
+        if (signerSince != Long.MAX_VALUE) {
+            queue.add(new SignerEntry(signerSince, signedWitness));
+        }
+
+        while (!queue.isEmpty()) {
+            SignerEntry candidate = queue.poll();
+            P2PDataStorage.ByteArray ownerPubKey = new P2PDataStorage.ByteArray(
+                    candidate.signedWitness.getWitnessOwnerPubKey());
+            SignerEntry current = signerEntryByOwnerPubKey.get(ownerPubKey);
+            if (current != null && current.signerSince <= candidate.signerSince) {
+                continue;
+            }
+            signerEntryByOwnerPubKey.put(ownerPubKey, candidate);
+
+            // The SignedWitnesses signed by that owner might have become valid or got an earlier date
+            signedWitnessSetBySignerPubKey.getOrDefault(ownerPubKey, Set.of()).stream()
+                    .filter(child -> !child.isSignedByArbitrator())
+                    .forEach(child -> {
+                        long childSignerSince = getSignerSince(child);
+                        if (childSignerSince != Long.MAX_VALUE) {
+                            queue.add(new SignerEntry(childSignerSince, child));
+                        }
+                    });
+        }
+    }
+}
@@ -17,6 +17,8 @@
 
 package bisq.core.account.witness;
 
+import bisq.network.p2p.storage.P2PDataStorage;
+import bisq.network.p2p.storage.payload.PersistableNetworkPayload;
 import bisq.network.p2p.storage.persistence.PersistableNetworkPayloadStore;
 
 import com.google.protobuf.Message;
@@ -66,4 +68,11 @@ public class AccountAgeWitnessStore extends PersistableNetworkPayloadStore<Accou
                 .map(AccountAgeWitness::fromProto).collect(Collectors.toList());
         return new AccountAgeWitnessStore(list);
     }
+
+    @Override
+    public AccountAgeWitnessStore toJournalRecord(P2PDataStorage.ByteArray hash, PersistableNetworkPayload payload) {
+        AccountAgeWitnessStore record = new AccountAgeWitnessStore();
+        record.map.put(hash, payload);
+        return record;
+    }
 }
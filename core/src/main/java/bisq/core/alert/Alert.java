@@ -20,9 +20,11 @@ package bisq.core.alert;
 import bisq.core.user.Preferences;
 
 import bisq.network.p2p.storage.payload.ExpirablePayload;
+import bisq.network.p2p.storage.payload.HashCachingPayload;
 import bisq.network.p2p.storage.payload.ProtectedStoragePayload;
 
 import bisq.common.app.Version;
+import bisq.common.crypto.Hash;
 import bisq.common.crypto.Sig;
 import bisq.common.util.CollectionUtils;
 import bisq.common.util.ExtraDataMapValidator;
@@ -46,9 +48,9 @@ import static com.google.common.base.Preconditions.checkNotNull;
 
 @EqualsAndHashCode
 @Getter
-@ToString
+@ToString(exclude = {"hash"})
 @Slf4j
-public final class Alert implements ProtectedStoragePayload, ExpirablePayload {
+public final class Alert implements ProtectedStoragePayload, ExpirablePayload, HashCachingPayload {
     public static final long TTL = TimeUnit.DAYS.toMillis(90);
 
     private final String message;
@@ -69,6 +71,10 @@ public final class Alert implements ProtectedStoragePayload, ExpirablePayload {
     @Nullable
     private Map<String, String> extraDataMap;
 
+    // Cache. Gets reset when the signature is set.
+    @Nullable
+    private transient byte[] hash;
+
     public Alert(String message,
                  boolean isUpdateInfo,
                  boolean isPreReleaseInfo,
@@ -150,6 +156,17 @@ public final class Alert implements ProtectedStoragePayload, ExpirablePayload {
         this.ownerPubKey = ownerPubKey;
 
         ownerPubKeyBytes = Sig.getPublicKeyBytes(ownerPubKey);
+        hash = null;
+    }
+
+    @Override
+    @Nullable
+    public byte[] getHash() {
+        // Before the alert is signed we do not cache the hash
+        if (hash == null && ownerPubKeyBytes != null) {
+            hash = Hash.getSha256Hash(toProtoMessage().toByteArray());
+        }
+        return hash;
     }
 
     public boolean isNewVersion(Preferences preferences) {
@@ -0,0 +1,91 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.api;
+
+import bisq.core.filter.Filter;
+import bisq.core.offer.Offer;
+import bisq.core.offer.OfferBookService;
+
+import javafx.beans.value.ChangeListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import lombok.Getter;
+
+/**
+ * Passes the offers of a market which we can take to the listener of an API client. First the currently available
+ * offers are passed as added, later the offers which got added to or removed from the offer book. An offer can also
+ * become untakeable or takeable again by a new filter, e.g. if its payment method got banned, so we check the offers
+ * again at each filter change.
+ * <p/>
+ * Only accessed from the UserThread.
+ */
+class AvailableOffersListener implements OfferBookService.OfferBookChangedListener {
+    private final OfferBookService.OfferBookChangedListener listener;
+    private final Predicate<Offer> isAvailableOffer;
+    private final Supplier<List<Offer>> availableOffersSupplier;
+    // The offers we have passed to the listener as added, by offer ID
+    private final Map<String, Offer> addedOffers = new HashMap<>();
+    @Getter
+    private final ChangeListener<Filter> filterChangeListener = (observable, oldValue, newValue) -> onFilterChanged();
+
+    AvailableOffersListener(OfferBookService.OfferBookChangedListener listener,
+                            Predicate<Offer> isAvailableOffer,
+                            Supplier<List<Offer>> availableOffersSupplier) {
+        this.listener = listener;
+        this.isAvailableOffer = isAvailableOffer;
+        this.availableOffersSupplier = availableOffersSupplier;
+    }
+
+    void addAvailableOffers() {
+        availableOffersSupplier.get().forEach(this::onAdded);
+    }
+
+    @Override
+    public void onAdded(Offer offer) {
+        // We get called again for the same offer if another ProtectedStorageEntry for it was received.
+        if (addedOffers.get(offer.getId()) != offer && isAvailableOffer.test(offer)) {
+            addedOffers.put(offer.getId(), offer);
+            listener.onAdded(offer);
+        }
+    }
+
+    @Override
+    public void onRemoved(Offer offer) {
+        Offer addedOffer = addedOffers.get(offer.getId());
+        if (addedOffer != null && addedOffer.getOfferPayloadBase().equals(offer.getOfferPayloadBase())) {
+            addedOffers.remove(offer.getId());
+            listener.onRemoved(offer);
+        }
+    }
+
+    private void onFilterChanged() {
+        new ArrayList<>(addedOffers.values()).stream()
+                .filter(offer -> !isAvailableOffer.test(offer))
+                .forEach(offer -> {
+                    addedOffers.remove(offer.getId());
+                    listener.onRemoved(offer);
+                });
+        addAvailableOffers();
+    }
+}
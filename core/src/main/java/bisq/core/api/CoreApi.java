@@ -22,6 +22,7 @@ import bisq.core.api.model.BalancesInfo;
 import bisq.core.api.model.TxFeeRateInfo;
 import bisq.core.btc.wallet.TxBroadcaster;
 import bisq.core.offer.Offer;
+import bisq.core.offer.OfferBookService;
 import bisq.core.offer.OpenOffer;
 import bisq.core.payment.PaymentAccount;
 import bisq.core.payment.payload.PaymentMethod;
@@ -46,6 +47,7 @@ import com.google.common.util.concurrent.FutureCallback;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.function.Consumer;
 
@@ -168,6 +170,16 @@ public class CoreApi {
         return coreOffersService.getMyOpenBsqSwapOffer(id);
     }
 
+    public void addAvailableOffersListener(String direction,
+                                           String currencyCode,
+                                           OfferBookService.OfferBookChangedListener listener) {
+        coreOffersService.addAvailableOffersListener(direction, currencyCode, listener);
+    }
+
+    public void removeAvailableOffersListener(OfferBookService.OfferBookChangedListener listener) {
+        coreOffersService.removeAvailableOffersListener(listener);
+    }
+
     public void createAndPlaceBsqSwapOffer(String directionAsString,
                                            long amountAsLong,
                                            long minAmountAsLong,
@@ -272,6 +284,18 @@ public class CoreApi {
         corePriceService.getMarketPrice(currencyCode, resultHandler);
     }
 
+    public Optional<Double> getCachedMarketPrice(String currencyCode) {
+        return corePriceService.getCachedMarketPrice(currencyCode);
+    }
+
+    public void addPriceUpdateListener(Runnable listener) {
+        corePriceService.addPriceUpdateListener(listener);
+    }
+
+    public void removePriceUpdateListener(Runnable listener) {
+        corePriceService.removePriceUpdateListener(listener);
+    }
+
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Trades
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -326,6 +350,18 @@ public class CoreApi {
         return coreTradesService.getBsqSwapTradeRole(bsqSwapTrade);
     }
 
+    public List<Trade> getOpenTrades() {
+        return coreTradesService.getOpenTrades();
+    }
+
+    public void addTradeChangedListener(TradeChangedListener listener) {
+        coreTradesService.addTradeChangedListener(listener);
+    }
+
+    public void removeTradeChangedListener(TradeChangedListener listener) {
+        coreTradesService.removeTradeChangedListener(listener);
+    }
+
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Wallets
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -414,6 +450,18 @@ public class CoreApi {
         return new ArrayList<>(tradeStatisticsManager.getObservableTradeStatisticsSet());
     }
 
+    public List<TradeStatistics3> getTradeStatistics(String currencyCode,
+                                                     long fromDate,
+                                                     long toDate,
+                                                     String cursor,
+                                                     int maxItems) {
+        return tradeStatisticsManager.getTradeStatistics(currencyCode, fromDate, toDate, cursor, maxItems);
+    }
+
+    public String getNextTradeStatisticsCursor(List<TradeStatistics3> page, String cursor) {
+        return tradeStatisticsManager.getNextCursor(page, cursor);
+    }
+
     public int getNumConfirmationsForMostRecentTransaction(String addressString) {
         return walletsService.getNumConfirmationsForMostRecentTransaction(addressString);
     }
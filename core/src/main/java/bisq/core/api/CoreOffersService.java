@@ -17,6 +17,7 @@
 
 package bisq.core.api;
 
+import bisq.core.filter.FilterManager;
 import bisq.core.monetary.Altcoin;
 import bisq.core.monetary.Price;
 import bisq.core.offer.Offer;
@@ -46,7 +47,9 @@ import javax.inject.Singleton;
 import java.math.BigDecimal;
 
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.function.BiFunction;
@@ -91,6 +94,7 @@ class CoreOffersService {
     // exception is made in this case.
     private final CoreWalletsService coreWalletsService;
     private final CreateOfferService createOfferService;
+    private final FilterManager filterManager;
     private final OfferBookService offerBookService;
     private final OfferFilterService offerFilterService;
     private final OpenOfferManager openOfferManager;
@@ -99,11 +103,16 @@ class CoreOffersService {
     private final PriceFeedService priceFeedService;
     private final User user;
 
+    // The listeners we have added to the OfferBookService for the listeners of the API clients
+    private final Map<OfferBookService.OfferBookChangedListener, AvailableOffersListener> availableOffersListeners =
+            new HashMap<>();
+
     @Inject
     public CoreOffersService(CoreContext coreContext,
                              KeyRing keyRing,
                              CoreWalletsService coreWalletsService,
                              CreateOfferService createOfferService,
+                             FilterManager filterManager,
                              OfferBookService offerBookService,
                              OfferFilterService offerFilterService,
                              OpenOfferManager openOfferManager,
@@ -115,6 +124,7 @@ class CoreOffersService {
         this.keyRing = keyRing;
         this.coreWalletsService = coreWalletsService;
         this.createOfferService = createOfferService;
+        this.filterManager = filterManager;
         this.offerBookService = offerBookService;
         this.offerFilterService = offerFilterService;
         this.openOfferManager = openOfferManager;
@@ -160,23 +170,52 @@ class CoreOffersService {
     }
 
     List<Offer> getBsqSwapOffers(String direction) {
-        return offerBookService.getOffers().stream()
+        return offerBookService.getOffers(marketKey ->
+                        marketKey.getDirection().name().equalsIgnoreCase(direction)).stream()
                 .filter(o -> !o.isMyOffer(keyRing))
-                .filter(o -> o.getDirection().name().equalsIgnoreCase(direction))
                 .filter(Offer::isBsqSwapOffer)
                 .sorted(priceComparator(direction))
                 .collect(Collectors.toList());
     }
 
     List<Offer> getOffers(String direction, String currencyCode) {
-        return offerBookService.getOffers().stream()
-                .filter(o -> !o.isMyOffer(keyRing))
-                .filter(o -> offerMatchesDirectionAndCurrency(o, direction, currencyCode))
-                .filter(o -> offerFilterService.canTakeOffer(o, coreContext.isApiUser()).isValid())
+        return offerBookService.getOffers(marketKey ->
+                        marketMatchesDirectionAndCurrency(marketKey, direction, currencyCode)).stream()
+                .filter(o -> isAvailableOffer(o, direction, currencyCode))
                 .sorted(priceComparator(direction))
                 .collect(Collectors.toList());
     }
 
+    // Applies the same filters as getOffers(direction, currencyCode) to a single offer.
+    private boolean isAvailableOffer(Offer offer, String direction, String currencyCode) {
+        return !offer.isMyOffer(keyRing) &&
+                offerMatchesDirectionAndCurrency(offer, direction, currencyCode) &&
+                offerFilterService.canTakeOffer(offer, coreContext.isApiUser()).isValid();
+    }
+
+    // Passes the offers returned by getOffers(direction, currencyCode) to the listener as added, later the offers
+    // which got available or unavailable. The listener gets called on the UserThread, so it should be added and
+    // removed on the UserThread as well.
+    void addAvailableOffersListener(String direction,
+                                    String currencyCode,
+                                    OfferBookService.OfferBookChangedListener listener) {
+        var availableOffersListener = new AvailableOffersListener(listener,
+                offer -> isAvailableOffer(offer, direction, currencyCode),
+                () -> getOffers(direction, currencyCode));
+        availableOffersListeners.put(listener, availableOffersListener);
+        availableOffersListener.addAvailableOffers();
+        offerBookService.addOfferBookChangedListener(availableOffersListener);
+        filterManager.filterProperty().addListener(availableOffersListener.getFilterChangeListener());
+    }
+
+    void removeAvailableOffersListener(OfferBookService.OfferBookChangedListener listener) {
+        var availableOffersListener = availableOffersListeners.remove(listener);
+        if (availableOffersListener != null) {
+            offerBookService.removeOfferBookChangedListener(availableOffersListener);
+            filterManager.filterProperty().removeListener(availableOffersListener.getFilterChangeListener());
+        }
+    }
+
     List<OpenOffer> getMyOffers(String direction, String currencyCode) {
         return openOfferManager.getObservableList().stream()
                 .filter(o -> o.getOffer().isMyOffer(keyRing))
@@ -186,9 +225,9 @@ class CoreOffersService {
     }
 
     List<Offer> getMyBsqSwapOffers(String direction) {
-        return offerBookService.getOffers().stream()
+        return offerBookService.getOffers(marketKey ->
+                        marketKey.getDirection().name().equalsIgnoreCase(direction)).stream()
                 .filter(o -> o.isMyOffer(keyRing))
-                .filter(o -> o.getDirection().name().equalsIgnoreCase(direction))
                 .filter(Offer::isBsqSwapOffer)
                 .sorted(priceComparator(direction))
                 .collect(Collectors.toList());
@@ -213,8 +252,9 @@ class CoreOffersService {
         boolean isMyOpenOffer = openOfferManager.getOpenOfferById(id)
                 .filter(open -> open.getOffer().isMyOffer(keyRing))
                 .isPresent();
-        boolean wasMyOffer = offerBookService.getOffers().stream()
-                .anyMatch(o -> o.getId().equals(id) && o.isMyOffer(keyRing));
+        boolean wasMyOffer = offerBookService.findOffer(id)
+                .filter(o -> o.isMyOffer(keyRing))
+                .isPresent();
         return isMyOpenOffer || wasMyOffer;
     }
 
@@ -381,28 +421,22 @@ class CoreOffersService {
     }
 
     private Optional<Offer> findAvailableBsqSwapOffer(String id) {
-        return offerBookService.getOffers().stream()
-                .filter(o -> o.getId().equals(id))
+        return offerBookService.findOffer(id)
                 .filter(o -> !o.isMyOffer(keyRing))
                 .filter(o -> offerFilterService.canTakeOffer(o, coreContext.isApiUser()).isValid())
-                .filter(Offer::isBsqSwapOffer)
-                .findAny();
+                .filter(Offer::isBsqSwapOffer);
     }
 
     private Optional<Offer> findMyBsqSwapOffer(String id) {
-        return offerBookService.getOffers().stream()
-                .filter(o -> o.getId().equals(id))
+        return offerBookService.findOffer(id)
                 .filter(o -> o.isMyOffer(keyRing))
-                .filter(Offer::isBsqSwapOffer)
-                .findAny();
+                .filter(Offer::isBsqSwapOffer);
     }
 
     private Optional<Offer> findAvailableOffer(String id) {
-        return offerBookService.getOffers().stream()
-                .filter(o -> o.getId().equals(id))
+        return offerBookService.findOffer(id)
                 .filter(o -> !o.isMyOffer(keyRing))
-                .filter(o -> offerFilterService.canTakeOffer(o, coreContext.isApiUser()).isValid())
-                .findAny();
+                .filter(o -> offerFilterService.canTakeOffer(o, coreContext.isApiUser()).isValid());
     }
 
     private Optional<OpenOffer> findMyOpenOffer(String id) {
@@ -469,6 +503,14 @@ class CoreOffersService {
         return isDirectionMatch && isCurrencyMatch;
     }
 
+    private boolean marketMatchesDirectionAndCurrency(OfferBookService.MarketKey marketKey,
+                                                      String direction,
+                                                      String currencyCode) {
+        var isDirectionMatch = marketKey.getDirection().name().equalsIgnoreCase(direction);
+        var isCurrencyMatch = marketKey.getCounterCurrencyCode().equalsIgnoreCase(currencyCode);
+        return isDirectionMatch && isCurrencyMatch;
+    }
+
     private Comparator<OpenOffer> openOfferPriceComparator(String direction) {
         // A buyer probably wants to see sell orders in price ascending order.
         // A seller probably wants to see buy orders in price descending order.
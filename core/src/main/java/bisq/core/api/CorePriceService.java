@@ -17,11 +17,15 @@
 
 package bisq.core.api;
 
+import bisq.core.provider.price.MarketPrice;
 import bisq.core.provider.price.PriceFeedService;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Consumer;
 
 import lombok.extern.slf4j.Slf4j;
@@ -35,10 +39,14 @@ import static java.lang.String.format;
 class CorePriceService {
 
     private final PriceFeedService priceFeedService;
+    private final List<Runnable> priceUpdateListeners = new CopyOnWriteArrayList<>();
 
     @Inject
     public CorePriceService(PriceFeedService priceFeedService) {
         this.priceFeedService = priceFeedService;
+
+        priceFeedService.updateCounterProperty().addListener((observable, oldValue, newValue) ->
+                priceUpdateListeners.forEach(Runnable::run));
     }
 
     public void getMarketPrice(String currencyCode, Consumer<Double> resultHandler) {
@@ -66,4 +74,26 @@ class CorePriceService {
                 },
                 (errorMessage, throwable) -> log.warn(errorMessage, throwable));
     }
+
+    // Returns the last price received by the PriceFeedService without requesting the price feed.
+    public Optional<Double> getCachedMarketPrice(String currencyCode) {
+        String upperCaseCurrencyCode = currencyCode.toUpperCase();
+
+        if (!isFiatCurrency(upperCaseCurrencyCode))
+            throw new IllegalStateException(format("%s is not a valid currency code", upperCaseCurrencyCode));
+
+        MarketPrice marketPrice = priceFeedService.getMarketPrice(upperCaseCurrencyCode);
+        return marketPrice != null && marketPrice.isPriceAvailable()
+                ? Optional.of(roundDouble(marketPrice.getPrice(), 4))
+                : Optional.empty();
+    }
+
+    // The listeners get called on the UserThread whenever the PriceFeedService received new prices.
+    public void addPriceUpdateListener(Runnable listener) {
+        priceUpdateListeners.add(listener);
+    }
+
+    public void removePriceUpdateListener(Runnable listener) {
+        priceUpdateListeners.remove(listener);
+    }
 }
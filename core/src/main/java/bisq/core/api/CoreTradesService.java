@@ -40,10 +40,19 @@ import bisq.common.handlers.ErrorMessageHandler;
 
 import org.bitcoinj.core.Coin;
 
+import javafx.beans.value.ChangeListener;
+
+import javafx.collections.ListChangeListener;
+
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Consumer;
 
 import lombok.extern.slf4j.Slf4j;
@@ -69,6 +78,12 @@ class CoreTradesService {
     private final TradeUtil tradeUtil;
     private final User user;
 
+    // Listeners might get removed while the listeners are called, so we use a CopyOnWriteArrayList.
+    private final List<TradeChangedListener> tradeChangedListeners = new CopyOnWriteArrayList<>();
+    private final ListChangeListener<Trade> tradeListChangeListener = this::onTradeListChanged;
+    // The listener we have added to the observed properties of each open trade
+    private final Map<Trade, ChangeListener<Object>> tradeStateListeners = new HashMap<>();
+
     @Inject
     public CoreTradesService(CoreContext coreContext,
                              CoreWalletsService coreWalletsService,
@@ -269,6 +284,67 @@ class CoreTradesService {
                 ));
     }
 
+    List<Trade> getOpenTrades() {
+        return new ArrayList<>(tradeManager.getObservableList());
+    }
+
+    // The listeners get called on the UserThread when a trade was added, removed or its state has changed, so they
+    // should be added and removed on the UserThread as well. We only observe the trades while we have listeners.
+    void addTradeChangedListener(TradeChangedListener listener) {
+        if (tradeChangedListeners.isEmpty()) {
+            tradeManager.getObservableList().forEach(this::observeTrade);
+            tradeManager.getObservableList().addListener(tradeListChangeListener);
+        }
+        tradeChangedListeners.add(listener);
+    }
+
+    void removeTradeChangedListener(TradeChangedListener listener) {
+        if (tradeChangedListeners.remove(listener) && tradeChangedListeners.isEmpty()) {
+            tradeManager.getObservableList().removeListener(tradeListChangeListener);
+            new ArrayList<>(tradeStateListeners.keySet()).forEach(this::unobserveTrade);
+        }
+    }
+
+    private void onTradeListChanged(ListChangeListener.Change<? extends Trade> change) {
+        while (change.next()) {
+            change.getRemoved().forEach(trade -> {
+                unobserveTrade(trade);
+                tradeChangedListeners.forEach(e -> e.onTradeRemoved(trade));
+            });
+            change.getAddedSubList().forEach(trade -> {
+                observeTrade(trade);
+                tradeChangedListeners.forEach(e -> e.onTradeChanged(trade));
+            });
+        }
+    }
+
+    private void observeTrade(Trade trade) {
+        if (tradeStateListeners.containsKey(trade)) {
+            return;
+        }
+        ChangeListener<Object> listener = (observable, oldValue, newValue) ->
+                tradeChangedListeners.forEach(e -> e.onTradeChanged(trade));
+        tradeStateListeners.put(trade, listener);
+        trade.stateProperty().addListener(listener);
+        trade.disputeStateProperty().addListener(listener);
+        trade.mediationResultStateProperty().addListener(listener);
+        trade.refundResultStateProperty().addListener(listener);
+        trade.tradePeriodStateProperty().addListener(listener);
+        trade.getAssetTxProofResultUpdateProperty().addListener(listener);
+    }
+
+    private void unobserveTrade(Trade trade) {
+        ChangeListener<Object> listener = tradeStateListeners.remove(trade);
+        if (listener != null) {
+            trade.stateProperty().removeListener(listener);
+            trade.disputeStateProperty().removeListener(listener);
+            trade.mediationResultStateProperty().removeListener(listener);
+            trade.refundResultStateProperty().removeListener(listener);
+            trade.tradePeriodStateProperty().removeListener(listener);
+            trade.getAssetTxProofResultUpdateProperty().removeListener(listener);
+        }
+    }
+
     private Optional<Trade> getOpenTrade(String tradeId) {
         return tradeManager.getTradeById(tradeId);
     }
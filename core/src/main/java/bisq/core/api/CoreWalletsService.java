@@ -634,8 +634,7 @@ class CoreWalletsService {
 
     private AddressEntry getAddressEntry(String addressString) {
         Optional<AddressEntry> addressEntry =
-                btcWalletService.getAddressEntryListAsImmutableList().stream()
-                        .filter(e -> addressString.equals(e.getAddressString()))
+                btcWalletService.getAddressEntriesByAddress(addressString).stream()
                         .findFirst();
 
         if (!addressEntry.isPresent())
@@ -34,6 +34,7 @@ import bisq.core.trade.txproof.xmr.XmrTxProofService;
 import bisq.network.p2p.P2PService;
 
 import bisq.common.ClockWatcher;
+import bisq.common.InstrumentedExecutor;
 import bisq.common.UserThread;
 import bisq.common.app.AppModule;
 import bisq.common.config.BisqHelpFormatter;
@@ -136,6 +137,10 @@ public abstract class BisqExecutable implements GracefulShutDownHandler, BisqSet
     // Desktop gets called from JavaFx thread
     protected void onApplicationLaunched() {
         configUserThread();
+        if (config.userThreadSlowTaskThresholdMs > 0) {
+            InstrumentedExecutor instrumentedExecutor = UserThread.instrumentExecutor(config.userThreadSlowTaskThresholdMs);
+            UserThread.runPeriodically(() -> instrumentedExecutor.logSummary(10), 10, TimeUnit.MINUTES);
+        }
 
         // Now we can use the user thread start periodic tasks
         CommonSetup.startPeriodicTasks();
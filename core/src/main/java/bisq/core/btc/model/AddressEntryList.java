@@ -19,6 +19,7 @@ package bisq.core.btc.model;
 
 import bisq.common.config.Config;
 import bisq.common.persistence.PersistenceManager;
+import bisq.common.persistence.SnapshotPersistableEnvelope;
 import bisq.common.proto.persistable.PersistableEnvelope;
 import bisq.common.proto.persistable.PersistedDataHost;
 
@@ -38,22 +39,34 @@ import com.google.common.collect.ImmutableList;
 import org.apache.commons.lang3.tuple.Pair;
 
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import lombok.extern.slf4j.Slf4j;
 
+import javax.annotation.Nullable;
+
 /**
  * The AddressEntries was previously stored as list, now as hashSet. We still keep the old name to reflect the
  * associated protobuf message.
+ * <p/>
+ * Beside the set we keep indexes by offer ID, context and address so that lookups do not need to iterate all
+ * entries. The set and the indexes are only mutated inside synchronized methods, reads do not need a lock as
+ * concurrent collections are used.
  */
 @Slf4j
-public final class AddressEntryList implements PersistableEnvelope, PersistedDataHost {
+public final class AddressEntryList implements SnapshotPersistableEnvelope, PersistedDataHost {
     transient private PersistenceManager<AddressEntryList> persistenceManager;
     transient private Wallet wallet;
-    private final Set<AddressEntry> entrySet = new CopyOnWriteArraySet<>();
+    private final Set<AddressEntry> entrySet = ConcurrentHashMap.newKeySet();
+    transient private final Map<String, Set<AddressEntry>> entriesByOfferId = new ConcurrentHashMap<>();
+    transient private final Map<AddressEntry.Context, Set<AddressEntry>> entriesByContext = new ConcurrentHashMap<>();
+    // The address is only available once the key is set at onWalletReady, so we only fill that index from then on
+    transient private final Map<String, Set<AddressEntry>> entriesByAddress = new ConcurrentHashMap<>();
 
     @Inject
     public AddressEntryList(PersistenceManager<AddressEntryList> persistenceManager) {
@@ -65,8 +78,8 @@ public final class AddressEntryList implements PersistableEnvelope, PersistedDat
     @Override
     public void readPersisted(Runnable completeHandler) {
         persistenceManager.readPersisted(persisted -> {
-                    entrySet.clear();
-                    entrySet.addAll(persisted.entrySet);
+                    clearEntries();
+                    persisted.entrySet.forEach(this::addEntry);
                     completeHandler.run();
                 },
                 completeHandler);
@@ -78,7 +91,7 @@ public final class AddressEntryList implements PersistableEnvelope, PersistedDat
     ///////////////////////////////////////////////////////////////////////////////////////////
 
     private AddressEntryList(Set<AddressEntry> entrySet) {
-        this.entrySet.addAll(entrySet);
+        entrySet.forEach(this::addEntry);
     }
 
     public static AddressEntryList fromProto(protobuf.AddressEntryList proto) {
@@ -99,6 +112,14 @@ public final class AddressEntryList implements PersistableEnvelope, PersistedDat
                 .build();
     }
 
+    // The swap methods remove an entry and add its replacement, so serializing the live set on the write thread
+    // could miss both of them. We copy the set under the same lock. The persisted fields of the AddressEntries are
+    // final, so the entries themselves can be shared with the copy.
+    @Override
+    public synchronized PersistableEnvelope getSnapshot() {
+        return new AddressEntryList(Set.copyOf(entrySet));
+    }
+
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // API
@@ -135,11 +156,12 @@ public final class AddressEntryList implements PersistableEnvelope, PersistedDat
                 }
             });
 
-            toBeRemoved.forEach(entrySet::remove);
+            toBeRemoved.forEach(this::removeEntry);
+            entrySet.forEach(this::addToAddressIndex);
         } else {
             // As long the old arbitration domain is not removed from the code base we still support it here.
             DeterministicKey key = (DeterministicKey) wallet.findKeyFromAddress(wallet.freshReceiveAddress(Script.ScriptType.P2PKH));
-            entrySet.add(new AddressEntry(key, AddressEntry.Context.ARBITRATOR, false));
+            addEntry(new AddressEntry(key, AddressEntry.Context.ARBITRATOR, false));
         }
 
         // In case we restore from seed words and have balance we need to add the relevant addresses to our list.
@@ -153,7 +175,7 @@ public final class AddressEntryList implements PersistableEnvelope, PersistedDat
                         if (key != null) {
                             // Address will be derived from key in getAddress method
                             log.info("Create AddressEntry for IssuedReceiveAddress. address={}", address.toString());
-                            entrySet.add(new AddressEntry(key, AddressEntry.Context.AVAILABLE, address instanceof SegwitAddress));
+                            addEntry(new AddressEntry(key, AddressEntry.Context.AVAILABLE, address instanceof SegwitAddress));
                         } else {
                             log.warn("DeterministicKey for address {} is null", address);
                         }
@@ -179,13 +201,30 @@ public final class AddressEntryList implements PersistableEnvelope, PersistedDat
         return ImmutableList.copyOf(entrySet);
     }
 
-    public void addAddressEntry(AddressEntry addressEntry) {
-        boolean entryWithSameOfferIdAndContextAlreadyExist = entrySet.stream().anyMatch(e -> {
-            if (addressEntry.getOfferId() != null) {
-                return addressEntry.getOfferId().equals(e.getOfferId()) && addressEntry.getContext() == e.getContext();
-            }
-            return false;
-        });
+    public ImmutableList<AddressEntry> getAddressEntriesByOfferId(String offerId) {
+        return ImmutableList.copyOf(entriesByOfferId.getOrDefault(offerId, Set.of()));
+    }
+
+    public ImmutableList<AddressEntry> getAddressEntriesByContext(AddressEntry.Context context) {
+        return ImmutableList.copyOf(entriesByContext.getOrDefault(context, Set.of()));
+    }
+
+    public ImmutableList<AddressEntry> getAddressEntriesByAddress(@Nullable String address) {
+        if (address == null) {
+            return ImmutableList.of();
+        }
+        return ImmutableList.copyOf(entriesByAddress.getOrDefault(address, Set.of()));
+    }
+
+    public Optional<AddressEntry> findAddressEntry(String offerId, AddressEntry.Context context) {
+        return entriesByOfferId.getOrDefault(offerId, Set.of()).stream()
+                .filter(e -> context == e.getContext())
+                .findAny();
+    }
+
+    public synchronized void addAddressEntry(AddressEntry addressEntry) {
+        boolean entryWithSameOfferIdAndContextAlreadyExist = addressEntry.getOfferId() != null &&
+                findAddressEntry(addressEntry.getOfferId(), addressEntry.getContext()).isPresent();
         if (entryWithSameOfferIdAndContextAlreadyExist) {
             log.error("We have an address entry with the same offer ID and context. We do not add the new one. " +
                     "addressEntry={}, entrySet={}", addressEntry, entrySet);
@@ -193,12 +232,12 @@ public final class AddressEntryList implements PersistableEnvelope, PersistedDat
         }
 
         log.info("addAddressEntry: add new AddressEntry {}", addressEntry);
-        boolean setChangedByAdd = entrySet.add(addressEntry);
+        boolean setChangedByAdd = addEntry(addressEntry);
         if (setChangedByAdd)
             requestPersistence();
     }
 
-    public void swapToAvailable(AddressEntry addressEntry) {
+    public synchronized void swapToAvailable(AddressEntry addressEntry) {
         if (addressEntry.getContext() == AddressEntry.Context.MULTI_SIG) {
             log.error("swapToAvailable called with an addressEntry with MULTI_SIG context. " +
                     "This in not permitted as we must not reuse those address entries and there are " +
@@ -209,8 +248,8 @@ public final class AddressEntryList implements PersistableEnvelope, PersistedDat
         }
 
         log.info("swapToAvailable addressEntry to swap={}", addressEntry);
-        boolean setChangedByRemove = entrySet.remove(addressEntry);
-        boolean setChangedByAdd = entrySet.add(new AddressEntry(addressEntry.getKeyPair(),
+        boolean setChangedByRemove = removeEntry(addressEntry);
+        boolean setChangedByAdd = addEntry(new AddressEntry(addressEntry.getKeyPair(),
                 AddressEntry.Context.AVAILABLE,
                 addressEntry.isSegwit()));
         if (setChangedByRemove || setChangedByAdd) {
@@ -218,33 +257,33 @@ public final class AddressEntryList implements PersistableEnvelope, PersistedDat
         }
     }
 
-    public AddressEntry swapAvailableToAddressEntryWithOfferId(AddressEntry addressEntry,
-                                                               AddressEntry.Context context,
-                                                               String offerId) {
-        boolean setChangedByRemove = entrySet.remove(addressEntry);
+    public synchronized AddressEntry swapAvailableToAddressEntryWithOfferId(AddressEntry addressEntry,
+                                                                            AddressEntry.Context context,
+                                                                            String offerId) {
+        boolean setChangedByRemove = removeEntry(addressEntry);
         AddressEntry newAddressEntry = new AddressEntry(addressEntry.getKeyPair(), context, offerId, addressEntry.isSegwit());
         log.info("swapAvailableToAddressEntryWithOfferId newAddressEntry={}", newAddressEntry);
-        boolean setChangedByAdd = entrySet.add(newAddressEntry);
+        boolean setChangedByAdd = addEntry(newAddressEntry);
         if (setChangedByRemove || setChangedByAdd)
             requestPersistence();
 
         return newAddressEntry;
     }
 
-    public void setCoinLockedInMultiSigAddressEntry(AddressEntry addressEntry, long value) {
+    public synchronized void setCoinLockedInMultiSigAddressEntry(AddressEntry addressEntry, long value) {
         if (addressEntry.getContext() != AddressEntry.Context.MULTI_SIG) {
             log.error("setCoinLockedInMultiSigAddressEntry must be called only on MULTI_SIG entries");
             return;
         }
 
         log.info("setCoinLockedInMultiSigAddressEntry addressEntry={}, value={}", addressEntry, value);
-        boolean setChangedByRemove = entrySet.remove(addressEntry);
+        boolean setChangedByRemove = removeEntry(addressEntry);
         AddressEntry entry = new AddressEntry(addressEntry.getKeyPair(),
                 addressEntry.getContext(),
                 addressEntry.getOfferId(),
                 value,
                 addressEntry.isSegwit());
-        boolean setChangedByAdd = entrySet.add(entry);
+        boolean setChangedByAdd = addEntry(entry);
         if (setChangedByRemove || setChangedByAdd) {
             requestPersistence();
         }
@@ -273,7 +312,59 @@ public final class AddressEntryList implements PersistableEnvelope, PersistedDat
     }
 
     private boolean isAddressNotInEntries(Address address) {
-        return entrySet.stream().noneMatch(e -> address.equals(e.getAddress()));
+        return !entriesByAddress.containsKey(address.toString());
+    }
+
+    private synchronized boolean addEntry(AddressEntry addressEntry) {
+        if (!entrySet.add(addressEntry)) {
+            return false;
+        }
+        if (addressEntry.getOfferId() != null) {
+            entriesByOfferId.computeIfAbsent(addressEntry.getOfferId(), k -> ConcurrentHashMap.newKeySet())
+                    .add(addressEntry);
+        }
+        entriesByContext.computeIfAbsent(addressEntry.getContext(), k -> ConcurrentHashMap.newKeySet())
+                .add(addressEntry);
+        if (wallet != null) {
+            addToAddressIndex(addressEntry);
+        }
+        return true;
+    }
+
+    private synchronized boolean removeEntry(AddressEntry addressEntry) {
+        if (!entrySet.remove(addressEntry)) {
+            return false;
+        }
+        removeFromIndex(entriesByOfferId, addressEntry.getOfferId(), addressEntry);
+        removeFromIndex(entriesByContext, addressEntry.getContext(), addressEntry);
+        if (wallet != null) {
+            removeFromIndex(entriesByAddress, addressEntry.getAddressString(), addressEntry);
+        }
+        return true;
+    }
+
+    private synchronized void clearEntries() {
+        entrySet.clear();
+        entriesByOfferId.clear();
+        entriesByContext.clear();
+        entriesByAddress.clear();
+    }
+
+    private void addToAddressIndex(AddressEntry addressEntry) {
+        String address = addressEntry.getAddressString();
+        if (address != null) {
+            entriesByAddress.computeIfAbsent(address, k -> ConcurrentHashMap.newKeySet()).add(addressEntry);
+        }
+    }
+
+    private static <K> void removeFromIndex(Map<K, Set<AddressEntry>> index, K key, AddressEntry addressEntry) {
+        if (key == null) {
+            return;
+        }
+        index.computeIfPresent(key, (k, set) -> {
+            set.remove(addressEntry);
+            return set.isEmpty() ? null : set;
+        });
     }
 
     @Override
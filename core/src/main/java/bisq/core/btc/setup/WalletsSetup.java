@@ -540,8 +540,7 @@ public class WalletsSetup {
     }
 
     public Set<Address> getAddressesByContext(@SuppressWarnings("SameParameterValue") AddressEntry.Context context) {
-        return addressEntryList.getAddressEntriesAsListImmutable().stream()
-                .filter(addressEntry -> addressEntry.getContext() == context)
+        return addressEntryList.getAddressEntriesByContext(context).stream()
                 .map(AddressEntry::getAddress)
                 .collect(Collectors.toSet());
     }
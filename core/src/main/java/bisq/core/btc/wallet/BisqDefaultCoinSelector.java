@@ -100,9 +100,7 @@ public abstract class BisqDefaultCoinSelector implements CoinSelector {
                         break;
                 }
 
-                if (output.getParentTransaction() != null &&
-                        isTxSpendable(output.getParentTransaction()) &&
-                        isTxOutputSpendable(output)) {
+                if (isSpendable(output)) {
                     selected.add(output);
                     total += output.getValue().value;
                 }
@@ -115,6 +113,17 @@ public abstract class BisqDefaultCoinSelector implements CoinSelector {
 
     protected abstract boolean isDustAttackUtxo(TransactionOutput output);
 
+    // Returns true if the output gets selected in case we spend all candidates
+    boolean isSelectable(TransactionOutput output) {
+        return !isDustAttackUtxo(output) && isSpendable(output);
+    }
+
+    private boolean isSpendable(TransactionOutput output) {
+        return output.getParentTransaction() != null &&
+                isTxSpendable(output.getParentTransaction()) &&
+                isTxOutputSpendable(output);
+    }
+
     public Coin getChange(Coin target, CoinSelection coinSelection) throws InsufficientMoneyException {
         long value = target.value;
         long available = coinSelection.valueGathered.value;
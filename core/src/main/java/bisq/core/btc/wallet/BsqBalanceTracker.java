@@ -0,0 +1,393 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.btc.wallet;
+
+import bisq.core.dao.state.DaoStateService;
+import bisq.core.dao.state.model.blockchain.Block;
+import bisq.core.dao.state.model.blockchain.TxOutput;
+import bisq.core.dao.state.model.blockchain.TxOutputKey;
+import bisq.core.dao.state.model.blockchain.TxOutputType;
+import bisq.core.dao.state.unconfirmed.UnconfirmedBsqChangeOutputListService;
+
+import org.bitcoinj.core.Coin;
+import org.bitcoinj.core.NetworkParameters;
+import org.bitcoinj.core.Sha256Hash;
+import org.bitcoinj.core.Transaction;
+import org.bitcoinj.core.TransactionConfidence;
+import org.bitcoinj.core.TransactionInput;
+import org.bitcoinj.core.TransactionOutPoint;
+import org.bitcoinj.core.TransactionOutput;
+import org.bitcoinj.wallet.Wallet;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+import static org.bitcoinj.core.TransactionConfidence.ConfidenceType.BUILDING;
+import static org.bitcoinj.core.TransactionConfidence.ConfidenceType.DEAD;
+import static org.bitcoinj.core.TransactionConfidence.ConfidenceType.PENDING;
+
+/**
+ * Keeps the balances of the BSQ wallet as running totals of the contributions of the outputs of the wallet
+ * transactions. At an update only the outputs of the changed transactions, the outputs spent by them and the outputs
+ * which can change their DAO state without getting spent (bonds and issuance candidates) are evaluated again and the
+ * difference to their previous contribution is applied to the totals. An update therefore does not depend on the
+ * number of spend candidates or pending transactions of the wallet.
+ * <p/>
+ * {@link #recalculate(Wallet)} calculates the balances from all spend candidates, pending transactions and DAO
+ * outputs and is only used for verifying the running totals.
+ * <p/>
+ * Not thread safe. It is only accessed from the UserThread.
+ */
+@Slf4j
+class BsqBalanceTracker {
+    @Value
+    static class BsqBalance {
+        Coin availableBalance;
+        Coin availableNonBsqBalance;
+        Coin unverifiedBalance;
+        Coin unconfirmedChangeBalance;
+        Coin lockedForVotingBalance;
+        Coin lockupBondsBalance;
+        Coin unlockingBondsBalance;
+    }
+
+    // The contribution of a single output to the balances
+    @Value
+    private static class OutputBalance {
+        long available;
+        long availableNonBsq;
+        long unverified;
+        long lockedForVoting;
+        long lockupBonds;
+        long unlockingBonds;
+    }
+
+    private static final OutputBalance NO_BALANCE = new OutputBalance(0, 0, 0, 0, 0, 0);
+
+    private final DaoStateService daoStateService;
+    private final BsqCoinSelector bsqCoinSelector;
+    private final NonBsqCoinSelector nonBsqCoinSelector;
+    private final UnconfirmedBsqChangeOutputListService unconfirmedBsqChangeOutputListService;
+
+    private final Map<TxOutputKey, OutputBalance> outputBalanceByKey = new HashMap<>();
+    // Outputs which can change their contribution with a new block even if they do not get spent
+    private final Map<TxOutputKey, TransactionOutput> daoStateDependentOutputByKey = new HashMap<>();
+    private final Set<Transaction> changedTransactions = new HashSet<>();
+    private boolean newBlockParsed;
+    private boolean resetRequested = true;
+    private int lastParsedBlockHeight;
+
+    private long available;
+    private long availableNonBsq;
+    private long unverified;
+    private long lockedForVoting;
+    private long lockupBonds;
+    private long unlockingBonds;
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Constructor
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    BsqBalanceTracker(DaoStateService daoStateService,
+                      BsqCoinSelector bsqCoinSelector,
+                      NonBsqCoinSelector nonBsqCoinSelector,
+                      UnconfirmedBsqChangeOutputListService unconfirmedBsqChangeOutputListService) {
+        this.daoStateService = daoStateService;
+        this.bsqCoinSelector = bsqCoinSelector;
+        this.nonBsqCoinSelector = nonBsqCoinSelector;
+        this.unconfirmedBsqChangeOutputListService = unconfirmedBsqChangeOutputListService;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    void onTransactionChanged(Transaction tx) {
+        changedTransactions.add(tx);
+    }
+
+    void onParseBlockComplete(Wallet wallet, Block block) {
+        // A reorg of the DAO state can change the DAO state of any output
+        if (block.getHeight() <= lastParsedBlockHeight) {
+            resetRequested = true;
+        }
+        lastParsedBlockHeight = block.getHeight();
+
+        // The outputs of our transactions in the block and the outputs spent by them got added to the DAO state
+        block.getTxs().stream()
+                .map(tx -> wallet.getTransaction(Sha256Hash.wrap(tx.getId())))
+                .filter(Objects::nonNull)
+                .forEach(changedTransactions::add);
+        newBlockParsed = true;
+    }
+
+    // Used if the wallet changed without telling us which transactions are affected
+    void requestReset() {
+        resetRequested = true;
+    }
+
+    void update(Wallet wallet) {
+        if (resetRequested) {
+            reset(wallet);
+        } else {
+            Map<TxOutputKey, TransactionOutput> changedOutputByKey = new HashMap<>();
+            changedTransactions.forEach(tx -> {
+                tx.getOutputs().forEach(output -> changedOutputByKey.put(getKey(output), output));
+                getOutputsSpentBy(wallet, tx).forEach(output -> changedOutputByKey.put(getKey(output), output));
+            });
+            if (newBlockParsed) {
+                changedOutputByKey.putAll(daoStateDependentOutputByKey);
+            }
+            changedOutputByKey.forEach((key, output) -> updateOutputBalance(wallet, key, output));
+        }
+        changedTransactions.clear();
+        newBlockParsed = false;
+    }
+
+    BsqBalance getBalance() {
+        return new BsqBalance(Coin.valueOf(available),
+                Coin.valueOf(availableNonBsq),
+                Coin.valueOf(unverified),
+                unconfirmedBsqChangeOutputListService.getBalance(),
+                Coin.valueOf(lockedForVoting),
+                Coin.valueOf(lockupBonds),
+                Coin.valueOf(unlockingBonds));
+    }
+
+    // Calculates the balances from all wallet transactions, spend candidates and DAO outputs
+    BsqBalance recalculate(Wallet wallet) {
+        Set<Transaction> transactions = wallet.getTransactions(false);
+        Coin unverifiedBalance = Coin.valueOf(transactions.stream()
+                .filter(tx -> tx.getConfidence().getConfidenceType() == PENDING)
+                .mapToLong(tx -> getUnverifiedAmount(wallet, tx))
+                .sum());
+
+        Set<String> confirmedTxIdSet = transactions.stream()
+                .filter(tx -> tx.getConfidence().getConfidenceType() == BUILDING)
+                .map(Transaction::getTxId)
+                .map(Sha256Hash::toString)
+                .collect(Collectors.toSet());
+
+        Coin lockedForVotingBalance = Coin.valueOf(daoStateService.getUnspentBlindVoteStakeTxOutputs().stream()
+                .filter(txOutput -> confirmedTxIdSet.contains(txOutput.getTxId()))
+                .mapToLong(TxOutput::getValue)
+                .sum());
+
+        Coin lockupBondsBalance = Coin.valueOf(daoStateService.getLockupTxOutputs().stream()
+                .filter(txOutput -> daoStateService.isUnspent(txOutput.getKey()))
+                .filter(txOutput -> !daoStateService.isConfiscatedLockupTxOutput(txOutput.getTxId()))
+                .filter(txOutput -> confirmedTxIdSet.contains(txOutput.getTxId()))
+                .mapToLong(TxOutput::getValue)
+                .sum());
+
+        Coin unlockingBondsBalance = Coin.valueOf(daoStateService.getUnspentUnlockingTxOutputsStream()
+                .filter(txOutput -> confirmedTxIdSet.contains(txOutput.getTxId()))
+                .filter(txOutput -> !daoStateService.isConfiscatedUnlockTxOutput(txOutput.getTxId()))
+                .mapToLong(TxOutput::getValue)
+                .sum());
+
+        List<TransactionOutput> spendCandidates = wallet.calculateAllSpendCandidates();
+        return new BsqBalance(bsqCoinSelector.select(NetworkParameters.MAX_MONEY, spendCandidates).valueGathered,
+                nonBsqCoinSelector.select(NetworkParameters.MAX_MONEY, spendCandidates).valueGathered,
+                unverifiedBalance,
+                unconfirmedBsqChangeOutputListService.getBalance(),
+                lockedForVotingBalance,
+                lockupBondsBalance,
+                unlockingBondsBalance);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private void reset(Wallet wallet) {
+        outputBalanceByKey.clear();
+        daoStateDependentOutputByKey.clear();
+        available = 0;
+        availableNonBsq = 0;
+        unverified = 0;
+        lockedForVoting = 0;
+        lockupBonds = 0;
+        unlockingBonds = 0;
+        wallet.getTransactions(false).forEach(tx ->
+                tx.getOutputs().forEach(output -> updateOutputBalance(wallet, getKey(output), output)));
+        resetRequested = false;
+    }
+
+    private void updateOutputBalance(Wallet wallet, TxOutputKey key, TransactionOutput output) {
+        Optional<TxOutput> unspentTxOutput = daoStateService.getUnspentTxOutput(key);
+        OutputBalance outputBalance = getOutputBalance(wallet, key, output, unspentTxOutput);
+        OutputBalance previous = outputBalance.equals(NO_BALANCE) ?
+                outputBalanceByKey.remove(key) :
+                outputBalanceByKey.put(key, outputBalance);
+        if (previous != null) {
+            add(previous, -1);
+        }
+        add(outputBalance, 1);
+
+        if (unspentTxOutput.map(this::isDaoStateDependent).orElse(false)) {
+            daoStateDependentOutputByKey.put(key, output);
+        } else {
+            daoStateDependentOutputByKey.remove(key);
+        }
+    }
+
+    // Applies the same rules per output as the recalculation does for all outputs
+    private OutputBalance getOutputBalance(Wallet wallet,
+                                           TxOutputKey key,
+                                           TransactionOutput output,
+                                           Optional<TxOutput> unspentTxOutput) {
+        Transaction tx = output.getParentTransaction();
+        if (tx == null || wallet.getTransaction(tx.getTxId()) == null) {
+            return NO_BALANCE;
+        }
+
+        long value = output.getValue().value;
+        boolean isMine = output.isMine(wallet);
+        TransactionConfidence.ConfidenceType confidenceType = tx.getConfidence().getConfidenceType();
+
+        // Same filter as used by wallet.calculateAllSpendCandidates()
+        boolean isSpendCandidate = isMine &&
+                output.isAvailableForSpending() &&
+                confidenceType != DEAD &&
+                tx.isMature() &&
+                wallet.canSignFor(output.getScriptPubKey());
+        long available = isSpendCandidate && bsqCoinSelector.isSelectable(output) ? value : 0;
+        long availableNonBsq = isSpendCandidate && nonBsqCoinSelector.isSelectable(output) ? value : 0;
+
+        long unverified = 0;
+        if (confidenceType == PENDING && isMine && output.isAvailableForSpending()) {
+            unverified += value;
+        }
+        // Spending of a locked output by a pending tx is accounted for in lockupBonds and unlockingBonds
+        TransactionInput spentBy = output.getSpentBy();
+        if (spentBy != null &&
+                spentBy.getParentTransaction() != null &&
+                spentBy.getParentTransaction().getConfidence().getConfidenceType() == PENDING &&
+                isMine &&
+                isLockedOutput(key) &&
+                spentBy.getValue() != null) {
+            unverified -= spentBy.getValue().value;
+        }
+
+        long lockedForVoting = 0;
+        long lockupBonds = 0;
+        long unlockingBonds = 0;
+        if (confidenceType == BUILDING && unspentTxOutput.isPresent()) {
+            TxOutput txOutput = unspentTxOutput.get();
+            switch (txOutput.getTxOutputType()) {
+                case BLIND_VOTE_LOCK_STAKE_OUTPUT:
+                    lockedForVoting = txOutput.getValue();
+                    break;
+                case LOCKUP_OUTPUT:
+                    if (!daoStateService.isConfiscatedLockupTxOutput(txOutput.getTxId())) {
+                        lockupBonds = txOutput.getValue();
+                    }
+                    break;
+                case UNLOCK_OUTPUT:
+                    if (!daoStateService.isLockTimeOverForUnlockTxOutput(txOutput) &&
+                            !daoStateService.isConfiscatedUnlockTxOutput(txOutput.getTxId())) {
+                        unlockingBonds = txOutput.getValue();
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        return new OutputBalance(available, availableNonBsq, unverified, lockedForVoting, lockupBonds, unlockingBonds);
+    }
+
+    // Bonds can get confiscated or unlocked and issuance candidates accepted or rejected at a new block
+    private boolean isDaoStateDependent(TxOutput txOutput) {
+        TxOutputType txOutputType = txOutput.getTxOutputType();
+        return txOutputType == TxOutputType.LOCKUP_OUTPUT ||
+                txOutputType == TxOutputType.UNLOCK_OUTPUT ||
+                txOutputType == TxOutputType.ISSUANCE_CANDIDATE_OUTPUT;
+    }
+
+    private boolean isLockedOutput(TxOutputKey key) {
+        return daoStateService.isLockupOutput(key) || daoStateService.isUnlockingAndUnspent(key);
+    }
+
+    private void add(OutputBalance outputBalance, int sign) {
+        available += sign * outputBalance.available;
+        availableNonBsq += sign * outputBalance.availableNonBsq;
+        unverified += sign * outputBalance.unverified;
+        lockedForVoting += sign * outputBalance.lockedForVoting;
+        lockupBonds += sign * outputBalance.lockupBonds;
+        unlockingBonds += sign * outputBalance.unlockingBonds;
+    }
+
+    private Set<TransactionOutput> getOutputsSpentBy(Wallet wallet, Transaction tx) {
+        Set<TransactionOutput> outputs = new HashSet<>();
+        for (TransactionInput input : tx.getInputs()) {
+            TransactionOutPoint outPoint = input.getOutpoint();
+            Transaction parentTx = wallet.getTransaction(outPoint.getHash());
+            if (parentTx != null && outPoint.getIndex() < parentTx.getOutputs().size()) {
+                outputs.add(parentTx.getOutput(outPoint.getIndex()));
+            }
+        }
+        return outputs;
+    }
+
+    private static TxOutputKey getKey(TransactionOutput output) {
+        return new TxOutputKey(output.getParentTransactionHash().toString(), output.getIndex());
+    }
+
+    // Sum up outputs into BSQ wallet and subtract the inputs using lockup or unlocking outputs since those inputs
+    // will be accounted for in lockupBondsBalance and unlockingBondsBalance
+    private long getUnverifiedAmount(Wallet wallet, Transaction tx) {
+        long outputs = tx.getOutputs().stream()
+                .filter(out -> out.isMine(wallet))
+                .filter(TransactionOutput::isAvailableForSpending)
+                .mapToLong(out -> out.getValue().value)
+                .sum();
+        // Account for spending of locked connectedOutputs
+        long lockedInputs = tx.getInputs().stream()
+                .filter(in -> {
+                    TransactionOutput connectedOutput = in.getConnectedOutput();
+                    if (connectedOutput != null) {
+                        Transaction parentTransaction = connectedOutput.getParentTransaction();
+                        // TODO SQ
+                        if (parentTransaction != null/* &&
+                                parentTransaction.getConfidence().getConfidenceType() == BUILDING*/) {
+                            TxOutputKey key = new TxOutputKey(parentTransaction.getTxId().toString(),
+                                    connectedOutput.getIndex());
+                            return connectedOutput.isMine(wallet) && isLockedOutput(key);
+                        }
+                    }
+                    return false;
+                })
+                .mapToLong(in -> in.getValue() != null ? in.getValue().value : 0)
+                .sum();
+        return outputs - lockedInputs;
+    }
+}
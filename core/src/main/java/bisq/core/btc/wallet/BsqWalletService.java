@@ -30,7 +30,6 @@ import bisq.core.dao.state.DaoStateService;
 import bisq.core.dao.state.model.blockchain.Block;
 import bisq.core.dao.state.model.blockchain.Tx;
 import bisq.core.dao.state.model.blockchain.TxOutput;
-import bisq.core.dao.state.model.blockchain.TxOutputKey;
 import bisq.core.dao.state.model.blockchain.TxType;
 import bisq.core.dao.state.unconfirmed.UnconfirmedBsqChangeOutputListService;
 import bisq.core.provider.fee.FeeService;
@@ -78,7 +77,6 @@ import javax.annotation.Nullable;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
-import static org.bitcoinj.core.TransactionConfidence.ConfidenceType.BUILDING;
 import static org.bitcoinj.core.TransactionConfidence.ConfidenceType.PENDING;
 
 @Slf4j
@@ -89,6 +87,8 @@ public class BsqWalletService extends WalletService implements DaoStateListener
         void onWalletTransactionsChange();
     }
 
+    private static final long BALANCE_CONSISTENCY_CHECK_INTERVAL_MIN = 10;
+
     private final DaoKillSwitch daoKillSwitch;
     private final BsqCoinSelector bsqCoinSelector;
     private final NonBsqCoinSelector nonBsqCoinSelector;
@@ -98,6 +98,9 @@ public class BsqWalletService extends WalletService implements DaoStateListener
     private final CopyOnWriteArraySet<BsqBalanceListener> bsqBalanceListeners = new CopyOnWriteArraySet<>();
     private final List<WalletTransactionsChangeListener> walletTransactionsChangeListeners = new ArrayList<>();
     private boolean updateBsqWalletTransactionsPending;
+    private final BsqBalanceTracker bsqBalanceTracker;
+    @Nullable
+    private BsqBalanceTracker.BsqBalance bsqBalance;
     @Getter
     private final BsqFormatter bsqFormatter;
 
@@ -147,12 +150,16 @@ public class BsqWalletService extends WalletService implements DaoStateListener
         this.bsqFormatter = bsqFormatter;
 
         nonBsqCoinSelector.setPreferences(preferences);
+        bsqBalanceTracker = new BsqBalanceTracker(daoStateService, bsqCoinSelector, nonBsqCoinSelector,
+                unconfirmedBsqChangeOutputListService);
 
         walletsSetup.addSetupCompletedHandler(() -> {
             wallet = walletsSetup.getBsqWallet();
             if (wallet != null) {
                 wallet.setCoinSelector(bsqCoinSelector);
                 addListenersToWallet();
+                UserThread.runPeriodically(this::checkBsqBalanceConsistency,
+                        BALANCE_CONSISTENCY_CHECK_INTERVAL_MIN, TimeUnit.MINUTES);
             }
 
             BlockChain chain = walletsSetup.getChain();
@@ -170,13 +177,14 @@ public class BsqWalletService extends WalletService implements DaoStateListener
         super.addListenersToWallet();
 
         wallet.addCoinsReceivedEventListener((wallet, tx, prevBalance, newBalance) ->
-                updateBsqWalletTransactions()
+                onTransactionChanged(tx)
         );
         wallet.addCoinsSentEventListener((wallet, tx, prevBalance, newBalance) ->
-                updateBsqWalletTransactions()
+                onTransactionChanged(tx)
         );
         wallet.addReorganizeEventListener(wallet -> {
             log.warn("onReorganize ");
+            bsqBalanceTracker.requestReset();
             updateBsqWalletTransactions();
             unconfirmedBsqChangeOutputListService.onReorganize();
         });
@@ -186,21 +194,29 @@ public class BsqWalletService extends WalletService implements DaoStateListener
             // updateBsqWalletTransactions for each tx as the block depth changes for all.
             if (tx != null && tx.getConfidence() != null && tx.getConfidence().getDepthInBlocks() <= 1 &&
                     daoStateService.isParseBlockChainComplete()) {
-                updateBsqWalletTransactions();
+                onTransactionChanged(tx);
             }
             unconfirmedBsqChangeOutputListService.onTransactionConfidenceChanged(tx);
         });
-        wallet.addKeyChainEventListener(keys ->
-                updateBsqWalletTransactions()
-        );
-        wallet.addScriptsChangeEventListener((wallet, scripts, isAddingScripts) ->
-                updateBsqWalletTransactions()
-        );
+        wallet.addKeyChainEventListener(keys -> {
+            bsqBalanceTracker.requestReset();
+            updateBsqWalletTransactions();
+        });
+        wallet.addScriptsChangeEventListener((wallet, scripts, isAddingScripts) -> {
+            bsqBalanceTracker.requestReset();
+            updateBsqWalletTransactions();
+        });
+        // Changes of single transactions are reported by the listeners above, so we only update the transaction list
         wallet.addChangeEventListener(wallet ->
                 updateBsqWalletTransactions()
         );
     }
 
+    private void onTransactionChanged(Transaction tx) {
+        bsqBalanceTracker.onTransactionChanged(tx);
+        updateBsqWalletTransactions();
+    }
+
     ///////////////////////////////////////////////////////////////////////////////////////////
     // DaoStateListener
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -209,6 +225,7 @@ public class BsqWalletService extends WalletService implements DaoStateListener
     public void onParseBlockCompleteAfterBatchProcessing(Block block) {
         if (isWalletReady()) {
             wallet.getTransactions(false).forEach(unconfirmedBsqChangeOutputListService::onTransactionConfidenceChanged);
+            bsqBalanceTracker.onParseBlockComplete(wallet, block);
             updateBsqWalletTransactions();
         }
     }
@@ -230,86 +247,50 @@ public class BsqWalletService extends WalletService implements DaoStateListener
     // Balance
     ///////////////////////////////////////////////////////////////////////////////////////////
 
+    // Only the outputs affected by the wallet and DAO state changes since the last update get evaluated again, see
+    // BsqBalanceTracker.
     private void updateBsqBalance() {
         long ts = System.currentTimeMillis();
-        unverifiedBalance = Coin.valueOf(
-                getTransactions(false).stream()
-                        .filter(tx -> tx.getConfidence().getConfidenceType() == PENDING)
-                        .mapToLong(tx -> {
-                            // Sum up outputs into BSQ wallet and subtract the inputs using lockup or unlocking
-                            // outputs since those inputs will be accounted for in lockupBondsBalance and
-                            // unlockingBondsBalance
-                            long outputs = tx.getOutputs().stream()
-                                    .filter(out -> out.isMine(wallet))
-                                    .filter(TransactionOutput::isAvailableForSpending)
-                                    .mapToLong(out -> out.getValue().value)
-                                    .sum();
-                            // Account for spending of locked connectedOutputs
-                            long lockedInputs = tx.getInputs().stream()
-                                    .filter(in -> {
-                                        TransactionOutput connectedOutput = in.getConnectedOutput();
-                                        if (connectedOutput != null) {
-                                            Transaction parentTransaction = connectedOutput.getParentTransaction();
-                                            // TODO SQ
-                                            if (parentTransaction != null/* &&
-                                                    parentTransaction.getConfidence().getConfidenceType() == BUILDING*/) {
-                                                TxOutputKey key = new TxOutputKey(parentTransaction.getTxId().toString(),
-                                                        connectedOutput.getIndex());
-
-                                                return (connectedOutput.isMine(wallet)
-                                                        && (daoStateService.isLockupOutput(key)
-                                                        || daoStateService.isUnlockingAndUnspent(key)));
-                                            }
-                                        }
-                                        return false;
-                                    })
-                                    .mapToLong(in -> in.getValue() != null ? in.getValue().value : 0)
-                                    .sum();
-                            return outputs - lockedInputs;
-                        })
-                        .sum()
-        );
-
-        Set<String> confirmedTxIdSet = getTransactions(false).stream()
-                .filter(tx -> tx.getConfidence().getConfidenceType() == BUILDING)
-                .map(Transaction::getTxId)
-                .map(Sha256Hash::toString)
-                .collect(Collectors.toSet());
-
-        lockedForVotingBalance = Coin.valueOf(daoStateService.getUnspentBlindVoteStakeTxOutputs().stream()
-                .filter(txOutput -> confirmedTxIdSet.contains(txOutput.getTxId()))
-                .mapToLong(TxOutput::getValue)
-                .sum());
-
-        lockupBondsBalance = Coin.valueOf(daoStateService.getLockupTxOutputs().stream()
-                .filter(txOutput -> daoStateService.isUnspent(txOutput.getKey()))
-                .filter(txOutput -> !daoStateService.isConfiscatedLockupTxOutput(txOutput.getTxId()))
-                .filter(txOutput -> confirmedTxIdSet.contains(txOutput.getTxId()))
-                .mapToLong(TxOutput::getValue)
-                .sum());
-
-        unlockingBondsBalance = Coin.valueOf(daoStateService.getUnspentUnlockingTxOutputsStream()
-                .filter(txOutput -> confirmedTxIdSet.contains(txOutput.getTxId()))
-                .filter(txOutput -> !daoStateService.isConfiscatedUnlockTxOutput(txOutput.getTxId()))
-                .mapToLong(TxOutput::getValue)
-                .sum());
-
-        availableBalance = bsqCoinSelector.select(NetworkParameters.MAX_MONEY,
-                wallet.calculateAllSpendCandidates()).valueGathered;
-
-        if (availableBalance.isNegative())
-            availableBalance = Coin.ZERO;
-
-        unconfirmedChangeBalance = unconfirmedBsqChangeOutputListService.getBalance();
+        bsqBalanceTracker.update(wallet);
+        applyBsqBalance(bsqBalanceTracker.getBalance());
+        log.info("updateBsqBalance took {} ms", System.currentTimeMillis() - ts);
+    }
 
-        availableNonBsqBalance = nonBsqCoinSelector.select(NetworkParameters.MAX_MONEY,
-                wallet.calculateAllSpendCandidates()).valueGathered;
+    // The full recalculation is only used as consistency check of the incrementally updated balance
+    private void checkBsqBalanceConsistency() {
+        if (!isWalletReady() || !daoStateService.isParseBlockChainComplete() || updateBsqWalletTransactionsPending) {
+            return;
+        }
 
+        long ts = System.currentTimeMillis();
+        bsqBalanceTracker.update(wallet);
+        BsqBalanceTracker.BsqBalance recalculatedBsqBalance = bsqBalanceTracker.recalculate(wallet);
+        if (!recalculatedBsqBalance.equals(bsqBalanceTracker.getBalance())) {
+            log.warn("The incrementally calculated BSQ balance does not match the recalculated balance. " +
+                            "We reset the incremental calculation.\nIncremental: {}\nRecalculated: {}",
+                    bsqBalanceTracker.getBalance(), recalculatedBsqBalance);
+            bsqBalanceTracker.requestReset();
+            bsqBalanceTracker.update(wallet);
+        }
+        if (!bsqBalanceTracker.getBalance().equals(bsqBalance)) {
+            applyBsqBalance(bsqBalanceTracker.getBalance());
+        }
+        log.info("checkBsqBalanceConsistency took {} ms", System.currentTimeMillis() - ts);
+    }
+
+    private void applyBsqBalance(BsqBalanceTracker.BsqBalance bsqBalance) {
+        this.bsqBalance = bsqBalance;
+        availableBalance = bsqBalance.getAvailableBalance().isNegative() ? Coin.ZERO : bsqBalance.getAvailableBalance();
+        availableNonBsqBalance = bsqBalance.getAvailableNonBsqBalance();
+        unverifiedBalance = bsqBalance.getUnverifiedBalance();
+        unconfirmedChangeBalance = bsqBalance.getUnconfirmedChangeBalance();
+        lockedForVotingBalance = bsqBalance.getLockedForVotingBalance();
+        lockupBondsBalance = bsqBalance.getLockupBondsBalance();
+        unlockingBondsBalance = bsqBalance.getUnlockingBondsBalance();
         verifiedBalance = availableBalance.subtract(unconfirmedChangeBalance);
 
         bsqBalanceListeners.forEach(e -> e.onUpdateBalances(availableBalance, availableNonBsqBalance, unverifiedBalance,
                 unconfirmedChangeBalance, lockedForVotingBalance, lockupBondsBalance, unlockingBondsBalance));
-        log.info("updateBsqBalance took {} ms", System.currentTimeMillis() - ts);
     }
 
     public void addBsqBalanceListener(BsqBalanceListener listener) {
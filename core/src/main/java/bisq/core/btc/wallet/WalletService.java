@@ -72,10 +72,6 @@ import org.bitcoinj.wallet.listeners.WalletReorganizeEventListener;
 
 import javax.inject.Inject;
 
-import com.google.common.collect.ImmutableMultiset;
-import com.google.common.collect.ImmutableSetMultimap;
-import com.google.common.collect.Multiset;
-import com.google.common.collect.SetMultimap;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.MoreExecutors;
@@ -87,11 +83,8 @@ import org.bouncycastle.crypto.params.KeyParameter;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArraySet;
-import java.util.concurrent.atomic.AtomicReference;
-import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -119,9 +112,8 @@ public abstract class WalletService {
     private final CopyOnWriteArraySet<AddressConfidenceListener> addressConfidenceListeners = new CopyOnWriteArraySet<>();
     private final CopyOnWriteArraySet<TxConfidenceListener> txConfidenceListeners = new CopyOnWriteArraySet<>();
     private final CopyOnWriteArraySet<BalanceListener> balanceListeners = new CopyOnWriteArraySet<>();
-    private final WalletChangeEventListener cacheInvalidationListener;
-    private final AtomicReference<Multiset<Address>> txOutputAddressCache = new AtomicReference<>();
-    private final AtomicReference<SetMultimap<Address, Transaction>> addressToMatchingTxSetCache = new AtomicReference<>();
+    private final WalletTransactionIndex walletTransactionIndex = new WalletTransactionIndex();
+    private final WalletTransactionIndexListener walletTransactionIndexListener = new WalletTransactionIndexListener();
     @Getter
     protected Wallet wallet;
     @Getter
@@ -143,11 +135,6 @@ public abstract class WalletService {
         this.feeService = feeService;
 
         params = walletsSetup.getParams();
-
-        cacheInvalidationListener = wallet -> {
-            txOutputAddressCache.set(null);
-            addressToMatchingTxSetCache.set(null);
-        };
     }
 
 
@@ -160,7 +147,11 @@ public abstract class WalletService {
         wallet.addCoinsSentEventListener(walletEventListener);
         wallet.addReorganizeEventListener(walletEventListener);
         wallet.addTransactionConfidenceEventListener(walletEventListener);
-        wallet.addChangeEventListener(Threading.SAME_THREAD, cacheInvalidationListener);
+        // The index must be updated before any listener on the UserThread reads it
+        wallet.addCoinsReceivedEventListener(Threading.SAME_THREAD, walletTransactionIndexListener);
+        wallet.addCoinsSentEventListener(Threading.SAME_THREAD, walletTransactionIndexListener);
+        wallet.addReorganizeEventListener(Threading.SAME_THREAD, walletTransactionIndexListener);
+        wallet.addTransactionConfidenceEventListener(Threading.SAME_THREAD, walletTransactionIndexListener);
     }
 
     public void shutDown() {
@@ -169,7 +160,10 @@ public abstract class WalletService {
             wallet.removeCoinsSentEventListener(walletEventListener);
             wallet.removeReorganizeEventListener(walletEventListener);
             wallet.removeTransactionConfidenceEventListener(walletEventListener);
-            wallet.removeChangeEventListener(cacheInvalidationListener);
+            wallet.removeCoinsReceivedEventListener(walletTransactionIndexListener);
+            wallet.removeCoinsSentEventListener(walletTransactionIndexListener);
+            wallet.removeReorganizeEventListener(walletTransactionIndexListener);
+            wallet.removeTransactionConfidenceEventListener(walletTransactionIndexListener);
         }
     }
 
@@ -439,36 +433,26 @@ public abstract class WalletService {
     public TransactionConfidence getConfidenceForAddress(Address address) {
         List<TransactionConfidence> transactionConfidenceList = new ArrayList<>();
         if (wallet != null) {
-            Set<Transaction> transactions = getAddressToMatchingTxSetMultiset().get(address);
+            Set<Transaction> transactions = walletTransactionIndex.getTransactions(wallet, address);
             transactionConfidenceList.addAll(transactions.stream().map(tx ->
                     getTransactionConfidence(tx, address)).collect(Collectors.toList()));
         }
         return getMostRecentConfidence(transactionConfidenceList);
     }
 
-    private SetMultimap<Address, Transaction> getAddressToMatchingTxSetMultiset() {
-        return addressToMatchingTxSetCache.updateAndGet(set -> set != null ? set : computeAddressToMatchingTxSetMultimap());
-    }
-
-    private SetMultimap<Address, Transaction> computeAddressToMatchingTxSetMultimap() {
-        return wallet.getTransactions(false).stream()
-                .collect(ImmutableSetMultimap.flatteningToImmutableSetMultimap(
-                        Function.identity(),
-                        (Function<Transaction, Stream<Address>>) (
-                                t -> getOutputsWithConnectedOutputs(t).stream()
-                                        .map(WalletService::getAddressFromOutput)
-                                        .filter(Objects::nonNull))))
-                .inverse();
-    }
-
     @Nullable
     public TransactionConfidence getConfidenceForTxId(String txId) {
-        if (wallet != null) {
-            Set<Transaction> transactions = wallet.getTransactions(false);
-            for (Transaction tx : transactions) {
-                if (tx.getTxId().toString().equals(txId))
-                    return tx.getConfidence();
+        if (wallet != null && txId != null) {
+            Sha256Hash txHash;
+            try {
+                txHash = Sha256Hash.wrap(txId);
+            } catch (IllegalArgumentException e) {
+                return null;
             }
+            // The wallet keeps its transactions in a map by tx ID, but that map contains dead transactions as well
+            Transaction tx = wallet.getTransaction(txHash);
+            if (tx != null && tx.getConfidence().getConfidenceType() != TransactionConfidence.ConfidenceType.DEAD)
+                return tx.getConfidence();
         }
         return null;
     }
@@ -484,7 +468,7 @@ public abstract class WalletService {
     }
 
 
-    private List<TransactionOutput> getOutputsWithConnectedOutputs(Transaction tx) {
+    static List<TransactionOutput> getOutputsWithConnectedOutputs(Transaction tx) {
         List<TransactionOutput> transactionOutputs = tx.getOutputs();
         List<TransactionOutput> connectedOutputs = new ArrayList<>();
 
@@ -571,19 +555,7 @@ public abstract class WalletService {
     ///////////////////////////////////////////////////////////////////////////////////////////
 
     public int getNumTxOutputsForAddress(Address address) {
-        return getTxOutputAddressMultiset().count(address);
-    }
-
-    private Multiset<Address> getTxOutputAddressMultiset() {
-        return txOutputAddressCache.updateAndGet(set -> set != null ? set : computeTxOutputAddressMultiset());
-    }
-
-    private Multiset<Address> computeTxOutputAddressMultiset() {
-        return wallet.getTransactions(false).stream()
-                .flatMap(t -> t.getOutputs().stream())
-                .map(WalletService::getAddressFromOutput)
-                .filter(Objects::nonNull)
-                .collect(ImmutableMultiset.toImmutableMultiset());
+        return walletTransactionIndex.getNumTxOutputs(wallet, address);
     }
 
     public boolean isAddressUnused(Address address) {
@@ -917,4 +889,32 @@ public abstract class WalletService {
             }
         }
     }
+
+    // Called by bitcoinj on the thread holding the wallet lock
+    private class WalletTransactionIndexListener implements WalletCoinsReceivedEventListener,
+            WalletCoinsSentEventListener,
+            WalletReorganizeEventListener,
+            TransactionConfidenceEventListener {
+        @Override
+        public void onCoinsReceived(Wallet wallet, Transaction tx, Coin prevBalance, Coin newBalance) {
+            walletTransactionIndex.onTransactionChanged(tx);
+        }
+
+        @Override
+        public void onCoinsSent(Wallet wallet, Transaction tx, Coin prevBalance, Coin newBalance) {
+            walletTransactionIndex.onTransactionChanged(tx);
+        }
+
+        @Override
+        public void onReorganize(Wallet wallet) {
+            walletTransactionIndex.invalidate();
+        }
+
+        @Override
+        public void onTransactionConfidenceChanged(Wallet wallet, Transaction tx) {
+            if (tx != null) {
+                walletTransactionIndex.onTransactionChanged(tx);
+            }
+        }
+    }
 }
@@ -0,0 +1,179 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.btc.wallet;
+
+import org.bitcoinj.core.Address;
+import org.bitcoinj.core.Sha256Hash;
+import org.bitcoinj.core.Transaction;
+import org.bitcoinj.core.TransactionConfidence;
+import org.bitcoinj.core.TransactionInput;
+import org.bitcoinj.core.TransactionOutput;
+import org.bitcoinj.wallet.Wallet;
+import org.bitcoinj.wallet.WalletTransaction;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Multiset;
+import com.google.common.collect.SetMultimap;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Indexes the non-dead wallet transactions by the addresses of their outputs and of the outputs connected to their
+ * inputs. The index is updated per transaction from the wallet listeners instead of being rebuilt from all wallet
+ * transactions at each wallet change.
+ * <p/>
+ * The listeners are called by bitcoinj while holding the wallet lock, so we must not call the wallet while holding
+ * the lock of the index. As a safety net for transactions we did not get notified about, we rebuild the index if the
+ * number of indexed transactions does not match the number of wallet transactions.
+ */
+@Slf4j
+@ThreadSafe
+class WalletTransactionIndex {
+    private static class IndexedTx {
+        private final Transaction tx;
+        private final Set<Address> addresses;
+        private final List<Address> outputAddresses;
+
+        private IndexedTx(Transaction tx) {
+            this.tx = tx;
+            addresses = WalletService.getOutputsWithConnectedOutputs(tx).stream()
+                    .map(WalletService::getAddressFromOutput)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toSet());
+            outputAddresses = tx.getOutputs().stream()
+                    .map(WalletService::getAddressFromOutput)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private final Map<Sha256Hash, IndexedTx> indexedTxById = new HashMap<>();
+    private final SetMultimap<Address, Transaction> txSetByAddress = HashMultimap.create();
+    private final Multiset<Address> txOutputAddresses = HashMultiset.create();
+    private boolean invalid = true;
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    synchronized void invalidate() {
+        invalid = true;
+    }
+
+    synchronized void onTransactionChanged(Transaction tx) {
+        if (invalid) {
+            return;
+        }
+
+        TransactionConfidence confidence = tx.getConfidence();
+        // A change of the depth of a confirmed tx does not change its addresses. That event is fired for all
+        // transactions at each new block.
+        if (confidence.getConfidenceType() == TransactionConfidence.ConfidenceType.BUILDING &&
+                confidence.getDepthInBlocks() > 1 &&
+                indexedTxById.containsKey(tx.getTxId())) {
+            return;
+        }
+
+        reindex(tx);
+        // If a tx arrives after the txs spending its outputs, their inputs get connected to its outputs
+        tx.getOutputs().stream()
+                .map(TransactionOutput::getSpentBy)
+                .filter(Objects::nonNull)
+                .map(TransactionInput::getParentTransaction)
+                .filter(Objects::nonNull)
+                .filter(spendingTx -> indexedTxById.containsKey(spendingTx.getTxId()))
+                .forEach(this::reindex);
+    }
+
+    Set<Transaction> getTransactions(Wallet wallet, Address address) {
+        maybeRebuild(wallet);
+        synchronized (this) {
+            return ImmutableSet.copyOf(txSetByAddress.get(address));
+        }
+    }
+
+    int getNumTxOutputs(Wallet wallet, Address address) {
+        maybeRebuild(wallet);
+        synchronized (this) {
+            return txOutputAddresses.count(address);
+        }
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private void maybeRebuild(Wallet wallet) {
+        int numTransactions = wallet.getPoolSize(WalletTransaction.Pool.UNSPENT) +
+                wallet.getPoolSize(WalletTransaction.Pool.SPENT) +
+                wallet.getPoolSize(WalletTransaction.Pool.PENDING);
+        synchronized (this) {
+            if (!invalid && indexedTxById.size() == numTransactions) {
+                return;
+            }
+            if (!invalid) {
+                log.warn("Number of indexed transactions {} does not match number of wallet transactions {}. " +
+                        "We rebuild the index.", indexedTxById.size(), numTransactions);
+            }
+        }
+
+        Set<Transaction> transactions = wallet.getTransactions(false);
+        synchronized (this) {
+            indexedTxById.clear();
+            txSetByAddress.clear();
+            txOutputAddresses.clear();
+            transactions.forEach(this::add);
+            invalid = false;
+        }
+    }
+
+    private void reindex(Transaction tx) {
+        remove(tx.getTxId());
+        if (tx.getConfidence().getConfidenceType() != TransactionConfidence.ConfidenceType.DEAD) {
+            add(tx);
+        }
+    }
+
+    private void add(Transaction tx) {
+        IndexedTx indexedTx = new IndexedTx(tx);
+        indexedTxById.put(tx.getTxId(), indexedTx);
+        indexedTx.addresses.forEach(address -> txSetByAddress.put(address, tx));
+        txOutputAddresses.addAll(indexedTx.outputAddresses);
+    }
+
+    private void remove(Sha256Hash txId) {
+        IndexedTx indexedTx = indexedTxById.remove(txId);
+        if (indexedTx != null) {
+            indexedTx.addresses.forEach(address -> txSetByAddress.remove(address, indexedTx.tx));
+            indexedTx.outputAddresses.forEach(txOutputAddresses::remove);
+        }
+    }
+}
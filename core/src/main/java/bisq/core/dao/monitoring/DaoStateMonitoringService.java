@@ -38,6 +38,7 @@ import bisq.network.p2p.network.Connection;
 import bisq.network.p2p.seed.SeedNodeRepository;
 
 import bisq.common.UserThread;
+import bisq.common.app.Capability;
 import bisq.common.config.Config;
 import bisq.common.crypto.Hash;
 import bisq.common.file.FileUtil;
@@ -119,6 +120,9 @@ public class DaoStateMonitoringService implements DaoSetupService, DaoStateListe
     );
     private boolean checkpointFailed;
     private final boolean ignoreDevMsg;
+    private final boolean useIncrementalDaoStateHash;
+    // Up to the last checkpoint we always use the legacy hash so that we can verify the checkpoints
+    private final int lastCheckpointHeight = checkpoints.stream().mapToInt(Checkpoint::getHeight).max().orElse(0);
     private int numCalls;
     private long accumulatedDuration;
 
@@ -141,13 +145,15 @@ public class DaoStateMonitoringService implements DaoSetupService, DaoStateListe
                                      SeedNodeRepository seedNodeRepository,
                                      Preferences preferences,
                                      @Named(Config.STORAGE_DIR) File storageDir,
-                                     @Named(Config.IGNORE_DEV_MSG) boolean ignoreDevMsg) {
+                                     @Named(Config.IGNORE_DEV_MSG) boolean ignoreDevMsg,
+                                     @Named(Config.USE_INCREMENTAL_DAO_STATE_HASH) boolean useIncrementalDaoStateHash) {
         this.daoStateService = daoStateService;
         this.daoStateNetworkService = daoStateNetworkService;
         this.genesisTxInfo = genesisTxInfo;
         this.preferences = preferences;
         this.storageDir = storageDir;
         this.ignoreDevMsg = ignoreDevMsg;
+        this.useIncrementalDaoStateHash = useIncrementalDaoStateHash;
         seedNodeAddresses = seedNodeRepository.getSeedNodeAddresses().stream()
                 .map(NodeAddress::getFullAddress)
                 .collect(Collectors.toSet());
@@ -238,8 +244,11 @@ public class DaoStateMonitoringService implements DaoSetupService, DaoStateListe
     @Override
     public void onGetStateHashRequest(Connection connection, GetDaoStateHashesRequest getStateHashRequest) {
         int fromHeight = getStateHashRequest.getHeight();
+        // Incremental hashes would be seen as conflicts by peers not using them, so they only get the legacy hashes
+        boolean peerUsesIncrementalHash = connection.getCapabilities().contains(Capability.INCREMENTAL_DAO_STATE_HASH);
         List<DaoStateHash> daoStateHashes = daoStateHashChain.stream()
                 .filter(e -> e.getHeight() >= fromHeight)
+                .filter(e -> peerUsesIncrementalHash || !e.isIncremental())
                 .collect(Collectors.toList());
         daoStateNetworkService.sendGetStateHashesResponse(connection, getStateHashRequest.getNonce(), daoStateHashes);
     }
@@ -332,19 +341,23 @@ public class DaoStateMonitoringService implements DaoSetupService, DaoStateListe
             }
         }
 
-        byte[] stateAsBytes = daoStateService.getSerializedStateForHashChain();
+        boolean isIncremental = useIncrementalHash(height);
+        byte[] stateAsBytes = isIncremental ?
+                daoStateService.getIncrementalStateForHashChain() :
+                daoStateService.getSerializedStateForHashChain();
         // We include the prev. hash in our new hash so we can be sure that if one hash is matching all the past would
         // match as well.
         byte[] combined = ArrayUtils.addAll(prevHash, stateAsBytes);
         byte[] hash = Hash.getSha256Ripemd160hash(combined);
 
-        DaoStateHash myDaoStateHash = new DaoStateHash(height, hash, true);
+        DaoStateHash myDaoStateHash = new DaoStateHash(height, hash, true, isIncremental);
         DaoStateBlock daoStateBlock = new DaoStateBlock(myDaoStateHash);
         daoStateBlockChain.add(daoStateBlock);
         daoStateBlockByHeight.put(height, daoStateBlock);
         daoStateHashChain.add(myDaoStateHash);
 
-        // We only broadcast after parsing of blockchain is complete
+        // We only broadcast after parsing of blockchain is complete. Incremental hashes only reach peers with the
+        // INCREMENTAL_DAO_STATE_HASH capability, see NewDaoStateHashMessage.getRequiredCapabilities.
         if (parseBlockChainComplete) {
             // We delay broadcast to give peers enough time to have received the block.
             // Otherwise they would ignore our data if received block is in future to their local blockchain.
@@ -380,7 +393,8 @@ public class DaoStateMonitoringService implements DaoSetupService, DaoStateListe
                             .orElse(findDaoStateBlock(height));
                 } else {
                     // Otherwise we create a block from the peers daoStateHash
-                    DaoStateHash daoStateHash = new DaoStateHash(height, peersHash.getHash(), false);
+                    DaoStateHash daoStateHash = new DaoStateHash(height, peersHash.getHash(), false,
+                            peersHash.isIncremental());
                     DaoStateBlock daoStateBlock = new DaoStateBlock(daoStateHash);
                     daoStateBlockChain.add(daoStateBlock);
                     daoStateBlockByHeight.put(height, daoStateBlock);
@@ -416,6 +430,12 @@ public class DaoStateMonitoringService implements DaoSetupService, DaoStateListe
             return;
         }
 
+        if (daoStateBlock.getMyStateHash().isIncremental() != peersDaoStateHash.isIncremental()) {
+            // Hashes created with different methods cannot be compared. Peers using the same method as we do get
+            // compared, so with the incremental mode we detect conflicts with other nodes using that mode.
+            return;
+        }
+
         daoStateBlock.putInConflictMap(peersNodeAddress, peersDaoStateHash);
         StringBuilder stringBuilder = new StringBuilder();
         stringBuilder.append("We received a block hash from peer ")
@@ -466,6 +486,7 @@ public class DaoStateMonitoringService implements DaoSetupService, DaoStateListe
                         try {
                             // Delete state and stop
                             removeFile("DaoStateStore");
+                            removeFile("DaoStateDeltas");
                             removeFile("BlindVoteStore");
                             removeFile("ProposalStore");
                             removeFile("TempProposalStore");
@@ -495,6 +516,15 @@ public class DaoStateMonitoringService implements DaoSetupService, DaoStateListe
         }
     }
 
+    // The incremental hash requires that we build our own hash for each block, so we only use it in full mode DAO
+    // monitor. If enabled on a node which has persisted legacy hashes above the last checkpoint a resync from genesis
+    // is needed to get hashes comparable with other nodes using the incremental mode.
+    private boolean useIncrementalHash(int height) {
+        return useIncrementalDaoStateHash &&
+                preferences.isUseFullModeDaoMonitor() &&
+                height > lastCheckpointHeight;
+    }
+
     private boolean isSeedNode(String peersNodeAddress) {
         return seedNodeAddresses.contains(peersNodeAddress);
     }
@@ -28,10 +28,18 @@ import lombok.Getter;
 public final class DaoStateHash extends StateHash {
     // If we have built the hash by ourself opposed to that we got delivered the hash from seed nodes or resources
     private final boolean isSelfCreated;
+    // If the hash was created from the incrementally maintained DaoStateCommitment instead of the serialized DaoState.
+    // Such hashes are only comparable with hashes created the same way.
+    private final boolean isIncremental;
 
     public DaoStateHash(int height, byte[] hash, boolean isSelfCreated) {
+        this(height, hash, isSelfCreated, false);
+    }
+
+    public DaoStateHash(int height, byte[] hash, boolean isSelfCreated, boolean isIncremental) {
         super(height, hash);
         this.isSelfCreated = isSelfCreated;
+        this.isIncremental = isIncremental;
     }
 
 
@@ -45,17 +53,22 @@ public final class DaoStateHash extends StateHash {
                 .setHeight(height)
                 .setHash(ByteString.copyFrom(hash))
                 .setIsSelfCreated(isSelfCreated)
+                .setIsIncremental(isIncremental)
                 .build();
     }
 
     public static DaoStateHash fromProto(protobuf.DaoStateHash proto) {
-        return new DaoStateHash(proto.getHeight(), proto.getHash().toByteArray(), proto.getIsSelfCreated());
+        return new DaoStateHash(proto.getHeight(),
+                proto.getHash().toByteArray(),
+                proto.getIsSelfCreated(),
+                proto.getIsIncremental());
     }
 
     @Override
     public String toString() {
         return "DaoStateHash{" +
                 "\r\n     isSelfCreated=" + isSelfCreated +
+                ",\r\n     isIncremental=" + isIncremental +
                 "\r\n} " + super.toString();
     }
 }
@@ -55,8 +55,11 @@ public final class NewDaoStateHashMessage extends NewStateHashMessage<DaoStateHa
         return new NewDaoStateHashMessage(DaoStateHash.fromProto(proto.getStateHash()), messageVersion);
     }
 
+    // Incremental hashes are only broadcast to peers which create and compare them as well
     @Override
     public Capabilities getRequiredCapabilities() {
-        return new Capabilities(Capability.DAO_STATE);
+        return stateHash.isIncremental() ?
+                new Capabilities(Capability.DAO_STATE, Capability.INCREMENTAL_DAO_STATE_HASH) :
+                new Capabilities(Capability.DAO_STATE);
     }
 }
@@ -18,12 +18,14 @@
 package bisq.core.dao.node.explorer;
 
 import bisq.core.dao.DaoSetupService;
+import bisq.core.dao.state.DaoStateMutationListener;
 import bisq.core.dao.state.DaoStateService;
-import bisq.core.dao.state.model.DaoState;
 import bisq.core.dao.state.model.blockchain.Block;
 import bisq.core.dao.state.model.blockchain.PubKeyScript;
+import bisq.core.dao.state.model.blockchain.SpentInfo;
 import bisq.core.dao.state.model.blockchain.Tx;
 import bisq.core.dao.state.model.blockchain.TxOutput;
+import bisq.core.dao.state.model.blockchain.TxOutputKey;
 import bisq.core.dao.state.model.blockchain.TxType;
 import bisq.core.util.JsonUtil;
 
@@ -44,36 +46,67 @@ import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.common.util.concurrent.MoreExecutors;
 
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import lombok.extern.slf4j.Slf4j;
 
+import javax.annotation.Nullable;
+
+/**
+ * Exports the BSQ blocks, txs and tx outputs as json files for the block explorers.
+ * <p/>
+ * By default all files are rewritten at each block. If dumpBlockchainDataIncremental is set we only write the files
+ * of the txs which got added or changed (e.g. by getting an output spent) since the last export and append the new
+ * blocks to the json lines file blocks.jsonl. At startup and after a reorg of the DAO state all files are written.
+ * As rewriting blocks.json at each block is what we want to avoid, it is not written in the incremental mode.
+ * <p/>
+ * Note that in the incremental mode the txs inside a block of blocks.jsonl reflect their state at the time the block
+ * was exported. The files in the tx and txo directories are kept up to date.
+ */
 @Slf4j
 public class ExportJsonFilesService implements DaoSetupService {
+    private static final String BLOCKS_JSON_LINES_FILE_NAME = "blocks.jsonl";
+
     private final DaoStateService daoStateService;
     private final File storageDir;
     private final boolean dumpBlockchainData;
+    private final boolean dumpBlockchainDataIncremental;
 
     private final ListeningExecutorService executor = Utilities.getListeningExecutorService("JsonExporter",
             1, 1, 1200);
     private JsonFileManager txFileManager, txOutputFileManager, bsqStateFileManager;
+    private File blocksJsonLinesFile;
+
+    // Only used in the incremental mode. Only accessed from the thread which applies the DaoState changes.
+    private final Set<String> changedTxIds = new HashSet<>();
+    private int lastExportedBlockHeight;
+    @Nullable
+    private String lastExportedBlockHash;
 
     @Inject
     public ExportJsonFilesService(DaoStateService daoStateService,
                                   @Named(Config.STORAGE_DIR) File storageDir,
-                                  @Named(Config.DUMP_BLOCKCHAIN_DATA) boolean dumpBlockchainData) {
+                                  @Named(Config.DUMP_BLOCKCHAIN_DATA) boolean dumpBlockchainData,
+                                  @Named(Config.DUMP_BLOCKCHAIN_DATA_INCREMENTAL) boolean dumpBlockchainDataIncremental) {
         this.daoStateService = daoStateService;
         this.storageDir = storageDir;
         this.dumpBlockchainData = dumpBlockchainData;
+        this.dumpBlockchainDataIncremental = dumpBlockchainDataIncremental;
     }
 
 
@@ -83,6 +116,9 @@ public class ExportJsonFilesService implements DaoSetupService {
 
     @Override
     public void addListeners() {
+        if (dumpBlockchainData && dumpBlockchainDataIncremental) {
+            daoStateService.addDaoStateMutationListener(new ChangedTxIdsCollector());
+        }
     }
 
     @Override
@@ -121,6 +157,7 @@ public class ExportJsonFilesService implements DaoSetupService {
             txFileManager = new JsonFileManager(txDir);
             txOutputFileManager = new JsonFileManager(txOutputDir);
             bsqStateFileManager = new JsonFileManager(bsqStateDir);
+            blocksJsonLinesFile = new File(bsqStateDir, BLOCKS_JSON_LINES_FILE_NAME);
         }
     }
 
@@ -135,42 +172,137 @@ public class ExportJsonFilesService implements DaoSetupService {
     public void maybeExportToJson() {
         if (dumpBlockchainData &&
                 daoStateService.isParseBlockChainComplete()) {
-            // We store the data we need once we write the data to disk (in the thread) locally.
-            // Access to daoStateService is single threaded, we must not access daoStateService from the thread.
-            List<JsonTxOutput> allJsonTxOutputs = new ArrayList<>();
+            if (dumpBlockchainDataIncremental) {
+                exportIncrementally();
+            } else {
+                exportAll();
+            }
+        }
+    }
 
-            List<JsonTx> jsonTxs = daoStateService.getUnorderedTxStream()
-                    .map(tx -> {
-                        JsonTx jsonTx = getJsonTx(tx);
-                        allJsonTxOutputs.addAll(jsonTx.getOutputs());
-                        return jsonTx;
-                    }).collect(Collectors.toList());
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private void exportAll() {
+        // We store the data we need once we write the data to disk (in the thread) locally.
+        // Access to daoStateService is single threaded, we must not access daoStateService from the thread.
+        List<JsonTx> jsonTxs = daoStateService.getUnorderedTxStream()
+                .map(this::getJsonTx)
+                .collect(Collectors.toList());
+        List<JsonTxOutput> allJsonTxOutputs = getJsonTxOutputs(jsonTxs);
+
+        GcUtil.maybeReleaseMemory();
+
+        // The json blocks are created here on the same thread, so we do not need a clone of the DaoState
+        List<JsonBlock> jsonBlockList = daoStateService.getBlocks().stream()
+                .map(this::getJsonBlock)
+                .collect(Collectors.toList());
+        JsonBlocks jsonBlocks = new JsonBlocks(daoStateService.getChainHeight(), jsonBlockList);
+
+        submit(() -> {
+            bsqStateFileManager.writeToDisc(JsonUtil.objectToJson(jsonBlocks), "blocks");
+            writeTxFiles(jsonTxs, allJsonTxOutputs);
 
             GcUtil.maybeReleaseMemory();
+        });
+    }
 
-            DaoState daoState = daoStateService.getClone();
-            List<JsonBlock> jsonBlockList = daoState.getBlocks().stream()
+    private void exportIncrementally() {
+        Optional<Block> lastBlock = daoStateService.getLastBlock();
+        if (lastBlock.isEmpty()) {
+            return;
+        }
+
+        boolean isLastExportedBlockInChain = lastExportedBlockHash != null &&
+                daoStateService.getBlockAtHeight(lastExportedBlockHeight)
+                        .map(block -> block.getHash().equals(lastExportedBlockHash))
+                        .orElse(false);
+        if (isLastExportedBlockInChain) {
+            List<Block> newBlocks = daoStateService.getBlocksFromBlockHeight(lastExportedBlockHeight + 1);
+            newBlocks.forEach(block -> block.getTxs().forEach(tx -> changedTxIds.add(tx.getId())));
+            List<JsonTx> jsonTxs = changedTxIds.stream()
+                    .map(daoStateService::getTx)
+                    .flatMap(Optional::stream)
+                    .map(this::getJsonTx)
+                    .collect(Collectors.toList());
+            List<JsonTxOutput> jsonTxOutputs = getJsonTxOutputs(jsonTxs);
+            List<JsonBlock> jsonBlocks = newBlocks.stream()
                     .map(this::getJsonBlock)
                     .collect(Collectors.toList());
-            JsonBlocks jsonBlocks = new JsonBlocks(daoState.getChainHeight(), jsonBlockList);
+            log.info("Export json files of {} new blocks and {} changed txs", jsonBlocks.size(), jsonTxs.size());
 
-            ListenableFuture<Void> future = executor.submit(() -> {
-                bsqStateFileManager.writeToDisc(JsonUtil.objectToJson(jsonBlocks), "blocks");
-                allJsonTxOutputs.forEach(jsonTxOutput -> txOutputFileManager.writeToDisc(JsonUtil.objectToJson(jsonTxOutput), jsonTxOutput.getId()));
-                jsonTxs.forEach(jsonTx -> txFileManager.writeToDisc(JsonUtil.objectToJson(jsonTx), jsonTx.getId()));
+            submit(() -> {
+                writeBlocksJsonLines(jsonBlocks, true);
+                writeTxFiles(jsonTxs, jsonTxOutputs);
+            });
+        } else {
+            if (lastExportedBlockHash != null) {
+                log.info("Block {} at height {} is not in the DAO state anymore. We export all json files.",
+                        lastExportedBlockHash, lastExportedBlockHeight);
+            }
+            List<JsonTx> jsonTxs = daoStateService.getUnorderedTxStream()
+                    .map(this::getJsonTx)
+                    .collect(Collectors.toList());
+            List<JsonTxOutput> jsonTxOutputs = getJsonTxOutputs(jsonTxs);
+            List<JsonBlock> jsonBlocks = daoStateService.getBlocks().stream()
+                    .map(this::getJsonBlock)
+                    .collect(Collectors.toList());
 
-                GcUtil.maybeReleaseMemory();
+            submit(() -> {
+                writeBlocksJsonLines(jsonBlocks, false);
+                writeTxFiles(jsonTxs, jsonTxOutputs);
 
-                return null;
+                GcUtil.maybeReleaseMemory();
             });
+        }
+
+        changedTxIds.clear();
+        lastExportedBlockHeight = lastBlock.get().getHeight();
+        lastExportedBlockHash = lastBlock.get().getHash();
+    }
 
-            Futures.addCallback(future, Utilities.failureCallback(throwable -> {
-                log.error(throwable.toString());
-                throwable.printStackTrace();
-            }), MoreExecutors.directExecutor());
+    private void submit(Runnable writeTask) {
+        ListenableFuture<Void> future = executor.submit(() -> {
+            writeTask.run();
+            return null;
+        });
+
+        Futures.addCallback(future, Utilities.failureCallback(throwable -> {
+            log.error(throwable.toString());
+            throwable.printStackTrace();
+        }), MoreExecutors.directExecutor());
+    }
+
+    private void writeTxFiles(List<JsonTx> jsonTxs, List<JsonTxOutput> jsonTxOutputs) {
+        jsonTxOutputs.forEach(jsonTxOutput -> txOutputFileManager.writeToDisc(JsonUtil.objectToJson(jsonTxOutput), jsonTxOutput.getId()));
+        jsonTxs.forEach(jsonTx -> txFileManager.writeToDisc(JsonUtil.objectToJson(jsonTx), jsonTx.getId()));
+    }
+
+    // Each block is written as a single line, so new blocks can be appended without rewriting the file
+    private void writeBlocksJsonLines(List<JsonBlock> jsonBlocks, boolean append) {
+        StandardOpenOption[] options = append ?
+                new StandardOpenOption[]{StandardOpenOption.CREATE, StandardOpenOption.APPEND} :
+                new StandardOpenOption[]{StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                        StandardOpenOption.WRITE};
+        try (BufferedWriter writer = Files.newBufferedWriter(blocksJsonLinesFile.toPath(), StandardCharsets.UTF_8,
+                options)) {
+            for (JsonBlock jsonBlock : jsonBlocks) {
+                writer.write(JsonUtil.objectToCompactJson(jsonBlock));
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            log.error("Writing {} failed", blocksJsonLinesFile, e);
         }
     }
 
+    private List<JsonTxOutput> getJsonTxOutputs(List<JsonTx> jsonTxs) {
+        return jsonTxs.stream()
+                .flatMap(jsonTx -> jsonTx.getOutputs().stream())
+                .collect(Collectors.toList());
+    }
+
     private JsonBlock getJsonBlock(Block block) {
         List<JsonTx> jsonTxs = block.getTxs().stream()
                 .map(this::getJsonTx)
@@ -266,4 +398,40 @@ public class ExportJsonFilesService implements DaoSetupService {
         TxType txType = tx.getTxType();
         return txType != null ? JsonTxType.valueOf(txType.name()) : null;
     }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // ChangedTxIdsCollector
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    // Collects the IDs of the txs whose json changed since the last export. The json of a tx output contains its
+    // spent info and whether it is unspent, the json of a tx contains its outputs.
+    private class ChangedTxIdsCollector implements DaoStateMutationListener {
+        @Override
+        public void onUnspentTxOutputAdded(@Nullable TxOutput previous, TxOutput txOutput) {
+            maybeAdd(txOutput.getTxId());
+        }
+
+        @Override
+        public void onUnspentTxOutputRemoved(TxOutput txOutput) {
+            maybeAdd(txOutput.getTxId());
+        }
+
+        @Override
+        public void onSpentInfoSet(TxOutputKey txOutputKey, @Nullable SpentInfo previous, SpentInfo spentInfo) {
+            maybeAdd(txOutputKey.getTxId());
+        }
+
+        @Override
+        public void onConfiscatedLockupTxAdded(String lockupTxId) {
+            maybeAdd(lockupTxId);
+        }
+
+        // Until the first export all files get written anyway
+        private void maybeAdd(String txId) {
+            if (lastExportedBlockHash != null) {
+                changedTxIds.add(txId);
+            }
+        }
+    }
 }
@@ -227,7 +227,33 @@ public class FullNode extends BsqNode {
                              Consumer<Block> newBlockHandler,
                              ResultHandler resultHandler,
                              Consumer<Throwable> errorHandler) {
-        parseBlockRecursively(startBlockHeight, chainHeight, newBlockHandler, resultHandler, errorHandler);
+        if (rpcService.isBatchRequestEnabled()) {
+            parseBlocksPipelined(startBlockHeight, chainHeight, newBlockHandler, resultHandler, errorHandler);
+        } else {
+            parseBlockRecursively(startBlockHeight, chainHeight, newBlockHandler, resultHandler, errorHandler);
+        }
+    }
+
+    // The blocks are requested in batches ahead of parsing. They are delivered in order, so the parsing is the same as
+    // in parseBlockRecursively.
+    private void parseBlocksPipelined(int startBlockHeight,
+                                      int chainHeight,
+                                      Consumer<Block> newBlockHandler,
+                                      ResultHandler resultHandler,
+                                      Consumer<Throwable> errorHandler) {
+        rpcService.requestDtoBlocks(startBlockHeight,
+                chainHeight,
+                rawBlock -> {
+                    try {
+                        doParseBlock(rawBlock).ifPresent(newBlockHandler);
+                        return true;
+                    } catch (RequiredReorgFromSnapshotException ignore) {
+                        // If we get a reorg we don't continue to parse the remaining blocks
+                        return false;
+                    }
+                },
+                resultHandler,
+                errorHandler);
     }
 
     private void parseBlockRecursively(int blockHeight,
@@ -17,6 +17,7 @@
 
 package bisq.core.dao.node.full;
 
+import bisq.core.dao.node.full.rpc.BitcoindBatchClient;
 import bisq.core.dao.node.full.rpc.BitcoindClient;
 import bisq.core.dao.node.full.rpc.BitcoindDaemon;
 import bisq.core.dao.node.full.rpc.dto.DtoPubKeyScript;
@@ -55,11 +56,15 @@ import java.io.IOException;
 
 import java.math.BigDecimal;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.List;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -76,6 +81,8 @@ public class RpcService {
     private static final int ACTIVATE_HARD_FORK_2_HEIGHT_TESTNET = 1943000;
     private static final int ACTIVATE_HARD_FORK_2_HEIGHT_REGTEST = 1;
     private static final Range<Integer> SUPPORTED_NODE_VERSION_RANGE = Range.closedOpen(180000, 210100);
+    // Max. number of batch requests which are requested ahead of the batch which gets parsed
+    private static final int MAX_BATCHES_IN_FLIGHT = 3;
 
     private final String rpcUser;
     private final String rpcPassword;
@@ -83,13 +90,20 @@ public class RpcService {
     private final int rpcPort;
     private final int rpcBlockPort;
     private final String rpcBlockHost;
+    private final int blockBatchSize;
 
     private BitcoindClient client;
+    private BitcoindBatchClient batchClient;
     private BitcoindDaemon daemon;
 
     // We could use multiple threads, but then we need to support ordering of results in a queue
     // Keep that for optimization after measuring performance differences
     private final ListeningExecutorService executor = Utilities.getSingleThreadListeningExecutor("RpcService");
+    // Used for the batch requests of past blocks. The results are delivered in order by the BlockPipeline.
+    private final ListeningExecutorService batchExecutor = Utilities.getUnboundedListeningExecutorService(
+            "RpcService-batch-%d",
+            MAX_BATCHES_IN_FLIGHT,
+            60);
     private volatile boolean isShutDown;
 
 
@@ -102,7 +116,8 @@ public class RpcService {
                        @Named(Config.RPC_HOST) String rpcHost,
                        @Named(Config.RPC_PORT) int rpcPort,
                        @Named(Config.RPC_BLOCK_NOTIFICATION_PORT) int rpcBlockPort,
-                       @Named(Config.RPC_BLOCK_NOTIFICATION_HOST) String rpcBlockHost) {
+                       @Named(Config.RPC_BLOCK_NOTIFICATION_HOST) String rpcBlockHost,
+                       @Named(Config.RPC_BLOCK_BATCH_SIZE) int blockBatchSize) {
         this.rpcUser = preferences.getRpcUser();
         this.rpcPassword = preferences.getRpcPw();
 
@@ -121,6 +136,7 @@ public class RpcService {
         boolean isBlockHostSet = !rpcBlockHost.isEmpty();
         this.rpcBlockPort = isBlockPortSet ? rpcBlockPort : 5125;
         this.rpcBlockHost = isBlockHostSet ? rpcBlockHost : "127.0.0.1";
+        this.blockBatchSize = blockBatchSize;
     }
 
 
@@ -137,6 +153,11 @@ public class RpcService {
 
         // A hard shutdown is justified for the RPC service.
         executor.shutdown();
+        batchExecutor.shutdownNow();
+    }
+
+    boolean isBatchRequestEnabled() {
+        return blockBatchSize > 0;
     }
 
     void setup(ResultHandler resultHandler, Consumer<Throwable> errorHandler) {
@@ -148,12 +169,15 @@ public class RpcService {
 
                     long startTs = System.currentTimeMillis();
 
-                    client = BitcoindClient.builder()
+                    BitcoindClient.Builder builder = BitcoindClient.builder()
                             .rpcHost(rpcHost)
                             .rpcPort(rpcPort)
                             .rpcUser(rpcUser)
-                            .rpcPassword(rpcPassword)
-                            .build();
+                            .rpcPassword(rpcPassword);
+                    client = builder.build();
+                    if (isBatchRequestEnabled()) {
+                        batchClient = builder.buildBatchClient();
+                    }
                     checkNodeVersionAndHealth();
 
                     daemon = new BitcoindDaemon(rpcBlockHost, rpcBlockPort, throwable -> {
@@ -287,10 +311,42 @@ public class RpcService {
     }
 
 
+    /**
+     * Requests the blocks from fromBlockHeight to toBlockHeight with JSON-RPC batch requests of blockBatchSize
+     * blocks. Up to MAX_BATCHES_IN_FLIGHT batches are requested and decoded ahead while the blocks get delivered in
+     * order on the UserThread. If the blockHandler returns false we stop and do not deliver further blocks.
+     */
+    void requestDtoBlocks(int fromBlockHeight,
+                          int toBlockHeight,
+                          Predicate<RawBlock> blockHandler,
+                          ResultHandler resultHandler,
+                          Consumer<Throwable> errorHandler) {
+        new BlockPipeline(fromBlockHeight, toBlockHeight, blockHandler, resultHandler, errorHandler).start();
+    }
+
+
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Private
     ///////////////////////////////////////////////////////////////////////////////////////////
 
+    private ListenableFuture<List<RawBlock>> requestDtoBlockBatch(int fromBlockHeight, int toBlockHeight) {
+        return batchExecutor.submit(() -> {
+            long startTs = System.currentTimeMillis();
+            List<Integer> blockHeights = IntStream.rangeClosed(fromBlockHeight, toBlockHeight)
+                    .boxed()
+                    .collect(Collectors.toList());
+            List<String> blockHashes = batchClient.getBlockHashes(blockHeights);
+            List<RawBlock> blocks = batchClient.getBlocks(blockHashes, 2).stream()
+                    .map(RpcService::getBlockFromRawDtoBlock)
+                    .collect(Collectors.toList());
+            log.info("requestDtoBlockBatch from bitcoind for blockHeights {} - {} with {} txs took {} ms",
+                    fromBlockHeight, toBlockHeight,
+                    blocks.stream().mapToInt(block -> block.getRawTxs().size()).sum(),
+                    System.currentTimeMillis() - startTs);
+            return blocks;
+        });
+    }
+
     private static RawBlock getBlockFromRawDtoBlock(RawDtoBlock rawDtoBlock) {
         List<RawTx> txList = rawDtoBlock.getTx().stream()
                 .map(e -> getTxFromRawTransaction(e, rawDtoBlock))
@@ -401,4 +457,114 @@ public class RpcService {
         // output already.
         return null;
     }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // BlockPipeline
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    // Only accessed from the UserThread. The batch requests run on the batchExecutor.
+    private class BlockPipeline {
+        private final int toBlockHeight;
+        private final Predicate<RawBlock> blockHandler;
+        private final ResultHandler resultHandler;
+        private final Consumer<Throwable> errorHandler;
+        private final Deque<ListenableFuture<List<RawBlock>>> pendingBatches = new ArrayDeque<>();
+        private int nextBlockHeight;
+        private boolean stopped;
+
+        BlockPipeline(int fromBlockHeight,
+                      int toBlockHeight,
+                      Predicate<RawBlock> blockHandler,
+                      ResultHandler resultHandler,
+                      Consumer<Throwable> errorHandler) {
+            this.nextBlockHeight = fromBlockHeight;
+            this.toBlockHeight = toBlockHeight;
+            this.blockHandler = blockHandler;
+            this.resultHandler = resultHandler;
+            this.errorHandler = errorHandler;
+        }
+
+        void start() {
+            try {
+                requestBatches();
+            } catch (Exception e) {
+                if (!isShutDown || !(e instanceof RejectedExecutionException)) {
+                    log.warn(e.toString(), e);
+                    throw e;
+                }
+                return;
+            }
+            processNextBatch();
+        }
+
+        private void requestBatches() {
+            while (pendingBatches.size() < MAX_BATCHES_IN_FLIGHT && nextBlockHeight <= toBlockHeight) {
+                int fromBlockHeight = nextBlockHeight;
+                int batchToBlockHeight = Math.min(toBlockHeight, fromBlockHeight + blockBatchSize - 1);
+                nextBlockHeight = batchToBlockHeight + 1;
+                pendingBatches.add(requestDtoBlockBatch(fromBlockHeight, batchToBlockHeight));
+            }
+        }
+
+        private void processNextBatch() {
+            ListenableFuture<List<RawBlock>> future = pendingBatches.peek();
+            if (future == null) {
+                resultHandler.handleResult();
+                return;
+            }
+
+            Futures.addCallback(future, new FutureCallback<>() {
+                @Override
+                public void onSuccess(List<RawBlock> blocks) {
+                    UserThread.execute(() -> {
+                        if (stopped) {
+                            return;
+                        }
+                        pendingBatches.poll();
+                        if (!isShutDown) {
+                            // We request the next batch while we parse the blocks of the current one
+                            requestBatches();
+                        }
+                        processBlock(blocks, 0);
+                    });
+                }
+
+                @Override
+                public void onFailure(@NotNull Throwable throwable) {
+                    log.error("Error at requestDtoBlocks: nextBlockHeight={}", nextBlockHeight);
+                    UserThread.execute(() -> {
+                        if (stopped) {
+                            return;
+                        }
+                        stop();
+                        errorHandler.accept(throwable);
+                    });
+                }
+            }, MoreExecutors.directExecutor());
+        }
+
+        // We deliver each block in a separate UserThread task to not block the UserThread for a whole batch
+        private void processBlock(List<RawBlock> blocks, int index) {
+            if (stopped) {
+                return;
+            }
+            if (index == blocks.size()) {
+                processNextBatch();
+                return;
+            }
+
+            if (blockHandler.test(blocks.get(index))) {
+                UserThread.execute(() -> processBlock(blocks, index + 1));
+            } else {
+                stop();
+            }
+        }
+
+        private void stop() {
+            stopped = true;
+            pendingBatches.forEach(future -> future.cancel(true));
+            pendingBatches.clear();
+        }
+    }
 }
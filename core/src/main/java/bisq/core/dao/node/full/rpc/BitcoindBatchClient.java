@@ -0,0 +1,151 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.dao.node.full.rpc;
+
+import bisq.core.dao.node.full.rpc.dto.RawDtoBlock;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.net.HttpURLConnection;
+import java.net.Proxy;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+
+
+import com.googlecode.jsonrpc4j.HttpException;
+import com.googlecode.jsonrpc4j.JsonRpcClientException;
+
+/**
+ * Sends JSON-RPC batch requests to bitcoind. All calls of a batch are sent in a single HTTP request, which saves the
+ * round trip per call. Bitcoind processes the calls of a batch sequentially and returns the responses in one array.
+ */
+public class BitcoindBatchClient {
+    private final ObjectMapper mapper;
+    private final URL url;
+    private final Map<String, String> headers;
+    private final int connectTimeoutMs;
+    private final int readTimeoutMs;
+
+    BitcoindBatchClient(ObjectMapper mapper,
+                        URL url,
+                        Map<String, String> headers,
+                        int connectTimeoutMs,
+                        int readTimeoutMs) {
+        this.mapper = mapper;
+        this.url = url;
+        this.headers = headers;
+        this.connectTimeoutMs = connectTimeoutMs;
+        this.readTimeoutMs = readTimeoutMs;
+    }
+
+    public List<String> getBlockHashes(List<Integer> blockHeights) throws IOException {
+        return invoke("getblockhash",
+                blockHeights.stream().map(List::<Object>of).collect(Collectors.toList()),
+                String.class);
+    }
+
+    public List<RawDtoBlock> getBlocks(List<String> headerHashes, int verbosity) throws IOException {
+        return invoke("getblock",
+                headerHashes.stream().map(hash -> List.<Object>of(hash, verbosity)).collect(Collectors.toList()),
+                RawDtoBlock.class);
+    }
+
+    private <T> List<T> invoke(String methodName, List<List<Object>> paramsList, Class<T> resultType)
+            throws IOException {
+        if (paramsList.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        ArrayNode request = mapper.createArrayNode();
+        for (int i = 0; i < paramsList.size(); i++) {
+            ObjectNode call = request.addObject();
+            call.put("id", String.valueOf(i));
+            call.put("jsonrpc", "2.0");
+            call.put("method", methodName);
+            call.set("params", mapper.valueToTree(paramsList.get(i)));
+        }
+
+        JsonNode response = post(request);
+        if (!response.isArray()) {
+            throw new JsonRpcClientException(0, "Unexpected response to batch request", response);
+        }
+
+        // The JSON-RPC spec allows the responses to be in any order, so we map them by id
+        Map<String, JsonNode> responsesById = new HashMap<>();
+        response.forEach(node -> responsesById.put(node.path("id").asText(), node));
+
+        List<T> results = new ArrayList<>(paramsList.size());
+        for (int i = 0; i < paramsList.size(); i++) {
+            JsonNode node = responsesById.get(String.valueOf(i));
+            if (node == null) {
+                throw new JsonRpcClientException(0, "Missing response for " + methodName + " at index " + i, response);
+            }
+            JsonNode error = node.get("error");
+            if (error != null && !error.isNull()) {
+                throw new JsonRpcClientException(error.path("code").asInt(), error.path("message").asText(), error);
+            }
+            results.add(mapper.treeToValue(node.get("result"), resultType));
+        }
+        return results;
+    }
+
+    private JsonNode post(JsonNode request) throws IOException {
+        // Same as in JsonRpcHttpClient we do not use a proxy
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection(Proxy.NO_PROXY);
+        try {
+            // Without timeouts a hanging bitcoind would block the thread requesting the blocks forever
+            connection.setConnectTimeout(connectTimeoutMs);
+            connection.setReadTimeout(readTimeoutMs);
+            connection.setRequestMethod("POST");
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", "application/json-rpc");
+            headers.forEach(connection::setRequestProperty);
+            connection.connect();
+
+            try (OutputStream outputStream = connection.getOutputStream()) {
+                outputStream.write(mapper.writeValueAsBytes(request));
+            }
+
+            try (InputStream inputStream = connection.getInputStream()) {
+                return mapper.readTree(inputStream);
+            } catch (SocketTimeoutException e) {
+                // Same as JsonRpcHttpClient we raise a HttpException if we cannot read the response
+                throw new HttpException("Batch request timed out after " + readTimeoutMs + " ms", e);
+            } catch (IOException e) {
+                int responseCode = connection.getResponseCode();
+                throw new HttpException("Batch request failed with HTTP response code " + responseCode, e);
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+}
@@ -33,7 +33,9 @@ import java.io.IOException;
 
 import java.util.Base64;
 import java.util.Collections;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
@@ -65,6 +67,10 @@ public interface BitcoindClient {
     }
 
     class Builder {
+        // The defaults of JsonRpcHttpClient, applied explicitly so that the batch client uses the same timeouts
+        static final int CONNECT_TIMEOUT_MS = (int) TimeUnit.SECONDS.toMillis(60);
+        static final int READ_TIMEOUT_MS = (int) TimeUnit.SECONDS.toMillis(120);
+
         private String rpcHost;
         private int rpcPort = -1;
         private String rpcUser;
@@ -103,20 +109,38 @@ public interface BitcoindClient {
         }
 
         public BitcoindClient build() throws MalformedURLException {
+            var httpClient = new JsonRpcHttpClient(createObjectMapper(), createUrl(), createHeaders());
+            httpClient.setConnectionTimeoutMillis(CONNECT_TIMEOUT_MS);
+            httpClient.setReadTimeoutMillis(READ_TIMEOUT_MS);
+            Optional.ofNullable(requestIDGenerator).ifPresent(httpClient::setRequestIDGenerator);
+            return ProxyUtil.createClientProxy(getClass().getClassLoader(), BitcoindClient.class, httpClient);
+        }
+
+        /**
+         * The proxy created by jsonrpc4j does not support JSON-RPC batch requests, so we use a separate client for
+         * those with the same connection settings.
+         */
+        public BitcoindBatchClient buildBatchClient() throws MalformedURLException {
+            return new BitcoindBatchClient(createObjectMapper(), createUrl(), createHeaders(),
+                    CONNECT_TIMEOUT_MS, READ_TIMEOUT_MS);
+        }
+
+        private ObjectMapper createObjectMapper() {
+            return new ObjectMapper()
+                    .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+                    .configure(DeserializationFeature.READ_UNKNOWN_ENUM_VALUES_USING_DEFAULT_VALUE, true);
+        }
+
+        private URL createUrl() throws MalformedURLException {
+            return new URL("http", rpcHost, rpcPort, "", urlStreamHandler);
+        }
+
+        private Map<String, String> createHeaders() {
             var userPass = checkNotNull(rpcUser, "rpcUser not set") +
                     ":" + checkNotNull(rpcPassword, "rpcPassword not set");
 
-            var headers = Collections.singletonMap("Authorization", "Basic " +
+            return Collections.singletonMap("Authorization", "Basic " +
                     Base64.getEncoder().encodeToString(userPass.getBytes(StandardCharsets.US_ASCII)));
-
-            var httpClient = new JsonRpcHttpClient(
-                    new ObjectMapper()
-                            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
-                            .configure(DeserializationFeature.READ_UNKNOWN_ENUM_VALUES_USING_DEFAULT_VALUE, true),
-                    new URL("http", rpcHost, rpcPort, "", urlStreamHandler),
-                    headers);
-            Optional.ofNullable(requestIDGenerator).ifPresent(httpClient::setRequestIDGenerator);
-            return ProxyUtil.createClientProxy(getClass().getClassLoader(), BitcoindClient.class, httpClient);
         }
     }
 }
@@ -0,0 +1,257 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.dao.state;
+
+import bisq.core.dao.state.model.DaoState;
+import bisq.core.dao.state.model.blockchain.SpentInfo;
+import bisq.core.dao.state.model.blockchain.TxOutput;
+import bisq.core.dao.state.model.blockchain.TxOutputKey;
+import bisq.core.dao.state.model.governance.Cycle;
+import bisq.core.dao.state.model.governance.DecryptedBallotsWithMerits;
+import bisq.core.dao.state.model.governance.EvaluatedProposal;
+import bisq.core.dao.state.model.governance.Issuance;
+import bisq.core.dao.state.model.governance.ParamChange;
+
+import bisq.common.proto.persistable.PersistablePayload;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+
+/**
+ * Incrementally maintained commitment over the mutable maps and lists of the DaoState (utxo, spent infos, issuances,
+ * param changes, cycles, confiscated lockup txs and vote results).
+ *
+ * It is an additive multiset hash: each entry is hashed with SHA-256 together with a type tag and its key, and the
+ * commitment is the sum of all entry hashes modulo 2^256. Adding or removing an entry only requires to hash that
+ * entry, so the commitment can be updated at each state change instead of serializing the whole DaoState at each
+ * block. The result does not depend on the order in which entries got added, so it is deterministic across nodes
+ * having the same state. All model objects are immutable (ImmutableDaoStateModel), so an entry hash stays valid while
+ * the entry is in the state.
+ *
+ * Not thread safe. Must only be accessed from the thread which applies the DaoState changes.
+ */
+@Slf4j
+public class DaoStateCommitment implements DaoStateMutationListener {
+    private static final byte UNSPENT_TX_OUTPUT = 1;
+    private static final byte SPENT_INFO = 2;
+    private static final byte ISSUANCE = 3;
+    private static final byte PARAM_CHANGE = 4;
+    private static final byte CYCLE = 5;
+    private static final byte CONFISCATED_LOCKUP_TX = 6;
+    private static final byte EVALUATED_PROPOSAL = 7;
+    private static final byte DECRYPTED_BALLOTS_WITH_MERITS = 8;
+
+    // 256 bit accumulator as 4 limbs, limb 0 is the least significant
+    private final long[] accumulator = new long[4];
+    private final MessageDigest digest;
+
+    public static DaoStateCommitment fromDaoState(DaoState daoState) {
+        long ts = System.currentTimeMillis();
+        DaoStateCommitment commitment = new DaoStateCommitment();
+        daoState.getUnspentTxOutputMap().values().forEach(commitment::addUnspentTxOutput);
+        daoState.getSpentInfoMap().forEach(commitment::addSpentInfo);
+        daoState.getIssuanceMap().values().forEach(commitment::addIssuance);
+        daoState.getParamChangeList().forEach(commitment::addParamChange);
+        daoState.getCycles().forEach(commitment::addCycle);
+        daoState.getConfiscatedLockupTxList().forEach(commitment::addConfiscatedLockupTx);
+        daoState.getEvaluatedProposalList().forEach(commitment::addEvaluatedProposal);
+        daoState.getDecryptedBallotsWithMeritsList().forEach(commitment::addDecryptedBallotsWithMerits);
+        log.info("Creating DaoStateCommitment from DaoState with {} unspent tx outputs took {} ms",
+                daoState.getUnspentTxOutputMap().size(), System.currentTimeMillis() - ts);
+        return commitment;
+    }
+
+    private DaoStateCommitment() {
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // DaoStateMutationListener
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public void onUnspentTxOutputAdded(@Nullable TxOutput previous, TxOutput txOutput) {
+        if (previous != null) {
+            removeUnspentTxOutput(previous);
+        }
+        addUnspentTxOutput(txOutput);
+    }
+
+    @Override
+    public void onUnspentTxOutputRemoved(TxOutput txOutput) {
+        removeUnspentTxOutput(txOutput);
+    }
+
+    @Override
+    public void onSpentInfoSet(TxOutputKey txOutputKey, @Nullable SpentInfo previous, SpentInfo spentInfo) {
+        if (previous != null) {
+            removeSpentInfo(txOutputKey, previous);
+        }
+        addSpentInfo(txOutputKey, spentInfo);
+    }
+
+    @Override
+    public void onIssuanceAdded(@Nullable Issuance previous, Issuance issuance) {
+        if (previous != null) {
+            removeIssuance(previous);
+        }
+        addIssuance(issuance);
+    }
+
+    @Override
+    public void onParamChangeAdded(ParamChange paramChange) {
+        addParamChange(paramChange);
+    }
+
+    @Override
+    public void onCycleAdded(Cycle cycle) {
+        addCycle(cycle);
+    }
+
+    @Override
+    public void onConfiscatedLockupTxAdded(String lockupTxId) {
+        addConfiscatedLockupTx(lockupTxId);
+    }
+
+    @Override
+    public void onEvaluatedProposalAdded(EvaluatedProposal evaluatedProposal) {
+        addEvaluatedProposal(evaluatedProposal);
+    }
+
+    @Override
+    public void onDecryptedBallotsWithMeritsAdded(DecryptedBallotsWithMerits decryptedBallotsWithMerits) {
+        addDecryptedBallotsWithMerits(decryptedBallotsWithMerits);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public void addUnspentTxOutput(TxOutput txOutput) {
+        add(UNSPENT_TX_OUTPUT, txOutput.getKey().toString(), txOutput);
+    }
+
+    public void removeUnspentTxOutput(TxOutput txOutput) {
+        remove(UNSPENT_TX_OUTPUT, txOutput.getKey().toString(), txOutput);
+    }
+
+    public void addSpentInfo(TxOutputKey txOutputKey, SpentInfo spentInfo) {
+        add(SPENT_INFO, txOutputKey.toString(), spentInfo);
+    }
+
+    public void removeSpentInfo(TxOutputKey txOutputKey, SpentInfo spentInfo) {
+        remove(SPENT_INFO, txOutputKey.toString(), spentInfo);
+    }
+
+    public void addIssuance(Issuance issuance) {
+        add(ISSUANCE, issuance.getTxId(), issuance);
+    }
+
+    public void removeIssuance(Issuance issuance) {
+        remove(ISSUANCE, issuance.getTxId(), issuance);
+    }
+
+    public void addParamChange(ParamChange paramChange) {
+        add(PARAM_CHANGE, "", paramChange);
+    }
+
+    public void addCycle(Cycle cycle) {
+        add(CYCLE, "", cycle);
+    }
+
+    public void addConfiscatedLockupTx(String lockupTxId) {
+        add(CONFISCATED_LOCKUP_TX, lockupTxId, null);
+    }
+
+    public void addEvaluatedProposal(EvaluatedProposal evaluatedProposal) {
+        add(EVALUATED_PROPOSAL, "", evaluatedProposal);
+    }
+
+    public void addDecryptedBallotsWithMerits(DecryptedBallotsWithMerits decryptedBallotsWithMerits) {
+        add(DECRYPTED_BALLOTS_WITH_MERITS, "", decryptedBallotsWithMerits);
+    }
+
+    /**
+     * @return The 32 byte commitment in big endian byte order.
+     */
+    public byte[] getHash() {
+        ByteBuffer buffer = ByteBuffer.allocate(32);
+        for (int i = 3; i >= 0; i--) {
+            buffer.putLong(accumulator[i]);
+        }
+        return buffer.array();
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private void add(byte type, String key, @Nullable PersistablePayload value) {
+        long[] entryHash = getEntryHash(type, key, value);
+        long carry = 0;
+        for (int i = 0; i < 4; i++) {
+            long sum = accumulator[i] + entryHash[i] + carry;
+            // Unsigned overflow detection of a + b + carry
+            carry = (Long.compareUnsigned(sum, accumulator[i]) < 0 ||
+                    (carry == 1 && sum == accumulator[i])) ? 1 : 0;
+            accumulator[i] = sum;
+        }
+    }
+
+    private void remove(byte type, String key, @Nullable PersistablePayload value) {
+        long[] entryHash = getEntryHash(type, key, value);
+        long borrow = 0;
+        for (int i = 0; i < 4; i++) {
+            long diff = accumulator[i] - entryHash[i] - borrow;
+            // Unsigned underflow detection of a - b - borrow
+            borrow = (Long.compareUnsigned(accumulator[i], entryHash[i]) < 0 ||
+                    (borrow == 1 && accumulator[i] == entryHash[i])) ? 1 : 0;
+            accumulator[i] = diff;
+        }
+    }
+
+    private long[] getEntryHash(byte type, String key, @Nullable PersistablePayload value) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        digest.update(type);
+        digest.update(ByteBuffer.allocate(4).putInt(keyBytes.length).array());
+        digest.update(keyBytes);
+        if (value != null) {
+            digest.update(value.toProtoMessage().toByteArray());
+        }
+        ByteBuffer hash = ByteBuffer.wrap(digest.digest());
+        long[] result = new long[4];
+        for (int i = 3; i >= 0; i--) {
+            result[i] = hash.getLong();
+        }
+        return result;
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.dao.state;
+
+import bisq.core.dao.state.model.blockchain.SpentInfo;
+import bisq.core.dao.state.model.blockchain.TxOutput;
+import bisq.core.dao.state.model.blockchain.TxOutputKey;
+import bisq.core.dao.state.model.governance.Cycle;
+import bisq.core.dao.state.model.governance.DecryptedBallotsWithMerits;
+import bisq.core.dao.state.model.governance.EvaluatedProposal;
+import bisq.core.dao.state.model.governance.Issuance;
+import bisq.core.dao.state.model.governance.ParamChange;
+
+import javax.annotation.Nullable;
+
+/**
+ * Gets notified about each single change of the maps and lists in the DaoState. Used for data which is maintained
+ * incrementally alongside the DaoState. Called on the thread which applies the DaoState changes.
+ * Not called at DaoStateService.applySnapshot, as then the whole state gets replaced.
+ * <p/>
+ * All methods have empty default implementations, so a listener only needs to implement the changes it is interested
+ * in.
+ */
+public interface DaoStateMutationListener {
+    default void onUnspentTxOutputAdded(@Nullable TxOutput previous, TxOutput txOutput) {
+    }
+
+    default void onUnspentTxOutputRemoved(TxOutput txOutput) {
+    }
+
+    default void onSpentInfoSet(TxOutputKey txOutputKey, @Nullable SpentInfo previous, SpentInfo spentInfo) {
+    }
+
+    default void onIssuanceAdded(@Nullable Issuance previous, Issuance issuance) {
+    }
+
+    default void onParamChangeAdded(ParamChange paramChange) {
+    }
+
+    default void onCycleAdded(Cycle cycle) {
+    }
+
+    default void onConfiscatedLockupTxAdded(String lockupTxId) {
+    }
+
+    default void onEvaluatedProposalAdded(EvaluatedProposal evaluatedProposal) {
+    }
+
+    default void onDecryptedBallotsWithMeritsAdded(DecryptedBallotsWithMerits decryptedBallotsWithMerits) {
+    }
+}
@@ -43,6 +43,8 @@ import org.bitcoinj.core.Coin;
 
 import javax.inject.Inject;
 
+import java.nio.ByteBuffer;
+
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashSet;
@@ -74,6 +76,12 @@ public class DaoStateService implements DaoSetupService {
     @Getter
     private boolean parseBlockChainComplete;
     private boolean allowDaoStateChange;
+    private final List<DaoStateMutationListener> daoStateMutationListeners = new CopyOnWriteArrayList<>();
+    // Only created if getIncrementalStateForHashChain is used. Once created it gets updated at each state change.
+    @Nullable
+    private DaoStateCommitment daoStateCommitment;
+    // Recreated if the paramChangeList changes. Might be read from other threads than the one changing the DaoState.
+    private volatile ParamValueIndex paramValueIndex;
 
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -85,6 +93,7 @@ public class DaoStateService implements DaoSetupService {
         this.daoState = daoState;
         this.genesisTxInfo = genesisTxInfo;
         this.bsqFormatter = bsqFormatter;
+        paramValueIndex = new ParamValueIndex(daoState.getParamChangeList(), bsqFormatter);
     }
 
 
@@ -137,12 +146,19 @@ public class DaoStateService implements DaoSetupService {
 
         daoState.getParamChangeList().clear();
         daoState.getParamChangeList().addAll(snapshot.getParamChangeList());
+        paramValueIndex = new ParamValueIndex(daoState.getParamChangeList(), bsqFormatter);
 
         daoState.getEvaluatedProposalList().clear();
         daoState.getEvaluatedProposalList().addAll(snapshot.getEvaluatedProposalList());
 
         daoState.getDecryptedBallotsWithMeritsList().clear();
         daoState.getDecryptedBallotsWithMeritsList().addAll(snapshot.getDecryptedBallotsWithMeritsList());
+
+        // Will be recreated from the new state at the next getIncrementalStateForHashChain call
+        if (daoStateCommitment != null) {
+            daoStateMutationListeners.remove(daoStateCommitment);
+            daoStateCommitment = null;
+        }
     }
 
     public DaoState getClone() {
@@ -157,6 +173,23 @@ public class DaoStateService implements DaoSetupService {
         return daoState.getSerializedStateForHashChain();
     }
 
+    /**
+     * Alternative to getSerializedStateForHashChain which does not serialize the whole state. Contains the
+     * incrementally maintained DaoStateCommitment, the chain height and the serialized last block.
+     */
+    public byte[] getIncrementalStateForHashChain() {
+        if (daoStateCommitment == null) {
+            daoStateCommitment = DaoStateCommitment.fromDaoState(daoState);
+            daoStateMutationListeners.add(daoStateCommitment);
+        }
+        byte[] lastBlock = getLastBlock().map(block -> block.toProtoMessage().toByteArray()).orElse(new byte[0]);
+        return ByteBuffer.allocate(32 + 4 + lastBlock.length)
+                .put(daoStateCommitment.getHash())
+                .putInt(daoState.getChainHeight())
+                .put(lastBlock)
+                .array();
+    }
+
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // ChainHeight
@@ -178,6 +211,7 @@ public class DaoStateService implements DaoSetupService {
     public void addCycle(Cycle cycle) {
         assertDaoStateChange();
         getCycles().add(cycle);
+        daoStateMutationListeners.forEach(listener -> listener.onCycleAdded(cycle));
     }
 
     @Nullable
@@ -465,12 +499,16 @@ public class DaoStateService implements DaoSetupService {
 
     public void addUnspentTxOutput(TxOutput txOutput) {
         assertDaoStateChange();
-        getUnspentTxOutputMap().put(txOutput.getKey(), txOutput);
+        TxOutput previous = getUnspentTxOutputMap().put(txOutput.getKey(), txOutput);
+        daoStateMutationListeners.forEach(listener -> listener.onUnspentTxOutputAdded(previous, txOutput));
     }
 
     public void removeUnspentTxOutput(TxOutput txOutput) {
         assertDaoStateChange();
-        getUnspentTxOutputMap().remove(txOutput.getKey());
+        TxOutput removed = getUnspentTxOutputMap().remove(txOutput.getKey());
+        if (removed != null) {
+            daoStateMutationListeners.forEach(listener -> listener.onUnspentTxOutputRemoved(removed));
+        }
     }
 
     public boolean isUnspent(TxOutputKey key) {
@@ -613,7 +651,8 @@ public class DaoStateService implements DaoSetupService {
 
     public void addIssuance(Issuance issuance) {
         assertDaoStateChange();
-        daoState.getIssuanceMap().put(issuance.getTxId(), issuance);
+        Issuance previous = daoState.getIssuanceMap().put(issuance.getTxId(), issuance);
+        daoStateMutationListeners.forEach(listener -> listener.onIssuanceAdded(previous, issuance));
     }
 
     public Set<Issuance> getIssuanceSetForType(IssuanceType issuanceType) {
@@ -890,6 +929,7 @@ public class DaoStateService implements DaoSetupService {
         assertDaoStateChange();
         log.warn("TxId {} added to confiscatedLockupTxIdList.", lockupTxId);
         daoState.getConfiscatedLockupTxList().add(lockupTxId);
+        daoStateMutationListeners.forEach(listener -> listener.onConfiscatedLockupTxAdded(lockupTxId));
     }
 
     public boolean isConfiscatedOutput(TxOutputKey txOutputKey) {
@@ -922,26 +962,16 @@ public class DaoStateService implements DaoSetupService {
                 .ifPresent(heightOfNewCycle -> {
                     ParamChange paramChange = new ParamChange(param.name(), paramValue, heightOfNewCycle);
                     paramChangeList.add(paramChange);
+                    daoStateMutationListeners.forEach(listener -> listener.onParamChangeAdded(paramChange));
                     // Addition with older height should not be possible but to ensure correct sorting lets run a sort.
                     paramChangeList.sort(Comparator.comparingInt(ParamChange::getActivationHeight));
+                    paramValueIndex = new ParamValueIndex(paramChangeList, bsqFormatter);
                 });
     }
 
     public String getParamValue(Param param, int blockHeight) {
-        List<ParamChange> paramChangeList = new ArrayList<>(daoState.getParamChangeList());
-        if (!paramChangeList.isEmpty()) {
-            // List is sorted by height, we start from latest entries to find most recent entry.
-            for (int i = paramChangeList.size() - 1; i >= 0; i--) {
-                ParamChange paramChange = paramChangeList.get(i);
-                if (paramChange.getParamName().equals(param.name()) &&
-                        blockHeight >= paramChange.getActivationHeight()) {
-                    return paramChange.getValue();
-                }
-            }
-        }
-
-        // If no value found we use default values
-        return param.getDefaultValue();
+        // If no change was activated at blockHeight we get the default value
+        return paramValueIndex.get(param, blockHeight).getValue();
     }
 
     public List<Coin> getParamChangeList(Param param) {
@@ -966,16 +996,24 @@ public class DaoStateService implements DaoSetupService {
         return Integer.parseInt(paramValue);
     }
 
+    // The typed getters use the values parsed by the index and only parse the string if the value is not of the
+    // requested type, so we get the same error as before.
     public Coin getParamValueAsCoin(Param param, int blockHeight) {
-        return getParamValueAsCoin(param, getParamValue(param, blockHeight));
+        ParamValueIndex.ParamValue paramValue = paramValueIndex.get(param, blockHeight);
+        Coin coinValue = paramValue.getCoinValue();
+        return coinValue != null ? coinValue : getParamValueAsCoin(param, paramValue.getValue());
     }
 
     public double getParamValueAsPercentDouble(Param param, int blockHeight) {
-        return getParamValueAsPercentDouble(getParamValue(param, blockHeight));
+        ParamValueIndex.ParamValue paramValue = paramValueIndex.get(param, blockHeight);
+        Double percentValue = paramValue.getPercentValue();
+        return percentValue != null ? percentValue : getParamValueAsPercentDouble(paramValue.getValue());
     }
 
     public int getParamValueAsBlock(Param param, int blockHeight) {
-        return getParamValueAsBlock(getParamValue(param, blockHeight));
+        ParamValueIndex.ParamValue paramValue = paramValueIndex.get(param, blockHeight);
+        Integer blockValue = paramValue.getBlockValue();
+        return blockValue != null ? blockValue : getParamValueAsBlock(paramValue.getValue());
     }
 
 
@@ -985,7 +1023,8 @@ public class DaoStateService implements DaoSetupService {
 
     public void setSpentInfo(TxOutputKey txOutputKey, SpentInfo spentInfo) {
         assertDaoStateChange();
-        daoState.getSpentInfoMap().put(txOutputKey, spentInfo);
+        SpentInfo previous = daoState.getSpentInfoMap().put(txOutputKey, spentInfo);
+        daoStateMutationListeners.forEach(listener -> listener.onSpentInfoSet(txOutputKey, previous, spentInfo));
     }
 
     public Optional<SpentInfo> getSpentInfo(TxOutput txOutput) {
@@ -1006,7 +1045,10 @@ public class DaoStateService implements DaoSetupService {
 
         evaluatedProposals.stream()
                 .filter(e -> !daoState.getEvaluatedProposalList().contains(e))
-                .forEach(daoState.getEvaluatedProposalList()::add);
+                .forEach(evaluatedProposal -> {
+                    daoState.getEvaluatedProposalList().add(evaluatedProposal);
+                    daoStateMutationListeners.forEach(listener -> listener.onEvaluatedProposalAdded(evaluatedProposal));
+                });
 
         // We need deterministic order for the hash chain
         daoState.getEvaluatedProposalList().sort(Comparator.comparing(EvaluatedProposal::getProposalTxId));
@@ -1021,7 +1063,11 @@ public class DaoStateService implements DaoSetupService {
 
         decryptedBallotsWithMeritsSet.stream()
                 .filter(e -> !daoState.getDecryptedBallotsWithMeritsList().contains(e))
-                .forEach(daoState.getDecryptedBallotsWithMeritsList()::add);
+                .forEach(decryptedBallotsWithMerits -> {
+                    daoState.getDecryptedBallotsWithMeritsList().add(decryptedBallotsWithMerits);
+                    daoStateMutationListeners.forEach(listener ->
+                            listener.onDecryptedBallotsWithMeritsAdded(decryptedBallotsWithMerits));
+                });
 
         // We need deterministic order for the hash chain
         daoState.getDecryptedBallotsWithMeritsList().sort(Comparator.comparing(DecryptedBallotsWithMerits::getBlindVoteTxId));
@@ -1057,6 +1103,14 @@ public class DaoStateService implements DaoSetupService {
         daoStateListeners.remove(listener);
     }
 
+    public void addDaoStateMutationListener(DaoStateMutationListener listener) {
+        daoStateMutationListeners.add(listener);
+    }
+
+    public void removeDaoStateMutationListener(DaoStateMutationListener listener) {
+        daoStateMutationListeners.remove(listener);
+    }
+
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Utils
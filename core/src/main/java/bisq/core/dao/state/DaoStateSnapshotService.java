@@ -25,6 +25,7 @@ import bisq.core.dao.monitoring.DaoStateMonitoringService;
 import bisq.core.dao.monitoring.model.DaoStateHash;
 import bisq.core.dao.state.model.DaoState;
 import bisq.core.dao.state.model.blockchain.Block;
+import bisq.core.dao.state.storage.DaoStateDelta;
 import bisq.core.dao.state.storage.DaoStateStorageService;
 import bisq.core.trade.DelayedPayoutAddressProvider;
 import bisq.core.user.Preferences;
@@ -56,10 +57,16 @@ import static com.google.common.base.Preconditions.checkArgument;
  * At each trigger height we persist the latest snapshot candidate and set the current daoState as new candidate.
  * The trigger height is determined by the SNAPSHOT_GRID. The latest persisted snapshot is min. the height of
  * SNAPSHOT_GRID old not less than 2 times the SNAPSHOT_GRID old.
+ *
+ * If useDaoStateDeltaSnapshots is set we do not clone the daoState at each trigger height but collect the changes
+ * since the last trigger height in a DaoStateDelta and append it to the deltas file at the next trigger height.
+ * After MAX_DELTAS deltas we create a full snapshot again, which replaces the deltas.
  */
 @Slf4j
 public class DaoStateSnapshotService implements DaoSetupService, DaoStateListener {
     private static final int SNAPSHOT_GRID = 20;
+    // With the SNAPSHOT_GRID of 20 blocks we create a full snapshot about each week
+    private static final int MAX_DELTAS = 50;
 
     private final DaoStateService daoStateService;
     private final GenesisTxInfo genesisTxInfo;
@@ -82,6 +89,17 @@ public class DaoStateSnapshotService implements DaoSetupService, DaoStateListene
     private boolean readyForPersisting = true;
     private boolean isParseBlockChainComplete;
 
+    // Only used if useDaoStateDeltaSnapshots is set
+    // Collects the changes since the last snapshot height
+    @Nullable
+    private DaoStateDelta pendingDelta;
+    // Closed delta which gets persisted at the next snapshot height
+    @Nullable
+    private DaoStateDelta deltaCandidate;
+    private List<Block> deltaBlocksCandidate;
+    // Number of deltas since the last full snapshot
+    private int numDeltas;
+
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Constructor
@@ -184,6 +202,13 @@ public class DaoStateSnapshotService implements DaoSetupService, DaoStateListene
                 protobuf.DaoState daoStateForSnapshot = getDaoStateForSnapshot();
                 List<Block> blocksForSnapshot = getBlocksForSnapshot();
                 LinkedList<DaoStateHash> hashChainForSnapshot = getHashChainForSnapshot();
+                if (config.useDaoStateDeltaSnapshots) {
+                    // The persisted snapshot becomes the base for the next deltas. We must not append a delta
+                    // before the deltas of the previous snapshot got removed.
+                    readyForPersisting = false;
+                    resetDeltaSnapshots();
+                    startDeltaTracking(chainHeight);
+                }
                 daoStateStorageService.requestPersistence(daoStateForSnapshot,
                         blocksForSnapshot,
                         hashChainForSnapshot,
@@ -191,6 +216,9 @@ public class DaoStateSnapshotService implements DaoSetupService, DaoStateListene
                             GcUtil.maybeReleaseMemory();
                             log.info("Persisted daoState after parsing completed at height {}. Took {} ms",
                                     chainHeight, System.currentTimeMillis() - ts);
+                            if (config.useDaoStateDeltaSnapshots) {
+                                readyForPersisting = true;
+                            }
                         });
                 GcUtil.maybeReleaseMemory();
             });
@@ -208,7 +236,7 @@ public class DaoStateSnapshotService implements DaoSetupService, DaoStateListene
 
         // Either we don't have a snapshot candidate yet, or if we have one the height at that snapshot candidate must be
         // different to our current height.
-        boolean noSnapshotCandidateOrDifferentHeight = daoStateCandidate == null ||
+        boolean noSnapshotCandidateOrDifferentHeight = (daoStateCandidate == null && deltaCandidate == null) ||
                 snapshotHeight != chainHeight;
         if (isSnapshotHeight(chainHeight) &&
                 !daoStateService.getBlocks().isEmpty() &&
@@ -232,7 +260,9 @@ public class DaoStateSnapshotService implements DaoSetupService, DaoStateListene
                 return;
             }
 
-            if (daoStateCandidate != null) {
+            if (config.useDaoStateDeltaSnapshots) {
+                persistAndCreateDeltaSnapshot();
+            } else if (daoStateCandidate != null) {
                 persist();
             } else {
                 createSnapshot();
@@ -271,6 +301,89 @@ public class DaoStateSnapshotService implements DaoSetupService, DaoStateListene
         log.info("Cloned new daoStateCandidate at height {} took {} ms.", snapshotHeight, System.currentTimeMillis() - ts);
     }
 
+    private void persistAndCreateDeltaSnapshot() {
+        if (daoStateCandidate != null) {
+            persistFullSnapshotCandidate();
+        } else if (deltaCandidate != null) {
+            persistDeltaCandidate();
+        }
+
+        if (pendingDelta == null || numDeltas >= MAX_DELTAS) {
+            // We have no base for a delta or we compact the deltas into a new full snapshot
+            createSnapshot();
+            numDeltas = 0;
+            startDeltaTracking(snapshotHeight);
+        } else {
+            closePendingDelta();
+        }
+    }
+
+    private void persistFullSnapshotCandidate() {
+        long ts = System.currentTimeMillis();
+        int height = snapshotHeight;
+        readyForPersisting = false;
+        daoStateStorageService.requestPersistence(daoStateCandidate,
+                blocksCandidate,
+                hashChainCandidate,
+                () -> {
+                    log.info("Persisting full daoState snapshot at chainHeight {} took {} ms.",
+                            height, System.currentTimeMillis() - ts);
+                    readyForPersisting = true;
+                });
+        // The store keeps a reference until persistence is completed. We do not need to keep the candidate.
+        daoStateCandidate = null;
+        blocksCandidate = null;
+        hashChainCandidate = new LinkedList<>();
+    }
+
+    private void persistDeltaCandidate() {
+        long ts = System.currentTimeMillis();
+        DaoStateDelta delta = deltaCandidate;
+        readyForPersisting = false;
+        daoStateStorageService.requestDeltaPersistence(delta,
+                deltaBlocksCandidate,
+                () -> {
+                    log.info("Persisting delta from chainHeight {} to {} took {} ms.",
+                            delta.getFromChainHeight(), delta.getChainHeight(), System.currentTimeMillis() - ts);
+                    readyForPersisting = true;
+                });
+        deltaCandidate = null;
+        deltaBlocksCandidate = null;
+    }
+
+    private void closePendingDelta() {
+        long ts = System.currentTimeMillis();
+        daoStateService.removeDaoStateMutationListener(pendingDelta);
+        int chainHeight = daoStateService.getChainHeight();
+        pendingDelta.close(chainHeight, daoStateMonitoringService.getDaoStateHashChain());
+        deltaCandidate = pendingDelta;
+        deltaBlocksCandidate = getBlocksForSnapshot();
+        snapshotHeight = chainHeight;
+        numDeltas++;
+        startDeltaTracking(chainHeight);
+        log.info("Created delta candidate with {} changes at height {} took {} ms.",
+                deltaCandidate.getNumChanges(), snapshotHeight, System.currentTimeMillis() - ts);
+    }
+
+    private void startDeltaTracking(int chainHeight) {
+        if (pendingDelta != null) {
+            daoStateService.removeDaoStateMutationListener(pendingDelta);
+        }
+        pendingDelta = new DaoStateDelta(chainHeight);
+        daoStateService.addDaoStateMutationListener(pendingDelta);
+    }
+
+    private void resetDeltaSnapshots() {
+        if (pendingDelta != null) {
+            daoStateService.removeDaoStateMutationListener(pendingDelta);
+            pendingDelta = null;
+        }
+        deltaCandidate = null;
+        deltaBlocksCandidate = null;
+        daoStateCandidate = null;
+        numDeltas = 0;
+    }
+
     public void applySnapshot(boolean fromReorg) {
         DaoState persistedBsqState = daoStateStorageService.getPersistedBsqState();
         LinkedList<DaoStateHash> persistedDaoStateHashChain = daoStateStorageService.getPersistedDaoStateHashChain();
@@ -285,6 +398,16 @@ public class DaoStateSnapshotService implements DaoSetupService, DaoStateListene
                         chainHeightOfLastApplySnapshot = chainHeightOfPersisted;
                         daoStateService.applySnapshot(persistedBsqState);
                         daoStateMonitoringService.applySnapshot(persistedDaoStateHashChain);
+                        if (config.useDaoStateDeltaSnapshots) {
+                            // The collected changes do not match the new state anymore.
+                            resetDeltaSnapshots();
+                            if (!fromReorg) {
+                                // The persisted snapshot and deltas represent the applied state, so we can continue
+                                // with deltas from here.
+                                numDeltas = daoStateStorageService.getNumAppliedDeltas();
+                                startDeltaTracking(chainHeightOfPersisted);
+                            }
+                        }
                         daoStateStorageService.releaseMemory();
                     } else {
                         // The reorg might have been caused by the previous parsing which might contains a range of
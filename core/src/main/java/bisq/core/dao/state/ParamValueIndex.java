@@ -0,0 +1,124 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.dao.state;
+
+import bisq.core.dao.governance.param.Param;
+import bisq.core.dao.state.model.governance.ParamChange;
+import bisq.core.util.ParsingUtils;
+import bisq.core.util.coin.BsqFormatter;
+
+import org.bitcoinj.core.Coin;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Indexes the param changes by param and activation height, with the values parsed to the type of the param. The
+ * index is immutable and gets recreated if the param changes of the DaoState change, which happens only once per
+ * cycle, while the values are looked up for each fee calculation.
+ */
+@Slf4j
+@Immutable
+class ParamValueIndex {
+    @Getter
+    static final class ParamValue {
+        private final String value;
+        // Null if the value is not of that type. Then the caller parses the string which throws the expected error.
+        @Nullable
+        private final Coin coinValue;
+        @Nullable
+        private final Double percentValue;
+        @Nullable
+        private final Integer blockValue;
+
+        private ParamValue(Param param, String value, BsqFormatter bsqFormatter) {
+            this.value = value;
+            Coin coinValue = null;
+            Double percentValue = null;
+            Integer blockValue = null;
+            try {
+                switch (param.getParamType()) {
+                    case BSQ:
+                    case BTC:
+                        coinValue = bsqFormatter.parseParamValueToCoin(param, value);
+                        break;
+                    case PERCENT:
+                        percentValue = ParsingUtils.parsePercentStringToDouble(value);
+                        break;
+                    case BLOCK:
+                        blockValue = Integer.parseInt(value);
+                        break;
+                    default:
+                        break;
+                }
+            } catch (Throwable t) {
+                log.warn("Could not parse value {} of param {}", value, param, t);
+            }
+            this.coinValue = coinValue;
+            this.percentValue = percentValue;
+            this.blockValue = blockValue;
+        }
+    }
+
+    private static final Map<String, Param> PARAMS_BY_NAME = Arrays.stream(Param.values())
+            .collect(Collectors.toMap(Enum::name, Function.identity()));
+
+    private final Map<Param, NavigableMap<Integer, ParamValue>> valuesByParam = new EnumMap<>(Param.class);
+    private final Map<Param, ParamValue> defaultValues = new EnumMap<>(Param.class);
+
+    // The param changes must be sorted by activation height
+    ParamValueIndex(List<ParamChange> paramChanges, BsqFormatter bsqFormatter) {
+        paramChanges.forEach(paramChange -> {
+            Param param = PARAMS_BY_NAME.get(paramChange.getParamName());
+            if (param == null) {
+                log.warn("Unknown param {}", paramChange.getParamName());
+                return;
+            }
+            // If there are multiple changes with the same height the last one wins, as it was the case with the
+            // backwards iteration over the list of param changes.
+            valuesByParam.computeIfAbsent(param, p -> new TreeMap<>())
+                    .put(paramChange.getActivationHeight(), new ParamValue(param, paramChange.getValue(), bsqFormatter));
+        });
+        Arrays.stream(Param.values())
+                .forEach(param -> defaultValues.put(param, new ParamValue(param, param.getDefaultValue(), bsqFormatter)));
+    }
+
+    // Returns the value of the latest change activated at blockHeight or the default value if there is none
+    ParamValue get(Param param, int blockHeight) {
+        NavigableMap<Integer, ParamValue> values = valuesByParam.get(param);
+        if (values != null) {
+            Map.Entry<Integer, ParamValue> entry = values.floorEntry(blockHeight);
+            if (entry != null) {
+                return entry.getValue();
+            }
+        }
+        return defaultValues.get(param);
+    }
+}
@@ -19,34 +19,71 @@ package bisq.core.dao.state.storage;
 
 import bisq.common.file.FileUtil;
 import bisq.common.proto.persistable.PersistenceProtoResolver;
+import bisq.common.util.Utilities;
 
 import protobuf.BaseBlock;
 
+import com.google.protobuf.CodedInputStream;
+
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 public class BlocksPersistence {
     public static final int BUCKET_SIZE = 1000; // results in about 1 MB files and about 1 new file per week
+    private static final int NUM_READ_THREADS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+    // Max. number of buckets which are read ahead of the bucket which gets consumed
+    private static final int MAX_PREFETCHED_BUCKETS = 2 * NUM_READ_THREADS;
 
     private final File storageDir;
     private final String fileName;
     private final PersistenceProtoResolver persistenceProtoResolver;
+    private final boolean useMemoryMappedFiles;
+    private final ListeningExecutorService readExecutor;
     private Path usedTempFilePath;
 
     public BlocksPersistence(File storageDir, String fileName, PersistenceProtoResolver persistenceProtoResolver) {
+        this(storageDir, fileName, persistenceProtoResolver, false);
+    }
+
+    /**
+     * @param useMemoryMappedFiles If true the bucket files are decoded from a memory mapped buffer instead of a
+     *                             FileInputStream. Should not be used on Windows as a mapped file stays locked until
+     *                             the buffer gets garbage collected, which would break the replacement of the bucket
+     *                             file at writing.
+     */
+    public BlocksPersistence(File storageDir,
+                             String fileName,
+                             PersistenceProtoResolver persistenceProtoResolver,
+                             boolean useMemoryMappedFiles) {
         this.storageDir = storageDir;
         this.fileName = fileName;
         this.persistenceProtoResolver = persistenceProtoResolver;
+        this.useMemoryMappedFiles = useMemoryMappedFiles;
+        readExecutor = Utilities.getUnboundedListeningExecutorService("BlocksPersistence-read-%d",
+                NUM_READ_THREADS,
+                30);
     }
 
     public void writeBlocks(List<BaseBlock> protobufBlocks) {
@@ -93,20 +130,26 @@ public class BlocksPersistence {
     }
 
     public List<BaseBlock> readBlocks(int from, int to) {
+        long ts = System.currentTimeMillis();
+        List<BaseBlock> buckets = new ArrayList<>();
+        iterateBlocks(from, to).forEachRemaining(buckets::add);
+        log.info("Reading {} blocks took {} msec", buckets.size(), System.currentTimeMillis() - ts);
+        return buckets;
+    }
+
+    /**
+     * Returns the blocks of all buckets from the bucket containing the from height to the bucket containing the to
+     * height in ascending order. The buckets are read and decoded in parallel ahead of the consumer, so the caller can
+     * process the first blocks while the later buckets are still loading.
+     */
+    public Iterator<BaseBlock> iterateBlocks(int from, int to) {
         if (!storageDir.exists()) {
             storageDir.mkdir();
         }
 
-        long ts = System.currentTimeMillis();
-        List<BaseBlock> buckets = new ArrayList<>();
         int start = from / BUCKET_SIZE + 1;
         int end = to / BUCKET_SIZE + 1;
-        for (int bucketIndex = start; bucketIndex <= end; bucketIndex++) {
-            List<BaseBlock> bucket = readBucket(bucketIndex);
-            buckets.addAll(bucket);
-        }
-        log.info("Reading {} blocks took {} msec", buckets.size(), System.currentTimeMillis() - ts);
-        return buckets;
+        return new BlocksIterator(start, end);
     }
 
 
@@ -118,8 +161,10 @@ public class BlocksPersistence {
         if (!storageFile.exists()) {
             return new ArrayList<>();
         }
-        try (FileInputStream fileInputStream = new FileInputStream(storageFile)) {
-            protobuf.PersistableEnvelope proto = protobuf.PersistableEnvelope.parseDelimitedFrom(fileInputStream);
+        try {
+            protobuf.PersistableEnvelope proto = useMemoryMappedFiles ?
+                    readMemoryMapped(storageFile) :
+                    readFromStream(storageFile);
             BsqBlockStore bsqBlockStore = (BsqBlockStore) persistenceProtoResolver.fromProto(proto);
             return bsqBlockStore.getBlocksAsProto();
         } catch (Throwable t) {
@@ -128,6 +173,25 @@ public class BlocksPersistence {
         }
     }
 
+    private static protobuf.PersistableEnvelope readFromStream(File storageFile) throws IOException {
+        try (FileInputStream fileInputStream = new FileInputStream(storageFile)) {
+            return protobuf.PersistableEnvelope.parseDelimitedFrom(fileInputStream);
+        }
+    }
+
+    // Decodes directly from the mapped file without copying the file content into an intermediate stream buffer.
+    // We do not enable aliasing of bytes fields to the buffer as that would keep the mapping alive as long as any
+    // block is in memory.
+    private static protobuf.PersistableEnvelope readMemoryMapped(File storageFile) throws IOException {
+        try (FileChannel channel = FileChannel.open(storageFile.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            CodedInputStream codedInputStream = CodedInputStream.newInstance(buffer);
+            int size = codedInputStream.readRawVarint32();
+            codedInputStream.pushLimit(size);
+            return protobuf.PersistableEnvelope.parseFrom(codedInputStream);
+        }
+    }
+
     private void writeToDisk(File storageFile, BsqBlockStore bsqBlockStore) {
         File tempFile = null;
         FileOutputStream fileOutputStream = null;
@@ -175,4 +239,63 @@ public class BlocksPersistence {
             }
         }
     }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // BlocksIterator
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    // Keeps up to MAX_PREFETCHED_BUCKETS bucket reads in flight and returns the blocks in bucket order.
+    private class BlocksIterator implements Iterator<BaseBlock> {
+        private final Deque<Future<List<BaseBlock>>> pendingBuckets = new ArrayDeque<>();
+        private final int endBucketIndex;
+        private int nextBucketIndex;
+        private Iterator<BaseBlock> currentBucket = Collections.emptyIterator();
+
+        BlocksIterator(int startBucketIndex, int endBucketIndex) {
+            this.nextBucketIndex = startBucketIndex;
+            this.endBucketIndex = endBucketIndex;
+            prefetch();
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!currentBucket.hasNext() && !pendingBuckets.isEmpty()) {
+                Future<List<BaseBlock>> future = pendingBuckets.poll();
+                prefetch();
+                currentBucket = getBucket(future).iterator();
+            }
+            return currentBucket.hasNext();
+        }
+
+        @Override
+        public BaseBlock next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return currentBucket.next();
+        }
+
+        private void prefetch() {
+            while (pendingBuckets.size() < MAX_PREFETCHED_BUCKETS && nextBucketIndex <= endBucketIndex) {
+                int bucketIndex = nextBucketIndex++;
+                pendingBuckets.add(readExecutor.submit(() -> readBucket(bucketIndex)));
+            }
+        }
+
+        private List<BaseBlock> getBucket(Future<List<BaseBlock>> future) {
+            try {
+                return future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                pendingBuckets.forEach(pending -> pending.cancel(true));
+                pendingBuckets.clear();
+                log.warn("Reading blocks got interrupted");
+                return new ArrayList<>();
+            } catch (ExecutionException e) {
+                log.error("Reading bucket failed", e);
+                return new ArrayList<>();
+            }
+        }
+    }
 }
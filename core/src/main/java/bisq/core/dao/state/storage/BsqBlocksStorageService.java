@@ -24,6 +24,7 @@ import bisq.common.config.Config;
 import bisq.common.file.FileUtil;
 import bisq.common.file.ResourceNotFoundException;
 import bisq.common.proto.persistable.PersistenceProtoResolver;
+import bisq.common.util.Utilities;
 
 import protobuf.BaseBlock;
 
@@ -33,6 +34,7 @@ import javax.inject.Singleton;
 
 import java.io.File;
 
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -57,7 +59,8 @@ public class BsqBlocksStorageService {
                                    @Named(Config.STORAGE_DIR) File dbStorageDir) {
         genesisBlockHeight = genesisTxInfo.getGenesisBlockHeight();
         storageDir = new File(dbStorageDir.getAbsolutePath() + File.separator + NAME);
-        blocksPersistence = new BlocksPersistence(storageDir, NAME, persistenceProtoResolver);
+        // Memory mapped files stay locked on Windows which would prevent the replacement of bucket files
+        blocksPersistence = new BlocksPersistence(storageDir, NAME, persistenceProtoResolver, !Utilities.isWindows());
     }
 
     public void persistBlocks(List<Block> blocks) {
@@ -79,9 +82,11 @@ public class BsqBlocksStorageService {
     public LinkedList<Block> readBlocks(int chainHeight) {
         long ts = System.currentTimeMillis();
         LinkedList<Block> blocks = new LinkedList<>();
-        List<BaseBlock> list = blocksPersistence.readBlocks(genesisBlockHeight, chainHeight);
-        list.stream().map(Block::fromProto)
-                .forEach(blocks::add);
+        // We convert the blocks while the following buckets are still read and decoded
+        Iterator<BaseBlock> iterator = blocksPersistence.iterateBlocks(genesisBlockHeight, chainHeight);
+        while (iterator.hasNext()) {
+            blocks.add(Block.fromProto(iterator.next()));
+        }
         log.info("Reading and deserializing {} blocks took {} ms", blocks.size(), System.currentTimeMillis() - ts);
         if (!blocks.isEmpty()) {
             chainHeightOfPersistedBlocks = getHeightOfLastFullBucket(blocks);
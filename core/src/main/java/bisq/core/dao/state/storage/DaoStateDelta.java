@@ -0,0 +1,325 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.dao.state.storage;
+
+import bisq.core.dao.monitoring.model.DaoStateHash;
+import bisq.core.dao.state.DaoStateMutationListener;
+import bisq.core.dao.state.model.blockchain.SpentInfo;
+import bisq.core.dao.state.model.blockchain.TxOutput;
+import bisq.core.dao.state.model.blockchain.TxOutputKey;
+import bisq.core.dao.state.model.governance.Cycle;
+import bisq.core.dao.state.model.governance.DecryptedBallotsWithMerits;
+import bisq.core.dao.state.model.governance.EvaluatedProposal;
+import bisq.core.dao.state.model.governance.Issuance;
+import bisq.core.dao.state.model.governance.ParamChange;
+
+import bisq.common.proto.persistable.PersistablePayload;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import lombok.Getter;
+
+import javax.annotation.Nullable;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Changes of the DaoState between two snapshot heights. Gets filled by the DaoStateMutationListener callbacks while
+ * blocks are parsed and is closed at the next snapshot height. Applying all deltas in order to the base snapshot
+ * results in the same DaoState as a full snapshot at the height of the last delta.
+ *
+ * The collected model objects are immutable, so we can keep references instead of copies and serialize them on the
+ * persistence thread.
+ */
+@Getter
+public class DaoStateDelta implements PersistablePayload, DaoStateMutationListener {
+    private final int fromChainHeight;
+    private int chainHeight;
+    private final TreeMap<TxOutputKey, TxOutput> addedUnspentTxOutputs;
+    private final TreeSet<TxOutputKey> removedUnspentTxOutputs;
+    private final TreeMap<TxOutputKey, SpentInfo> spentInfoMap;
+    private final TreeMap<String, Issuance> issuanceMap;
+    private final List<Cycle> cycles;
+    private final List<String> confiscatedLockupTxList;
+    private final List<ParamChange> paramChangeList;
+    private final List<EvaluatedProposal> evaluatedProposalList;
+    private final List<DecryptedBallotsWithMerits> decryptedBallotsWithMeritsList;
+    private final List<DaoStateHash> daoStateHashList;
+    private boolean closed;
+
+    public DaoStateDelta(int fromChainHeight) {
+        this(fromChainHeight,
+                fromChainHeight,
+                new TreeMap<>(),
+                new TreeSet<>(),
+                new TreeMap<>(),
+                new TreeMap<>(),
+                new ArrayList<>(),
+                new ArrayList<>(),
+                new ArrayList<>(),
+                new ArrayList<>(),
+                new ArrayList<>(),
+                new ArrayList<>());
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // PROTO BUFFER
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private DaoStateDelta(int fromChainHeight,
+                          int chainHeight,
+                          TreeMap<TxOutputKey, TxOutput> addedUnspentTxOutputs,
+                          TreeSet<TxOutputKey> removedUnspentTxOutputs,
+                          TreeMap<TxOutputKey, SpentInfo> spentInfoMap,
+                          TreeMap<String, Issuance> issuanceMap,
+                          List<Cycle> cycles,
+                          List<String> confiscatedLockupTxList,
+                          List<ParamChange> paramChangeList,
+                          List<EvaluatedProposal> evaluatedProposalList,
+                          List<DecryptedBallotsWithMerits> decryptedBallotsWithMeritsList,
+                          List<DaoStateHash> daoStateHashList) {
+        this.fromChainHeight = fromChainHeight;
+        this.chainHeight = chainHeight;
+        this.addedUnspentTxOutputs = addedUnspentTxOutputs;
+        this.removedUnspentTxOutputs = removedUnspentTxOutputs;
+        this.spentInfoMap = spentInfoMap;
+        this.issuanceMap = issuanceMap;
+        this.cycles = cycles;
+        this.confiscatedLockupTxList = confiscatedLockupTxList;
+        this.paramChangeList = paramChangeList;
+        this.evaluatedProposalList = evaluatedProposalList;
+        this.decryptedBallotsWithMeritsList = decryptedBallotsWithMeritsList;
+        this.daoStateHashList = daoStateHashList;
+    }
+
+    @Override
+    public protobuf.DaoStateDelta toProtoMessage() {
+        return protobuf.DaoStateDelta.newBuilder()
+                .setFromChainHeight(fromChainHeight)
+                .setChainHeight(chainHeight)
+                .putAllAddedUnspentTxOutputs(addedUnspentTxOutputs.entrySet().stream()
+                        .collect(Collectors.toMap(e -> e.getKey().toString(), e -> e.getValue().toProtoMessage())))
+                .addAllRemovedUnspentTxOutputs(removedUnspentTxOutputs.stream()
+                        .map(TxOutputKey::toString)
+                        .collect(Collectors.toList()))
+                .putAllSpentInfoMap(spentInfoMap.entrySet().stream()
+                        .collect(Collectors.toMap(e -> e.getKey().toString(), e -> e.getValue().toProtoMessage())))
+                .putAllIssuanceMap(issuanceMap.entrySet().stream()
+                        .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().toProtoMessage())))
+                .addAllCycles(cycles.stream().map(Cycle::toProtoMessage).collect(Collectors.toList()))
+                .addAllConfiscatedLockupTxList(confiscatedLockupTxList)
+                .addAllParamChangeList(paramChangeList.stream()
+                        .map(ParamChange::toProtoMessage)
+                        .collect(Collectors.toList()))
+                .addAllEvaluatedProposalList(evaluatedProposalList.stream()
+                        .map(EvaluatedProposal::toProtoMessage)
+                        .collect(Collectors.toList()))
+                .addAllDecryptedBallotsWithMeritsList(decryptedBallotsWithMeritsList.stream()
+                        .map(DecryptedBallotsWithMerits::toProtoMessage)
+                        .collect(Collectors.toList()))
+                .addAllDaoStateHash(daoStateHashList.stream()
+                        .map(DaoStateHash::toProtoMessage)
+                        .collect(Collectors.toList()))
+                .build();
+    }
+
+    public static DaoStateDelta fromProto(protobuf.DaoStateDelta proto) {
+        DaoStateDelta delta = new DaoStateDelta(proto.getFromChainHeight(),
+                proto.getChainHeight(),
+                new TreeMap<>(proto.getAddedUnspentTxOutputsMap().entrySet().stream()
+                        .collect(Collectors.toMap(e -> TxOutputKey.getKeyFromString(e.getKey()),
+                                e -> TxOutput.fromProto(e.getValue())))),
+                proto.getRemovedUnspentTxOutputsList().stream()
+                        .map(TxOutputKey::getKeyFromString)
+                        .collect(Collectors.toCollection(TreeSet::new)),
+                new TreeMap<>(proto.getSpentInfoMapMap().entrySet().stream()
+                        .collect(Collectors.toMap(e -> TxOutputKey.getKeyFromString(e.getKey()),
+                                e -> SpentInfo.fromProto(e.getValue())))),
+                new TreeMap<>(proto.getIssuanceMapMap().entrySet().stream()
+                        .collect(Collectors.toMap(Map.Entry::getKey, e -> Issuance.fromProto(e.getValue())))),
+                proto.getCyclesList().stream()
+                        .map(Cycle::fromProto)
+                        .collect(Collectors.toCollection(ArrayList::new)),
+                new ArrayList<>(proto.getConfiscatedLockupTxListList()),
+                proto.getParamChangeListList().stream()
+                        .map(ParamChange::fromProto)
+                        .collect(Collectors.toCollection(ArrayList::new)),
+                proto.getEvaluatedProposalListList().stream()
+                        .map(EvaluatedProposal::fromProto)
+                        .collect(Collectors.toCollection(ArrayList::new)),
+                proto.getDecryptedBallotsWithMeritsListList().stream()
+                        .map(DecryptedBallotsWithMerits::fromProto)
+                        .collect(Collectors.toCollection(ArrayList::new)),
+                proto.getDaoStateHashList().stream()
+                        .map(DaoStateHash::fromProto)
+                        .collect(Collectors.toCollection(ArrayList::new)));
+        delta.closed = true;
+        return delta;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // DaoStateMutationListener
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public void onUnspentTxOutputAdded(@Nullable TxOutput previous, TxOutput txOutput) {
+        removedUnspentTxOutputs.remove(txOutput.getKey());
+        addedUnspentTxOutputs.put(txOutput.getKey(), txOutput);
+    }
+
+    @Override
+    public void onUnspentTxOutputRemoved(TxOutput txOutput) {
+        // We keep the removal even if the output was added in this delta, as it might have replaced an output of the
+        // base state. Removals are applied before additions.
+        addedUnspentTxOutputs.remove(txOutput.getKey());
+        removedUnspentTxOutputs.add(txOutput.getKey());
+    }
+
+    @Override
+    public void onSpentInfoSet(TxOutputKey txOutputKey, @Nullable SpentInfo previous, SpentInfo spentInfo) {
+        spentInfoMap.put(txOutputKey, spentInfo);
+    }
+
+    @Override
+    public void onIssuanceAdded(@Nullable Issuance previous, Issuance issuance) {
+        issuanceMap.put(issuance.getTxId(), issuance);
+    }
+
+    @Override
+    public void onParamChangeAdded(ParamChange paramChange) {
+        paramChangeList.add(paramChange);
+    }
+
+    @Override
+    public void onCycleAdded(Cycle cycle) {
+        cycles.add(cycle);
+    }
+
+    @Override
+    public void onConfiscatedLockupTxAdded(String lockupTxId) {
+        confiscatedLockupTxList.add(lockupTxId);
+    }
+
+    @Override
+    public void onEvaluatedProposalAdded(EvaluatedProposal evaluatedProposal) {
+        evaluatedProposalList.add(evaluatedProposal);
+    }
+
+    @Override
+    public void onDecryptedBallotsWithMeritsAdded(DecryptedBallotsWithMerits decryptedBallotsWithMerits) {
+        decryptedBallotsWithMeritsList.add(decryptedBallotsWithMerits);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Closes the delta at the given chain height. After that the delta must not be registered as listener anymore.
+     *
+     * @param chainHeight       The chain height of the DaoState at closing
+     * @param daoStateHashChain The current hash chain. The hashes of the blocks covered by this delta get added.
+     */
+    public void close(int chainHeight, List<DaoStateHash> daoStateHashChain) {
+        checkArgument(!closed, "Delta is already closed");
+        checkArgument(chainHeight >= fromChainHeight, "chainHeight must not be lower than fromChainHeight");
+        this.chainHeight = chainHeight;
+        daoStateHashChain.stream()
+                .filter(hash -> hash.getHeight() > fromChainHeight && hash.getHeight() <= chainHeight)
+                .forEach(daoStateHashList::add);
+        closed = true;
+    }
+
+    /**
+     * Applies the delta to the DaoState proto of the previous snapshot. The chain height of the builder must match
+     * fromChainHeight.
+     */
+    public void applyTo(protobuf.DaoState.Builder builder) {
+        checkArgument(closed, "Only a closed delta can be applied");
+        checkArgument(builder.getChainHeight() == fromChainHeight,
+                "Chain height of DaoState must match fromChainHeight of delta");
+
+        removedUnspentTxOutputs.forEach(key -> builder.removeUnspentTxOutputMap(key.toString()));
+        addedUnspentTxOutputs.forEach((key, txOutput) ->
+                builder.putUnspentTxOutputMap(key.toString(), txOutput.toProtoMessage()));
+        spentInfoMap.forEach((key, spentInfo) -> builder.putSpentInfoMap(key.toString(), spentInfo.toProtoMessage()));
+        issuanceMap.forEach((txId, issuance) -> builder.putIssuanceMap(txId, issuance.toProtoMessage()));
+        cycles.forEach(cycle -> builder.addCycles(cycle.toProtoMessage()));
+        builder.addAllConfiscatedLockupTxList(confiscatedLockupTxList);
+
+        // The lists are kept sorted in the DaoStateService, so we need to apply the same sorting.
+        if (!paramChangeList.isEmpty()) {
+            List<ParamChange> list = builder.getParamChangeListList().stream()
+                    .map(ParamChange::fromProto)
+                    .collect(Collectors.toCollection(ArrayList::new));
+            list.addAll(paramChangeList);
+            list.sort(Comparator.comparingInt(ParamChange::getActivationHeight));
+            builder.clearParamChangeList().addAllParamChangeList(list.stream()
+                    .map(ParamChange::toProtoMessage)
+                    .collect(Collectors.toList()));
+        }
+        if (!evaluatedProposalList.isEmpty()) {
+            List<EvaluatedProposal> list = builder.getEvaluatedProposalListList().stream()
+                    .map(EvaluatedProposal::fromProto)
+                    .collect(Collectors.toCollection(ArrayList::new));
+            list.addAll(evaluatedProposalList);
+            list.sort(Comparator.comparing(EvaluatedProposal::getProposalTxId));
+            builder.clearEvaluatedProposalList().addAllEvaluatedProposalList(list.stream()
+                    .map(EvaluatedProposal::toProtoMessage)
+                    .collect(Collectors.toList()));
+        }
+        if (!decryptedBallotsWithMeritsList.isEmpty()) {
+            List<DecryptedBallotsWithMerits> list = builder.getDecryptedBallotsWithMeritsListList().stream()
+                    .map(DecryptedBallotsWithMerits::fromProto)
+                    .collect(Collectors.toCollection(ArrayList::new));
+            list.addAll(decryptedBallotsWithMeritsList);
+            list.sort(Comparator.comparing(DecryptedBallotsWithMerits::getBlindVoteTxId));
+            builder.clearDecryptedBallotsWithMeritsList().addAllDecryptedBallotsWithMeritsList(list.stream()
+                    .map(DecryptedBallotsWithMerits::toProtoMessage)
+                    .collect(Collectors.toList()));
+        }
+
+        builder.setChainHeight(chainHeight);
+    }
+
+    public int getNumChanges() {
+        return addedUnspentTxOutputs.size() + removedUnspentTxOutputs.size() + spentInfoMap.size() +
+                issuanceMap.size() + cycles.size() + confiscatedLockupTxList.size() + paramChangeList.size() +
+                evaluatedProposalList.size() + decryptedBallotsWithMeritsList.size();
+    }
+
+    @Override
+    public String toString() {
+        return "DaoStateDelta{" +
+                "\n     fromChainHeight=" + fromChainHeight +
+                ",\n     chainHeight=" + chainHeight +
+                ",\n     numChanges=" + getNumChanges() +
+                ",\n     numHashes=" + daoStateHashList.size() +
+                "\n}";
+    }
+}
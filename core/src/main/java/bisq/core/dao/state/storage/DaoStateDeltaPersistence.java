@@ -0,0 +1,97 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.dao.state.storage;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Append-only file of DaoStateDeltas as delimited protobuf messages. A delta is only appended, never rewritten, so
+ * persisting a delta costs only the size of the changes. A partially written last entry (e.g. after a crash) is
+ * ignored at reading.
+ */
+@Slf4j
+public class DaoStateDeltaPersistence {
+    private final File storageFile;
+
+    public DaoStateDeltaPersistence(File storageDir, String fileName) {
+        this.storageFile = new File(storageDir, fileName);
+    }
+
+    public void append(DaoStateDelta delta) throws IOException {
+        long ts = System.currentTimeMillis();
+        try (FileOutputStream fileOutputStream = new FileOutputStream(storageFile, true)) {
+            delta.toProtoMessage().writeDelimitedTo(fileOutputStream);
+
+            // Attempt to force the bits to hit the disk. In reality the OS or hard disk itself may still decide
+            // to not write through to physical media for at least a few seconds, but this is the best we can do.
+            fileOutputStream.flush();
+            fileOutputStream.getFD().sync();
+        }
+        log.info("Appending delta with {} changes from chainHeight {} to {} took {} ms",
+                delta.getNumChanges(), delta.getFromChainHeight(), delta.getChainHeight(),
+                System.currentTimeMillis() - ts);
+    }
+
+    public List<DaoStateDelta> read() {
+        List<DaoStateDelta> deltas = new ArrayList<>();
+        if (!storageFile.exists()) {
+            return deltas;
+        }
+
+        long ts = System.currentTimeMillis();
+        try (FileInputStream fileInputStream = new FileInputStream(storageFile)) {
+            protobuf.DaoStateDelta proto;
+            while ((proto = protobuf.DaoStateDelta.parseDelimitedFrom(fileInputStream)) != null) {
+                deltas.add(DaoStateDelta.fromProto(proto));
+            }
+        } catch (Throwable t) {
+            log.warn("Reading {} failed after {} deltas with {}. We ignore the remaining data.",
+                    storageFile.getName(), deltas.size(), t.getMessage());
+            // We rewrite the valid deltas, otherwise deltas appended after the corrupted entry could not be read.
+            replace(deltas);
+        }
+        log.info("Reading {} deltas took {} ms", deltas.size(), System.currentTimeMillis() - ts);
+        return deltas;
+    }
+
+    public void replace(List<DaoStateDelta> deltas) {
+        remove();
+        try {
+            for (DaoStateDelta delta : deltas) {
+                append(delta);
+            }
+        } catch (IOException e) {
+            log.error("Writing {} failed. We remove the file.", storageFile.getName(), e);
+            remove();
+        }
+    }
+
+    public void remove() {
+        if (storageFile.exists() && !storageFile.delete()) {
+            log.error("Could not delete {}", storageFile.getName());
+        }
+    }
+}
@@ -36,9 +36,11 @@ import javax.inject.Named;
 import java.io.File;
 import java.io.IOException;
 
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 import static com.google.common.base.Preconditions.checkArgument;
@@ -49,10 +51,15 @@ import static com.google.common.base.Preconditions.checkArgument;
 @Slf4j
 public class DaoStateStorageService extends StoreService<DaoStateStore> {
     private static final String FILE_NAME = "DaoStateStore";
+    private static final String DELTAS_FILE_NAME = "DaoStateDeltas";
 
     private final BsqBlocksStorageService bsqBlocksStorageService;
     private final File storageDir;
+    private final DaoStateDeltaPersistence daoStateDeltaPersistence;
     private final LinkedList<Block> blocks = new LinkedList<>();
+    // Number of deltas which got applied on top of the persisted snapshot at startup
+    @Getter
+    private int numAppliedDeltas;
 
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -67,6 +74,7 @@ public class DaoStateStorageService extends StoreService<DaoStateStore> {
         super(storageDir, persistenceManager);
         this.bsqBlocksStorageService = bsqBlocksStorageService;
         this.storageDir = storageDir;
+        daoStateDeltaPersistence = new DaoStateDeltaPersistence(storageDir, DELTAS_FILE_NAME);
 
         resourceDataStoreService.addService(this);
     }
@@ -105,6 +113,8 @@ public class DaoStateStorageService extends StoreService<DaoStateStore> {
                 // After we have written to disk we remove the daoStateAsProto in the store to avoid that it stays in
                 // memory there until the next persist call.
                 log.info("Persist daoState took {} ms", System.currentTimeMillis() - ts);
+                // The deltas are based on the previous snapshot, so they are obsolete now.
+                daoStateDeltaPersistence.remove();
                 store.releaseMemory();
                 GcUtil.maybeReleaseMemory();
                 UserThread.execute(completeHandler);
@@ -112,6 +122,26 @@ public class DaoStateStorageService extends StoreService<DaoStateStore> {
         }).start();
     }
 
+    /**
+     * Appends the delta to the deltas file instead of writing the full daoState. The delta must start at the
+     * chain height of the last persisted snapshot or delta.
+     */
+    public void requestDeltaPersistence(DaoStateDelta delta,
+                                        List<Block> blocks,
+                                        Runnable completeHandler) {
+        new Thread(() -> {
+            Thread.currentThread().setName("Write-blocks-and-DaoStateDelta");
+            bsqBlocksStorageService.persistBlocks(blocks);
+            try {
+                daoStateDeltaPersistence.append(delta);
+            } catch (IOException e) {
+                // In case of a failed write a partially written entry gets removed at the next startup
+                log.error("Appending delta failed", e);
+            }
+            UserThread.execute(completeHandler);
+        }).start();
+    }
+
     @Override
     protected void readFromResources(String postFix, Runnable completeHandler) {
         new Thread(() -> {
@@ -124,6 +154,9 @@ public class DaoStateStorageService extends StoreService<DaoStateStore> {
                 new Thread(() -> {
                     Thread.currentThread().setName("Read-BsqBlocksStore");
                     protobuf.DaoState daoStateAsProto = store.getDaoStateAsProto();
+                    if (daoStateAsProto != null && daoStateAsProto.getBlocksList().isEmpty()) {
+                        daoStateAsProto = applyPersistedDeltas(daoStateAsProto);
+                    }
                     if (daoStateAsProto != null) {
                         LinkedList<Block> list;
                         if (daoStateAsProto.getBlocksList().isEmpty()) {
@@ -146,6 +179,46 @@ public class DaoStateStorageService extends StoreService<DaoStateStore> {
         }).start();
     }
 
+    private protobuf.DaoState applyPersistedDeltas(protobuf.DaoState daoStateAsProto) {
+        List<DaoStateDelta> deltas = daoStateDeltaPersistence.read();
+        if (deltas.isEmpty()) {
+            numAppliedDeltas = 0;
+            return daoStateAsProto;
+        }
+
+        long ts = System.currentTimeMillis();
+        protobuf.DaoState.Builder builder = daoStateAsProto.toBuilder();
+        LinkedList<DaoStateHash> daoStateHashChain = store.getDaoStateHashChain();
+        List<DaoStateDelta> appliedDeltas = new ArrayList<>();
+        for (DaoStateDelta delta : deltas) {
+            if (delta.getChainHeight() <= builder.getChainHeight()) {
+                // Deltas of an older snapshot, e.g. if we got interrupted before the deltas file got removed
+                continue;
+            }
+            if (delta.getFromChainHeight() != builder.getChainHeight()) {
+                log.warn("Delta does not continue at chain height {}. We ignore the remaining deltas. delta={}",
+                        builder.getChainHeight(), delta);
+                break;
+            }
+            delta.applyTo(builder);
+            int heightOfLastHash = daoStateHashChain.isEmpty() ? 0 : daoStateHashChain.getLast().getHeight();
+            delta.getDaoStateHashList().stream()
+                    .filter(hash -> hash.getHeight() > heightOfLastHash)
+                    .forEach(daoStateHashChain::add);
+            appliedDeltas.add(delta);
+        }
+        if (appliedDeltas.size() != deltas.size()) {
+            // Otherwise new deltas would be appended after entries we cannot apply
+            daoStateDeltaPersistence.replace(appliedDeltas);
+        }
+        numAppliedDeltas = appliedDeltas.size();
+        log.info("Applying {} deltas up to chain height {} took {} ms",
+                appliedDeltas.size(), builder.getChainHeight(), System.currentTimeMillis() - ts);
+        protobuf.DaoState result = builder.build();
+        store.setDaoStateAsProto(result);
+        return result;
+    }
+
     public DaoState getPersistedBsqState() {
         protobuf.DaoState daoStateAsProto = store.getDaoStateAsProto();
         if (daoStateAsProto != null) {
@@ -176,6 +249,7 @@ public class DaoStateStorageService extends StoreService<DaoStateStore> {
             log.error(t.toString());
         }
 
+        daoStateDeltaPersistence.remove();
         store.setDaoStateAsProto(DaoState.getBsqStateCloneExcludingBlocks(new DaoState()));
         store.setDaoStateHashChain(new LinkedList<>());
         persistenceManager.persistNow(resultHandler);
@@ -190,6 +264,7 @@ public class DaoStateStorageService extends StoreService<DaoStateStore> {
 
         String newFileName = "DaoStateStore_" + System.currentTimeMillis();
         FileUtil.removeAndBackupFile(storageDir, new File(storageDir, "DaoStateStore"), newFileName, backupDirName);
+        daoStateDeltaPersistence.remove();
 
         bsqBlocksStorageService.removeBlocksDirectory();
     }
@@ -18,8 +18,10 @@
 package bisq.core.filter;
 
 import bisq.network.p2p.storage.payload.ExpirablePayload;
+import bisq.network.p2p.storage.payload.HashCachingPayload;
 import bisq.network.p2p.storage.payload.ProtectedStoragePayload;
 
+import bisq.common.crypto.Hash;
 import bisq.common.crypto.Sig;
 import bisq.common.proto.ProtoUtil;
 import bisq.common.util.CollectionUtils;
@@ -48,7 +50,7 @@ import javax.annotation.Nullable;
 @Slf4j
 @Getter
 @EqualsAndHashCode
-public final class Filter implements ProtectedStoragePayload, ExpirablePayload {
+public final class Filter implements ProtectedStoragePayload, ExpirablePayload, HashCachingPayload {
     public static final long TTL = TimeUnit.DAYS.toMillis(180);
 
     private final List<String> bannedOfferIds;
@@ -92,6 +94,8 @@ public final class Filter implements ProtectedStoragePayload, ExpirablePayload {
     private Map<String, String> extraDataMap;
 
     private transient PublicKey ownerPubKey;
+    // Cache. The filter is immutable, so the hash never changes.
+    private transient byte[] hash;
 
     // added at v1.3.8
     private final boolean disableAutoConf;
@@ -450,6 +454,14 @@ public final class Filter implements ProtectedStoragePayload, ExpirablePayload {
         return TTL;
     }
 
+    @Override
+    public byte[] getHash() {
+        if (hash == null) {
+            hash = Hash.getSha256Hash(toProtoMessage().toByteArray());
+        }
+        return hash;
+    }
+
     @Override
     public String toString() {
         return "Filter{" +
@@ -64,9 +64,11 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 import java.lang.reflect.Method;
 
@@ -497,6 +499,44 @@ public class FilterManager {
                 service.get().verify(pow, offer.getId(), offer.getOwnerNodeAddress().toString(), filter.getPowDifficulty());
     }
 
+    /**
+     * Batch version of {@link #isProofOfWorkValid(Offer)}, which verifies the proofs of work of all offers with
+     * the same version together.
+     *
+     * @return The IDs of the offers with an invalid proof of work
+     */
+    public Set<String> getIdsOfOffersWithInvalidProofOfWork(Collection<Offer> offers) {
+        Filter filter = getFilter();
+        if (filter == null) {
+            return Set.of();
+        }
+        checkArgument(offers.stream().allMatch(offer -> offer.getBsqSwapOfferPayload().isPresent()),
+                "Offer payload must be BsqSwapOfferPayload");
+        Map<Integer, List<Offer>> offersByPowVersion = offers.stream()
+                .collect(Collectors.groupingBy(offer -> getProofOfWork(offer).getVersion()));
+        List<Integer> enabledPowVersions = getEnabledPowVersions();
+
+        Set<String> invalidOfferIds = new HashSet<>();
+        offersByPowVersion.forEach((version, offersOfVersion) -> {
+            var service = ProofOfWorkService.forVersion(version);
+            if (service.isEmpty() || !enabledPowVersions.contains(version)) {
+                offersOfVersion.forEach(offer -> invalidOfferIds.add(offer.getId()));
+                return;
+            }
+            boolean[] results = service.get().verify(
+                    offersOfVersion.stream().map(FilterManager::getProofOfWork).collect(Collectors.toList()),
+                    offersOfVersion.stream().map(Offer::getId).collect(Collectors.toList()),
+                    offersOfVersion.stream().map(offer -> offer.getOwnerNodeAddress().toString()).collect(Collectors.toList()),
+                    filter.getPowDifficulty());
+            for (int i = 0; i < results.length; i++) {
+                if (!results[i]) {
+                    invalidOfferIds.add(offersOfVersion.get(i).getId());
+                }
+            }
+        });
+        return invalidOfferIds;
+    }
+
     public List<Integer> getEnabledPowVersions() {
         Filter filter = getFilter();
         return filter != null && !filter.getEnabledPowVersions().isEmpty() ? filter.getEnabledPowVersions() : List.of(0);
@@ -507,6 +547,10 @@ public class FilterManager {
     // Private
     ///////////////////////////////////////////////////////////////////////////////////////////
 
+    private static ProofOfWork getProofOfWork(Offer offer) {
+        return offer.getBsqSwapOfferPayload().orElseThrow().getProofOfWork();
+    }
+
     private void onFilterAddedFromNetwork(Filter newFilter) {
         Filter currentFilter = getFilter();
 
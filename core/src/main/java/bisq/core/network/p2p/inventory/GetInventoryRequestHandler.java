@@ -39,6 +39,8 @@ import bisq.network.p2p.peers.PeerManager;
 import bisq.network.p2p.storage.P2PDataStorage;
 import bisq.network.p2p.storage.payload.ProtectedStorageEntry;
 
+import bisq.common.InstrumentedExecutor;
+import bisq.common.UserThread;
 import bisq.common.app.Version;
 import bisq.common.config.Config;
 import bisq.common.proto.network.NetworkEnvelope;
@@ -160,6 +162,16 @@ public class GetInventoryRequestHandler implements MessageListener {
                 inventory.put(InventoryItem.filteredSeeds, Joiner.on("," + System.getProperty("line.separator")).join(filter.getSeedNodes()));
             }
 
+            if (UserThread.getExecutor() instanceof InstrumentedExecutor) {
+                InstrumentedExecutor executor = (InstrumentedExecutor) UserThread.getExecutor();
+                inventory.put(InventoryItem.userThreadQueueSize, String.valueOf(executor.getQueueSize()));
+                inventory.put(InventoryItem.userThreadAverageQueueLatency, String.valueOf(executor.getAverageQueueLatencyMs()));
+                inventory.put(InventoryItem.userThreadNumSlowTasks, String.valueOf(executor.getNumSlowTasks()));
+                executor.getSlowestRecentTask().ifPresent(slowTask ->
+                        inventory.put(InventoryItem.userThreadSlowestRecentTask,
+                                slowTask.getCallSite() + ": " + slowTask.getExecutionTimeMs() + " ms"));
+            }
+
             log.info("Send inventory {} to {}", inventory, connection.getPeersNodeAddressOptional());
             GetInventoryResponse getInventoryResponse = new GetInventoryResponse(inventory);
             networkNode.sendMessage(connection, getInventoryResponse);
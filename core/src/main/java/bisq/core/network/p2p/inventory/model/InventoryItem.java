@@ -125,7 +125,13 @@ public enum InventoryItem {
     commitHash("commitHash", false),
     usedMemory("usedMemory", true),
     jvmStartTime("jvmStartTime", true),
-    filteredSeeds("filteredSeeds", false);
+    filteredSeeds("filteredSeeds", false),
+
+    // No deviation check. Only available if the UserThread is instrumented.
+    userThreadQueueSize("userThreadQueueSize", true),
+    userThreadAverageQueueLatency("userThreadAverageQueueLatency", true),
+    userThreadNumSlowTasks("userThreadNumSlowTasks", true),
+    userThreadSlowestRecentTask("userThreadSlowestRecentTask", false);
 
     @Getter
     private final String key;
@@ -38,19 +38,27 @@ import javax.inject.Named;
 
 import java.io.File;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 
 import javax.annotation.Nullable;
 
 /**
  * Handles storage and retrieval of offers.
- * Uses an invalidation flag to only request the full offer map in case there was a change (anyone has added or removed an offer).
+ * The offers are kept in an index by offer ID and by market, which is updated by the HashMapChangedListener. So
+ * retrieving offers does not need to iterate over all ProtectedStorageEntries and the same Offer instance is used for
+ * the same OfferPayloadBase.
  */
 @Slf4j
 public class OfferBookService {
@@ -61,12 +69,31 @@ public class OfferBookService {
         void onRemoved(Offer offer);
     }
 
+    @Value
+    public static class MarketKey {
+        String currencyCode;
+        String counterCurrencyCode;
+        OfferDirection direction;
+        String paymentMethodId;
+
+        private MarketKey(Offer offer) {
+            this.currencyCode = offer.getCurrencyCode();
+            this.counterCurrencyCode = offer.getCounterCurrencyCode();
+            this.direction = offer.getDirection();
+            this.paymentMethodId = offer.getPaymentMethodId();
+        }
+    }
+
     private final P2PService p2PService;
     private final PriceFeedService priceFeedService;
-    private final List<OfferBookChangedListener> offerBookChangedListeners = new LinkedList<>();
+    private final List<OfferBookChangedListener> offerBookChangedListeners = new CopyOnWriteArrayList<>();
     private final FilterManager filterManager;
     private final JsonFileManager jsonFileManager;
 
+    // The index gets updated from the UserThread but is read from API threads as well.
+    private final Map<String, Offer> offerById = new ConcurrentHashMap<>();
+    private final Map<MarketKey, Map<String, Offer>> offersByMarketKey = new ConcurrentHashMap<>();
+
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Constructor
@@ -86,29 +113,30 @@ public class OfferBookService {
         p2PService.addHashSetChangedListener(new HashMapChangedListener() {
             @Override
             public void onAdded(Collection<ProtectedStorageEntry> protectedStorageEntries) {
-                protectedStorageEntries.forEach(protectedStorageEntry -> offerBookChangedListeners.forEach(listener -> {
+                protectedStorageEntries.forEach(protectedStorageEntry -> {
                     if (protectedStorageEntry.getProtectedStoragePayload() instanceof OfferPayloadBase) {
-                        OfferPayloadBase offerPayloadBase = (OfferPayloadBase) protectedStorageEntry.getProtectedStoragePayload();
-                        Offer offer = new Offer(offerPayloadBase);
-                        offer.setPriceFeedService(priceFeedService);
-                        listener.onAdded(offer);
+                        Offer offer = addToIndex((OfferPayloadBase) protectedStorageEntry.getProtectedStoragePayload());
+                        offerBookChangedListeners.forEach(listener -> listener.onAdded(offer));
                     }
-                }));
+                });
             }
 
             @Override
             public void onRemoved(Collection<ProtectedStorageEntry> protectedStorageEntries) {
-                protectedStorageEntries.forEach(protectedStorageEntry -> offerBookChangedListeners.forEach(listener -> {
+                protectedStorageEntries.forEach(protectedStorageEntry -> {
                     if (protectedStorageEntry.getProtectedStoragePayload() instanceof OfferPayloadBase) {
-                        OfferPayloadBase offerPayloadBase = (OfferPayloadBase) protectedStorageEntry.getProtectedStoragePayload();
-                        Offer offer = new Offer(offerPayloadBase);
-                        offer.setPriceFeedService(priceFeedService);
-                        listener.onRemoved(offer);
+                        Offer offer = removeFromIndex((OfferPayloadBase) protectedStorageEntry.getProtectedStoragePayload());
+                        offerBookChangedListeners.forEach(listener -> listener.onRemoved(offer));
                     }
-                }));
+                });
             }
         });
 
+        // In case the P2PDataStorage has already entries we add those.
+        p2PService.getDataMap().values().stream()
+                .filter(data -> data.getProtectedStoragePayload() instanceof OfferPayloadBase)
+                .forEach(data -> addToIndex((OfferPayloadBase) data.getProtectedStoragePayload()));
+
         if (dumpStatistics) {
             p2PService.addP2PServiceListener(new BootstrapListener() {
                 @Override
@@ -190,15 +218,22 @@ public class OfferBookService {
     }
 
     public List<Offer> getOffers() {
-        return p2PService.getDataMap().values().stream()
-                .filter(data -> data.getProtectedStoragePayload() instanceof OfferPayloadBase)
-                .map(data -> {
-                    OfferPayloadBase offerPayloadBase = (OfferPayloadBase) data.getProtectedStoragePayload();
-                    Offer offer = new Offer(offerPayloadBase);
-                    offer.setPriceFeedService(priceFeedService);
-                    return offer;
-                })
-                .collect(Collectors.toList());
+        return new ArrayList<>(offerById.values());
+    }
+
+    // Only the offers of the matching markets are iterated, so the predicate should only use the MarketKey.
+    public List<Offer> getOffers(Predicate<MarketKey> marketKeyPredicate) {
+        List<Offer> result = new ArrayList<>();
+        offersByMarketKey.forEach((marketKey, offers) -> {
+            if (marketKeyPredicate.test(marketKey)) {
+                result.addAll(offers.values());
+            }
+        });
+        return result;
+    }
+
+    public Optional<Offer> findOffer(String offerId) {
+        return Optional.ofNullable(offerById.get(offerId));
     }
 
     public void removeOfferAtShutDown(OfferPayloadBase offerPayloadBase) {
@@ -213,11 +248,57 @@ public class OfferBookService {
         offerBookChangedListeners.add(offerBookChangedListener);
     }
 
+    public void removeOfferBookChangedListener(OfferBookChangedListener offerBookChangedListener) {
+        offerBookChangedListeners.remove(offerBookChangedListener);
+    }
+
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Private
     ///////////////////////////////////////////////////////////////////////////////////////////
 
+    // We get onAdded called for each ProtectedStorageEntry, which is mostly for the same OfferPayloadBase. In that
+    // case we keep the existing Offer so its state is not lost.
+    private Offer addToIndex(OfferPayloadBase offerPayloadBase) {
+        Offer existing = offerById.get(offerPayloadBase.getId());
+        if (existing != null && existing.getOfferPayloadBase().equals(offerPayloadBase)) {
+            return existing;
+        }
+
+        Offer offer = new Offer(offerPayloadBase);
+        offer.setPriceFeedService(priceFeedService);
+        if (existing != null) {
+            removeFromMarketIndex(existing);
+        }
+        offerById.put(offer.getId(), offer);
+        offersByMarketKey.computeIfAbsent(new MarketKey(offer), key -> new ConcurrentHashMap<>())
+                .put(offer.getId(), offer);
+        return offer;
+    }
+
+    // Returns the indexed offer for the offerPayloadBase or a new Offer if it was not in the index.
+    private Offer removeFromIndex(OfferPayloadBase offerPayloadBase) {
+        Offer existing = offerById.get(offerPayloadBase.getId());
+        if (existing != null && existing.getOfferPayloadBase().equals(offerPayloadBase)) {
+            offerById.remove(existing.getId());
+            removeFromMarketIndex(existing);
+            return existing;
+        }
+
+        // The offer was replaced by an edited offer with the same ID, so we keep the indexed one.
+        Offer offer = new Offer(offerPayloadBase);
+        offer.setPriceFeedService(priceFeedService);
+        return offer;
+    }
+
+    private void removeFromMarketIndex(Offer offer) {
+        // We do not remove empty maps as the number of markets is small.
+        Map<String, Offer> offers = offersByMarketKey.get(new MarketKey(offer));
+        if (offers != null) {
+            offers.remove(offer.getId(), offer);
+        }
+    }
+
     private void doDumpStatistics() {
         // We filter the case that it is a MarketBasedPrice but the price is not available
         // That should only be possible if the price feed provider is not available
@@ -19,6 +19,7 @@ package bisq.core.offer;
 
 import bisq.network.p2p.NodeAddress;
 import bisq.network.p2p.storage.payload.ExpirablePayload;
+import bisq.network.p2p.storage.payload.HashCachingPayload;
 import bisq.network.p2p.storage.payload.ProtectedStoragePayload;
 import bisq.network.p2p.storage.payload.RequiresOwnerIsOnlinePayload;
 
@@ -39,7 +40,8 @@ import javax.annotation.Nullable;
 
 @EqualsAndHashCode(exclude = {"hash"})
 @Getter
-public abstract class OfferPayloadBase implements ProtectedStoragePayload, ExpirablePayload, RequiresOwnerIsOnlinePayload {
+public abstract class OfferPayloadBase implements ProtectedStoragePayload, ExpirablePayload, RequiresOwnerIsOnlinePayload,
+        HashCachingPayload {
     public static final long TTL = TimeUnit.MINUTES.toMillis(9);
 
     protected final String id;
@@ -97,6 +99,7 @@ public abstract class OfferPayloadBase implements ProtectedStoragePayload, Expir
         this.protocolVersion = protocolVersion;
     }
 
+    @Override
     public byte[] getHash() {
         if (this.hash == null) {
             this.hash = Hash.getSha256Hash(this.toProtoMessage().toByteArray());
@@ -63,8 +63,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -326,10 +328,14 @@ public class OpenBsqSwapOfferService {
     }
 
     private void onProofOfWorkDifficultyChanged() {
-        openBsqSwapOffersById.values().stream()
+        List<OpenBsqSwapOffer> activeOpenBsqSwapOffers = openBsqSwapOffersById.values().stream()
                 .filter(openBsqSwapOffer -> !openBsqSwapOffer.isDeactivated())
                 .filter(openBsqSwapOffer -> !openBsqSwapOffer.isBsqSwapOfferHasMissingFunds())
-                .filter(openBsqSwapOffer -> isProofOfWorkInvalid(openBsqSwapOffer.getOffer()))
+                .collect(Collectors.toList());
+        Set<String> invalidOfferIds = filterManager.getIdsOfOffersWithInvalidProofOfWork(
+                activeOpenBsqSwapOffers.stream().map(OpenBsqSwapOffer::getOffer).collect(Collectors.toList()));
+        activeOpenBsqSwapOffers.stream()
+                .filter(openBsqSwapOffer -> invalidOfferIds.contains(openBsqSwapOffer.getOffer().getId()))
                 .forEach(openBsqSwapOffer -> {
                     // Avoiding ConcurrentModificationException
                     UserThread.execute(() -> redoProofOfWorkAndRepublish(openBsqSwapOffer.getOpenOffer()));
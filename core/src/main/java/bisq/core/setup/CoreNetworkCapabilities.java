@@ -42,13 +42,19 @@ public class CoreNetworkCapabilities {
                 Capability.TRADE_STATISTICS_HASH_UPDATE,
                 Capability.NO_ADDRESS_PRE_FIX,
                 Capability.TRADE_STATISTICS_3,
-                Capability.BSQ_SWAP_OFFER
+                Capability.BSQ_SWAP_OFFER,
+                Capability.GET_DATA_KNOWN_HASHES_FILTER
         );
 
         if (config.daoActivated) {
             maybeApplyDaoFullMode(config);
         }
 
+        // Only nodes using the incremental DAO state hash get such hashes delivered, others would see them as conflicts
+        if (config.useIncrementalDaoStateHash) {
+            Capabilities.app.addAll(Capability.INCREMENTAL_DAO_STATE_HASH);
+        }
+
         log.info(Capabilities.app.prettyPrint());
     }
 
@@ -137,15 +137,10 @@ public class FailedTradesManager implements PersistedDataHost {
             return "Addresses not found";
         }
         StringBuilder blockingTrades = new StringBuilder();
-        for (var entry : btcWalletService.getAddressEntryListAsImmutableList()) {
-            if (entry.getContext() == AddressEntry.Context.AVAILABLE)
-                continue;
-            if (entry.getAddressString() != null &&
-                    (entry.getAddressString().equals(addresses.first) ||
-                            entry.getAddressString().equals(addresses.second))) {
-                blockingTrades.append(entry.getOfferId()).append(", ");
-            }
-        }
+        Stream.concat(btcWalletService.getAddressEntriesByAddress(addresses.first).stream(),
+                        btcWalletService.getAddressEntriesByAddress(addresses.second).stream())
+                .filter(entry -> entry.getContext() != AddressEntry.Context.AVAILABLE)
+                .forEach(entry -> blockingTrades.append(entry.getOfferId()).append(", "));
         return blockingTrades.toString();
     }
 
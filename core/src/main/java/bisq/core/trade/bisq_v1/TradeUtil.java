@@ -122,8 +122,7 @@ public class TradeUtil {
         var payoutAddress = isMyRoleBuyer
                 ? contract.getBuyerPayoutAddressString()
                 : contract.getSellerPayoutAddressString();
-        var payoutAddressEntry = btcWalletService.getAddressEntryListAsImmutableList().stream()
-                .filter(e -> Objects.equals(e.getAddressString(), payoutAddress))
+        var payoutAddressEntry = btcWalletService.getAddressEntriesByAddress(payoutAddress).stream()
                 .findAny()
                 .orElse(null);
         if (payoutAddressEntry == null)
@@ -18,6 +18,7 @@
 package bisq.core.trade.statistics;
 
 import bisq.network.p2p.storage.P2PDataStorage;
+import bisq.network.p2p.storage.payload.PersistableNetworkPayload;
 import bisq.network.p2p.storage.persistence.PersistableNetworkPayloadStore;
 
 import com.google.protobuf.Message;
@@ -70,4 +71,11 @@ public class TradeStatistics3Store extends PersistableNetworkPayloadStore<TradeS
     public boolean containsKey(P2PDataStorage.ByteArray hash) {
         return map.containsKey(hash);
     }
+
+    @Override
+    public TradeStatistics3Store toJournalRecord(P2PDataStorage.ByteArray hash, PersistableNetworkPayload payload) {
+        TradeStatistics3Store record = new TradeStatistics3Store();
+        record.map.put(hash, payload);
+        return record;
+    }
 }
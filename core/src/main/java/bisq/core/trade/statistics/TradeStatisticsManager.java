@@ -46,10 +46,17 @@ import java.time.Instant;
 import java.io.File;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -58,6 +65,29 @@ import javax.annotation.Nullable;
 @Singleton
 @Slf4j
 public class TradeStatisticsManager {
+    // Key of the date index. Several trade statistics can have the same date, so we add the hash.
+    private static class DateKey implements Comparable<DateKey> {
+        private static final byte[] MIN_HASH = new byte[0];
+
+        private final long date;
+        private final byte[] hash;
+
+        private DateKey(long date, byte[] hash) {
+            this.date = date;
+            this.hash = hash;
+        }
+
+        private DateKey(TradeStatistics3 tradeStatistics) {
+            this(tradeStatistics.getDateAsLong(), tradeStatistics.getHash());
+        }
+
+        @Override
+        public int compareTo(DateKey other) {
+            int result = Long.compare(date, other.date);
+            return result != 0 ? result : Arrays.compare(hash, other.hash);
+        }
+    }
+
     private final P2PService p2PService;
     private final PriceFeedService priceFeedService;
     private final TradeStatistics3StorageService tradeStatistics3StorageService;
@@ -65,6 +95,15 @@ public class TradeStatisticsManager {
     private final File storageDir;
     private final boolean dumpStatistics;
     private final ObservableSet<TradeStatistics3> observableTradeStatisticsSet = FXCollections.observableSet();
+    // Same data as observableTradeStatisticsSet, indexed by the order in which we have added them and by date. The
+    // indexes are read by the API from other threads than the UserThread. The sequence numbers are only valid until
+    // restart, so the cursors of the API contain the time when we got started.
+    private final NavigableMap<Long, TradeStatistics3> tradeStatisticsBySequenceNumber = new ConcurrentSkipListMap<>();
+    private final Map<P2PDataStorage.ByteArray, Long> sequenceNumberByHash = new ConcurrentHashMap<>();
+    private final NavigableMap<DateKey, TradeStatistics3> tradeStatisticsByDate = new ConcurrentSkipListMap<>();
+    private final long startTime = System.currentTimeMillis();
+    // Only changed on the UserThread
+    private long lastSequenceNumber;
     private JsonFileManager jsonFileManager;
 
     @Inject
@@ -99,7 +138,9 @@ public class TradeStatisticsManager {
                 if (!tradeStatistics.isValid()) {
                     return;
                 }
-                observableTradeStatisticsSet.add(tradeStatistics);
+                if (observableTradeStatisticsSet.add(tradeStatistics)) {
+                    addToIndexes(tradeStatistics);
+                }
                 priceFeedService.applyLatestBisqMarketPrice(observableTradeStatisticsSet);
                 maybeDumpStatistics();
             }
@@ -111,6 +152,10 @@ public class TradeStatisticsManager {
                 .filter(TradeStatistics3::isValid)
                 .collect(Collectors.toSet());
         observableTradeStatisticsSet.addAll(set);
+        // The trade statistics we have already are added in the order of their dates
+        set.stream()
+                .sorted(Comparator.comparing(tradeStatistics -> new DateKey(tradeStatistics)))
+                .forEach(this::addToIndexes);
         priceFeedService.applyLatestBisqMarketPrice(observableTradeStatisticsSet);
         maybeDumpStatistics();
     }
@@ -119,6 +164,78 @@ public class TradeStatisticsManager {
         return observableTradeStatisticsSet;
     }
 
+    /**
+     * Returns trade statistics in the order we have received them. The ones we had at startup are ordered by date.
+     * So a client can poll with the cursor for the trade statistics we have received since the last request, even
+     * for those with an older date.
+     *
+     * @param currencyCode Only trade statistics of that currency are returned. All if empty.
+     * @param fromDate     Start of the time range (inclusive).
+     * @param toDate       End of the time range (exclusive). No limit if 0.
+     * @param cursor       Cursor of the last trade statistics of the previous page. Empty for the first page.
+     * @param maxItems     Max. number of returned trade statistics. No limit if 0.
+     */
+    public List<TradeStatistics3> getTradeStatistics(String currencyCode,
+                                                     long fromDate,
+                                                     long toDate,
+                                                     String cursor,
+                                                     int maxItems) {
+        Stream<TradeStatistics3> stream;
+        if (cursor.isEmpty() && (fromDate > 0 || toDate > 0)) {
+            // The date index limits the trade statistics we have to look at
+            NavigableMap<DateKey, TradeStatistics3> range =
+                    tradeStatisticsByDate.tailMap(new DateKey(fromDate, DateKey.MIN_HASH), true);
+            if (toDate > 0) {
+                range = range.headMap(new DateKey(toDate, DateKey.MIN_HASH), false);
+            }
+            stream = range.values().stream()
+                    .sorted(Comparator.comparingLong(this::getSequenceNumber));
+        } else {
+            NavigableMap<Long, TradeStatistics3> range = cursor.isEmpty() ?
+                    tradeStatisticsBySequenceNumber :
+                    tradeStatisticsBySequenceNumber.tailMap(parseCursor(cursor), false);
+            stream = range.values().stream()
+                    .filter(tradeStatistics -> tradeStatistics.getDateAsLong() >= fromDate)
+                    .filter(tradeStatistics -> toDate <= 0 || tradeStatistics.getDateAsLong() < toDate);
+        }
+
+        return stream
+                .filter(tradeStatistics -> currencyCode.isEmpty() ||
+                        tradeStatistics.getCurrency().equalsIgnoreCase(currencyCode))
+                .limit(maxItems > 0 ? maxItems : Long.MAX_VALUE)
+                .collect(Collectors.toList());
+    }
+
+    // Returns the cursor for requesting the page after the given page. If the page is empty we return the cursor of
+    // the request, so that a client can poll with it until new trade statistics arrive.
+    public String getNextCursor(List<TradeStatistics3> page, String cursor) {
+        return page.isEmpty() ? cursor : startTime + ":" + getSequenceNumber(page.get(page.size() - 1));
+    }
+
+    private void addToIndexes(TradeStatistics3 tradeStatistics) {
+        long sequenceNumber = ++lastSequenceNumber;
+        // The sequence number must be known before the trade statistics can be found in one of the indexes
+        sequenceNumberByHash.put(new P2PDataStorage.ByteArray(tradeStatistics.getHash()), sequenceNumber);
+        tradeStatisticsBySequenceNumber.put(sequenceNumber, tradeStatistics);
+        tradeStatisticsByDate.put(new DateKey(tradeStatistics), tradeStatistics);
+    }
+
+    private long getSequenceNumber(TradeStatistics3 tradeStatistics) {
+        return sequenceNumberByHash.get(new P2PDataStorage.ByteArray(tradeStatistics.getHash()));
+    }
+
+    private long parseCursor(String cursor) {
+        String[] tokens = cursor.split(":");
+        try {
+            if (tokens.length == 2 && Long.parseLong(tokens[0]) == startTime) {
+                return Long.parseLong(tokens[1]);
+            }
+        } catch (NumberFormatException ignore) {
+        }
+        throw new IllegalArgumentException("invalid cursor " + cursor + ". Cursors are not valid after a restart, " +
+                "the client has to request the trade statistics from a fromDate again.");
+    }
+
     private void maybeDumpStatistics() {
         if (!dumpStatistics) {
             return;
@@ -39,6 +39,14 @@ public class JsonUtil {
         return gsonBuilder.create().toJson(object);
     }
 
+    // Without pretty printing, so the json of an object is on a single line, e.g. for json lines files
+    public static String objectToCompactJson(Object object) {
+        return new GsonBuilder()
+                .setExclusionStrategies(new AnnotationExclusionStrategy())
+                .create()
+                .toJson(object);
+    }
+
     private static class AnnotationExclusionStrategy implements ExclusionStrategy {
         @Override
         public boolean shouldSkipField(FieldAttributes f) {
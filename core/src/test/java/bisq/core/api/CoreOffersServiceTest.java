@@ -0,0 +1,169 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.api;
+
+import bisq.core.filter.Filter;
+import bisq.core.filter.FilterManager;
+import bisq.core.monetary.Price;
+import bisq.core.offer.Offer;
+import bisq.core.offer.OfferBookService;
+import bisq.core.offer.OfferDirection;
+import bisq.core.offer.OfferFilterService;
+import bisq.core.offer.OfferPayloadBase;
+import bisq.core.offer.OfferUtil;
+import bisq.core.offer.OpenOfferManager;
+import bisq.core.offer.bisq_v1.CreateOfferService;
+import bisq.core.offer.bsq_swap.OpenBsqSwapOfferService;
+import bisq.core.provider.price.PriceFeedService;
+import bisq.core.user.User;
+
+import bisq.common.crypto.KeyRing;
+
+import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.SimpleObjectProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import org.mockito.ArgumentCaptor;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+public class CoreOffersServiceTest {
+    private final List<Offer> offers = new ArrayList<>();
+    private final ObjectProperty<Filter> filterProperty = new SimpleObjectProperty<>();
+    private OfferBookService offerBookService;
+    private OfferFilterService offerFilterService;
+    private CoreOffersService coreOffersService;
+    private OfferBookService.OfferBookChangedListener listener;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        offerBookService = mock(OfferBookService.class);
+        when(offerBookService.getOffers(any(Predicate.class))).thenAnswer(invocation -> new ArrayList<>(offers));
+        offerFilterService = mock(OfferFilterService.class);
+        when(offerFilterService.canTakeOffer(any(), anyBoolean())).thenReturn(OfferFilterService.Result.VALID);
+        FilterManager filterManager = mock(FilterManager.class);
+        when(filterManager.filterProperty()).thenReturn(filterProperty);
+
+        coreOffersService = new CoreOffersService(mock(CoreContext.class),
+                mock(KeyRing.class),
+                mock(CoreWalletsService.class),
+                mock(CreateOfferService.class),
+                filterManager,
+                offerBookService,
+                offerFilterService,
+                mock(OpenOfferManager.class),
+                mock(OpenBsqSwapOfferService.class),
+                mock(OfferUtil.class),
+                mock(PriceFeedService.class),
+                mock(User.class));
+        listener = mock(OfferBookService.OfferBookChangedListener.class);
+    }
+
+    @Test
+    public void testSubscribeAddsAvailableOffers() {
+        Offer offer = createOffer("1", OfferDirection.BUY, "USD");
+        offers.add(offer);
+        offers.add(createOffer("2", OfferDirection.BUY, "EUR"));
+
+        coreOffersService.addAvailableOffersListener("buy", "usd", listener);
+
+        verify(listener).onAdded(offer);
+        verifyNoMoreInteractions(listener);
+    }
+
+    @Test
+    public void testOfferBookChanges() {
+        OfferBookService.OfferBookChangedListener offerBookListener = subscribe();
+        Offer offer = createOffer("1", OfferDirection.BUY, "USD");
+        Offer otherMarketOffer = createOffer("2", OfferDirection.SELL, "USD");
+
+        offerBookListener.onAdded(offer);
+        offerBookListener.onAdded(offer);
+        offerBookListener.onAdded(otherMarketOffer);
+        offerBookListener.onRemoved(otherMarketOffer);
+        offerBookListener.onRemoved(offer);
+        offerBookListener.onRemoved(offer);
+
+        verify(listener).onAdded(offer);
+        verify(listener).onRemoved(offer);
+        verifyNoMoreInteractions(listener);
+    }
+
+    @Test
+    public void testFilterChangeRemovesAndAddsOffers() {
+        Offer offer = createOffer("1", OfferDirection.BUY, "USD");
+        offers.add(offer);
+        subscribe();
+        verify(listener).onAdded(offer);
+
+        when(offerFilterService.canTakeOffer(eq(offer), anyBoolean()))
+                .thenReturn(OfferFilterService.Result.IS_OFFER_BANNED);
+        filterProperty.set(mock(Filter.class));
+        verify(listener).onRemoved(offer);
+
+        when(offerFilterService.canTakeOffer(eq(offer), anyBoolean())).thenReturn(OfferFilterService.Result.VALID);
+        filterProperty.set(mock(Filter.class));
+        verify(listener, times(2)).onAdded(offer);
+        verifyNoMoreInteractions(listener);
+    }
+
+    @Test
+    public void testCancelRemovesListeners() {
+        OfferBookService.OfferBookChangedListener offerBookListener = subscribe();
+
+        coreOffersService.removeAvailableOffersListener(listener);
+
+        verify(offerBookService).removeOfferBookChangedListener(offerBookListener);
+        offers.add(createOffer("1", OfferDirection.BUY, "USD"));
+        filterProperty.set(mock(Filter.class));
+        verify(listener, never()).onAdded(any());
+        verify(listener, never()).onRemoved(any());
+    }
+
+    private OfferBookService.OfferBookChangedListener subscribe() {
+        coreOffersService.addAvailableOffersListener("buy", "usd", listener);
+        var captor = ArgumentCaptor.forClass(OfferBookService.OfferBookChangedListener.class);
+        verify(offerBookService).addOfferBookChangedListener(captor.capture());
+        return captor.getValue();
+    }
+
+    private Offer createOffer(String id, OfferDirection direction, String counterCurrencyCode) {
+        Offer offer = mock(Offer.class);
+        when(offer.getId()).thenReturn(id);
+        when(offer.getDirection()).thenReturn(direction);
+        when(offer.getCounterCurrencyCode()).thenReturn(counterCurrencyCode);
+        when(offer.getPrice()).thenReturn(Price.valueOf(counterCurrencyCode, 50_000_0000L));
+        when(offer.getOfferPayloadBase()).thenReturn(mock(OfferPayloadBase.class));
+        return offer;
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.api;
+
+import bisq.core.btc.wallet.BtcWalletService;
+import bisq.core.offer.OfferUtil;
+import bisq.core.offer.bisq_v1.TakeOfferModel;
+import bisq.core.offer.bsq_swap.BsqSwapTakeOfferModel;
+import bisq.core.support.dispute.mediation.MediationResultState;
+import bisq.core.support.dispute.refund.RefundResultState;
+import bisq.core.trade.ClosedTradableManager;
+import bisq.core.trade.TradeManager;
+import bisq.core.trade.bisq_v1.TradeUtil;
+import bisq.core.trade.model.bisq_v1.Trade;
+import bisq.core.user.User;
+
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.SimpleIntegerProperty;
+import javafx.beans.property.SimpleObjectProperty;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+public class CoreTradesServiceTest {
+    private final ObservableList<Trade> trades = FXCollections.observableArrayList();
+    private CoreTradesService coreTradesService;
+    private TradeChangedListener listener;
+
+    @Before
+    public void setUp() {
+        TradeManager tradeManager = mock(TradeManager.class);
+        when(tradeManager.getObservableList()).thenReturn(trades);
+        coreTradesService = new CoreTradesService(mock(CoreContext.class),
+                mock(CoreWalletsService.class),
+                mock(BtcWalletService.class),
+                mock(OfferUtil.class),
+                mock(ClosedTradableManager.class),
+                mock(TakeOfferModel.class),
+                mock(BsqSwapTakeOfferModel.class),
+                tradeManager,
+                mock(TradeUtil.class),
+                mock(User.class));
+        listener = mock(TradeChangedListener.class);
+    }
+
+    @Test
+    public void testTradeAddedAndStateChanges() {
+        coreTradesService.addTradeChangedListener(listener);
+        TestTrade trade = new TestTrade();
+
+        trades.add(trade.trade);
+        trade.state.set(Trade.State.SELLER_PUBLISHED_DEPOSIT_TX);
+        trade.changeDisputeAndPaymentStates();
+
+        // Added, state changed and 5 dispute or payment state changes
+        verify(listener, times(7)).onTradeChanged(trade.trade);
+        verifyNoMoreInteractions(listener);
+    }
+
+    @Test
+    public void testOpenTradeStateChanges() {
+        TestTrade trade = new TestTrade();
+        trades.add(trade.trade);
+        coreTradesService.addTradeChangedListener(listener);
+
+        trade.state.set(Trade.State.SELLER_PUBLISHED_DEPOSIT_TX);
+
+        verify(listener).onTradeChanged(trade.trade);
+        verifyNoMoreInteractions(listener);
+    }
+
+    @Test
+    public void testTradeRemoved() {
+        TestTrade trade = new TestTrade();
+        trades.add(trade.trade);
+        coreTradesService.addTradeChangedListener(listener);
+
+        trades.remove(trade.trade);
+        trade.state.set(Trade.State.SELLER_PUBLISHED_DEPOSIT_TX);
+        trade.changeDisputeAndPaymentStates();
+
+        verify(listener).onTradeRemoved(trade.trade);
+        verifyNoMoreInteractions(listener);
+    }
+
+    @Test
+    public void testCancelRemovesListeners() {
+        TestTrade trade = new TestTrade();
+        trades.add(trade.trade);
+        coreTradesService.addTradeChangedListener(listener);
+
+        coreTradesService.removeTradeChangedListener(listener);
+        trade.state.set(Trade.State.SELLER_PUBLISHED_DEPOSIT_TX);
+        trades.add(new TestTrade().trade);
+        verifyNoMoreInteractions(listener);
+
+        // If the listeners of the first subscription were not removed, the new listener would be called twice.
+        TradeChangedListener newListener = mock(TradeChangedListener.class);
+        coreTradesService.addTradeChangedListener(newListener);
+        trade.state.set(Trade.State.BUYER_RECEIVED_DEPOSIT_TX_PUBLISHED_MSG);
+        verify(newListener).onTradeChanged(trade.trade);
+        verifyNoMoreInteractions(newListener);
+    }
+
+    private static class TestTrade {
+        private final Trade trade = mock(Trade.class);
+        private final ObjectProperty<Trade.State> state = new SimpleObjectProperty<>(Trade.State.PREPARATION);
+        private final ObjectProperty<Trade.DisputeState> disputeState =
+                new SimpleObjectProperty<>(Trade.DisputeState.NO_DISPUTE);
+        private final ObjectProperty<MediationResultState> mediationResultState =
+                new SimpleObjectProperty<>(MediationResultState.UNDEFINED_MEDIATION_RESULT);
+        private final ObjectProperty<RefundResultState> refundResultState = new SimpleObjectProperty<>();
+        private final ObjectProperty<Trade.TradePeriodState> tradePeriodState =
+                new SimpleObjectProperty<>(Trade.TradePeriodState.FIRST_HALF);
+        private final IntegerProperty assetTxProofResultUpdate = new SimpleIntegerProperty();
+
+        TestTrade() {
+            when(trade.getId()).thenReturn("tradeId");
+            when(trade.stateProperty()).thenReturn(state);
+            when(trade.disputeStateProperty()).thenReturn(disputeState);
+            when(trade.mediationResultStateProperty()).thenReturn(mediationResultState);
+            when(trade.refundResultStateProperty()).thenReturn(refundResultState);
+            when(trade.tradePeriodStateProperty()).thenReturn(tradePeriodState);
+            when(trade.getAssetTxProofResultUpdateProperty()).thenReturn(assetTxProofResultUpdate);
+        }
+
+        void changeDisputeAndPaymentStates() {
+            disputeState.set(Trade.DisputeState.MEDIATION_REQUESTED);
+            mediationResultState.set(MediationResultState.MEDIATION_RESULT_ACCEPTED);
+            refundResultState.set(RefundResultState.UNDEFINED_REFUND_RESULT);
+            tradePeriodState.set(Trade.TradePeriodState.SECOND_HALF);
+            assetTxProofResultUpdate.set(assetTxProofResultUpdate.get() + 1);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.btc.model;
+
+import bisq.common.persistence.PersistenceManager;
+
+import org.bitcoinj.crypto.DeterministicKey;
+import org.bitcoinj.crypto.HDKeyDerivation;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class AddressEntryListTest {
+    private AddressEntryList addressEntryList;
+    private DeterministicKey masterKey;
+
+    @Before
+    public void setUp() {
+        //noinspection unchecked
+        addressEntryList = new AddressEntryList(mock(PersistenceManager.class));
+        masterKey = HDKeyDerivation.createMasterPrivateKey(new byte[32]);
+    }
+
+    @Test
+    public void testSwapUpdatesIndexes() {
+        AddressEntry available = new AddressEntry(getKey(0), AddressEntry.Context.AVAILABLE, true);
+        addressEntryList.addAddressEntry(available);
+        assertEquals(1, addressEntryList.getAddressEntriesByContext(AddressEntry.Context.AVAILABLE).size());
+
+        AddressEntry offerFunding = addressEntryList.swapAvailableToAddressEntryWithOfferId(available,
+                AddressEntry.Context.OFFER_FUNDING, "offerId");
+        assertTrue(addressEntryList.getAddressEntriesByContext(AddressEntry.Context.AVAILABLE).isEmpty());
+        assertEquals(offerFunding,
+                addressEntryList.findAddressEntry("offerId", AddressEntry.Context.OFFER_FUNDING).orElseThrow());
+        assertFalse(addressEntryList.findAddressEntry("offerId", AddressEntry.Context.MULTI_SIG).isPresent());
+
+        addressEntryList.swapToAvailable(offerFunding);
+        assertTrue(addressEntryList.getAddressEntriesByOfferId("offerId").isEmpty());
+        assertEquals(1, addressEntryList.getAddressEntriesByContext(AddressEntry.Context.AVAILABLE).size());
+        assertEquals(1, addressEntryList.getAddressEntriesAsListImmutable().size());
+    }
+
+    @Test
+    public void testEntryWithSameOfferIdAndContextIsNotAdded() {
+        addressEntryList.addAddressEntry(new AddressEntry(getKey(0), AddressEntry.Context.MULTI_SIG,
+                "offerId", true));
+        addressEntryList.addAddressEntry(new AddressEntry(getKey(1), AddressEntry.Context.MULTI_SIG,
+                "offerId", true));
+        addressEntryList.addAddressEntry(new AddressEntry(getKey(2), AddressEntry.Context.TRADE_PAYOUT,
+                "offerId", true));
+
+        assertEquals(2, addressEntryList.getAddressEntriesByOfferId("offerId").size());
+        assertEquals(2, addressEntryList.getAddressEntriesAsListImmutable().size());
+    }
+
+    @Test
+    public void testSnapshotIsNotChangedBySwap() {
+        AddressEntry available = new AddressEntry(getKey(0), AddressEntry.Context.AVAILABLE, true);
+        addressEntryList.addAddressEntry(available);
+        AddressEntryList snapshot = (AddressEntryList) addressEntryList.getSnapshot();
+
+        addressEntryList.swapAvailableToAddressEntryWithOfferId(available,
+                AddressEntry.Context.OFFER_FUNDING, "offerId");
+
+        assertEquals(1, snapshot.getAddressEntriesByContext(AddressEntry.Context.AVAILABLE).size());
+        assertTrue(snapshot.getAddressEntriesByOfferId("offerId").isEmpty());
+        assertEquals(1, snapshot.getAddressEntriesAsListImmutable().size());
+    }
+
+    @Test
+    public void testSetCoinLockedInMultiSigReplacesEntry() {
+        AddressEntry multiSig = new AddressEntry(getKey(0), AddressEntry.Context.MULTI_SIG, "offerId", true);
+        addressEntryList.addAddressEntry(multiSig);
+        addressEntryList.setCoinLockedInMultiSigAddressEntry(multiSig, 1000);
+
+        AddressEntry entry = addressEntryList.findAddressEntry("offerId", AddressEntry.Context.MULTI_SIG).orElseThrow();
+        assertEquals(1000, entry.getCoinLockedInMultiSig());
+        assertEquals(1, addressEntryList.getAddressEntriesByContext(AddressEntry.Context.MULTI_SIG).size());
+    }
+
+    private DeterministicKey getKey(int index) {
+        return HDKeyDerivation.deriveChildKey(masterKey, index);
+    }
+}
@@ -0,0 +1,322 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.btc.wallet;
+
+import bisq.core.dao.state.DaoStateService;
+import bisq.core.dao.state.model.blockchain.Block;
+import bisq.core.dao.state.model.blockchain.Tx;
+import bisq.core.dao.state.model.blockchain.TxOutput;
+import bisq.core.dao.state.model.blockchain.TxOutputKey;
+import bisq.core.dao.state.model.blockchain.TxOutputType;
+import bisq.core.dao.state.unconfirmed.UnconfirmedBsqChangeOutputListService;
+import bisq.core.user.Preferences;
+
+import org.bitcoinj.core.Address;
+import org.bitcoinj.core.Coin;
+import org.bitcoinj.core.Context;
+import org.bitcoinj.core.ECKey;
+import org.bitcoinj.core.LegacyAddress;
+import org.bitcoinj.core.NetworkParameters;
+import org.bitcoinj.core.Sha256Hash;
+import org.bitcoinj.core.Transaction;
+import org.bitcoinj.core.TransactionConfidence;
+import org.bitcoinj.core.TransactionOutput;
+import org.bitcoinj.params.MainNetParams;
+import org.bitcoinj.script.ScriptBuilder;
+import org.bitcoinj.wallet.Wallet;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class BsqBalanceTrackerTest {
+    private final NetworkParameters params = MainNetParams.get();
+    private final ECKey myKey = new ECKey();
+    private final Address myAddress = LegacyAddress.fromKey(params, myKey);
+    private final Address otherAddress = LegacyAddress.fromKey(params, new ECKey());
+    private final Set<Transaction> transactions = new HashSet<>();
+    private final Map<TxOutputKey, TxOutput> txOutputs = new HashMap<>();
+    private final Map<TxOutputKey, TxOutput> unspentTxOutputs = new HashMap<>();
+    private final Set<TxOutputKey> lockTimeOverTxOutputs = new HashSet<>();
+    private final Set<TransactionOutput> unconfirmedChangeOutputs = new HashSet<>();
+    private Wallet wallet;
+    private BsqBalanceTracker bsqBalanceTracker;
+    private int numRecalculations;
+    private int numFakeInputs;
+
+    @Before
+    public void setUp() {
+        Context.propagate(new Context(params));
+        wallet = createWallet();
+        DaoStateService daoStateService = createDaoStateService();
+        UnconfirmedBsqChangeOutputListService unconfirmedBsqChangeOutputListService =
+                mock(UnconfirmedBsqChangeOutputListService.class);
+        when(unconfirmedBsqChangeOutputListService.hasTransactionOutput(any())).thenAnswer(invocation ->
+                unconfirmedChangeOutputs.contains(invocation.<TransactionOutput>getArgument(0)));
+        when(unconfirmedBsqChangeOutputListService.getBalance()).thenAnswer(invocation ->
+                Coin.valueOf(unconfirmedChangeOutputs.stream().mapToLong(output -> output.getValue().value).sum()));
+        NonBsqCoinSelector nonBsqCoinSelector = new NonBsqCoinSelector(daoStateService);
+        nonBsqCoinSelector.setPreferences(mock(Preferences.class));
+        bsqBalanceTracker = new BsqBalanceTracker(daoStateService,
+                new BsqCoinSelector(daoStateService, unconfirmedBsqChangeOutputListService),
+                nonBsqCoinSelector,
+                unconfirmedBsqChangeOutputListService);
+    }
+
+    @Test
+    public void testIncrementalBalanceMatchesRecalculation() {
+        // Receive BSQ
+        Transaction receiveTx = createTx(null, TransactionConfidence.Source.NETWORK, 10_000, myAddress);
+        addToWallet(receiveTx);
+        updateAndCompareWithRecalculation();
+        assertEquals(Coin.valueOf(10_000), bsqBalanceTracker.getBalance().getUnverifiedBalance());
+        assertEquals(Coin.ZERO, bsqBalanceTracker.getBalance().getAvailableBalance());
+
+        Transaction btcReceiveTx = createTx(null, TransactionConfidence.Source.NETWORK, 50_000, myAddress);
+        addToWallet(btcReceiveTx);
+        confirm(btcReceiveTx);
+        confirm(receiveTx);
+        addTxOutput(receiveTx, 0, TxOutputType.BSQ_OUTPUT);
+        parseBlock(1, receiveTx);
+        updateAndCompareWithRecalculation();
+        assertEquals(Coin.valueOf(10_000), bsqBalanceTracker.getBalance().getAvailableBalance());
+        assertEquals(Coin.valueOf(50_000), bsqBalanceTracker.getBalance().getAvailableNonBsqBalance());
+        assertEquals(Coin.ZERO, bsqBalanceTracker.getBalance().getUnverifiedBalance());
+
+        // Spend BSQ
+        Transaction spendTx = createTx(receiveTx.getOutput(0), TransactionConfidence.Source.SELF,
+                3000, otherAddress, 7000, myAddress);
+        unconfirmedChangeOutputs.add(spendTx.getOutput(1));
+        addToWallet(spendTx);
+        updateAndCompareWithRecalculation();
+        assertEquals(Coin.valueOf(7000), bsqBalanceTracker.getBalance().getAvailableBalance());
+        assertEquals(Coin.valueOf(7000), bsqBalanceTracker.getBalance().getUnverifiedBalance());
+
+        confirm(spendTx);
+        unconfirmedChangeOutputs.clear();
+        spendTxOutput(receiveTx, 0);
+        addTxOutput(spendTx, 0, TxOutputType.BSQ_OUTPUT);
+        addTxOutput(spendTx, 1, TxOutputType.BSQ_OUTPUT);
+        parseBlock(2, spendTx);
+        updateAndCompareWithRecalculation();
+        assertEquals(Coin.valueOf(7000), bsqBalanceTracker.getBalance().getAvailableBalance());
+        assertEquals(Coin.ZERO, bsqBalanceTracker.getBalance().getUnverifiedBalance());
+
+        // Lockup
+        Transaction lockupTx = createTx(spendTx.getOutput(1), TransactionConfidence.Source.SELF,
+                5000, myAddress, 2000, myAddress);
+        unconfirmedChangeOutputs.add(lockupTx.getOutput(1));
+        addToWallet(lockupTx);
+        updateAndCompareWithRecalculation();
+        assertEquals(Coin.valueOf(2000), bsqBalanceTracker.getBalance().getAvailableBalance());
+
+        confirm(lockupTx);
+        unconfirmedChangeOutputs.clear();
+        spendTxOutput(spendTx, 1);
+        addTxOutput(lockupTx, 0, TxOutputType.LOCKUP_OUTPUT);
+        addTxOutput(lockupTx, 1, TxOutputType.BSQ_OUTPUT);
+        parseBlock(3, lockupTx);
+        updateAndCompareWithRecalculation();
+        assertEquals(Coin.valueOf(2000), bsqBalanceTracker.getBalance().getAvailableBalance());
+        assertEquals(Coin.valueOf(5000), bsqBalanceTracker.getBalance().getLockupBondsBalance());
+
+        // Unlock
+        Transaction unlockTx = createTx(lockupTx.getOutput(0), TransactionConfidence.Source.SELF, 5000, myAddress);
+        addToWallet(unlockTx);
+        updateAndCompareWithRecalculation();
+        // The spent lockup output is still accounted for in the lockup bonds balance
+        assertEquals(Coin.ZERO, bsqBalanceTracker.getBalance().getUnverifiedBalance());
+        assertEquals(Coin.valueOf(5000), bsqBalanceTracker.getBalance().getLockupBondsBalance());
+
+        confirm(unlockTx);
+        spendTxOutput(lockupTx, 0);
+        addTxOutput(unlockTx, 0, TxOutputType.UNLOCK_OUTPUT);
+        parseBlock(4, unlockTx);
+        updateAndCompareWithRecalculation();
+        assertEquals(Coin.ZERO, bsqBalanceTracker.getBalance().getLockupBondsBalance());
+        assertEquals(Coin.valueOf(5000), bsqBalanceTracker.getBalance().getUnlockingBondsBalance());
+        assertEquals(Coin.valueOf(2000), bsqBalanceTracker.getBalance().getAvailableBalance());
+
+        // The lock time is over at a block without any of our transactions
+        lockTimeOverTxOutputs.add(new TxOutputKey(unlockTx.getTxId().toString(), 0));
+        parseBlock(5);
+        updateAndCompareWithRecalculation();
+        assertEquals(Coin.ZERO, bsqBalanceTracker.getBalance().getUnlockingBondsBalance());
+        assertEquals(Coin.valueOf(7000), bsqBalanceTracker.getBalance().getAvailableBalance());
+        assertEquals(Coin.valueOf(50_000), bsqBalanceTracker.getBalance().getAvailableNonBsqBalance());
+    }
+
+    @Test
+    public void testResetAfterDaoStateReorg() {
+        Transaction receiveTx = createTx(null, TransactionConfidence.Source.NETWORK, 10_000, myAddress);
+        addToWallet(receiveTx);
+        confirm(receiveTx);
+        addTxOutput(receiveTx, 0, TxOutputType.BSQ_OUTPUT);
+        parseBlock(1, receiveTx);
+        updateAndCompareWithRecalculation();
+        assertEquals(Coin.valueOf(10_000), bsqBalanceTracker.getBalance().getAvailableBalance());
+
+        // After a reorg the tx got parsed again as a non-BSQ tx
+        txOutputs.clear();
+        unspentTxOutputs.clear();
+        parseBlock(1);
+        updateAndCompareWithRecalculation();
+        assertEquals(Coin.ZERO, bsqBalanceTracker.getBalance().getAvailableBalance());
+        assertEquals(Coin.valueOf(10_000), bsqBalanceTracker.getBalance().getAvailableNonBsqBalance());
+    }
+
+    private void updateAndCompareWithRecalculation() {
+        bsqBalanceTracker.update(wallet);
+        // The update does not iterate over all spend candidates
+        verify(wallet, times(numRecalculations)).calculateAllSpendCandidates();
+        assertEquals(bsqBalanceTracker.recalculate(wallet), bsqBalanceTracker.getBalance());
+        numRecalculations++;
+    }
+
+    private Transaction createTx(TransactionOutput spentOutput,
+                                 TransactionConfidence.Source source,
+                                 Object... valuesAndAddresses) {
+        Transaction tx = new Transaction(params);
+        if (spentOutput != null) {
+            tx.addInput(spentOutput);
+        } else {
+            tx.addInput(Sha256Hash.of(new byte[]{(byte) numFakeInputs++}), 0, new ScriptBuilder().build());
+        }
+        for (int i = 0; i < valuesAndAddresses.length; i += 2) {
+            tx.addOutput(Coin.valueOf(((Number) valuesAndAddresses[i]).longValue()), (Address) valuesAndAddresses[i + 1]);
+        }
+        if (spentOutput != null) {
+            spentOutput.markAsSpent(tx.getInput(0));
+        }
+        tx.getConfidence().setSource(source);
+        tx.getConfidence().setConfidenceType(TransactionConfidence.ConfidenceType.PENDING);
+        return tx;
+    }
+
+    private void addToWallet(Transaction tx) {
+        transactions.add(tx);
+        bsqBalanceTracker.onTransactionChanged(tx);
+    }
+
+    private void confirm(Transaction tx) {
+        tx.getConfidence().setConfidenceType(TransactionConfidence.ConfidenceType.BUILDING);
+        bsqBalanceTracker.onTransactionChanged(tx);
+    }
+
+    private void parseBlock(int height, Transaction... txs) {
+        List<Tx> daoTxs = Arrays.stream(txs)
+                .map(tx -> {
+                    Tx daoTx = mock(Tx.class);
+                    when(daoTx.getId()).thenReturn(tx.getTxId().toString());
+                    return daoTx;
+                })
+                .collect(Collectors.toList());
+        Block block = mock(Block.class);
+        when(block.getHeight()).thenReturn(height);
+        when(block.getTxs()).thenReturn(daoTxs);
+        bsqBalanceTracker.onParseBlockComplete(wallet, block);
+    }
+
+    private void addTxOutput(Transaction tx, int index, TxOutputType txOutputType) {
+        TxOutputKey key = new TxOutputKey(tx.getTxId().toString(), index);
+        TxOutput txOutput = mock(TxOutput.class);
+        when(txOutput.getKey()).thenReturn(key);
+        when(txOutput.getTxId()).thenReturn(key.getTxId());
+        when(txOutput.getIndex()).thenReturn(index);
+        when(txOutput.getValue()).thenReturn(tx.getOutput(index).getValue().value);
+        when(txOutput.getTxOutputType()).thenReturn(txOutputType);
+        txOutputs.put(key, txOutput);
+        unspentTxOutputs.put(key, txOutput);
+    }
+
+    private void spendTxOutput(Transaction tx, int index) {
+        unspentTxOutputs.remove(new TxOutputKey(tx.getTxId().toString(), index));
+    }
+
+    private Wallet createWallet() {
+        Wallet wallet = mock(Wallet.class);
+        when(wallet.getTransactions(false)).thenReturn(transactions);
+        when(wallet.getTransaction(any())).thenAnswer(invocation -> transactions.stream()
+                .filter(tx -> tx.getTxId().equals(invocation.getArgument(0)))
+                .findAny()
+                .orElse(null));
+        when(wallet.isPubKeyHashMine(any(), any())).thenAnswer(invocation ->
+                Arrays.equals(invocation.<byte[]>getArgument(0), myKey.getPubKeyHash()));
+        when(wallet.canSignFor(any())).thenReturn(true);
+        when(wallet.calculateAllSpendCandidates()).thenAnswer(invocation -> transactions.stream()
+                .filter(tx -> tx.getConfidence().getConfidenceType() != TransactionConfidence.ConfidenceType.DEAD)
+                .flatMap(tx -> tx.getOutputs().stream())
+                .filter(TransactionOutput::isAvailableForSpending)
+                .filter(output -> output.isMine(wallet))
+                .collect(Collectors.toList()));
+        return wallet;
+    }
+
+    private DaoStateService createDaoStateService() {
+        DaoStateService daoStateService = mock(DaoStateService.class);
+        when(daoStateService.getUnspentTxOutput(any())).thenAnswer(invocation ->
+                Optional.ofNullable(unspentTxOutputs.get(invocation.<TxOutputKey>getArgument(0))));
+        when(daoStateService.isUnspent(any())).thenAnswer(invocation ->
+                unspentTxOutputs.containsKey(invocation.<TxOutputKey>getArgument(0)));
+        when(daoStateService.getTxOutput(any())).thenAnswer(invocation ->
+                Optional.ofNullable(txOutputs.get(invocation.<TxOutputKey>getArgument(0))));
+        when(daoStateService.existsTxOutput(any())).thenAnswer(invocation ->
+                txOutputs.containsKey(invocation.<TxOutputKey>getArgument(0)));
+        when(daoStateService.isTxOutputSpendable(any(TxOutputKey.class))).thenAnswer(invocation -> {
+            TxOutput txOutput = unspentTxOutputs.get(invocation.<TxOutputKey>getArgument(0));
+            return txOutput != null && (txOutput.getTxOutputType() == TxOutputType.BSQ_OUTPUT ||
+                    (txOutput.getTxOutputType() == TxOutputType.UNLOCK_OUTPUT &&
+                            lockTimeOverTxOutputs.contains(txOutput.getKey())));
+        });
+        when(daoStateService.isLockTimeOverForUnlockTxOutput(any())).thenAnswer(invocation ->
+                lockTimeOverTxOutputs.contains(invocation.<TxOutput>getArgument(0).getKey()));
+        when(daoStateService.isLockupOutput(any(TxOutputKey.class))).thenAnswer(invocation ->
+                isUnspentTxOutputOfType(invocation.getArgument(0), TxOutputType.LOCKUP_OUTPUT));
+        when(daoStateService.isUnlockingAndUnspent(any(TxOutputKey.class))).thenAnswer(invocation ->
+                isUnspentTxOutputOfType(invocation.getArgument(0), TxOutputType.UNLOCK_OUTPUT) &&
+                        !lockTimeOverTxOutputs.contains(invocation.<TxOutputKey>getArgument(0)));
+        when(daoStateService.getLockupTxOutputs()).thenAnswer(invocation -> txOutputs.values().stream()
+                .filter(txOutput -> txOutput.getTxOutputType() == TxOutputType.LOCKUP_OUTPUT)
+                .collect(Collectors.toSet()));
+        when(daoStateService.getUnspentUnlockingTxOutputsStream()).thenAnswer(invocation ->
+                unspentTxOutputs.values().stream()
+                        .filter(txOutput -> txOutput.getTxOutputType() == TxOutputType.UNLOCK_OUTPUT)
+                        .filter(txOutput -> !lockTimeOverTxOutputs.contains(txOutput.getKey())));
+        return daoStateService;
+    }
+
+    private boolean isUnspentTxOutputOfType(TxOutputKey key, TxOutputType txOutputType) {
+        TxOutput txOutput = unspentTxOutputs.get(key);
+        return txOutput != null && txOutput.getTxOutputType() == txOutputType;
+    }
+}
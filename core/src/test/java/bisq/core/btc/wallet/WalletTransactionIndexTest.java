@@ -0,0 +1,119 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.btc.wallet;
+
+import org.bitcoinj.core.Address;
+import org.bitcoinj.core.Coin;
+import org.bitcoinj.core.Context;
+import org.bitcoinj.core.ECKey;
+import org.bitcoinj.core.NetworkParameters;
+import org.bitcoinj.core.SegwitAddress;
+import org.bitcoinj.core.Transaction;
+import org.bitcoinj.core.TransactionConfidence;
+import org.bitcoinj.params.MainNetParams;
+import org.bitcoinj.wallet.Wallet;
+import org.bitcoinj.wallet.WalletTransaction;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class WalletTransactionIndexTest {
+    private final NetworkParameters params = MainNetParams.get();
+    private final Set<Transaction> transactions = new HashSet<>();
+    private WalletTransactionIndex walletTransactionIndex;
+    private Wallet wallet;
+
+    @Before
+    public void setUp() {
+        Context.propagate(new Context(params));
+        wallet = mock(Wallet.class);
+        when(wallet.getTransactions(false)).thenReturn(transactions);
+        walletTransactionIndex = new WalletTransactionIndex();
+    }
+
+    @Test
+    public void testTransactionsAreIndexedIncrementally() {
+        Address address = SegwitAddress.fromKey(params, new ECKey());
+        Transaction tx1 = createTx(address, 1000);
+        addToWallet(tx1);
+        assertEquals(Set.of(tx1), walletTransactionIndex.getTransactions(wallet, address));
+        assertEquals(1, walletTransactionIndex.getNumTxOutputs(wallet, address));
+
+        Transaction tx2 = createTx(address, 2000);
+        addToWallet(tx2);
+        walletTransactionIndex.onTransactionChanged(tx2);
+        assertEquals(Set.of(tx1, tx2), walletTransactionIndex.getTransactions(wallet, address));
+        assertEquals(2, walletTransactionIndex.getNumTxOutputs(wallet, address));
+
+        // The index got only built once from all wallet transactions
+        verify(wallet, times(1)).getTransactions(false);
+    }
+
+    @Test
+    public void testDeadTransactionIsRemoved() {
+        Address address = SegwitAddress.fromKey(params, new ECKey());
+        Transaction tx = createTx(address, 1000);
+        addToWallet(tx);
+        assertEquals(1, walletTransactionIndex.getNumTxOutputs(wallet, address));
+
+        tx.getConfidence().setConfidenceType(TransactionConfidence.ConfidenceType.DEAD);
+        transactions.remove(tx);
+        setNumPendingTxs(0);
+        walletTransactionIndex.onTransactionChanged(tx);
+        assertTrue(walletTransactionIndex.getTransactions(wallet, address).isEmpty());
+        assertEquals(0, walletTransactionIndex.getNumTxOutputs(wallet, address));
+    }
+
+    @Test
+    public void testIndexIsRebuiltIfTransactionIsMissing() {
+        Address address = SegwitAddress.fromKey(params, new ECKey());
+        addToWallet(createTx(address, 1000));
+        assertEquals(1, walletTransactionIndex.getNumTxOutputs(wallet, address));
+
+        // We did not get notified about that tx
+        addToWallet(createTx(address, 2000));
+        assertEquals(2, walletTransactionIndex.getNumTxOutputs(wallet, address));
+        verify(wallet, times(2)).getTransactions(false);
+    }
+
+    private Transaction createTx(Address address, long value) {
+        Transaction tx = new Transaction(params);
+        tx.addOutput(Coin.valueOf(value), address);
+        tx.getConfidence().setConfidenceType(TransactionConfidence.ConfidenceType.PENDING);
+        return tx;
+    }
+
+    private void addToWallet(Transaction tx) {
+        transactions.add(tx);
+        setNumPendingTxs(transactions.size());
+    }
+
+    private void setNumPendingTxs(int numTxs) {
+        when(wallet.getPoolSize(WalletTransaction.Pool.PENDING)).thenReturn(numTxs);
+    }
+}
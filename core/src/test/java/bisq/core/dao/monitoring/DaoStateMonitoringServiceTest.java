@@ -0,0 +1,131 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.dao.monitoring;
+
+import bisq.core.dao.monitoring.model.DaoStateHash;
+import bisq.core.dao.monitoring.network.DaoStateNetworkService;
+import bisq.core.dao.monitoring.network.messages.GetDaoStateHashesRequest;
+import bisq.core.dao.monitoring.network.messages.NewDaoStateHashMessage;
+import bisq.core.dao.state.DaoStateService;
+import bisq.core.dao.state.GenesisTxInfo;
+import bisq.core.dao.state.model.blockchain.Block;
+import bisq.core.user.Preferences;
+
+import bisq.network.p2p.NodeAddress;
+import bisq.network.p2p.network.Connection;
+import bisq.network.p2p.seed.SeedNodeRepository;
+
+import bisq.common.app.Capabilities;
+import bisq.common.app.Capability;
+
+import java.io.File;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.Test;
+
+import org.mockito.ArgumentCaptor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class DaoStateMonitoringServiceTest {
+    // Above the last checkpoint, so the incremental hash is used
+    private static final int GENESIS_HEIGHT = 700_000;
+
+    @Test
+    public void testConflictOfIncrementalHashes() {
+        DaoStateMonitoringService node1 = createService(new byte[]{1}, true);
+        DaoStateMonitoringService node2 = createService(new byte[]{2}, true);
+        node1.createHashFromBlock(new Block(GENESIS_HEIGHT, 0, "hash", "prevHash"));
+        node2.createHashFromBlock(new Block(GENESIS_HEIGHT, 0, "hash", "prevHash"));
+
+        DaoStateHash hashOfNode1 = node1.getDaoStateHashChain().getLast();
+        assertTrue(hashOfNode1.isIncremental());
+        node2.onNewStateHashMessage(new NewDaoStateHashMessage(hashOfNode1), createConnection(true));
+        assertTrue(node2.isInConflictWithNonSeedNode());
+    }
+
+    @Test
+    public void testIncrementalHashesAreNotComparedWithLegacyHashes() {
+        DaoStateMonitoringService incrementalNode = createService(new byte[]{1}, true);
+        DaoStateMonitoringService legacyNode = createService(new byte[]{2}, false);
+        incrementalNode.createHashFromBlock(new Block(GENESIS_HEIGHT, 0, "hash", "prevHash"));
+        legacyNode.createHashFromBlock(new Block(GENESIS_HEIGHT, 0, "hash", "prevHash"));
+
+        incrementalNode.onNewStateHashMessage(new NewDaoStateHashMessage(legacyNode.getDaoStateHashChain().getLast()),
+                createConnection(false));
+        assertFalse(incrementalNode.isInConflictWithNonSeedNode());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testIncrementalHashesAreOnlyDeliveredToCapablePeers() {
+        DaoStateNetworkService networkService = mock(DaoStateNetworkService.class);
+        DaoStateMonitoringService node = createService(new byte[]{1}, true, networkService);
+        node.createHashFromBlock(new Block(GENESIS_HEIGHT, 0, "hash", "prevHash"));
+
+        ArgumentCaptor<List<DaoStateHash>> captor = ArgumentCaptor.forClass(List.class);
+        node.onGetStateHashRequest(createConnection(false), new GetDaoStateHashesRequest(GENESIS_HEIGHT, 1));
+        node.onGetStateHashRequest(createConnection(true), new GetDaoStateHashesRequest(GENESIS_HEIGHT, 2));
+        verify(networkService, times(2))
+                .sendGetStateHashesResponse(any(Connection.class), anyInt(), captor.capture());
+        assertEquals(0, captor.getAllValues().get(0).size());
+        assertEquals(1, captor.getAllValues().get(1).size());
+    }
+
+    private static DaoStateMonitoringService createService(byte[] state, boolean useIncrementalDaoStateHash) {
+        return createService(state, useIncrementalDaoStateHash, mock(DaoStateNetworkService.class));
+    }
+
+    private static DaoStateMonitoringService createService(byte[] state,
+                                                           boolean useIncrementalDaoStateHash,
+                                                           DaoStateNetworkService networkService) {
+        DaoStateService daoStateService = mock(DaoStateService.class);
+        when(daoStateService.getChainHeight()).thenReturn(GENESIS_HEIGHT);
+        when(daoStateService.getIncrementalStateForHashChain()).thenReturn(state);
+        when(daoStateService.getSerializedStateForHashChain()).thenReturn(state);
+        Preferences preferences = mock(Preferences.class);
+        when(preferences.isUseFullModeDaoMonitor()).thenReturn(true);
+        return new DaoStateMonitoringService(daoStateService,
+                networkService,
+                new GenesisTxInfo("", GENESIS_HEIGHT, 0),
+                mock(SeedNodeRepository.class),
+                preferences,
+                new File("."),
+                true,
+                useIncrementalDaoStateHash);
+    }
+
+    private static Connection createConnection(boolean useIncrementalDaoStateHash) {
+        Connection connection = mock(Connection.class);
+        when(connection.getPeersNodeAddressOptional()).thenReturn(Optional.of(new NodeAddress("peer.onion:9999")));
+        when(connection.getCapabilities()).thenReturn(useIncrementalDaoStateHash ?
+                new Capabilities(Capability.INCREMENTAL_DAO_STATE_HASH) :
+                new Capabilities());
+        return connection;
+    }
+}
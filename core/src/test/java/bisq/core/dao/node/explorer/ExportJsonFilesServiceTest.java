@@ -0,0 +1,195 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.dao.node.explorer;
+
+import bisq.core.dao.state.DaoStateMutationListener;
+import bisq.core.dao.state.DaoStateService;
+import bisq.core.dao.state.model.blockchain.Block;
+import bisq.core.dao.state.model.blockchain.SpentInfo;
+import bisq.core.dao.state.model.blockchain.Tx;
+import bisq.core.dao.state.model.blockchain.TxOutput;
+import bisq.core.dao.state.model.blockchain.TxOutputKey;
+import bisq.core.dao.state.model.blockchain.TxOutputType;
+import bisq.core.dao.state.model.blockchain.TxType;
+
+import com.google.common.collect.ImmutableList;
+
+import java.nio.file.Files;
+
+import java.io.File;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import org.mockito.ArgumentCaptor;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ExportJsonFilesServiceTest {
+    private final List<Block> blocks = new ArrayList<>();
+    private final Map<String, Tx> txs = new LinkedHashMap<>();
+    private File storageDir;
+    private File txDir;
+    private File blocksJsonLinesFile;
+    private ExportJsonFilesService exportJsonFilesService;
+    private DaoStateMutationListener mutationListener;
+
+    @Before
+    public void setUp() throws Exception {
+        DaoStateService daoStateService = mock(DaoStateService.class);
+        when(daoStateService.isParseBlockChainComplete()).thenReturn(true);
+        when(daoStateService.getBlocks()).thenAnswer(invocation -> new ArrayList<>(blocks));
+        when(daoStateService.getLastBlock()).thenAnswer(invocation ->
+                blocks.isEmpty() ? Optional.empty() : Optional.of(blocks.get(blocks.size() - 1)));
+        when(daoStateService.getBlockAtHeight(anyInt())).thenAnswer(invocation -> blocks.stream()
+                .filter(block -> block.getHeight() == invocation.<Integer>getArgument(0))
+                .findAny());
+        when(daoStateService.getBlocksFromBlockHeight(anyInt())).thenAnswer(invocation -> blocks.stream()
+                .filter(block -> block.getHeight() >= invocation.<Integer>getArgument(0))
+                .collect(Collectors.toList()));
+        when(daoStateService.getTx(anyString())).thenAnswer(invocation ->
+                Optional.ofNullable(txs.get(invocation.<String>getArgument(0))));
+        when(daoStateService.getUnorderedTxStream()).thenAnswer(invocation -> new ArrayList<>(txs.values()).stream());
+
+        storageDir = Files.createTempDirectory("ExportJsonFilesServiceTest").toFile();
+        txDir = new File(storageDir, "json/tx");
+        blocksJsonLinesFile = new File(storageDir, "json/all/blocks.jsonl");
+        exportJsonFilesService = new ExportJsonFilesService(daoStateService, storageDir, true, true);
+        exportJsonFilesService.addListeners();
+        ArgumentCaptor<DaoStateMutationListener> captor = ArgumentCaptor.forClass(DaoStateMutationListener.class);
+        verify(daoStateService).addDaoStateMutationListener(captor.capture());
+        mutationListener = captor.getValue();
+        exportJsonFilesService.start();
+    }
+
+    @Test
+    public void testExportIncrementally() throws Exception {
+        addBlock(1, "hash1", "tx1", "tx2");
+        exportJsonFilesService.maybeExportToJson();
+        awaitBlocksJsonLines(1);
+        awaitTxFiles(Set.of("tx1.json", "tx2.json"));
+        assertFalse(new File(storageDir, "json/all/blocks.json").exists());
+
+        // The new block spends an output of tx1, so only tx1 and the tx of the new block get written
+        deleteTxFiles();
+        addBlock(2, "hash2", "tx3");
+        mutationListener.onSpentInfoSet(new TxOutputKey("tx1", 0), null, mock(SpentInfo.class));
+        exportJsonFilesService.maybeExportToJson();
+        awaitBlocksJsonLines(2);
+        awaitTxFiles(Set.of("tx1.json", "tx3.json"));
+        assertTrue(Files.readAllLines(blocksJsonLinesFile.toPath()).get(1).contains("hash2"));
+    }
+
+    @Test
+    public void testExportAllAfterReorg() throws Exception {
+        addBlock(1, "hash1", "tx1");
+        addBlock(2, "hash2", "tx2");
+        exportJsonFilesService.maybeExportToJson();
+        awaitBlocksJsonLines(2);
+        awaitTxFiles(Set.of("tx1.json", "tx2.json"));
+
+        // Block 2 got replaced, so all files get written again
+        deleteTxFiles();
+        blocks.remove(1);
+        txs.remove("tx2");
+        addBlock(2, "otherHash2", "tx3");
+        addBlock(3, "hash3", "tx4");
+        exportJsonFilesService.maybeExportToJson();
+        awaitTxFiles(Set.of("tx1.json", "tx3.json", "tx4.json"));
+        awaitBlocksJsonLines(3);
+        assertTrue(Files.readAllLines(blocksJsonLinesFile.toPath()).get(1).contains("otherHash2"));
+    }
+
+    private void addBlock(int height, String hash, String... txIds) {
+        List<Tx> blockTxs = Arrays.stream(txIds)
+                .map(txId -> createTx(txId, height, hash))
+                .collect(Collectors.toList());
+        blockTxs.forEach(tx -> txs.put(tx.getId(), tx));
+        Block block = mock(Block.class);
+        when(block.getHeight()).thenReturn(height);
+        when(block.getHash()).thenReturn(hash);
+        when(block.getTxs()).thenReturn(blockTxs);
+        blocks.add(block);
+    }
+
+    private static Tx createTx(String txId, int height, String blockHash) {
+        TxOutput txOutput = mock(TxOutput.class);
+        when(txOutput.getTxId()).thenReturn(txId);
+        when(txOutput.getKey()).thenReturn(new TxOutputKey(txId, 0));
+        when(txOutput.getTxOutputType()).thenReturn(TxOutputType.BSQ_OUTPUT);
+        Tx tx = mock(Tx.class);
+        when(tx.getId()).thenReturn(txId);
+        when(tx.getBlockHeight()).thenReturn(height);
+        when(tx.getBlockHash()).thenReturn(blockHash);
+        when(tx.getTxType()).thenReturn(TxType.TRANSFER_BSQ);
+        when(tx.getTxInputs()).thenReturn(ImmutableList.of());
+        when(tx.getTxOutputs()).thenReturn(ImmutableList.of(txOutput));
+        return tx;
+    }
+
+    private void deleteTxFiles() {
+        getTxFileNames().forEach(fileName -> assertTrue(new File(txDir, fileName).delete()));
+    }
+
+    private Set<String> getTxFileNames() {
+        String[] fileNames = txDir.list();
+        return fileNames == null ? Set.of() : Set.of(fileNames);
+    }
+
+    private void awaitTxFiles(Set<String> expected) throws InterruptedException {
+        await(() -> getTxFileNames().equals(expected));
+        assertEquals(expected, getTxFileNames());
+    }
+
+    private void awaitBlocksJsonLines(int numLines) throws Exception {
+        await(() -> getNumLines() == numLines);
+        assertEquals(numLines, getNumLines());
+    }
+
+    private int getNumLines() {
+        try {
+            return blocksJsonLinesFile.exists() ? Files.readAllLines(blocksJsonLinesFile.toPath()).size() : 0;
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.dao.node.full.rpc;
+
+import java.net.HttpURLConnection;
+import java.net.Proxy;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+
+
+import com.googlecode.jsonrpc4j.HttpException;
+import com.googlecode.jsonrpc4j.JsonRpcClientException;
+
+public class BitcoindBatchClientTest {
+    private BitcoindBatchClient client;
+    private ByteArrayInputStream mockResponse;
+    private final ByteArrayOutputStream mockOutputStream = new ByteArrayOutputStream();
+    private HttpURLConnection mockConnection;
+
+    @Before
+    public void setUp() throws Exception {
+        var mockURLStreamHandler = mock(MyURLStreamHandler.class);
+
+        client = BitcoindClient.builder()
+                .rpcHost("127.0.0.1")
+                .rpcPort(18443)
+                .rpcUser("bisqdao")
+                .rpcPassword("bsq")
+                .urlStreamHandler(mockURLStreamHandler)
+                .buildBatchClient();
+
+        when(mockURLStreamHandler.openConnection(any(), any())).then(inv -> {
+            mockConnection = mock(HttpURLConnection.class);
+            when(mockConnection.getOutputStream()).thenReturn(mockOutputStream);
+            // Without a response we simulate a bitcoind which does not answer
+            if (mockResponse != null) {
+                when(mockConnection.getInputStream()).thenReturn(mockResponse);
+            } else {
+                when(mockConnection.getInputStream()).thenThrow(new SocketTimeoutException("Read timed out"));
+            }
+            return mockConnection;
+        });
+    }
+
+    @Test
+    public void testGetBlockHashes() throws Exception {
+        var expectedRequest = toJson("[{'id':'0','jsonrpc':'2.0','method':'getblockhash','params':[139]}," +
+                "{'id':'1','jsonrpc':'2.0','method':'getblockhash','params':[140]}]");
+        // Responses of a batch might be in a different order
+        mockResponse = toJsonIS("[{'result':'hash140','error':null,'id':'1'}," +
+                "{'result':'hash139','error':null,'id':'0'}]");
+
+        assertEquals(List.of("hash139", "hash140"), client.getBlockHashes(List.of(139, 140)));
+        assertEquals(expectedRequest, mockOutputStream.toString(UTF_8));
+    }
+
+    @Test
+    public void testGetBlocks() throws Exception {
+        var expectedRequest = toJson("[{'id':'0','jsonrpc':'2.0','method':'getblock','params':['hash139',1]}]");
+        mockResponse = toJsonIS("[{'result':{'hash':'hash139','height':139,'tx':[]},'error':null,'id':'0'}]");
+
+        var blocks = client.getBlocks(List.of("hash139"), 1);
+        assertEquals(1, blocks.size());
+        assertEquals("hash139", blocks.get(0).getHash());
+        assertEquals((Integer) 139, blocks.get(0).getHeight());
+        assertEquals(expectedRequest, mockOutputStream.toString(UTF_8));
+    }
+
+    @Test
+    public void testEmptyBatch() throws Exception {
+        assertTrue(client.getBlockHashes(List.of()).isEmpty());
+        assertEquals(0, mockOutputStream.size());
+    }
+
+    @Test(expected = JsonRpcClientException.class)
+    public void testGetBlockHashes_heightOutOfRange() throws Exception {
+        mockResponse = toJsonIS("[{'result':'hash139','error':null,'id':'0'}," +
+                "{'result':null,'error':{'code':-8,'message':'Block height out of range'},'id':'1'}]");
+
+        client.getBlockHashes(List.of(139, 1000000));
+    }
+
+    @Test
+    public void testTimeout() throws Exception {
+        try {
+            client.getBlockHashes(List.of(139));
+            fail("Expected HttpException");
+        } catch (HttpException e) {
+            assertTrue(e.getCause() instanceof SocketTimeoutException);
+        }
+        verify(mockConnection).setConnectTimeout(BitcoindClient.Builder.CONNECT_TIMEOUT_MS);
+        verify(mockConnection).setReadTimeout(BitcoindClient.Builder.READ_TIMEOUT_MS);
+    }
+
+    private static String toJson(String json) {
+        return json.replace("'", "\"").replace("\\\"", "'");
+    }
+
+    private static ByteArrayInputStream toJsonIS(String json) {
+        return new ByteArrayInputStream(toJson(json).getBytes(UTF_8));
+    }
+
+    private static abstract class MyURLStreamHandler extends URLStreamHandler {
+        @Override
+        public abstract URLConnection openConnection(URL u, Proxy p);
+    }
+}
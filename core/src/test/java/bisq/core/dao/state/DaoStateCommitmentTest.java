@@ -0,0 +1,93 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.dao.state;
+
+import bisq.core.dao.state.model.DaoState;
+import bisq.core.dao.state.model.blockchain.SpentInfo;
+import bisq.core.dao.state.model.blockchain.TxOutputKey;
+import bisq.core.dao.state.model.governance.Issuance;
+import bisq.core.dao.state.model.governance.IssuanceType;
+import bisq.core.dao.state.model.governance.ParamChange;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+
+public class DaoStateCommitmentTest {
+    private final Issuance issuance1 = new Issuance("tx1", 100, 1000, null, IssuanceType.COMPENSATION);
+    private final Issuance issuance2 = new Issuance("tx2", 101, 2000, null, IssuanceType.REIMBURSEMENT);
+    private final SpentInfo spentInfo = new SpentInfo(102, "tx3", 0);
+    private final ParamChange paramChange = new ParamChange("DEFAULT_MAKER_FEE_BTC", "0.001", 103);
+
+    @Test
+    public void testOrderIndependence() {
+        DaoStateCommitment commitment1 = DaoStateCommitment.fromDaoState(new DaoState());
+        commitment1.addIssuance(issuance1);
+        commitment1.addIssuance(issuance2);
+        commitment1.addSpentInfo(new TxOutputKey("tx1", 0), spentInfo);
+
+        DaoStateCommitment commitment2 = DaoStateCommitment.fromDaoState(new DaoState());
+        commitment2.addSpentInfo(new TxOutputKey("tx1", 0), spentInfo);
+        commitment2.addIssuance(issuance2);
+        commitment2.addIssuance(issuance1);
+
+        assertArrayEquals(commitment1.getHash(), commitment2.getHash());
+    }
+
+    @Test
+    public void testRemoveRevertsAdd() {
+        DaoStateCommitment commitment = DaoStateCommitment.fromDaoState(new DaoState());
+        commitment.addIssuance(issuance1);
+        byte[] before = commitment.getHash();
+
+        commitment.addIssuance(issuance2);
+        assertFalse(Arrays.equals(before, commitment.getHash()));
+
+        commitment.removeIssuance(issuance2);
+        assertArrayEquals(before, commitment.getHash());
+    }
+
+    @Test
+    public void testSameKeyDifferentType() {
+        DaoStateCommitment commitment1 = DaoStateCommitment.fromDaoState(new DaoState());
+        commitment1.addConfiscatedLockupTx("tx1");
+
+        DaoStateCommitment commitment2 = DaoStateCommitment.fromDaoState(new DaoState());
+        commitment2.addIssuance(issuance1);
+
+        assertFalse(Arrays.equals(commitment1.getHash(), commitment2.getHash()));
+    }
+
+    @Test
+    public void testIncrementalMatchesFullState() {
+        DaoStateCommitment incremental = DaoStateCommitment.fromDaoState(new DaoState());
+        incremental.addIssuance(issuance1);
+        incremental.addParamChange(paramChange);
+        incremental.addSpentInfo(new TxOutputKey("tx1", 0), spentInfo);
+
+        DaoState daoState = new DaoState();
+        daoState.getIssuanceMap().put(issuance1.getTxId(), issuance1);
+        daoState.getParamChangeList().add(paramChange);
+        daoState.getSpentInfoMap().put(new TxOutputKey("tx1", 0), spentInfo);
+
+        assertArrayEquals(DaoStateCommitment.fromDaoState(daoState).getHash(), incremental.getHash());
+    }
+}
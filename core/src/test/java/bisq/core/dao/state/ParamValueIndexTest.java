@@ -0,0 +1,70 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.dao.state;
+
+import bisq.core.dao.governance.param.Param;
+import bisq.core.dao.state.model.governance.ParamChange;
+import bisq.core.util.coin.BsqFormatter;
+
+import org.bitcoinj.core.Coin;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ParamValueIndexTest {
+    private final BsqFormatter bsqFormatter = new BsqFormatter();
+
+    @Test
+    public void testGetValueAtHeight() {
+        ParamValueIndex index = new ParamValueIndex(List.of(
+                new ParamChange(Param.DEFAULT_MAKER_FEE_BTC.name(), "0.002", 100),
+                new ParamChange(Param.PROPOSAL_FEE.name(), "3", 150),
+                new ParamChange(Param.DEFAULT_MAKER_FEE_BTC.name(), "0.003", 200),
+                new ParamChange(Param.DEFAULT_MAKER_FEE_BTC.name(), "0.004", 200)),
+                bsqFormatter);
+
+        assertEquals(Param.DEFAULT_MAKER_FEE_BTC.getDefaultValue(), index.get(Param.DEFAULT_MAKER_FEE_BTC, 99).getValue());
+        assertEquals("0.002", index.get(Param.DEFAULT_MAKER_FEE_BTC, 100).getValue());
+        assertEquals("0.002", index.get(Param.DEFAULT_MAKER_FEE_BTC, 199).getValue());
+        // The last change with the same activation height wins
+        assertEquals("0.004", index.get(Param.DEFAULT_MAKER_FEE_BTC, 200).getValue());
+        assertEquals("3", index.get(Param.PROPOSAL_FEE, 1000).getValue());
+        assertEquals(Param.QUORUM_GENERIC.getDefaultValue(), index.get(Param.QUORUM_GENERIC, 1000).getValue());
+    }
+
+    @Test
+    public void testParsedValues() {
+        ParamValueIndex index = new ParamValueIndex(List.of(
+                new ParamChange(Param.DEFAULT_MAKER_FEE_BTC.name(), "0.002", 100),
+                new ParamChange(Param.PROPOSAL_FEE.name(), "3", 100),
+                new ParamChange(Param.THRESHOLD_GENERIC.name(), "60", 100)),
+                bsqFormatter);
+
+        assertEquals(Coin.valueOf(200_000), index.get(Param.DEFAULT_MAKER_FEE_BTC, 100).getCoinValue());
+        assertEquals(bsqFormatter.parseParamValueToCoin(Param.PROPOSAL_FEE, "3"),
+                index.get(Param.PROPOSAL_FEE, 100).getCoinValue());
+        assertEquals(0.6, index.get(Param.THRESHOLD_GENERIC, 100).getPercentValue(), 0);
+        assertNull(index.get(Param.THRESHOLD_GENERIC, 100).getCoinValue());
+        assertEquals(Integer.valueOf(Param.PHASE_PROPOSAL.getDefaultValue()),
+                index.get(Param.PHASE_PROPOSAL, 100).getBlockValue());
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.dao.state.storage;
+
+import bisq.common.file.FileUtil;
+import bisq.common.proto.persistable.PersistenceProtoResolver;
+
+import protobuf.BaseBlock;
+
+import java.nio.file.Files;
+
+import java.io.File;
+import java.io.IOException;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class BlocksPersistenceTest {
+    private File storageDir;
+    private PersistenceProtoResolver persistenceProtoResolver;
+
+    @Before
+    public void setup() throws IOException {
+        storageDir = Files.createTempDirectory("BlocksPersistenceTest").toFile();
+        persistenceProtoResolver = mock(PersistenceProtoResolver.class);
+        when(persistenceProtoResolver.fromProto(any(protobuf.PersistableEnvelope.class)))
+                .thenAnswer(invocation -> BsqBlockStore.fromProto(
+                        invocation.<protobuf.PersistableEnvelope>getArgument(0).getBsqBlockStore()));
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        FileUtil.deleteDirectory(storageDir);
+    }
+
+    @Test
+    public void testReadBlocksInOrder() {
+        BlocksPersistence blocksPersistence = new BlocksPersistence(storageDir, "BsqBlocks", persistenceProtoResolver);
+        blocksPersistence.writeBlocks(createBlocks(100, 12500));
+
+        assertHeights(blocksPersistence.readBlocks(100, 12500), 100, 12500);
+    }
+
+    @Test
+    public void testReadBlocksMemoryMapped() {
+        new BlocksPersistence(storageDir, "BsqBlocks", persistenceProtoResolver).writeBlocks(createBlocks(100, 3500));
+
+        BlocksPersistence blocksPersistence = new BlocksPersistence(storageDir, "BsqBlocks",
+                persistenceProtoResolver, true);
+        assertHeights(blocksPersistence.readBlocks(100, 3500), 100, 3500);
+    }
+
+    @Test
+    public void testIterateBlocks() {
+        BlocksPersistence blocksPersistence = new BlocksPersistence(storageDir, "BsqBlocks", persistenceProtoResolver);
+        blocksPersistence.writeBlocks(createBlocks(100, 5500));
+
+        List<BaseBlock> blocks = new ArrayList<>();
+        Iterator<BaseBlock> iterator = blocksPersistence.iterateBlocks(100, 5500);
+        while (iterator.hasNext()) {
+            blocks.add(iterator.next());
+        }
+        assertHeights(blocks, 100, 5500);
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    public void testMissingBucketIsSkipped() {
+        BlocksPersistence blocksPersistence = new BlocksPersistence(storageDir, "BsqBlocks", persistenceProtoResolver);
+        blocksPersistence.writeBlocks(createBlocks(100, 900));
+
+        assertHeights(blocksPersistence.readBlocks(100, 3500), 100, 900);
+    }
+
+    private static List<BaseBlock> createBlocks(int from, int to) {
+        List<BaseBlock> blocks = new ArrayList<>();
+        for (int height = from; height <= to; height++) {
+            blocks.add(BaseBlock.newBuilder()
+                    .setHeight(height)
+                    .setTime(height)
+                    .setHash("hash" + height)
+                    .setPreviousBlockHash("hash" + (height - 1))
+                    .build());
+        }
+        return blocks;
+    }
+
+    private static void assertHeights(List<BaseBlock> blocks, int from, int to) {
+        assertEquals(to - from + 1, blocks.size());
+        for (int i = 0; i < blocks.size(); i++) {
+            assertEquals(from + i, blocks.get(i).getHeight());
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.dao.state.storage;
+
+import bisq.core.dao.monitoring.model.DaoStateHash;
+import bisq.core.dao.state.model.DaoState;
+import bisq.core.dao.state.model.blockchain.SpentInfo;
+import bisq.core.dao.state.model.blockchain.TxOutputKey;
+import bisq.core.dao.state.model.governance.Issuance;
+import bisq.core.dao.state.model.governance.IssuanceType;
+import bisq.core.dao.state.model.governance.ParamChange;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class DaoStateDeltaTest {
+    private final Issuance issuance = new Issuance("tx1", 110, 1000, null, IssuanceType.COMPENSATION);
+    private final SpentInfo spentInfo = new SpentInfo(112, "tx3", 0);
+    private final TxOutputKey txOutputKey = new TxOutputKey("tx1", 0);
+    private final ParamChange paramChange1 = new ParamChange("DEFAULT_MAKER_FEE_BTC", "0.001", 130);
+    private final ParamChange paramChange2 = new ParamChange("DEFAULT_TAKER_FEE_BTC", "0.003", 120);
+
+    @Test
+    public void testApplyMatchesFullState() {
+        DaoState base = new DaoState();
+        base.setChainHeight(100);
+        base.getParamChangeList().add(paramChange1);
+
+        DaoStateDelta delta = new DaoStateDelta(100);
+        delta.onIssuanceAdded(null, issuance);
+        delta.onSpentInfoSet(txOutputKey, null, spentInfo);
+        delta.onParamChangeAdded(paramChange2);
+        delta.onConfiscatedLockupTxAdded("tx4");
+        List<DaoStateHash> hashChain = Arrays.asList(new DaoStateHash(100, new byte[20], true),
+                new DaoStateHash(120, new byte[20], true));
+        delta.close(120, hashChain);
+
+        protobuf.DaoState.Builder builder = DaoState.getBsqStateCloneExcludingBlocks(base).toBuilder();
+        delta.applyTo(builder);
+
+        DaoState expected = new DaoState();
+        expected.setChainHeight(120);
+        expected.getIssuanceMap().put(issuance.getTxId(), issuance);
+        expected.getSpentInfoMap().put(txOutputKey, spentInfo);
+        expected.getParamChangeList().add(paramChange2);
+        expected.getParamChangeList().add(paramChange1);
+        expected.getConfiscatedLockupTxList().add("tx4");
+
+        assertEquals(DaoState.getBsqStateCloneExcludingBlocks(expected), builder.build());
+        assertEquals(1, delta.getDaoStateHashList().size());
+        assertEquals(120, delta.getDaoStateHashList().get(0).getHeight());
+    }
+
+    @Test
+    public void testProtoRoundTrip() {
+        DaoStateDelta delta = new DaoStateDelta(100);
+        delta.onIssuanceAdded(null, issuance);
+        delta.onSpentInfoSet(txOutputKey, null, spentInfo);
+        delta.onParamChangeAdded(paramChange1);
+        delta.close(120, Arrays.asList(new DaoStateHash(120, new byte[20], true)));
+
+        DaoStateDelta fromProto = DaoStateDelta.fromProto(delta.toProtoMessage());
+        assertEquals(delta.toProtoMessage(), fromProto.toProtoMessage());
+        assertEquals(100, fromProto.getFromChainHeight());
+        assertEquals(120, fromProto.getChainHeight());
+        assertEquals(3, fromProto.getNumChanges());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testApplyWithGap() {
+        DaoStateDelta delta = new DaoStateDelta(100);
+        delta.close(120, Arrays.asList());
+
+        protobuf.DaoState.Builder builder = protobuf.DaoState.newBuilder().setChainHeight(80);
+        delta.applyTo(builder);
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.offer;
+
+import bisq.core.filter.FilterManager;
+import bisq.core.provider.price.PriceFeedService;
+
+import bisq.network.p2p.P2PService;
+import bisq.network.p2p.storage.HashMapChangedListener;
+import bisq.network.p2p.storage.payload.ProtectedStorageEntry;
+
+import java.nio.file.Files;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.mockito.ArgumentCaptor;
+
+import static bisq.core.offer.OfferMaker.btcUsdOffer;
+import static bisq.core.offer.OfferMaker.counterCurrencyCode;
+import static bisq.core.offer.OfferMaker.direction;
+import static bisq.core.offer.OfferMaker.id;
+import static bisq.core.offer.OfferMaker.price;
+import static com.natpryce.makeiteasy.MakeItEasy.make;
+import static com.natpryce.makeiteasy.MakeItEasy.with;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class OfferBookServiceTest {
+    private OfferBookService offerBookService;
+    private HashMapChangedListener hashMapChangedListener;
+
+    @Before
+    public void setUp() throws Exception {
+        P2PService p2PService = mock(P2PService.class);
+        offerBookService = new OfferBookService(p2PService,
+                mock(PriceFeedService.class),
+                mock(FilterManager.class),
+                Files.createTempDirectory("OfferBookServiceTest").toFile(),
+                false);
+
+        ArgumentCaptor<HashMapChangedListener> captor = ArgumentCaptor.forClass(HashMapChangedListener.class);
+        verify(p2PService).addHashSetChangedListener(captor.capture());
+        hashMapChangedListener = captor.getValue();
+    }
+
+    @Test
+    public void testOffersAreIndexedByMarket() {
+        Offer usdBuy = make(btcUsdOffer.but(with(id, "1")));
+        Offer usdSell = make(btcUsdOffer.but(with(id, "2"), with(direction, OfferDirection.SELL)));
+        Offer eurBuy = make(btcUsdOffer.but(with(id, "3"), with(counterCurrencyCode, "EUR")));
+        hashMapChangedListener.onAdded(List.of(toEntry(usdBuy), toEntry(usdSell), toEntry(eurBuy)));
+
+        assertEquals(3, offerBookService.getOffers().size());
+        assertEquals(List.of("1"), getIds(getOffers("USD", OfferDirection.BUY)));
+        assertEquals(List.of("2"), getIds(getOffers("USD", OfferDirection.SELL)));
+        assertEquals(List.of("3"), getIds(getOffers("EUR", OfferDirection.BUY)));
+        assertTrue(getOffers("EUR", OfferDirection.SELL).isEmpty());
+
+        hashMapChangedListener.onRemoved(List.of(toEntry(usdBuy)));
+        assertTrue(getOffers("USD", OfferDirection.BUY).isEmpty());
+        assertFalse(offerBookService.findOffer("1").isPresent());
+        assertEquals(2, offerBookService.getOffers().size());
+    }
+
+    @Test
+    public void testOfferInstanceIsReused() {
+        Offer offer = make(btcUsdOffer.but(with(id, "1")));
+        hashMapChangedListener.onAdded(List.of(toEntry(offer)));
+        Offer indexed = offerBookService.findOffer("1").orElseThrow();
+        indexed.setState(Offer.State.AVAILABLE);
+
+        // Another ProtectedStorageEntry for the same payload does not replace the offer
+        hashMapChangedListener.onAdded(List.of(toEntry(make(btcUsdOffer.but(with(id, "1"))))));
+        assertSame(indexed, offerBookService.findOffer("1").orElseThrow());
+        assertEquals(Offer.State.AVAILABLE, indexed.getState());
+
+        // An edited offer replaces the offer and removing the old payload does not remove the edited one
+        Offer edited = make(btcUsdOffer.but(with(id, "1"), with(price, 200000L)));
+        hashMapChangedListener.onAdded(List.of(toEntry(edited)));
+        hashMapChangedListener.onRemoved(List.of(toEntry(offer)));
+        assertEquals(edited.getOfferPayloadBase(),
+                offerBookService.findOffer("1").orElseThrow().getOfferPayloadBase());
+        assertEquals(1, getOffers("USD", OfferDirection.BUY).size());
+    }
+
+    private static ProtectedStorageEntry toEntry(Offer offer) {
+        ProtectedStorageEntry protectedStorageEntry = mock(ProtectedStorageEntry.class);
+        when(protectedStorageEntry.getProtectedStoragePayload()).thenReturn(offer.getOfferPayloadBase());
+        return protectedStorageEntry;
+    }
+
+    private List<Offer> getOffers(String currencyCode, OfferDirection direction) {
+        return offerBookService.getOffers(marketKey -> marketKey.getCurrencyCode().equals(currencyCode) &&
+                marketKey.getDirection() == direction);
+    }
+
+    private static List<String> getIds(List<Offer> offers) {
+        return offers.stream().map(Offer::getId).collect(Collectors.toList());
+    }
+}
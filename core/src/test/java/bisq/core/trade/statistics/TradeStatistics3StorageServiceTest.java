@@ -0,0 +1,154 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.trade.statistics;
+
+import bisq.network.p2p.storage.P2PDataStorage;
+import bisq.network.p2p.storage.payload.PersistableNetworkPayload;
+import bisq.network.p2p.storage.persistence.AppendOnlyDataStoreService;
+
+import bisq.common.file.CorruptedStorageFileHandler;
+import bisq.common.persistence.PersistenceManager;
+import bisq.common.proto.persistable.PersistenceProtoResolver;
+
+import java.nio.file.Files;
+
+import java.io.File;
+
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TradeStatistics3StorageServiceTest {
+    // No resource files exist with that postfix
+    private static final String POST_FIX = "_TEST";
+
+    private File dir;
+    private File journalFile;
+    private PersistenceProtoResolver persistenceProtoResolver;
+    private PersistenceManager<TradeStatistics3Store> persistenceManager;
+    private TradeStatistics3StorageService storageService;
+    private AppendOnlyDataStoreService appendOnlyDataStoreService;
+
+    @Before
+    public void setUp() throws Exception {
+        dir = Files.createTempDirectory("TradeStatistics3StorageServiceTest").toFile();
+        journalFile = new File(dir, "TradeStatistics3Store.journal");
+        persistenceProtoResolver = mock(PersistenceProtoResolver.class);
+        when(persistenceProtoResolver.fromProto(any(protobuf.PersistableEnvelope.class))).thenAnswer(invocation ->
+                TradeStatistics3Store.fromProto(((protobuf.PersistableEnvelope) invocation.getArgument(0)).getTradeStatistics3Store()));
+
+        PersistenceManager.setUseJournal(true);
+        PersistenceManager.onAllServicesInitialized();
+        start();
+    }
+
+    @After
+    public void tearDown() {
+        persistenceManager.shutdown();
+        PersistenceManager.setUseJournal(false);
+    }
+
+    @Test
+    public void testJournalIsReplayedWithoutPersistedStore() throws Exception {
+        TradeStatistics3 tradeStatistics1 = createTradeStatistics(1);
+        TradeStatistics3 tradeStatistics2 = createTradeStatistics(2);
+        put(tradeStatistics1);
+        put(tradeStatistics2);
+        awaitJournal();
+
+        restart();
+
+        assertEquals(Set.of(tradeStatistics1, tradeStatistics2), getLiveData());
+    }
+
+    @Test
+    public void testJournalIsReplayedOnPersistedStore() throws Exception {
+        TradeStatistics3 tradeStatistics1 = createTradeStatistics(1);
+        put(tradeStatistics1);
+        CountDownLatch latch = new CountDownLatch(1);
+        persistenceManager.persistNow(latch::countDown);
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(0, journalFile.length());
+
+        TradeStatistics3 tradeStatistics2 = createTradeStatistics(2);
+        put(tradeStatistics2);
+        awaitJournal();
+
+        restart();
+
+        assertEquals(Set.of(tradeStatistics1, tradeStatistics2), getLiveData());
+    }
+
+    private void start() throws InterruptedException {
+        persistenceManager = new PersistenceManager<>(dir,
+                persistenceProtoResolver,
+                mock(CorruptedStorageFileHandler.class));
+        storageService = new TradeStatistics3StorageService(dir, persistenceManager);
+        appendOnlyDataStoreService = new AppendOnlyDataStoreService();
+        appendOnlyDataStoreService.addService(storageService);
+
+        CountDownLatch latch = new CountDownLatch(1);
+        appendOnlyDataStoreService.readFromResources(POST_FIX, latch::countDown);
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+    }
+
+    // The shut down waits for the writes to the journal
+    private void restart() throws InterruptedException {
+        persistenceManager.shutdown();
+        start();
+    }
+
+    private void put(TradeStatistics3 tradeStatistics) {
+        assertTrue(appendOnlyDataStoreService.put(new P2PDataStorage.ByteArray(tradeStatistics.getHash()),
+                tradeStatistics));
+    }
+
+    private Set<PersistableNetworkPayload> getLiveData() {
+        return Set.copyOf(storageService.getMapOfLiveData().values());
+    }
+
+    private void awaitJournal() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (journalFile.length() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(journalFile.length() > 0);
+    }
+
+    private static TradeStatistics3 createTradeStatistics(int id) {
+        return new TradeStatistics3("EUR",
+                100,
+                100,
+                "SEPA",
+                id * 1000L,
+                null,
+                null,
+                null,
+                new byte[]{(byte) id});
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.trade.statistics;
+
+import bisq.core.provider.price.PriceFeedService;
+
+import bisq.network.p2p.P2PService;
+import bisq.network.p2p.storage.P2PDataStorage;
+import bisq.network.p2p.storage.payload.PersistableNetworkPayload;
+import bisq.network.p2p.storage.persistence.AppendOnlyDataStoreListener;
+import bisq.network.p2p.storage.persistence.AppendOnlyDataStoreService;
+
+import java.io.File;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.mockito.ArgumentCaptor;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TradeStatisticsManagerTest {
+    private TradeStatisticsManager tradeStatisticsManager;
+    private AppendOnlyDataStoreListener appendOnlyDataStoreListener;
+
+    @Before
+    public void setUp() {
+        Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> map = new HashMap<>();
+        addTradeStatistics(map, "EUR", 3000, 1);
+        addTradeStatistics(map, "USD", 1000, 2);
+        addTradeStatistics(map, "EUR", 2000, 3);
+        addTradeStatistics(map, "EUR", 2000, 4);
+        addTradeStatistics(map, "EUR", 4000, 5);
+
+        P2PService p2PService = mock(P2PService.class);
+        P2PDataStorage p2PDataStorage = mock(P2PDataStorage.class);
+        when(p2PService.getP2PDataStorage()).thenReturn(p2PDataStorage);
+        TradeStatistics3StorageService storageService = mock(TradeStatistics3StorageService.class);
+        when(storageService.getMapOfAllData()).thenReturn(map);
+
+        tradeStatisticsManager = new TradeStatisticsManager(p2PService,
+                mock(PriceFeedService.class),
+                storageService,
+                mock(AppendOnlyDataStoreService.class),
+                mock(TradeStatisticsConverter.class),
+                new File("."),
+                false);
+        tradeStatisticsManager.onAllServicesInitialized();
+        ArgumentCaptor<AppendOnlyDataStoreListener> captor = ArgumentCaptor.forClass(AppendOnlyDataStoreListener.class);
+        verify(p2PDataStorage).addAppendOnlyDataStoreListener(captor.capture());
+        appendOnlyDataStoreListener = captor.getValue();
+    }
+
+    @Test
+    public void testGetTradeStatisticsByDateRange() {
+        assertEquals(List.of(2000L, 2000L, 3000L, 4000L),
+                getDates(tradeStatisticsManager.getTradeStatistics("EUR", 0, 0, "", 0)));
+        assertEquals(List.of(2000L, 2000L, 3000L),
+                getDates(tradeStatisticsManager.getTradeStatistics("", 1500, 4000, "", 0)));
+        assertEquals(List.of(1000L, 2000L),
+                getDates(tradeStatisticsManager.getTradeStatistics("", 0, 0, "", 2)));
+    }
+
+    @Test
+    public void testGetTradeStatisticsPagedByCursor() {
+        List<TradeStatistics3> firstPage = tradeStatisticsManager.getTradeStatistics("EUR", 0, 0, "", 1);
+        assertEquals(1, firstPage.size());
+
+        // Both trade statistics with date 2000 are returned, one on each page
+        String cursor = tradeStatisticsManager.getNextCursor(firstPage, "");
+        List<TradeStatistics3> secondPage = tradeStatisticsManager.getTradeStatistics("EUR", 0, 0, cursor, 2);
+        assertEquals(List.of(2000L, 3000L), getDates(secondPage));
+
+        cursor = tradeStatisticsManager.getNextCursor(secondPage, cursor);
+        List<TradeStatistics3> thirdPage = tradeStatisticsManager.getTradeStatistics("EUR", 0, 0, cursor, 2);
+        assertEquals(List.of(4000L), getDates(thirdPage));
+
+        cursor = tradeStatisticsManager.getNextCursor(thirdPage, cursor);
+        assertTrue(tradeStatisticsManager.getTradeStatistics("EUR", 0, 0, cursor, 2).isEmpty());
+    }
+
+    @Test
+    public void testPollingReturnsTradeStatisticsReceivedLate() {
+        List<TradeStatistics3> page = tradeStatisticsManager.getTradeStatistics("EUR", 1500, 0, "", 0);
+        assertEquals(List.of(2000L, 2000L, 3000L, 4000L), getDates(page));
+        String cursor = tradeStatisticsManager.getNextCursor(page, "");
+
+        // Received after the last poll, but with older dates than the last returned trade statistics
+        appendOnlyDataStoreListener.onAdded(createTradeStatistics("EUR", 2500, 6));
+        appendOnlyDataStoreListener.onAdded(createTradeStatistics("EUR", 1000, 7));
+        appendOnlyDataStoreListener.onAdded(createTradeStatistics("USD", 5000, 8));
+
+        // The fromDate is still applied as a filter
+        page = tradeStatisticsManager.getTradeStatistics("EUR", 1500, 0, cursor, 0);
+        assertEquals(List.of(2500L), getDates(page));
+        cursor = tradeStatisticsManager.getNextCursor(page, cursor);
+        assertTrue(tradeStatisticsManager.getTradeStatistics("EUR", 1500, 0, cursor, 0).isEmpty());
+
+        // Without a cursor the trade statistics are ordered by the time we received them
+        assertEquals(List.of(2000L, 2000L, 3000L, 4000L, 2500L),
+                getDates(tradeStatisticsManager.getTradeStatistics("EUR", 1500, 0, "", 0)));
+    }
+
+    @Test
+    public void testGetNextCursor() {
+        List<TradeStatistics3> page = tradeStatisticsManager.getTradeStatistics("EUR", 0, 0, "", 2);
+        String cursor = tradeStatisticsManager.getNextCursor(page, "");
+
+        page = tradeStatisticsManager.getTradeStatistics("EUR", 0, 0, cursor, 2);
+        assertEquals(2, page.size());
+        cursor = tradeStatisticsManager.getNextCursor(page, cursor);
+
+        // An empty page returns the cursor of the request, so polling continues after the last trade statistics
+        page = tradeStatisticsManager.getTradeStatistics("EUR", 0, 0, cursor, 2);
+        assertTrue(page.isEmpty());
+        assertEquals(cursor, tradeStatisticsManager.getNextCursor(page, cursor));
+        assertEquals("", tradeStatisticsManager.getNextCursor(List.of(), ""));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidCursor() {
+        tradeStatisticsManager.getTradeStatistics("", 0, 0, "invalid", 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCursorOfPreviousRun() {
+        tradeStatisticsManager.getTradeStatistics("", 0, 0, "1:1", 0);
+    }
+
+    private static void addTradeStatistics(Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> map,
+                                           String currency,
+                                           long date,
+                                           int id) {
+        TradeStatistics3 tradeStatistics = createTradeStatistics(currency, date, id);
+        map.put(new P2PDataStorage.ByteArray(tradeStatistics.getHash()), tradeStatistics);
+    }
+
+    private static TradeStatistics3 createTradeStatistics(String currency, long date, int id) {
+        return new TradeStatistics3(currency,
+                100,
+                100,
+                "SEPA",
+                date,
+                null,
+                null,
+                null,
+                new byte[]{(byte) id});
+    }
+
+    private static List<Long> getDates(List<TradeStatistics3> tradeStatistics) {
+        return tradeStatistics.stream().map(TradeStatistics3::getDateAsLong).collect(Collectors.toList());
+    }
+}
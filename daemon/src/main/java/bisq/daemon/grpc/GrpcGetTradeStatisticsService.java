@@ -12,6 +12,7 @@ import io.grpc.stub.StreamObserver;
 import javax.inject.Inject;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -43,11 +44,24 @@ class GrpcGetTradeStatisticsService extends GetTradeStatisticsImplBase {
     public void getTradeStatistics(GetTradeStatisticsRequest req,
                                    StreamObserver<GetTradeStatisticsReply> responseObserver) {
         try {
-            var tradeStatistics = coreApi.getTradeStatistics().stream()
-                    .map(TradeStatistics3::toProtoTradeStatistics3)
-                    .collect(Collectors.toList());
-
-            var reply = GetTradeStatisticsReply.newBuilder().addAllTradeStatistics(tradeStatistics).build();
+            var replyBuilder = GetTradeStatisticsReply.newBuilder();
+            if (req.equals(GetTradeStatisticsRequest.getDefaultInstance())) {
+                replyBuilder.addAllTradeStatistics(coreApi.getTradeStatistics().stream()
+                        .map(TradeStatistics3::toProtoTradeStatistics3)
+                        .collect(Collectors.toList()));
+            } else {
+                List<TradeStatistics3> tradeStatistics = coreApi.getTradeStatistics(req.getCurrencyCode(),
+                        req.getFromDate(),
+                        req.getToDate(),
+                        req.getCursor(),
+                        req.getPageSize());
+                replyBuilder.addAllTradeStatistics(tradeStatistics.stream()
+                        .map(TradeStatistics3::toProtoTradeStatistics3)
+                        .collect(Collectors.toList()));
+                replyBuilder.setNextCursor(coreApi.getNextTradeStatisticsCursor(tradeStatistics, req.getCursor()));
+            }
+
+            var reply = replyBuilder.build();
             responseObserver.onNext(reply);
             responseObserver.onCompleted();
         } catch (Throwable cause) {
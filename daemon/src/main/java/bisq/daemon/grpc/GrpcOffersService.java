@@ -20,6 +20,7 @@ package bisq.daemon.grpc;
 import bisq.core.api.CoreApi;
 import bisq.core.api.model.OfferInfo;
 import bisq.core.offer.Offer;
+import bisq.core.offer.OfferBookService;
 import bisq.core.offer.OpenOffer;
 
 import bisq.proto.grpc.CancelOfferReply;
@@ -45,6 +46,8 @@ import bisq.proto.grpc.GetOfferReply;
 import bisq.proto.grpc.GetOfferRequest;
 import bisq.proto.grpc.GetOffersReply;
 import bisq.proto.grpc.GetOffersRequest;
+import bisq.proto.grpc.OfferEvent;
+import bisq.proto.grpc.SubscribeOffersRequest;
 
 import io.grpc.ServerInterceptor;
 import io.grpc.stub.StreamObserver;
@@ -325,6 +328,38 @@ class GrpcOffersService extends OffersImplBase {
         }
     }
 
+    @Override
+    public void subscribeOffers(SubscribeOffersRequest req,
+                                StreamObserver<OfferEvent> responseObserver) {
+        try {
+            var subscription = new GrpcStreamSubscription<>(responseObserver, exceptionHandler);
+            var listener = new OfferBookService.OfferBookChangedListener() {
+                @Override
+                public void onAdded(Offer offer) {
+                    subscription.send(offer.getId(), () -> toOfferEvent(OfferEvent.EventType.ADDED, offer));
+                }
+
+                @Override
+                public void onRemoved(Offer offer) {
+                    subscription.send(offer.getId(), () -> toOfferEvent(OfferEvent.EventType.REMOVED, offer));
+                }
+            };
+            subscription.start(() -> coreApi.addAvailableOffersListener(req.getDirection(),
+                            req.getCurrencyCode(),
+                            listener),
+                    () -> coreApi.removeAvailableOffersListener(listener));
+        } catch (Throwable cause) {
+            exceptionHandler.handleException(log, cause, responseObserver);
+        }
+    }
+
+    private OfferEvent toOfferEvent(OfferEvent.EventType eventType, Offer offer) {
+        return OfferEvent.newBuilder()
+                .setEventType(eventType)
+                .setOffer(toOfferInfo(offer).toProtoMessage())
+                .build();
+    }
+
     final ServerInterceptor[] interceptors() {
         Optional<ServerInterceptor> rateMeteringInterceptor = rateMeteringInterceptor();
         return rateMeteringInterceptor.map(serverInterceptor ->
@@ -343,6 +378,7 @@ class GrpcOffersService extends OffersImplBase {
                             put(getCreateOfferMethod().getFullMethodName(), new GrpcCallRateMeter(1, MINUTES));
                             put(getEditOfferMethod().getFullMethodName(), new GrpcCallRateMeter(1, MINUTES));
                             put(getCancelOfferMethod().getFullMethodName(), new GrpcCallRateMeter(1, MINUTES));
+                            put(getSubscribeOffersMethod().getFullMethodName(), new GrpcCallRateMeter(10, MINUTES));
                         }}
                 )));
     }
@@ -19,8 +19,10 @@ package bisq.daemon.grpc;
 
 import bisq.core.api.CoreApi;
 
+import bisq.proto.grpc.MarketPriceEvent;
 import bisq.proto.grpc.MarketPriceReply;
 import bisq.proto.grpc.MarketPriceRequest;
+import bisq.proto.grpc.SubscribeMarketPricesRequest;
 
 import io.grpc.ServerInterceptor;
 import io.grpc.stub.StreamObserver;
@@ -28,6 +30,7 @@ import io.grpc.stub.StreamObserver;
 import javax.inject.Inject;
 
 import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 
 import lombok.extern.slf4j.Slf4j;
@@ -35,6 +38,8 @@ import lombok.extern.slf4j.Slf4j;
 import static bisq.daemon.grpc.interceptor.GrpcServiceRateMeteringConfig.getCustomRateMeteringInterceptor;
 import static bisq.proto.grpc.PriceGrpc.PriceImplBase;
 import static bisq.proto.grpc.PriceGrpc.getGetMarketPriceMethod;
+import static bisq.proto.grpc.PriceGrpc.getSubscribeMarketPricesMethod;
+import static java.util.concurrent.TimeUnit.MINUTES;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
 
@@ -69,6 +74,32 @@ class GrpcPriceService extends PriceImplBase {
         }
     }
 
+    @Override
+    public void subscribeMarketPrices(SubscribeMarketPricesRequest req,
+                                      StreamObserver<MarketPriceEvent> responseObserver) {
+        try {
+            var subscription = new GrpcStreamSubscription<>(responseObserver, exceptionHandler);
+            // The prices we have sent by currency code. Only accessed from the UserThread.
+            Map<String, Double> sentPrices = new HashMap<>();
+            Runnable listener = () -> req.getCurrencyCodesList().forEach(currencyCode ->
+                    coreApi.getCachedMarketPrice(currencyCode).ifPresent(price -> {
+                        if (!price.equals(sentPrices.put(currencyCode, price))) {
+                            subscription.send(currencyCode, () -> MarketPriceEvent.newBuilder()
+                                    .setCurrencyCode(currencyCode)
+                                    .setPrice(price)
+                                    .build());
+                        }
+                    }));
+            subscription.start(() -> {
+                        listener.run();
+                        coreApi.addPriceUpdateListener(listener);
+                    },
+                    () -> coreApi.removePriceUpdateListener(listener));
+        } catch (Throwable cause) {
+            exceptionHandler.handleException(log, cause, responseObserver);
+        }
+    }
+
     final ServerInterceptor[] interceptors() {
         Optional<ServerInterceptor> rateMeteringInterceptor = rateMeteringInterceptor();
         return rateMeteringInterceptor.map(serverInterceptor ->
@@ -80,6 +111,7 @@ class GrpcPriceService extends PriceImplBase {
                 .or(() -> Optional.of(CallRateMeteringInterceptor.valueOf(
                         new HashMap<>() {{
                             put(getGetMarketPriceMethod().getFullMethodName(), new GrpcCallRateMeter(1, SECONDS));
+                            put(getSubscribeMarketPricesMethod().getFullMethodName(), new GrpcCallRateMeter(10, MINUTES));
                         }}
                 )));
     }
@@ -0,0 +1,138 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.daemon.grpc;
+
+import bisq.common.UserThread;
+
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Connects a server streaming call to the listeners of the core services.
+ * <p/>
+ * The core services call their listeners on the UserThread, so we add the listeners and send the initial state on
+ * the UserThread as well. That way the events of a stream do not get sent concurrently and the initial state is not
+ * mixed up with the changes. The listeners get removed when the client cancels the call or if sending an event failed.
+ * <p/>
+ * We only send an event if the call is ready, so a slow client does not let the events pile up in the send buffer of
+ * the call. Otherwise the event is kept until the call gets ready again. A pending event gets replaced by a newer event
+ * with the same key, e.g. the latest state of a trade. If the client falls behind more than MAX_PENDING_EVENTS, we
+ * cancel the call with RESOURCE_EXHAUSTED.
+ */
+@Slf4j
+class GrpcStreamSubscription<T> {
+    static final int MAX_PENDING_EVENTS = 1000;
+
+    private final ServerCallStreamObserver<T> responseObserver;
+    private final GrpcExceptionHandler exceptionHandler;
+    private Runnable unsubscribeHandler = () -> {
+    };
+    // Only accessed from the UserThread
+    private final Map<String, Supplier<T>> pendingEvents = new LinkedHashMap<>();
+    // Only accessed from the UserThread
+    private boolean closed;
+
+    GrpcStreamSubscription(StreamObserver<T> responseObserver, GrpcExceptionHandler exceptionHandler) {
+        this.responseObserver = (ServerCallStreamObserver<T>) responseObserver;
+        this.exceptionHandler = exceptionHandler;
+    }
+
+    /**
+     * Must be called from the gRPC service method before it returns.
+     *
+     * @param subscribeHandler   Sends the initial state and adds the listeners. Called on the UserThread.
+     * @param unsubscribeHandler Removes the listeners. Called on the UserThread.
+     */
+    void start(Runnable subscribeHandler, Runnable unsubscribeHandler) {
+        this.unsubscribeHandler = unsubscribeHandler;
+        responseObserver.setOnCancelHandler(() -> UserThread.execute(this::close));
+        responseObserver.setOnReadyHandler(() -> UserThread.execute(this::sendPendingEvents));
+        UserThread.execute(() -> {
+            if (closed || responseObserver.isCancelled()) {
+                return;
+            }
+            try {
+                subscribeHandler.run();
+            } catch (Throwable cause) {
+                onError(cause);
+            }
+        });
+    }
+
+    /**
+     * Must be called on the UserThread.
+     *
+     * @param key           Identifies the object the event is about. A pending event with the same key gets replaced.
+     * @param eventSupplier Creates the event at the time it gets sent.
+     */
+    void send(String key, Supplier<T> eventSupplier) {
+        if (closed) {
+            return;
+        }
+        if (pendingEvents.isEmpty() && responseObserver.isReady()) {
+            sendEvent(eventSupplier);
+            return;
+        }
+
+        // We remove it first so the replacing event is sent after the events which have been added in between.
+        pendingEvents.remove(key);
+        pendingEvents.put(key, eventSupplier);
+        if (pendingEvents.size() > MAX_PENDING_EVENTS) {
+            log.warn("Client does not receive the stream events fast enough. We cancel the call.");
+            close();
+            responseObserver.onError(Status.RESOURCE_EXHAUSTED
+                    .withDescription("client does not receive the events fast enough")
+                    .asRuntimeException());
+        }
+    }
+
+    private void sendPendingEvents() {
+        while (!closed && !pendingEvents.isEmpty() && responseObserver.isReady()) {
+            String key = pendingEvents.keySet().iterator().next();
+            sendEvent(pendingEvents.remove(key));
+        }
+    }
+
+    private void sendEvent(Supplier<T> eventSupplier) {
+        try {
+            responseObserver.onNext(eventSupplier.get());
+        } catch (Throwable cause) {
+            onError(cause);
+        }
+    }
+
+    private void onError(Throwable cause) {
+        close();
+        exceptionHandler.handleException(log, cause, responseObserver);
+    }
+
+    private void close() {
+        if (!closed) {
+            closed = true;
+            pendingEvents.clear();
+            unsubscribeHandler.run();
+        }
+    }
+}
@@ -18,6 +18,7 @@
 package bisq.daemon.grpc;
 
 import bisq.core.api.CoreApi;
+import bisq.core.api.TradeChangedListener;
 import bisq.core.api.model.TradeInfo;
 import bisq.core.trade.model.TradeModel;
 import bisq.core.trade.model.bisq_v1.Trade;
@@ -31,8 +32,10 @@ import bisq.proto.grpc.GetTradeReply;
 import bisq.proto.grpc.GetTradeRequest;
 import bisq.proto.grpc.KeepFundsReply;
 import bisq.proto.grpc.KeepFundsRequest;
+import bisq.proto.grpc.SubscribeTradeEventsRequest;
 import bisq.proto.grpc.TakeOfferReply;
 import bisq.proto.grpc.TakeOfferRequest;
+import bisq.proto.grpc.TradeEvent;
 import bisq.proto.grpc.WithdrawFundsReply;
 import bisq.proto.grpc.WithdrawFundsRequest;
 
@@ -177,6 +180,36 @@ class GrpcTradesService extends TradesImplBase {
         }
     }
 
+    @Override
+    public void subscribeTradeEvents(SubscribeTradeEventsRequest req,
+                                     StreamObserver<TradeEvent> responseObserver) {
+        try {
+            var subscription = new GrpcStreamSubscription<>(responseObserver, exceptionHandler);
+            var listener = new TradeChangedListener() {
+                @Override
+                public void onTradeChanged(Trade trade) {
+                    if (req.getTradeId().isEmpty() || req.getTradeId().equals(trade.getId())) {
+                        subscription.send(trade.getId(), () -> toTradeEvent(TradeEvent.EventType.UPDATED, trade));
+                    }
+                }
+
+                @Override
+                public void onTradeRemoved(Trade trade) {
+                    if (req.getTradeId().isEmpty() || req.getTradeId().equals(trade.getId())) {
+                        subscription.send(trade.getId(), () -> toTradeEvent(TradeEvent.EventType.REMOVED, trade));
+                    }
+                }
+            };
+            subscription.start(() -> {
+                        coreApi.getOpenTrades().forEach(listener::onTradeChanged);
+                        coreApi.addTradeChangedListener(listener);
+                    },
+                    () -> coreApi.removeTradeChangedListener(listener));
+        } catch (Throwable cause) {
+            exceptionHandler.handleException(log, cause, responseObserver);
+        }
+    }
+
     final ServerInterceptor[] interceptors() {
         Optional<ServerInterceptor> rateMeteringInterceptor = rateMeteringInterceptor();
         return rateMeteringInterceptor.map(serverInterceptor ->
@@ -194,6 +227,7 @@ class GrpcTradesService extends TradesImplBase {
                             put(getConfirmPaymentReceivedMethod().getFullMethodName(), new GrpcCallRateMeter(1, MINUTES));
                             put(getKeepFundsMethod().getFullMethodName(), new GrpcCallRateMeter(1, MINUTES));
                             put(getWithdrawFundsMethod().getFullMethodName(), new GrpcCallRateMeter(1, MINUTES));
+                            put(getSubscribeTradeEventsMethod().getFullMethodName(), new GrpcCallRateMeter(10, MINUTES));
                         }}
                 )));
     }
@@ -233,6 +267,17 @@ class GrpcTradesService extends TradesImplBase {
                 .build();
     }
 
+    private TradeEvent toTradeEvent(TradeEvent.EventType eventType, Trade trade) {
+        var builder = TradeEvent.newBuilder()
+                .setEventType(eventType)
+                .setTrade(buildGetTradeReply(trade).getTrade())
+                .setDisputeState(trade.getDisputeState().name());
+        Optional.ofNullable(trade.getMediationResultState()).ifPresent(e -> builder.setMediationResultState(e.name()));
+        Optional.ofNullable(trade.getRefundResultState()).ifPresent(e -> builder.setRefundResultState(e.name()));
+        Optional.ofNullable(trade.getAssetTxProofResult()).ifPresent(e -> builder.setAssetTxProofResult(e.name()));
+        return builder.build();
+    }
+
     private boolean wasMyOffer(TradeModel tradeModel) {
         return coreApi.isMyOffer(tradeModel.getOffer().getId());
     }
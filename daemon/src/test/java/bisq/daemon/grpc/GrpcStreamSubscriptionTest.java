@@ -0,0 +1,163 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.daemon.grpc;
+
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The UserThread executes the tasks on the calling thread if no executor is set
+public class GrpcStreamSubscriptionTest {
+    private final TestStreamObserver responseObserver = new TestStreamObserver();
+    private final AtomicBoolean unsubscribed = new AtomicBoolean();
+    private final GrpcStreamSubscription<String> subscription =
+            new GrpcStreamSubscription<>(responseObserver, new GrpcExceptionHandler());
+
+    @Test
+    public void testEventsAreSentIfReady() {
+        subscription.start(() -> subscription.send("a", () -> "a1"), () -> unsubscribed.set(true));
+        subscription.send("b", () -> "b1");
+        assertEquals(List.of("a1", "b1"), responseObserver.sentEvents);
+    }
+
+    @Test
+    public void testPendingEventsAreReplacedAndSentWhenReady() {
+        subscription.start(() -> {
+        }, () -> unsubscribed.set(true));
+        responseObserver.ready = false;
+        subscription.send("a", () -> "a1");
+        subscription.send("b", () -> "b1");
+        subscription.send("a", () -> "a2");
+        assertTrue(responseObserver.sentEvents.isEmpty());
+
+        responseObserver.setReady();
+        assertEquals(List.of("b1", "a2"), responseObserver.sentEvents);
+        assertFalse(unsubscribed.get());
+    }
+
+    @Test
+    public void testCallIsCancelledIfClientFallsBehind() {
+        subscription.start(() -> {
+        }, () -> unsubscribed.set(true));
+        responseObserver.ready = false;
+        for (int i = 0; i < GrpcStreamSubscription.MAX_PENDING_EVENTS; i++) {
+            String event = String.valueOf(i);
+            subscription.send(event, () -> event);
+        }
+        assertNull(responseObserver.error);
+
+        subscription.send("last", () -> "last");
+        assertEquals(Status.Code.RESOURCE_EXHAUSTED, Status.fromThrowable(responseObserver.error).getCode());
+        assertTrue(unsubscribed.get());
+
+        responseObserver.setReady();
+        assertTrue(responseObserver.sentEvents.isEmpty());
+    }
+
+    @Test
+    public void testListenersAreRemovedIfClientCancels() {
+        subscription.start(() -> {
+        }, () -> unsubscribed.set(true));
+        responseObserver.cancel();
+        assertTrue(unsubscribed.get());
+
+        subscription.send("a", () -> "a1");
+        assertTrue(responseObserver.sentEvents.isEmpty());
+    }
+
+    private static class TestStreamObserver extends ServerCallStreamObserver<String> {
+        private final List<String> sentEvents = new ArrayList<>();
+        private boolean ready = true;
+        private boolean cancelled;
+        private Throwable error;
+        private Runnable onCancelHandler = () -> {
+        };
+        private Runnable onReadyHandler = () -> {
+        };
+
+        private void setReady() {
+            ready = true;
+            onReadyHandler.run();
+        }
+
+        private void cancel() {
+            cancelled = true;
+            onCancelHandler.run();
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public void setOnCancelHandler(Runnable onCancelHandler) {
+            this.onCancelHandler = onCancelHandler;
+        }
+
+        @Override
+        public void setCompression(String compression) {
+        }
+
+        @Override
+        public boolean isReady() {
+            return ready;
+        }
+
+        @Override
+        public void setOnReadyHandler(Runnable onReadyHandler) {
+            this.onReadyHandler = onReadyHandler;
+        }
+
+        @Override
+        public void disableAutoInboundFlowControl() {
+        }
+
+        @Override
+        public void request(int count) {
+        }
+
+        @Override
+        public void setMessageCompression(boolean enable) {
+        }
+
+        @Override
+        public void onNext(String event) {
+            sentEvents.add(event);
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            this.error = error;
+        }
+
+        @Override
+        public void onCompleted() {
+        }
+    }
+}
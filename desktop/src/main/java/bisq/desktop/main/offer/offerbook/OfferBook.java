@@ -35,6 +35,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import lombok.extern.slf4j.Slf4j;
@@ -127,9 +128,13 @@ public class OfferBook {
     }
 
     private void onProofOfWorkDifficultyChanged() {
+        List<Offer> bsqSwapOffers = offerBookListItems.stream()
+                .map(OfferBookListItem::getOffer)
+                .filter(Offer::isBsqSwapOffer)
+                .collect(Collectors.toList());
+        Set<String> invalidOfferIds = filterManager.getIdsOfOffersWithInvalidProofOfWork(bsqSwapOffers);
         List<OfferBookListItem> toRemove = offerBookListItems.stream()
-                .filter(item -> item.getOffer().isBsqSwapOffer())
-                .filter(item -> !filterManager.isProofOfWorkValid(item.getOffer()))
+                .filter(item -> invalidOfferIds.contains(item.getOffer().getId()))
                 .collect(Collectors.toList());
         toRemove.forEach(offerBookListItems::remove);
     }
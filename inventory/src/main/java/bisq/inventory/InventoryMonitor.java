@@ -262,6 +262,7 @@ public class InventoryMonitor implements SetupListener {
                 ArrayList::new,
                 null,
                 useLocalhostForP2P,
+                false,
                 9999,
                 torDir,
                 null,
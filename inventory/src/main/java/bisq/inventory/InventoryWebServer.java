@@ -191,6 +191,20 @@ public class InventoryWebServer {
                     "n/a";
             sb.append("Run duration: ").append(duration).append("<br/>");
 
+            if (requestInfo.getValue(InventoryItem.userThreadQueueSize) != null) {
+                sb.append("UserThread queue size: ")
+                        .append(requestInfo.getDisplayValue(InventoryItem.userThreadQueueSize))
+                        .append(" / average queue latency: ")
+                        .append(requestInfo.getDisplayValue(InventoryItem.userThreadAverageQueueLatency))
+                        .append(" ms / slow tasks: ")
+                        .append(requestInfo.getDisplayValue(InventoryItem.userThreadNumSlowTasks))
+                        .append("<br/>");
+                String slowestRecentTask = requestInfo.getValue(InventoryItem.userThreadSlowestRecentTask);
+                if (slowestRecentTask != null) {
+                    sb.append("Slowest recent UserThread task: ").append(slowestRecentTask).append("<br/>");
+                }
+            }
+
             String filteredSeedNodes = requestInfo.getDisplayValue(InventoryItem.filteredSeeds)
                     .replace(System.getProperty("line.separator"), "<br/>");
             if (filteredSeedNodes.isEmpty()) {
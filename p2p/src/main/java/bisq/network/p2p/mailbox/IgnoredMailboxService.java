@@ -25,6 +25,8 @@ import bisq.common.proto.persistable.PersistedDataHost;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
+import java.util.Map;
+
 /**
  * We persist failed attempts to decrypt mailbox messages (expected if mailbox message was not addressed to us).
  * This improves performance at processing mailbox messages.
@@ -68,4 +70,13 @@ public class IgnoredMailboxService implements PersistedDataHost {
         ignoredMailboxMap.put(uid, creationTimeStamp);
         persistenceManager.requestPersistence();
     }
+
+    public void ignore(Map<String, Long> creationTimeStampByUid) {
+        if (creationTimeStampByUid.isEmpty()) {
+            return;
+        }
+
+        ignoredMailboxMap.putAll(creationTimeStampByUid);
+        persistenceManager.requestPersistence();
+    }
 }
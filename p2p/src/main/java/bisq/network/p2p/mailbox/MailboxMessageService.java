@@ -54,6 +54,7 @@ import javax.inject.Named;
 import javax.inject.Singleton;
 
 import com.google.common.base.Joiner;
+import com.google.common.collect.Lists;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
@@ -66,21 +67,22 @@ import java.security.PublicKey;
 import java.time.Clock;
 
 import java.util.ArrayDeque;
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
-import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 import org.jetbrains.annotations.NotNull;
@@ -112,6 +114,10 @@ import static com.google.common.base.Preconditions.checkNotNull;
 @Slf4j
 public class MailboxMessageService implements HashMapChangedListener, PersistedDataHost {
     private static final long REPUBLISH_DELAY_SEC = TimeUnit.MINUTES.toSeconds(2);
+    // Number of entries decrypted in one task. Large enough to keep the task overhead small compared to the
+    // decryption costs, small enough to spread a batch of a few hundred entries over all threads.
+    private static final int DECRYPTION_CHUNK_SIZE = 50;
+    private static final int NUM_DECRYPTION_THREADS = Math.max(1, Math.min(8, Runtime.getRuntime().availableProcessors()));
 
     private final NetworkNode networkNode;
     private final PeerManager peerManager;
@@ -126,6 +132,15 @@ public class MailboxMessageService implements HashMapChangedListener, PersistedD
     private final Set<DecryptedMailboxListener> decryptedMailboxListeners = new CopyOnWriteArraySet<>();
     private final MailboxMessageList mailboxMessageList = new MailboxMessageList();
     private final Map<String, MailboxItem> mailboxItemsByUid = new HashMap<>();
+    // Shared by all batches. Idle threads time out, so it does not cost anything if there is nothing to decrypt.
+    private final ListeningExecutorService decryptionExecutor = Utilities.getUnboundedListeningExecutorService(
+            "MailboxDecryption-%d",
+            NUM_DECRYPTION_THREADS,
+            60);
+    // Accumulated over all processed mailbox entries since startup
+    private final DecryptionStats totalDecryptionStats = new DecryptionStats();
+    @Getter
+    private volatile long lastBatchEntriesPerSec;
 
     private boolean isBootstrapped;
 
@@ -233,6 +248,26 @@ public class MailboxMessageService implements HashMapChangedListener, PersistedD
         maybeRepublishMailBoxMessages();
     }
 
+    public void shutDown() {
+        decryptionExecutor.shutdown();
+    }
+
+    public int getNumSkippedByReceiversPubKey() {
+        return totalDecryptionStats.numSkippedByReceiversPubKey.get();
+    }
+
+    public int getNumPreviouslyIgnored() {
+        return totalDecryptionStats.numPreviouslyIgnored.get();
+    }
+
+    public int getNumDecrypted() {
+        return totalDecryptionStats.numDecrypted.get();
+    }
+
+    public int getNumFailedDecryption() {
+        return totalDecryptionStats.numFailedDecryption.get();
+    }
+
 
     public void sendEncryptedMailboxMessage(NodeAddress peer,
                                             PubKeyRing peersPubKeyRing,
@@ -348,11 +383,11 @@ public class MailboxMessageService implements HashMapChangedListener, PersistedD
     @Override
     public void onAdded(Collection<ProtectedStorageEntry> protectedStorageEntries) {
         log.trace("## onAdded");
-        Collection<ProtectedMailboxStorageEntry> entries = protectedStorageEntries.stream()
+        List<ProtectedMailboxStorageEntry> entries = protectedStorageEntries.stream()
                 .filter(e -> e instanceof ProtectedMailboxStorageEntry)
                 .map(e -> (ProtectedMailboxStorageEntry) e)
                 .filter(e -> networkNode.getNodeAddress() != null)
-                .collect(Collectors.toSet());
+                .collect(Collectors.toList());
         if (entries.size() > 1) {
             threadedBatchProcessMailboxEntries(entries);
         } else if (entries.size() == 1) {
@@ -385,28 +420,42 @@ public class MailboxMessageService implements HashMapChangedListener, PersistedD
 
     private void processSingleMailboxEntry(Collection<ProtectedMailboxStorageEntry> protectedMailboxStorageEntries) {
         checkArgument(protectedMailboxStorageEntries.size() == 1);
-        var mailboxItems = new ArrayList<>(getMailboxItems(protectedMailboxStorageEntries));
+        DecryptionStats decryptionStats = new DecryptionStats();
+        List<MailboxItem> mailboxItems = getMailboxItems(protectedMailboxStorageEntries, decryptionStats);
+        totalDecryptionStats.add(decryptionStats);
+        ignoredMailboxService.ignore(decryptionStats.newlyIgnored);
         if (mailboxItems.size() == 1) {
             handleMailboxItem(mailboxItems.get(0));
         }
     }
 
-    // We run the batch processing of all mailbox messages we have received at startup in a thread to not block the UI.
-    // For about 1000 messages decryption takes about 1 sec.
-    private void threadedBatchProcessMailboxEntries(Collection<ProtectedMailboxStorageEntry> protectedMailboxStorageEntries) {
-        ListeningExecutorService executor = Utilities.getSingleThreadListeningExecutor("processMailboxEntry-" + new Random().nextInt(1000));
+    // We run the batch processing of all mailbox messages we have received at startup in the decryption thread pool
+    // to not block the UI. The entries are split into chunks so that the decryption is spread over all cores.
+    // For about 1000 messages decryption takes about 1 sec on a single core.
+    // The mailbox items are handled in the order of the entries.
+    private void threadedBatchProcessMailboxEntries(List<ProtectedMailboxStorageEntry> protectedMailboxStorageEntries) {
         long ts = System.currentTimeMillis();
-        ListenableFuture<Set<MailboxItem>> future = executor.submit(() -> {
-            var mailboxItems = getMailboxItems(protectedMailboxStorageEntries);
-            log.info("Batch processing of {} mailbox entries took {} ms",
-                    protectedMailboxStorageEntries.size(),
-                    System.currentTimeMillis() - ts);
-            return mailboxItems;
-        });
-
-        Futures.addCallback(future, new FutureCallback<>() {
-            public void onSuccess(Set<MailboxItem> decryptedMailboxMessageWithEntries) {
-                UserThread.execute(() -> decryptedMailboxMessageWithEntries.forEach(e -> handleMailboxItem(e)));
+        DecryptionStats decryptionStats = new DecryptionStats();
+        List<ListenableFuture<List<MailboxItem>>> futures = Lists.partition(protectedMailboxStorageEntries,
+                DECRYPTION_CHUNK_SIZE).stream()
+                .map(chunk -> decryptChunk(chunk, decryptionStats))
+                .collect(Collectors.toList());
+
+        Futures.addCallback(Futures.allAsList(futures), new FutureCallback<>() {
+            public void onSuccess(List<List<MailboxItem>> mailboxItemsPerChunk) {
+                long duration = Math.max(1, System.currentTimeMillis() - ts);
+                lastBatchEntriesPerSec = protectedMailboxStorageEntries.size() * 1000L / duration;
+                totalDecryptionStats.add(decryptionStats);
+                log.info("Batch processing of {} mailbox entries in {} chunks took {} ms ({} entries/sec). {}",
+                        protectedMailboxStorageEntries.size(),
+                        futures.size(),
+                        duration,
+                        lastBatchEntriesPerSec,
+                        decryptionStats);
+                UserThread.execute(() -> {
+                    ignoredMailboxService.ignore(decryptionStats.newlyIgnored);
+                    mailboxItemsPerChunk.forEach(mailboxItems -> mailboxItems.forEach(e -> handleMailboxItem(e)));
+                });
             }
 
             public void onFailure(@NotNull Throwable throwable) {
@@ -415,39 +464,73 @@ public class MailboxMessageService implements HashMapChangedListener, PersistedD
         }, MoreExecutors.directExecutor());
     }
 
-    private Set<MailboxItem> getMailboxItems(Collection<ProtectedMailboxStorageEntry> protectedMailboxStorageEntries) {
-        Set<MailboxItem> mailboxItems = new HashSet<>();
-        protectedMailboxStorageEntries.stream()
-                .map(this::tryDecryptProtectedMailboxStorageEntry)
-                .forEach(mailboxItems::add);
-        return mailboxItems;
+    // After shutDown the decryption thread pool rejects new tasks. Entries we receive during shut down are then
+    // decrypted sequentially on the calling thread.
+    private ListenableFuture<List<MailboxItem>> decryptChunk(List<ProtectedMailboxStorageEntry> chunk,
+                                                             DecryptionStats decryptionStats) {
+        try {
+            return decryptionExecutor.submit(() -> getMailboxItems(chunk, decryptionStats));
+        } catch (RejectedExecutionException e) {
+            log.warn("Decryption thread pool rejected a chunk of {} mailbox entries. We decrypt them sequentially.",
+                    chunk.size());
+            return Futures.immediateFuture(getMailboxItems(chunk, decryptionStats));
+        }
+    }
+
+    private List<MailboxItem> getMailboxItems(Collection<ProtectedMailboxStorageEntry> protectedMailboxStorageEntries,
+                                              DecryptionStats decryptionStats) {
+        return protectedMailboxStorageEntries.stream()
+                .map(entry -> tryDecryptProtectedMailboxStorageEntry(entry, decryptionStats))
+                .collect(Collectors.toList());
     }
 
-    private MailboxItem tryDecryptProtectedMailboxStorageEntry(ProtectedMailboxStorageEntry protectedMailboxStorageEntry) {
+    // Can be called from the decryption thread pool. We must not change the state of the ignoredMailboxService here as
+    // that is not thread safe. Failed decryption attempts are collected in the decryptionStats and applied on the
+    // user thread.
+    private MailboxItem tryDecryptProtectedMailboxStorageEntry(ProtectedMailboxStorageEntry protectedMailboxStorageEntry,
+                                                               DecryptionStats decryptionStats) {
         PrefixedSealedAndSignedMessage prefixedSealedAndSignedMessage = protectedMailboxStorageEntry
                 .getMailboxStoragePayload()
                 .getPrefixedSealedAndSignedMessage();
         SealedAndSigned sealedAndSigned = prefixedSealedAndSignedMessage.getSealedAndSigned();
         String uid = prefixedSealedAndSignedMessage.getUid();
+        if (!isReceiversPubKeyMine(protectedMailboxStorageEntry)) {
+            // The sender sets our signature pubKey as receiversPubKey (it is required for removing the entry), so if
+            // it does not match the message cannot be for us and we can skip the expensive decryption.
+            decryptionStats.numSkippedByReceiversPubKey.incrementAndGet();
+            return new MailboxItem(protectedMailboxStorageEntry, null);
+        }
         if (ignoredMailboxService.isIgnored(uid)) {
             // We had persisted a past failed decryption attempt on that message so we don't try again and return early
+            decryptionStats.numPreviouslyIgnored.incrementAndGet();
             return new MailboxItem(protectedMailboxStorageEntry, null);
         }
         try {
             DecryptedMessageWithPubKey decryptedMessageWithPubKey = encryptionService.decryptAndVerify(sealedAndSigned);
             checkArgument(decryptedMessageWithPubKey.getNetworkEnvelope() instanceof MailboxMessage);
+            decryptionStats.numDecrypted.incrementAndGet();
             return new MailboxItem(protectedMailboxStorageEntry, decryptedMessageWithPubKey);
         } catch (CryptoException ignore) {
             // Expected if message was not intended for us
             // We persist those entries so at the next startup we do not need to try to decrypt it anymore
-            ignoredMailboxService.ignore(uid, protectedMailboxStorageEntry.getCreationTimeStamp());
+            decryptionStats.numFailedDecryption.incrementAndGet();
+            decryptionStats.newlyIgnored.put(uid, protectedMailboxStorageEntry.getCreationTimeStamp());
         } catch (ProtobufferException e) {
+            decryptionStats.numFailedDecryption.incrementAndGet();
             log.error(e.toString());
             e.getStackTrace();
+        } catch (RuntimeException e) {
+            // A failure at one entry must not fail the whole chunk, otherwise we would lose the other mailbox items
+            decryptionStats.numFailedDecryption.incrementAndGet();
+            log.error("Decryption of mailbox entry with uid {} failed", uid, e);
         }
         return new MailboxItem(protectedMailboxStorageEntry, null);
     }
 
+    private boolean isReceiversPubKeyMine(ProtectedMailboxStorageEntry protectedMailboxStorageEntry) {
+        return keyRing.getSignatureKeyPair().getPublic().equals(protectedMailboxStorageEntry.getReceiversPubKey());
+    }
+
     private void handleMailboxItem(MailboxItem mailboxItem) {
         String uid = mailboxItem.getUid();
         if (!mailboxItemsByUid.containsKey(uid)) {
@@ -624,4 +707,33 @@ public class MailboxMessageService implements HashMapChangedListener, PersistedD
     private void requestPersistence() {
         persistenceManager.requestPersistence();
     }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // DecryptionStats
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    // Shared by the chunks of a batch, so all fields need to be thread safe.
+    private static class DecryptionStats {
+        private final AtomicInteger numSkippedByReceiversPubKey = new AtomicInteger();
+        private final AtomicInteger numPreviouslyIgnored = new AtomicInteger();
+        private final AtomicInteger numDecrypted = new AtomicInteger();
+        private final AtomicInteger numFailedDecryption = new AtomicInteger();
+        private final Map<String, Long> newlyIgnored = new ConcurrentHashMap<>();
+
+        private void add(DecryptionStats decryptionStats) {
+            numSkippedByReceiversPubKey.addAndGet(decryptionStats.numSkippedByReceiversPubKey.get());
+            numPreviouslyIgnored.addAndGet(decryptionStats.numPreviouslyIgnored.get());
+            numDecrypted.addAndGet(decryptionStats.numDecrypted.get());
+            numFailedDecryption.addAndGet(decryptionStats.numFailedDecryption.get());
+        }
+
+        @Override
+        public String toString() {
+            return "Skipped by receiversPubKey: " + numSkippedByReceiversPubKey +
+                    ", previously ignored: " + numPreviouslyIgnored +
+                    ", decrypted: " + numDecrypted +
+                    ", failed decryption: " + numFailedDecryption;
+        }
+    }
 }
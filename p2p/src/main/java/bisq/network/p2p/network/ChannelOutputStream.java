@@ -0,0 +1,96 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.network;
+
+import java.net.SocketTimeoutException;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+
+import org.jetbrains.annotations.Nullable;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * OutputStream for a non-blocking SocketChannel as used by the NioReaderPool. If the send buffer of the socket is
+ * full we wait until the channel gets writable again, so for the writer thread it behaves like the output stream of a
+ * blocking socket.
+ */
+@NotThreadSafe
+class ChannelOutputStream extends OutputStream {
+    private final SocketChannel channel;
+    private final long writeTimeoutMs;
+    // Only opened if a write could not be completed at once, which is rare.
+    @Nullable
+    private Selector writeSelector;
+
+    ChannelOutputStream(SocketChannel channel, long writeTimeoutMs) {
+        this.channel = channel;
+        this.writeTimeoutMs = writeTimeoutMs;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, offset, length);
+        while (buffer.hasRemaining()) {
+            if (channel.write(buffer) == 0) {
+                awaitWritable();
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (writeSelector != null) {
+                writeSelector.close();
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void awaitWritable() throws IOException {
+        if (writeSelector == null) {
+            writeSelector = Selector.open();
+            channel.register(writeSelector, SelectionKey.OP_WRITE);
+        }
+        int numSelected = writeSelector.select(writeTimeoutMs);
+        writeSelector.selectedKeys().clear();
+        if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedIOException("Writer thread got interrupted");
+        }
+        if (numSelected == 0 && !channel.isOpen()) {
+            throw new IOException("Channel got closed");
+        }
+        if (numSelected == 0) {
+            throw new SocketTimeoutException("Channel was not writable for " + writeTimeoutMs + " ms");
+        }
+    }
+}
@@ -34,6 +34,7 @@ import bisq.network.p2p.storage.payload.PersistableNetworkPayload;
 import bisq.common.Proto;
 import bisq.common.UserThread;
 import bisq.common.app.Capabilities;
+import bisq.common.app.Capability;
 import bisq.common.app.HasCapabilities;
 import bisq.common.app.Version;
 import bisq.common.config.Config;
@@ -47,7 +48,6 @@ import com.google.protobuf.InvalidProtocolBufferException;
 import javax.inject.Inject;
 
 import com.google.common.util.concurrent.MoreExecutors;
-import com.google.common.util.concurrent.Uninterruptibles;
 
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleObjectProperty;
@@ -56,11 +56,14 @@ import java.net.Socket;
 import java.net.SocketException;
 import java.net.SocketTimeoutException;
 
+import java.nio.channels.SocketChannel;
+
 import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InvalidClassException;
 import java.io.OptionalDataException;
+import java.io.OutputStream;
 import java.io.StreamCorruptedException;
 
 import java.util.ArrayList;
@@ -109,11 +112,21 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
     private static final int MAX_PERMITTED_MESSAGE_SIZE = 10 * 1024 * 1024;             // 10 MB (425 offers resulted in about 660 kb, mailbox msg will add more to it) offer has usually 2 kb, mailbox 3kb.
     //TODO decrease limits again after testing
     private static final int SOCKET_TIMEOUT = (int) TimeUnit.SECONDS.toMillis(180);
+    // Max. time we wait at shutdown until the CloseConnectionMessage is written
+    private static final long SEND_CLOSE_MSG_TIMEOUT_MS = 1000;
 
     public static int getPermittedMessageSize() {
         return PERMITTED_MESSAGE_SIZE;
     }
 
+    static int getMaxPermittedMessageSize() {
+        return MAX_PERMITTED_MESSAGE_SIZE;
+    }
+
+    static int getSocketTimeout() {
+        return SOCKET_TIMEOUT;
+    }
+
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Class fields
@@ -132,9 +145,14 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
     private final ConnectionState connectionState;
     @Getter
     private final ConnectionStatistics connectionStatistics;
+    // If set and the socket has a channel the inbound messages are read by the selector threads of the pool instead
+    // of a reader thread of that connection.
+    @Nullable
+    private final NioReaderPool nioReaderPool;
 
     // set in init
-    private SynchronizedProtoOutputStream protoOutputStream;
+    private ProtoOutputStream protoOutputStream;
+    private OutboundMessageQueue outboundMessageQueue;
 
     // mutable data, set from other threads but not changed internally.
     @Getter
@@ -146,7 +164,6 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
     private final ObjectProperty<NodeAddress> peersNodeAddressProperty = new SimpleObjectProperty<>();
     private final List<Long> messageTimeStamps = new ArrayList<>();
     private final CopyOnWriteArraySet<MessageListener> messageListeners = new CopyOnWriteArraySet<>();
-    private volatile long lastSendTimeStamp = 0;
     // We use a weak reference here to ensure that no connection causes a memory leak in case it get closed without
     // the shutDown being called.
     private final CopyOnWriteArraySet<WeakReference<SupportedCapabilitiesListener>> capabilitiesListeners = new CopyOnWriteArraySet<>();
@@ -167,10 +184,12 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
                ConnectionListener connectionListener,
                @Nullable NodeAddress peersNodeAddress,
                NetworkProtoResolver networkProtoResolver,
-               @Nullable NetworkFilter networkFilter) {
+               @Nullable NetworkFilter networkFilter,
+               @Nullable NioReaderPool nioReaderPool) {
         this.socket = socket;
         this.connectionListener = connectionListener;
         this.networkFilter = networkFilter;
+        this.nioReaderPool = nioReaderPool;
         uid = UUID.randomUUID().toString();
         statistic = new Statistic();
 
@@ -184,16 +203,50 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
 
     private void init(@Nullable NodeAddress peersNodeAddress) {
         try {
-            socket.setSoTimeout(SOCKET_TIMEOUT);
+            SocketChannel socketChannel = nioReaderPool != null ? socket.getChannel() : null;
+            if (socketChannel != null) {
+                // The selector needs a non-blocking channel, so we cannot use the streams of the socket anymore.
+                socketChannel.configureBlocking(false);
+            } else {
+                socket.setSoTimeout(SOCKET_TIMEOUT);
+            }
             // Need to access first the ObjectOutputStream otherwise the ObjectInputStream would block
             // See: https://stackoverflow.com/questions/5658089/java-creating-a-new-objectinputstream-blocks/5658109#5658109
             // When you construct an ObjectInputStream, in the constructor the class attempts to read a header that
             // the associated ObjectOutputStream on the other end of the connection has written.
             // It will not return until that header has been read.
-            protoOutputStream = new SynchronizedProtoOutputStream(socket.getOutputStream(), statistic);
-            protoInputStream = socket.getInputStream();
-            // We create a thread for handling inputStream data
-            singleThreadExecutor.submit(this);
+            OutputStream outputStream = socketChannel != null ?
+                    new ChannelOutputStream(socketChannel, SOCKET_TIMEOUT) :
+                    socket.getOutputStream();
+            protoOutputStream = new ProtoOutputStream(outputStream, statistic);
+            // Only the writer thread of the outboundMessageQueue writes to the protoOutputStream
+            outboundMessageQueue = new OutboundMessageQueue("Connection-writer-" + uid,
+                    protoOutputStream,
+                    () -> capabilities.containsAll(Capability.BUNDLE_OF_ENVELOPES),
+                    getSendMsgThrottleTrigger(),
+                    getSendMsgThrottleSleep() / Math.max(1, getSendMsgThrottleTrigger()),
+                    new OutboundMessageQueue.Listener() {
+                        @Override
+                        public void onMessagesSent(List<NetworkEnvelope> networkEnvelopes,
+                                                   int serializedSize,
+                                                   long durationSinceQueued) {
+                            UserThread.execute(() -> networkEnvelopes.forEach(networkEnvelope ->
+                                    messageListeners.forEach(e -> e.onMessageSent(networkEnvelope, Connection.this))));
+                            UserThread.execute(() -> connectionStatistics.addSendMsgMetrics(durationSinceQueued, serializedSize));
+                        }
+
+                        @Override
+                        public void onWriteFailed(Throwable throwable) {
+                            handleException(throwable);
+                        }
+                    });
+            if (socketChannel != null) {
+                nioReaderPool.register(socketChannel, this);
+            } else {
+                protoInputStream = socket.getInputStream();
+                // We create a thread for handling inputStream data
+                singleThreadExecutor.submit(this);
+            }
 
             if (peersNodeAddress != null) {
                 setPeersNodeAddress(peersNodeAddress);
@@ -216,9 +269,9 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
         return capabilities;
     }
 
-    // Called from various threads
+    // Called from various threads. The message is only added to the outbound queue, so the caller does not get
+    // blocked by writing to the socket or by the rate limit.
     public void sendMessage(NetworkEnvelope networkEnvelope) {
-        long ts = System.currentTimeMillis();
         log.debug(">> Send networkEnvelope of type: {}", networkEnvelope.getClass().getSimpleName());
 
         if (stopped) {
@@ -237,26 +290,15 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
             log.debug("Capability for networkEnvelope is required but not supported");
             return;
         }
-        int networkEnvelopeSize = networkEnvelope.toProtoNetworkEnvelope().getSerializedSize();
-        try {
-            // Throttle outbound network_messages
-            long now = System.currentTimeMillis();
-            long elapsed = now - lastSendTimeStamp;
-            if (elapsed < getSendMsgThrottleTrigger()) {
-                log.debug("We got 2 sendMessage requests in less than {} ms. We set the thread to sleep " +
-                                "for {} ms to avoid flooding our peer. lastSendTimeStamp={}, now={}, elapsed={}, networkEnvelope={}",
-                        getSendMsgThrottleTrigger(), getSendMsgThrottleSleep(), lastSendTimeStamp, now, elapsed,
-                        networkEnvelope.getClass().getSimpleName());
-
-                Thread.sleep(getSendMsgThrottleSleep());
-            }
 
-            lastSendTimeStamp = now;
-
-            if (!stopped) {
-                protoOutputStream.writeEnvelope(networkEnvelope);
-                UserThread.execute(() -> messageListeners.forEach(e -> e.onMessageSent(networkEnvelope, this)));
-                UserThread.execute(() -> connectionStatistics.addSendMsgMetrics(System.currentTimeMillis() - ts, networkEnvelopeSize));
+        try {
+            // We must not block the caller (usually the UserThread) by a slow peer. If the peer does not read our
+            // messages fast enough to keep the queue from filling up we drop the message and close the connection.
+            if (!outboundMessageQueue.offer(networkEnvelope) && !stopped) {
+                log.warn("The outbound queue of {} messages is full. We drop the message and close the connection. " +
+                                "networkEnvelope={}, connection={}",
+                        outboundMessageQueue.size(), networkEnvelope.getClass().getSimpleName(), this);
+                shutDown(CloseConnectionReason.SEND_MSG_TIMEOUT);
             }
         } catch (Throwable t) {
             handleException(t);
@@ -479,11 +521,18 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
                     try {
                         String reason = closeConnectionReason == CloseConnectionReason.RULE_VIOLATION ?
                                 getRuleViolation().name() : closeConnectionReason.name();
-                        sendMessage(new CloseConnectionMessage(reason));
-
                         stopped = true;
 
-                        Uninterruptibles.sleepUninterruptibly(200, TimeUnit.MILLISECONDS);
+                        // The close message is sent independent of the rate limit. At an intended close like the app
+                        // shutdown the queued messages are written first, as their senders consider them as sent
+                        // already. Otherwise the close message is sent ahead of them and they get dropped.
+                        if (outboundMessageQueue != null &&
+                                !outboundMessageQueue.sendLastMessage(new CloseConnectionMessage(reason),
+                                        closeConnectionReason,
+                                        SEND_CLOSE_MSG_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                            log.info("CloseConnectionMessage was not sent within {} ms. connection={}",
+                                    SEND_CLOSE_MSG_TIMEOUT_MS, this);
+                        }
                     } catch (Throwable t) {
                         log.error(t.getMessage());
                         t.printStackTrace();
@@ -515,12 +564,17 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
             log.error("Exception at shutdown. " + e.getMessage());
             e.printStackTrace();
         } finally {
+            if (outboundMessageQueue != null) {
+                outboundMessageQueue.shutDown();
+            }
             protoOutputStream.onConnectionShutdown();
 
             capabilitiesListeners.clear();
 
             try {
-                protoInputStream.close();
+                if (protoInputStream != null) {
+                    protoInputStream.close();
+                }
             } catch (IOException e) {
                 log.error(e.getMessage());
                 e.printStackTrace();
@@ -739,119 +793,171 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
                         return;
                     }
 
-                    if (networkFilter != null &&
-                            peersNodeAddressOptional.isPresent() &&
-                            networkFilter.isPeerBanned(peersNodeAddressOptional.get())) {
-                        reportInvalidRequest(RuleViolation.PEER_BANNED);
-                        return;
+                    // Throttle inbound network_messages
+                    long throttleDelay = getInboundThrottleDelay(ts);
+                    if (throttleDelay > 0) {
+                        Thread.sleep(throttleDelay);
                     }
 
-                    // Throttle inbound network_messages
-                    long now = System.currentTimeMillis();
-                    long elapsed = now - lastReadTimeStamp;
-                    if (elapsed < 10) {
-                        log.debug("We got 2 network_messages received in less than 10 ms. We set the thread to sleep " +
-                                        "for 20 ms to avoid getting flooded by our peer. lastReadTimeStamp={}, now={}, elapsed={}",
-                                lastReadTimeStamp, now, elapsed);
-                        Thread.sleep(20);
+                    if (!processProto(proto, ts)) {
+                        return;
                     }
+                } catch (Throwable t) {
+                    handleReadException(t);
+                }
+            }
+        } catch (Throwable t) {
+            handleException(t);
+        }
+    }
 
-                    NetworkEnvelope networkEnvelope = networkProtoResolver.fromProto(proto);
-                    lastReadTimeStamp = now;
-                    log.debug("<< Received networkEnvelope of type: {}", networkEnvelope.getClass().getSimpleName());
-                    int size = proto.getSerializedSize();
+    // Applies the checks on a received message and delivers it to the message listeners.
+    // Returns false if we should stop reading from that connection.
+    private boolean processProto(protobuf.NetworkEnvelope proto, long ts) throws Exception {
+        if (networkFilter != null &&
+                peersNodeAddressOptional.isPresent() &&
+                networkFilter.isPeerBanned(peersNodeAddressOptional.get())) {
+            reportInvalidRequest(RuleViolation.PEER_BANNED);
+            return false;
+        }
 
-                    // We want to track the size of each object even if it is invalid data
-                    statistic.addReceivedBytes(size);
+        NetworkEnvelope networkEnvelope = networkProtoResolver.fromProto(proto);
+        lastReadTimeStamp = ts;
+        log.debug("<< Received networkEnvelope of type: {}", networkEnvelope.getClass().getSimpleName());
+        int size = proto.getSerializedSize();
 
-                    // We want to track the network_messages also before the checks, so do it early...
-                    statistic.addReceivedMessage(networkEnvelope);
+        // We want to track the size of each object even if it is invalid data
+        statistic.addReceivedBytes(size);
 
-                    // First we check the size
-                    boolean exceeds;
-                    if (networkEnvelope instanceof ExtendedDataSizePermission) {
-                        exceeds = size > MAX_PERMITTED_MESSAGE_SIZE;
-                    } else {
-                        exceeds = size > PERMITTED_MESSAGE_SIZE;
-                    }
+        // We want to track the network_messages also before the checks, so do it early...
+        statistic.addReceivedMessage(networkEnvelope);
 
-                    if (networkEnvelope instanceof AddPersistableNetworkPayloadMessage &&
-                            !((AddPersistableNetworkPayloadMessage) networkEnvelope).getPersistableNetworkPayload().verifyHashSize()) {
-                        log.warn("PersistableNetworkPayload.verifyHashSize failed. hashSize={}; object={}",
-                                ((AddPersistableNetworkPayloadMessage) networkEnvelope).getPersistableNetworkPayload().getHash().length,
-                                Utilities.toTruncatedString(proto));
-                        if (reportInvalidRequest(RuleViolation.MAX_MSG_SIZE_EXCEEDED))
-                            return;
-                    }
+        // First we check the size
+        boolean exceeds;
+        if (networkEnvelope instanceof ExtendedDataSizePermission) {
+            exceeds = size > MAX_PERMITTED_MESSAGE_SIZE;
+        } else {
+            exceeds = size > PERMITTED_MESSAGE_SIZE;
+        }
 
-                    if (exceeds) {
-                        log.warn("size > MAX_MSG_SIZE. size={}; object={}", size, Utilities.toTruncatedString(proto));
+        if (networkEnvelope instanceof AddPersistableNetworkPayloadMessage &&
+                !((AddPersistableNetworkPayloadMessage) networkEnvelope).getPersistableNetworkPayload().verifyHashSize()) {
+            log.warn("PersistableNetworkPayload.verifyHashSize failed. hashSize={}; object={}",
+                    ((AddPersistableNetworkPayloadMessage) networkEnvelope).getPersistableNetworkPayload().getHash().length,
+                    Utilities.toTruncatedString(proto));
+            if (reportInvalidRequest(RuleViolation.MAX_MSG_SIZE_EXCEEDED))
+                return false;
+        }
 
-                        if (reportInvalidRequest(RuleViolation.MAX_MSG_SIZE_EXCEEDED))
-                            return;
-                    }
+        if (exceeds) {
+            log.warn("size > MAX_MSG_SIZE. size={}; object={}", size, Utilities.toTruncatedString(proto));
 
-                    if (violatesThrottleLimit() && reportInvalidRequest(RuleViolation.THROTTLE_LIMIT_EXCEEDED))
-                        return;
+            if (reportInvalidRequest(RuleViolation.MAX_MSG_SIZE_EXCEEDED))
+                return false;
+        }
 
-                    // Check P2P network ID
-                    if (proto.getMessageVersion() != Version.getP2PMessageVersion()
-                            && reportInvalidRequest(RuleViolation.WRONG_NETWORK_ID)) {
-                        log.warn("RuleViolation.WRONG_NETWORK_ID. version of message={}, app version={}, " +
-                                        "proto.toTruncatedString={}", proto.getMessageVersion(),
-                                Version.getP2PMessageVersion(),
-                                Utilities.toTruncatedString(proto.toString()));
-                        return;
-                    }
+        if (violatesThrottleLimit() && reportInvalidRequest(RuleViolation.THROTTLE_LIMIT_EXCEEDED))
+            return false;
 
-                    boolean causedShutDown = maybeHandleSupportedCapabilitiesMessage(networkEnvelope);
-                    if (causedShutDown) {
-                        return;
-                    }
+        // Check P2P network ID
+        if (proto.getMessageVersion() != Version.getP2PMessageVersion()
+                && reportInvalidRequest(RuleViolation.WRONG_NETWORK_ID)) {
+            log.warn("RuleViolation.WRONG_NETWORK_ID. version of message={}, app version={}, " +
+                            "proto.toTruncatedString={}", proto.getMessageVersion(),
+                    Version.getP2PMessageVersion(),
+                    Utilities.toTruncatedString(proto.toString()));
+            return false;
+        }
 
-                    if (networkEnvelope instanceof CloseConnectionMessage) {
-                        // If we get a CloseConnectionMessage we shut down
-                        log.debug("CloseConnectionMessage received. Reason={}\n\t" +
-                                "connection={}", proto.getCloseConnectionMessage().getReason(), this);
+        boolean causedShutDown = maybeHandleSupportedCapabilitiesMessage(networkEnvelope);
+        if (causedShutDown) {
+            return false;
+        }
 
-                        if (CloseConnectionReason.PEER_BANNED.name().equals(proto.getCloseConnectionMessage().getReason())) {
-                            log.warn("We got shut down because we are banned by the other peer. " +
-                                    "(InputHandler.run CloseConnectionMessage). Peer: {}", getPeersNodeAddressOptional());
-                        }
-                        shutDown(CloseConnectionReason.CLOSE_REQUESTED_BY_PEER);
-                        return;
-                    } else if (!stopped) {
-                        // We don't want to get the activity ts updated by ping/pong msg
-                        if (!(networkEnvelope instanceof KeepAliveMessage))
-                            statistic.updateLastActivityTimestamp();
-
-                        // If SendersNodeAddressMessage we do some verifications and apply if successful,
-                        // otherwise we return false.
-                        if (networkEnvelope instanceof SendersNodeAddressMessage &&
-                                !processSendersNodeAddressMessage((SendersNodeAddressMessage) networkEnvelope)) {
-                            return;
-                        }
+        if (networkEnvelope instanceof CloseConnectionMessage) {
+            // If we get a CloseConnectionMessage we shut down
+            log.debug("CloseConnectionMessage received. Reason={}\n\t" +
+                    "connection={}", proto.getCloseConnectionMessage().getReason(), this);
 
-                        onMessage(networkEnvelope, this);
-                        UserThread.execute(() -> connectionStatistics.addReceivedMsgMetrics(System.currentTimeMillis() - ts, size));
-                    }
-                } catch (InvalidClassException e) {
-                    log.error(e.getMessage());
-                    e.printStackTrace();
-                    reportInvalidRequest(RuleViolation.INVALID_CLASS);
-                } catch (ProtobufferException | NoClassDefFoundError | InvalidProtocolBufferException e) {
-                    log.error(e.getMessage());
-                    e.printStackTrace();
-                    reportInvalidRequest(RuleViolation.INVALID_DATA_TYPE);
-                } catch (Throwable t) {
-                    handleException(t);
-                }
+            if (CloseConnectionReason.PEER_BANNED.name().equals(proto.getCloseConnectionMessage().getReason())) {
+                log.warn("We got shut down because we are banned by the other peer. " +
+                        "(InputHandler.run CloseConnectionMessage). Peer: {}", getPeersNodeAddressOptional());
             }
-        } catch (Throwable t) {
+            shutDown(CloseConnectionReason.CLOSE_REQUESTED_BY_PEER);
+            return false;
+        } else if (!stopped) {
+            // We don't want to get the activity ts updated by ping/pong msg
+            if (!(networkEnvelope instanceof KeepAliveMessage))
+                statistic.updateLastActivityTimestamp();
+
+            // If SendersNodeAddressMessage we do some verifications and apply if successful,
+            // otherwise we return false.
+            if (networkEnvelope instanceof SendersNodeAddressMessage &&
+                    !processSendersNodeAddressMessage((SendersNodeAddressMessage) networkEnvelope)) {
+                return false;
+            }
+
+            onMessage(networkEnvelope, this);
+            UserThread.execute(() -> connectionStatistics.addReceivedMsgMetrics(System.currentTimeMillis() - ts, size));
+        }
+        return true;
+    }
+
+    // Returns the time in ms we delay the processing of the next message to avoid getting flooded by our peer
+    long getInboundThrottleDelay(long now) {
+        long elapsed = now - lastReadTimeStamp;
+        if (elapsed < 10) {
+            log.debug("We got 2 network_messages received in less than 10 ms. We delay the processing " +
+                            "for 20 ms to avoid getting flooded by our peer. lastReadTimeStamp={}, now={}, elapsed={}",
+                    lastReadTimeStamp, now, elapsed);
+            return 20;
+        }
+        return 0;
+    }
+
+    private void handleReadException(Throwable t) {
+        if (t instanceof InvalidClassException) {
+            log.error(t.getMessage());
+            t.printStackTrace();
+            reportInvalidRequest(RuleViolation.INVALID_CLASS);
+        } else if (t instanceof ProtobufferException ||
+                t instanceof NoClassDefFoundError ||
+                t instanceof InvalidProtocolBufferException) {
+            log.error(t.getMessage());
+            t.printStackTrace();
+            reportInvalidRequest(RuleViolation.INVALID_DATA_TYPE);
+        } else {
             handleException(t);
         }
     }
 
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // NioReaderPool callbacks, called from the selector thread the connection is registered at
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    // Returns false if we should stop reading from that connection
+    boolean onProtoReceived(protobuf.NetworkEnvelope proto, long ts) {
+        try {
+            return processProto(proto, ts) && !stopped;
+        } catch (Throwable t) {
+            handleReadException(t);
+            return !stopped;
+        }
+    }
+
+    void onReadFailed(Throwable throwable) {
+        handleReadException(throwable);
+    }
+
+    void onEndOfStream() {
+        if (stopped) {
+            return;
+        }
+        log.warn("Got EOF at the channel. That is expected if client got stopped without proper shutdown.");
+        shutDown(CloseConnectionReason.NO_PROTO_BUFFER_ENV);
+    }
+
     public boolean maybeHandleSupportedCapabilitiesMessage(NetworkEnvelope networkEnvelope) {
         if (!(networkEnvelope instanceof SupportedCapabilitiesMessage)) {
             return false;
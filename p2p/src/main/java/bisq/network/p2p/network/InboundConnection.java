@@ -29,6 +29,15 @@ public class InboundConnection extends Connection {
                              ConnectionListener connectionListener,
                              NetworkProtoResolver networkProtoResolver,
                              @Nullable NetworkFilter networkFilter) {
-        super(socket, messageListener, connectionListener, null, networkProtoResolver, networkFilter);
+        this(socket, messageListener, connectionListener, networkProtoResolver, networkFilter, null);
+    }
+
+    InboundConnection(Socket socket,
+                      MessageListener messageListener,
+                      ConnectionListener connectionListener,
+                      NetworkProtoResolver networkProtoResolver,
+                      @Nullable NetworkFilter networkFilter,
+                      @Nullable NioReaderPool nioReaderPool) {
+        super(socket, messageListener, connectionListener, null, networkProtoResolver, networkFilter, nioReaderPool);
     }
 }
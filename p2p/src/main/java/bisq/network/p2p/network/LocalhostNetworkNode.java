@@ -22,9 +22,13 @@ import bisq.network.p2p.NodeAddress;
 import bisq.common.UserThread;
 import bisq.common.proto.network.NetworkProtoResolver;
 
+import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
 
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
 import java.io.IOException;
 
 import java.util.concurrent.TimeUnit;
@@ -41,6 +45,8 @@ public class LocalhostNetworkNode extends NetworkNode {
     private static int simulateTorDelayTorNode = 500;
     private static int simulateTorDelayHiddenService = 500;
 
+    private final boolean useNioNetworkEngine;
+
     public static void setSimulateTorDelayTorNode(int simulateTorDelayTorNode) {
         LocalhostNetworkNode.simulateTorDelayTorNode = simulateTorDelayTorNode;
     }
@@ -57,7 +63,15 @@ public class LocalhostNetworkNode extends NetworkNode {
     public LocalhostNetworkNode(int port,
                                 NetworkProtoResolver networkProtoResolver,
                                 @Nullable NetworkFilter networkFilter) {
+        this(port, networkProtoResolver, networkFilter, false);
+    }
+
+    public LocalhostNetworkNode(int port,
+                                NetworkProtoResolver networkProtoResolver,
+                                @Nullable NetworkFilter networkFilter,
+                                boolean useNioNetworkEngine) {
         super(port, networkProtoResolver, networkFilter);
+        this.useNioNetworkEngine = useNioNetworkEngine;
     }
 
     @Override
@@ -66,6 +80,13 @@ public class LocalhostNetworkNode extends NetworkNode {
             addSetupListener(setupListener);
 
         createExecutorService();
+        if (useNioNetworkEngine) {
+            try {
+                createNioReaderPool();
+            } catch (IOException e) {
+                log.error("Could not create the NioReaderPool. We use a reader thread per connection.", e);
+            }
+        }
 
         // simulate tor connection delay
         UserThread.runAfter(() -> {
@@ -76,7 +97,7 @@ public class LocalhostNetworkNode extends NetworkNode {
             // simulate tor HS publishing delay
             UserThread.runAfter(() -> {
                 try {
-                    startServer(new ServerSocket(servicePort));
+                    startServer(createServerSocket());
                 } catch (IOException e) {
                     e.printStackTrace();
                     log.error("Exception at startServer: " + e.getMessage());
@@ -89,6 +110,21 @@ public class LocalhostNetworkNode extends NetworkNode {
     // Called from NetworkNode thread
     @Override
     protected Socket createSocket(NodeAddress peerNodeAddress) throws IOException {
+        if (nioReaderPool != null) {
+            // The NioReaderPool requires sockets with a channel
+            InetSocketAddress address = new InetSocketAddress(peerNodeAddress.getHostName(), peerNodeAddress.getPort());
+            return SocketChannel.open(address).socket();
+        }
         return new Socket(peerNodeAddress.getHostName(), peerNodeAddress.getPort());
     }
+
+    private ServerSocket createServerSocket() throws IOException {
+        if (nioReaderPool != null) {
+            // Accepted sockets have a channel if the server socket has one
+            ServerSocketChannel serverSocketChannel = ServerSocketChannel.open();
+            serverSocketChannel.bind(new InetSocketAddress(servicePort));
+            return serverSocketChannel.socket();
+        }
+        return new ServerSocket(servicePort);
+    }
 }
@@ -78,6 +78,9 @@ public abstract class NetworkNode implements MessageListener {
     final CopyOnWriteArraySet<SetupListener> setupListeners = new CopyOnWriteArraySet<>();
     ListeningExecutorService executorService;
     private Server server;
+    // Only set if the subclass uses sockets with channels (see createNioReaderPool)
+    @Nullable
+    NioReaderPool nioReaderPool;
 
     private volatile boolean shutDownInProgress;
     // accessed from different threads
@@ -196,7 +199,8 @@ public abstract class NetworkNode implements MessageListener {
                                 connectionListener,
                                 peersNodeAddress,
                                 networkProtoResolver,
-                                networkFilter);
+                                networkFilter,
+                                nioReaderPool);
 
                         if (log.isDebugEnabled()) {
                             log.debug("\n\n%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%\n" +
@@ -335,6 +339,10 @@ public abstract class NetworkNode implements MessageListener {
                 server.shutDown();
                 server = null;
             }
+            if (nioReaderPool != null) {
+                nioReaderPool.shutDown();
+                nioReaderPool = null;
+            }
 
             Set<Connection> allConnections = getAllConnections();
             int numConnections = allConnections.size();
@@ -435,6 +443,14 @@ public abstract class NetworkNode implements MessageListener {
             executorService = Utilities.getListeningExecutorService("NetworkNode-" + servicePort, 15, 30, 60);
     }
 
+    // The inbound messages of all connections get read by the few selector threads of the pool instead of a reader
+    // thread per connection. Only usable if the sockets are created from channels, which is not the case for the
+    // sockets of the SOCKS proxy of Tor.
+    void createNioReaderPool() throws IOException {
+        if (nioReaderPool == null)
+            nioReaderPool = new NioReaderPool("NioReader-" + servicePort, NioReaderPool.DEFAULT_NUM_SELECTORS);
+    }
+
     void startServer(ServerSocket serverSocket) {
         final ConnectionListener connectionListener = new ConnectionListener() {
             @Override
@@ -465,7 +481,8 @@ public abstract class NetworkNode implements MessageListener {
                 NetworkNode.this,
                 connectionListener,
                 networkProtoResolver,
-                networkFilter);
+                networkFilter,
+                nioReaderPool);
         executorService.submit(server);
     }
 
@@ -0,0 +1,439 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.network;
+
+import bisq.common.util.Utilities;
+
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.jetbrains.annotations.Nullable;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Reads the inbound messages of many connections with a few selector threads instead of a blocking reader thread per
+ * connection. Each connection is assigned to one selector thread, so the messages of a connection are still processed
+ * in order by a single thread at a time.
+ * <p/>
+ * The messages are framed like with parseDelimitedFrom (varint size prefix). The received bytes are read into pooled
+ * buffers which are only held by a connection as long as it has unprocessed bytes. If the inbound throttle of the
+ * connection applies we stop reading from the channel for the throttle delay instead of sleeping, so the other
+ * connections of the selector thread are not affected.
+ */
+@ThreadSafe
+@Slf4j
+class NioReaderPool {
+    static final int DEFAULT_NUM_SELECTORS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+    static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_POOLED_BUFFERS = 64;
+    // Interval for checking if we have received data within the socket timeout
+    private static final long IDLE_CHECK_INTERVAL_MS = TimeUnit.SECONDS.toMillis(10);
+
+    private final List<SelectorThread> selectorThreads = new ArrayList<>();
+    private final AtomicInteger nextSelectorIndex = new AtomicInteger();
+    private final Queue<ByteBuffer> bufferPool = new ArrayBlockingQueue<>(MAX_POOLED_BUFFERS);
+    private final int maxFrameSize;
+    private final long readTimeoutMs;
+    private volatile boolean stopped;
+
+    NioReaderPool(String name, int numSelectors) throws IOException {
+        this(name, numSelectors, Connection.getMaxPermittedMessageSize(), Connection.getSocketTimeout());
+    }
+
+    NioReaderPool(String name, int numSelectors, int maxFrameSize, long readTimeoutMs) throws IOException {
+        this.maxFrameSize = maxFrameSize;
+        this.readTimeoutMs = readTimeoutMs;
+        for (int i = 0; i < numSelectors; i++) {
+            SelectorThread selectorThread = new SelectorThread(Selector.open(),
+                    Utilities.getSingleThreadExecutor(name + "-" + i));
+            selectorThreads.add(selectorThread);
+            selectorThread.executorService.submit(selectorThread);
+        }
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    // The channel must be in non-blocking mode
+    void register(SocketChannel channel, Connection connection) {
+        int index = Math.floorMod(nextSelectorIndex.getAndIncrement(), selectorThreads.size());
+        SelectorThread selectorThread = selectorThreads.get(index);
+        selectorThread.execute(() -> {
+            ChannelReader channelReader = new ChannelReader(channel, connection, selectorThread);
+            try {
+                channelReader.key = channel.register(selectorThread.selector, SelectionKey.OP_READ, channelReader);
+            } catch (ClosedChannelException e) {
+                connection.onReadFailed(toSocketException(e));
+            }
+        });
+    }
+
+    void shutDown() {
+        stopped = true;
+        selectorThreads.forEach(selectorThread -> {
+            selectorThread.selector.wakeup();
+            selectorThread.executorService.shutdownNow();
+        });
+        bufferPool.clear();
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private ByteBuffer borrowBuffer() {
+        ByteBuffer buffer = bufferPool.poll();
+        return buffer != null ? buffer : ByteBuffer.allocate(READ_BUFFER_SIZE);
+    }
+
+    private void returnBuffer(ByteBuffer buffer) {
+        // Buffers which got enlarged for a large message are not pooled
+        if (buffer.capacity() == READ_BUFFER_SIZE) {
+            buffer.clear();
+            bufferPool.offer(buffer);
+        }
+    }
+
+    // Returns -1 if the buffer does not contain the complete size prefix yet. The position of the buffer is moved
+    // behind the size prefix if it was complete.
+    static int readFrameSize(ByteBuffer buffer) throws StreamCorruptedException {
+        int result = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            byte b = buffer.get();
+            result |= (b & 0x7f) << shift;
+            if (b >= 0) {
+                if (result < 0) {
+                    break;
+                }
+                return result;
+            }
+        }
+        throw new StreamCorruptedException("Malformed size prefix of message");
+    }
+
+    private static SocketException toSocketException(IOException exception) {
+        SocketException socketException = new SocketException(exception.getMessage());
+        socketException.initCause(exception);
+        return socketException;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // SelectorThread
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private class SelectorThread implements Runnable {
+        private final Selector selector;
+        private final ExecutorService executorService;
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        // Only accessed from the selector thread
+        private final List<ChannelReader> pausedReaders = new ArrayList<>();
+        private long lastIdleCheckTimeStamp = System.currentTimeMillis();
+
+        private SelectorThread(Selector selector, ExecutorService executorService) {
+            this.selector = selector;
+            this.executorService = executorService;
+        }
+
+        private void execute(Runnable task) {
+            tasks.add(task);
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!stopped && !Thread.currentThread().isInterrupted()) {
+                    try {
+                        selector.select(getSelectTimeout());
+                        runTasks();
+                        processSelectedKeys();
+                        long now = System.currentTimeMillis();
+                        resumePausedReaders(now);
+                        maybeCloseIdleConnections(now);
+                    } catch (ClosedSelectorException e) {
+                        return;
+                    } catch (Throwable t) {
+                        log.error("Error at selector thread", t);
+                    }
+                }
+            } finally {
+                try {
+                    selector.close();
+                } catch (IOException e) {
+                    log.debug("Closing the selector failed. {}", e.getMessage());
+                }
+            }
+        }
+
+        private long getSelectTimeout() {
+            long now = System.currentTimeMillis();
+            long timeout = IDLE_CHECK_INTERVAL_MS;
+            for (ChannelReader channelReader : pausedReaders) {
+                timeout = Math.min(timeout, channelReader.resumeTimeStamp - now);
+            }
+            // 0 would block without timeout
+            return Math.max(1, timeout);
+        }
+
+        private void runTasks() {
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                task.run();
+            }
+        }
+
+        private void processSelectedKeys() {
+            Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+            while (iterator.hasNext()) {
+                SelectionKey key = iterator.next();
+                iterator.remove();
+                if (key.isValid() && key.isReadable()) {
+                    ((ChannelReader) key.attachment()).onReadable();
+                }
+            }
+        }
+
+        private void resumePausedReaders(long now) {
+            if (pausedReaders.isEmpty()) {
+                return;
+            }
+            List<ChannelReader> toResume = new ArrayList<>();
+            pausedReaders.removeIf(channelReader -> {
+                if (channelReader.resumeTimeStamp <= now) {
+                    toResume.add(channelReader);
+                    return true;
+                }
+                return false;
+            });
+            toResume.forEach(ChannelReader::resume);
+        }
+
+        private void maybeCloseIdleConnections(long now) {
+            if (now - lastIdleCheckTimeStamp < IDLE_CHECK_INTERVAL_MS) {
+                return;
+            }
+            lastIdleCheckTimeStamp = now;
+            List<ChannelReader> idleReaders = new ArrayList<>();
+            selector.keys().forEach(key -> {
+                ChannelReader channelReader = (ChannelReader) key.attachment();
+                if (key.isValid() && !channelReader.paused && now - channelReader.lastReadTimeStamp > readTimeoutMs) {
+                    idleReaders.add(channelReader);
+                }
+            });
+            idleReaders.forEach(channelReader -> {
+                channelReader.stop();
+                channelReader.connection.onReadFailed(new SocketTimeoutException("No data received for " +
+                        (now - channelReader.lastReadTimeStamp) + " ms"));
+            });
+        }
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // ChannelReader
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    // Only accessed from the selector thread the channel is registered at
+    private class ChannelReader {
+        private final SocketChannel channel;
+        private final Connection connection;
+        private final SelectorThread selectorThread;
+        private SelectionKey key;
+        // Holds the received bytes which are not processed yet. Is in write mode outside of processFrames.
+        @Nullable
+        private ByteBuffer buffer;
+        private long lastReadTimeStamp = System.currentTimeMillis();
+        private boolean paused;
+        private long resumeTimeStamp;
+
+        private ChannelReader(SocketChannel channel, Connection connection, SelectorThread selectorThread) {
+            this.channel = channel;
+            this.connection = connection;
+            this.selectorThread = selectorThread;
+        }
+
+        private void onReadable() {
+            if (buffer == null) {
+                buffer = borrowBuffer();
+            }
+
+            int numBytes;
+            try {
+                numBytes = channel.read(buffer);
+            } catch (IOException e) {
+                stop();
+                connection.onReadFailed(toSocketException(e));
+                return;
+            }
+
+            if (numBytes < 0) {
+                stop();
+                connection.onEndOfStream();
+                return;
+            }
+
+            lastReadTimeStamp = System.currentTimeMillis();
+            processFrames();
+        }
+
+        private void processFrames() {
+            ByteBuffer buffer = this.buffer;
+            if (buffer == null) {
+                return;
+            }
+
+            buffer.flip();
+            try {
+                while (buffer.hasRemaining() && !paused && !connection.isStopped()) {
+                    int frameStart = buffer.position();
+                    int frameSize = readFrameSize(buffer);
+                    if (frameSize < 0) {
+                        buffer.position(frameStart);
+                        return;
+                    }
+
+                    if (frameSize > maxFrameSize) {
+                        stop();
+                        connection.onReadFailed(new StreamCorruptedException("Size of message exceeds the max. " +
+                                "permitted size. frameSize=" + frameSize));
+                        return;
+                    }
+
+                    int payloadStart = buffer.position();
+                    if (buffer.remaining() < frameSize) {
+                        buffer.position(frameStart);
+                        buffer = ensureCapacity(buffer, payloadStart - frameStart + frameSize);
+                        return;
+                    }
+
+                    long ts = System.currentTimeMillis();
+                    long throttleDelay = connection.getInboundThrottleDelay(ts);
+                    if (throttleDelay > 0) {
+                        buffer.position(frameStart);
+                        pause(ts + throttleDelay);
+                        return;
+                    }
+
+                    ByteBuffer frame = buffer.slice();
+                    frame.limit(frameSize);
+                    buffer.position(payloadStart + frameSize);
+
+                    protobuf.NetworkEnvelope proto;
+                    try {
+                        proto = protobuf.NetworkEnvelope.parseFrom(frame);
+                    } catch (IOException e) {
+                        // We skip the invalid message. The connection might get closed by the rule violation.
+                        connection.onReadFailed(e);
+                        continue;
+                    }
+
+                    if (!connection.onProtoReceived(proto, ts)) {
+                        stop();
+                        return;
+                    }
+                }
+            } catch (StreamCorruptedException e) {
+                stop();
+                connection.onReadFailed(e);
+            } finally {
+                if (this.buffer != null) {
+                    this.buffer = buffer;
+                    if (!buffer.hasRemaining()) {
+                        returnBuffer(buffer);
+                        this.buffer = null;
+                    } else {
+                        buffer.compact();
+                    }
+                }
+            }
+        }
+
+        // The buffer is in read mode
+        private ByteBuffer ensureCapacity(ByteBuffer buffer, int required) {
+            if (buffer.capacity() >= required) {
+                return buffer;
+            }
+            ByteBuffer enlarged = ByteBuffer.allocate(required);
+            enlarged.put(buffer);
+            enlarged.flip();
+            returnBuffer(buffer);
+            return enlarged;
+        }
+
+        private void pause(long resumeTimeStamp) {
+            if (!key.isValid()) {
+                return;
+            }
+            paused = true;
+            this.resumeTimeStamp = resumeTimeStamp;
+            key.interestOps(0);
+            selectorThread.pausedReaders.add(this);
+        }
+
+        private void resume() {
+            paused = false;
+            if (!key.isValid() || connection.isStopped()) {
+                stop();
+                return;
+            }
+            processFrames();
+            if (!paused && key.isValid()) {
+                key.interestOps(SelectionKey.OP_READ);
+            }
+        }
+
+        private void stop() {
+            key.cancel();
+            selectorThread.pausedReaders.remove(this);
+            if (buffer != null) {
+                returnBuffer(buffer);
+                buffer = null;
+            }
+        }
+    }
+}
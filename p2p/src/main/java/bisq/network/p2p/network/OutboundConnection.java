@@ -32,6 +32,22 @@ public class OutboundConnection extends Connection {
                               NodeAddress peersNodeAddress,
                               NetworkProtoResolver networkProtoResolver,
                               @Nullable NetworkFilter networkFilter) {
-        super(socket, messageListener, connectionListener, peersNodeAddress, networkProtoResolver, networkFilter);
+        this(socket, messageListener, connectionListener, peersNodeAddress, networkProtoResolver, networkFilter, null);
+    }
+
+    OutboundConnection(Socket socket,
+                       MessageListener messageListener,
+                       ConnectionListener connectionListener,
+                       NodeAddress peersNodeAddress,
+                       NetworkProtoResolver networkProtoResolver,
+                       @Nullable NetworkFilter networkFilter,
+                       @Nullable NioReaderPool nioReaderPool) {
+        super(socket,
+                messageListener,
+                connectionListener,
+                peersNodeAddress,
+                networkProtoResolver,
+                networkFilter,
+                nioReaderPool);
     }
 }
@@ -0,0 +1,270 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.network;
+
+import bisq.network.p2p.BundleOfEnvelopes;
+import bisq.network.p2p.storage.messages.BroadcastMessage;
+
+import bisq.common.proto.network.NetworkEnvelope;
+import bisq.common.util.Utilities;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Bounded queue for the outbound messages of a connection. The messages are written by a dedicated writer thread, so
+ * the threads calling Connection.sendMessage do not get blocked by writing to the socket or by the rate limit.
+ * <p/>
+ * The rate limit is applied with a token bucket. While the writer waits for a token further messages get queued up.
+ * Queued broadcast messages are sent together in a BundleOfEnvelopes if the peer supports it.
+ * <p/>
+ * Adding a message never blocks. If the queue is full the message is rejected and the caller closes the connection.
+ * <p/>
+ * The sender of a message gets notified once the message is queued, not once it is written. So if the connection gets
+ * closed for an intended reason like the app shutdown, the queued messages are written before the last message (the
+ * CloseConnectionMessage) without waiting for the rate limit. Otherwise, e.g. at a rule violation, the last message is
+ * sent ahead of the queued messages, which get dropped.
+ */
+@ThreadSafe
+@Slf4j
+class OutboundMessageQueue {
+    static final int MAX_QUEUED_MESSAGES = 1000;
+    // Broadcast messages are usually a few kb, so we stay far below the permitted size of a BundleOfEnvelopes.
+    static final int MAX_ENVELOPES_PER_BUNDLE = 50;
+
+    interface Listener {
+        // Called from the writer thread. If the envelopes were sent as a BundleOfEnvelopes the serializedSize is the
+        // size of the bundle.
+        void onMessagesSent(List<NetworkEnvelope> networkEnvelopes, int serializedSize, long durationSinceQueued);
+
+        // Called from the writer thread. The writer thread stops after a failure.
+        void onWriteFailed(Throwable throwable);
+    }
+
+    private static class QueuedEnvelope {
+        private final NetworkEnvelope networkEnvelope;
+        private final long queuedTimeStamp;
+
+        private QueuedEnvelope(NetworkEnvelope networkEnvelope) {
+            this.networkEnvelope = networkEnvelope;
+            this.queuedTimeStamp = System.currentTimeMillis();
+        }
+    }
+
+    private final ProtoOutputStream protoOutputStream;
+    private final BooleanSupplier peerSupportsBundles;
+    private final Listener listener;
+    private final long refillIntervalNanos;
+    private final int maxTokens;
+    // Not bounded itself, so the last message can always be added. The bound is applied at offer.
+    private final BlockingQueue<QueuedEnvelope> queue = new LinkedBlockingQueue<>();
+    private final ExecutorService writerExecutor;
+    private volatile boolean stopped;
+    @Nullable
+    private volatile QueuedEnvelope lastEnvelope;
+    private volatile boolean writeQueuedMessagesBeforeLastEnvelope;
+    // Counted down when the last message should be sent, so the writer stops waiting for a token
+    private final CountDownLatch closing = new CountDownLatch(1);
+    private final CountDownLatch lastEnvelopeWritten = new CountDownLatch(1);
+
+    // Only accessed from the writer thread
+    private double tokens;
+    private long lastRefillTimeStamp;
+
+    /**
+     * @param refillIntervalMs  Time in ms after which the token bucket gets refilled by 1 token (= 1 message)
+     * @param maxTokens         Capacity of the token bucket, which is the max. number of messages sent in a burst
+     */
+    OutboundMessageQueue(String name,
+                         ProtoOutputStream protoOutputStream,
+                         BooleanSupplier peerSupportsBundles,
+                         long refillIntervalMs,
+                         int maxTokens,
+                         Listener listener) {
+        this.protoOutputStream = protoOutputStream;
+        this.peerSupportsBundles = peerSupportsBundles;
+        this.listener = listener;
+        this.refillIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, refillIntervalMs));
+        this.maxTokens = Math.max(1, maxTokens);
+
+        tokens = this.maxTokens;
+        lastRefillTimeStamp = System.nanoTime();
+        writerExecutor = Utilities.getSingleThreadExecutor(name);
+        writerExecutor.submit(this::writeQueuedMessages);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Adds the message to the queue without blocking. The queue is only full if the peer does not read the messages
+     * fast enough.
+     *
+     * @return False if the queue is full or if the last message has been sent or we got shut down
+     */
+    synchronized boolean offer(NetworkEnvelope networkEnvelope) {
+        if (stopped || lastEnvelope != null || queue.size() >= MAX_QUEUED_MESSAGES) {
+            return false;
+        }
+        return queue.offer(new QueuedEnvelope(networkEnvelope));
+    }
+
+    /**
+     * Sends the given message as the last message without waiting for a token of the rate limit. Further messages get
+     * rejected. If the connection gets closed for an intended reason the queued messages are written before the given
+     * message, otherwise they get dropped. Blocks until the message is written or the timeout is reached.
+     *
+     * @return True if the message got written
+     */
+    boolean sendLastMessage(NetworkEnvelope networkEnvelope,
+                            CloseConnectionReason closeConnectionReason,
+                            long timeout,
+                            TimeUnit unit) throws InterruptedException {
+        synchronized (this) {
+            if (stopped || lastEnvelope != null) {
+                return false;
+            }
+            QueuedEnvelope queuedEnvelope = new QueuedEnvelope(networkEnvelope);
+            writeQueuedMessagesBeforeLastEnvelope = closeConnectionReason.isIntended;
+            lastEnvelope = queuedEnvelope;
+            if (!writeQueuedMessagesBeforeLastEnvelope) {
+                queue.clear();
+            }
+            queue.offer(queuedEnvelope);
+        }
+        closing.countDown();
+        return lastEnvelopeWritten.await(timeout, unit);
+    }
+
+    int size() {
+        return queue.size();
+    }
+
+    void shutDown() {
+        stopped = true;
+        writerExecutor.shutdownNow();
+        queue.clear();
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private void writeQueuedMessages() {
+        try {
+            while (!stopped && !Thread.currentThread().isInterrupted()) {
+                QueuedEnvelope first = queue.take();
+                if (first == lastEnvelope) {
+                    write(List.of(first));
+                    lastEnvelopeWritten.countDown();
+                    return;
+                }
+                // If we got closed while waiting for the token we only write the message if the queued messages
+                // should be written before the last message. Otherwise it got dropped with the cleared queue.
+                if (acquireToken() || writeQueuedMessagesBeforeLastEnvelope) {
+                    write(collectEnvelopes(first));
+                }
+            }
+        } catch (InterruptedException ignore) {
+            // Expected at shutdown
+        } catch (Throwable t) {
+            if (!stopped) {
+                listener.onWriteFailed(t);
+            }
+        }
+    }
+
+    // Returns false if the last message should be sent while we waited for the token. Once closing we do not wait anymore.
+    private boolean acquireToken() throws InterruptedException {
+        refillTokens();
+        if (tokens < 1) {
+            if (closing.await((long) Math.ceil((1 - tokens) * refillIntervalNanos), TimeUnit.NANOSECONDS)) {
+                return false;
+            }
+            refillTokens();
+        }
+        tokens = Math.max(0, tokens - 1);
+        return true;
+    }
+
+    private void refillTokens() {
+        long now = System.nanoTime();
+        tokens = Math.min(maxTokens, tokens + (double) (now - lastRefillTimeStamp) / refillIntervalNanos);
+        lastRefillTimeStamp = now;
+    }
+
+    // If the first message is a broadcast message we add the broadcast messages which are queued up directly after it.
+    // We do not skip other messages to keep the order of the messages.
+    private List<QueuedEnvelope> collectEnvelopes(QueuedEnvelope first) {
+        List<QueuedEnvelope> result = new ArrayList<>();
+        result.add(first);
+        if (!isBundleable(first.networkEnvelope) || !peerSupportsBundles.getAsBoolean()) {
+            return result;
+        }
+
+        QueuedEnvelope next;
+        while (result.size() < MAX_ENVELOPES_PER_BUNDLE &&
+                (next = queue.peek()) != null &&
+                next != lastEnvelope &&
+                isBundleable(next.networkEnvelope)) {
+            // The queue might get cleared concurrently at shutdown, so we only take the envelope we have peeked at
+            if (!queue.remove(next)) {
+                break;
+            }
+            result.add(next);
+        }
+        return result;
+    }
+
+    private static boolean isBundleable(NetworkEnvelope networkEnvelope) {
+        // A BundleOfEnvelopes created by the Broadcaster is sent as it is, we do not nest bundles.
+        return networkEnvelope instanceof BroadcastMessage && !(networkEnvelope instanceof BundleOfEnvelopes);
+    }
+
+    private void write(List<QueuedEnvelope> queuedEnvelopes) {
+        List<NetworkEnvelope> networkEnvelopes = queuedEnvelopes.stream()
+                .map(queuedEnvelope -> queuedEnvelope.networkEnvelope)
+                .collect(Collectors.toList());
+        NetworkEnvelope networkEnvelope = networkEnvelopes.size() == 1 ?
+                networkEnvelopes.get(0) :
+                new BundleOfEnvelopes(new ArrayList<>(networkEnvelopes));
+        if (networkEnvelopes.size() > 1) {
+            log.debug("We send {} queued broadcast messages in a BundleOfEnvelopes", networkEnvelopes.size());
+        }
+
+        int serializedSize = protoOutputStream.writeEnvelope(networkEnvelope);
+        listener.onMessagesSent(networkEnvelopes,
+                serializedSize,
+                System.currentTimeMillis() - queuedEnvelopes.get(0).queuedTimeStamp);
+    }
+}
@@ -21,6 +21,8 @@ import bisq.network.p2p.peers.keepalive.messages.KeepAliveMessage;
 
 import bisq.common.proto.network.NetworkEnvelope;
 
+import com.google.protobuf.CodedOutputStream;
+
 import java.io.IOException;
 import java.io.OutputStream;
 
@@ -32,18 +34,24 @@ import javax.annotation.concurrent.NotThreadSafe;
 @NotThreadSafe
 class ProtoOutputStream {
     private static final Logger log = LoggerFactory.getLogger(ProtoOutputStream.class);
+    private static final int INITIAL_BUFFER_SIZE = 8 * 1024;
+    // Larger messages are rare, so we do not keep such large buffers.
+    private static final int MAX_REUSED_BUFFER_SIZE = 1024 * 1024;
 
     private final OutputStream delegate;
     private final Statistic statistic;
+    // The serialized message is written into that buffer, which is reused for all messages.
+    private byte[] buffer = new byte[INITIAL_BUFFER_SIZE];
 
     ProtoOutputStream(OutputStream delegate, Statistic statistic) {
         this.delegate = delegate;
         this.statistic = statistic;
     }
 
-    void writeEnvelope(NetworkEnvelope envelope) {
+    // Returns the serialized size of the envelope
+    int writeEnvelope(NetworkEnvelope envelope) {
         try {
-            writeEnvelopeOrThrow(envelope);
+            return writeEnvelopeOrThrow(envelope);
         } catch (IOException e) {
             log.error("Failed to write envelope", e);
             throw new BisqRuntimeException("Failed to write envelope", e);
@@ -58,16 +66,37 @@ class ProtoOutputStream {
         }
     }
 
-    private void writeEnvelopeOrThrow(NetworkEnvelope envelope) throws IOException {
+    private int writeEnvelopeOrThrow(NetworkEnvelope envelope) throws IOException {
         protobuf.NetworkEnvelope proto = envelope.toProtoNetworkEnvelope();
-        proto.writeDelimitedTo(delegate);
+        // The serialized size is cached in the proto, so we serialize the message only once.
+        int serializedSize = proto.getSerializedSize();
+        int delimitedSize = CodedOutputStream.computeUInt32SizeNoTag(serializedSize) + serializedSize;
+        byte[] target = getBuffer(delimitedSize);
+        CodedOutputStream codedOutputStream = CodedOutputStream.newInstance(target, 0, delimitedSize);
+        // Same format as used by proto.writeDelimitedTo
+        codedOutputStream.writeUInt32NoTag(serializedSize);
+        proto.writeTo(codedOutputStream);
+        codedOutputStream.checkNoSpaceLeft();
+
+        delegate.write(target, 0, delimitedSize);
         delegate.flush();
 
-        statistic.addSentBytes(proto.getSerializedSize());
+        statistic.addSentBytes(serializedSize);
         statistic.addSentMessage(envelope);
 
         if (!(envelope instanceof KeepAliveMessage)) {
             statistic.updateLastActivityTimestamp();
         }
+        return serializedSize;
+    }
+
+    private byte[] getBuffer(int size) {
+        if (size > MAX_REUSED_BUFFER_SIZE) {
+            return new byte[size];
+        }
+        if (buffer.length < size) {
+            buffer = new byte[Math.min(MAX_REUSED_BUFFER_SIZE, Math.max(size, 2 * buffer.length))];
+        }
+        return buffer;
     }
 }
@@ -47,18 +47,22 @@ class Server implements Runnable {
     private final Set<Connection> connections = new CopyOnWriteArraySet<>();
     private volatile boolean stopped;
     private final NetworkProtoResolver networkProtoResolver;
+    @Nullable
+    private final NioReaderPool nioReaderPool;
 
 
     public Server(ServerSocket serverSocket,
                   MessageListener messageListener,
                   ConnectionListener connectionListener,
                   NetworkProtoResolver networkProtoResolver,
-                  @Nullable NetworkFilter networkFilter) {
+                  @Nullable NetworkFilter networkFilter,
+                  @Nullable NioReaderPool nioReaderPool) {
         this.networkProtoResolver = networkProtoResolver;
         this.serverSocket = serverSocket;
         this.messageListener = messageListener;
         this.connectionListener = connectionListener;
         this.networkFilter = networkFilter;
+        this.nioReaderPool = nioReaderPool;
     }
 
     @Override
@@ -76,7 +80,8 @@ class Server implements Runnable {
                                 messageListener,
                                 connectionListener,
                                 networkProtoResolver,
-                                networkFilter);
+                                networkFilter,
+                                nioReaderPool);
 
                         log.debug("\n\n%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%\n" +
                                 "Server created new inbound connection:"
@@ -31,6 +31,7 @@ import bisq.network.p2p.storage.payload.ProtectedStorageEntry;
 
 import bisq.common.Timer;
 import bisq.common.UserThread;
+import bisq.common.app.Capability;
 import bisq.common.proto.network.NetworkEnvelope;
 import bisq.common.proto.network.NetworkPayload;
 import bisq.common.util.Tuple2;
@@ -121,10 +122,18 @@ class RequestDataHandler implements MessageListener {
         if (!stopped) {
             GetDataRequest getDataRequest;
 
+            // If we know that the peer supports it we send a bloom filter of our known hashes instead of the full list.
+            // We only trust the capabilities we got from the peer. The seed node config does not carry capabilities
+            // and seed nodes are not in the reported or persisted peers, so for the preliminary request to a seed node
+            // we are not connected to yet we send the full list. A seed node not supporting the filter would ignore it
+            // and respond with all its data. Once connected, the capabilities from the connection are used.
+            boolean useKnownHashesFilter = peerManager.peerHasCapability(nodeAddress,
+                    Capability.GET_DATA_KNOWN_HASHES_FILTER);
             if (isPreliminaryDataRequest)
-                getDataRequest = dataStorage.buildPreliminaryGetDataRequest(nonce);
+                getDataRequest = dataStorage.buildPreliminaryGetDataRequest(nonce, useKnownHashesFilter);
             else
-                getDataRequest = dataStorage.buildGetUpdatedDataRequest(networkNode.getNodeAddress(), nonce);
+                getDataRequest = dataStorage.buildGetUpdatedDataRequest(networkNode.getNodeAddress(), nonce,
+                        useKnownHashesFilter);
 
             if (timeoutTimer == null) {
                 timeoutTimer = UserThread.runAfter(() -> {  // setup before sending to avoid race conditions
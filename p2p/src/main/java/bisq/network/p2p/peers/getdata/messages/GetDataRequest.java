@@ -19,6 +19,7 @@ package bisq.network.p2p.peers.getdata.messages;
 
 import bisq.network.p2p.ExtendedDataSizePermission;
 import bisq.network.p2p.InitialDataRequest;
+import bisq.network.p2p.storage.KnownHashesFilter;
 
 import bisq.common.proto.network.NetworkEnvelope;
 
@@ -44,13 +45,25 @@ public abstract class GetDataRequest extends NetworkEnvelope implements Extended
     @Nullable
     protected final String version;
 
+    // Added at v1.8.1
+    // Bloom filter of the keys the requester has already. If set, the excludedKeys are empty. Only sent to peers
+    // with the GET_DATA_KNOWN_HASHES_FILTER capability.
+    @Nullable
+    protected final KnownHashesFilter knownHashesFilter;
+
     public GetDataRequest(int messageVersion,
                           int nonce,
                           Set<byte[]> excludedKeys,
-                          @Nullable String version) {
+                          @Nullable String version,
+                          @Nullable KnownHashesFilter knownHashesFilter) {
         super(messageVersion);
         this.nonce = nonce;
         this.excludedKeys = excludedKeys;
         this.version = version;
+        this.knownHashesFilter = knownHashesFilter;
+    }
+
+    public int getNumKnownKeys() {
+        return knownHashesFilter != null ? knownHashesFilter.getNumEntries() : excludedKeys.size();
     }
 }
@@ -19,6 +19,7 @@ package bisq.network.p2p.peers.getdata.messages;
 
 import bisq.network.p2p.NodeAddress;
 import bisq.network.p2p.SendersNodeAddressMessage;
+import bisq.network.p2p.storage.KnownHashesFilter;
 
 import bisq.common.app.Version;
 import bisq.common.proto.ProtoUtil;
@@ -27,6 +28,7 @@ import protobuf.NetworkEnvelope;
 
 import com.google.protobuf.ByteString;
 
+import java.util.HashSet;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -50,6 +52,18 @@ public final class GetUpdatedDataRequest extends GetDataRequest implements Sende
                 nonce,
                 excludedKeys,
                 Version.VERSION,
+                null,
+                Version.getP2PMessageVersion());
+    }
+
+    public GetUpdatedDataRequest(NodeAddress senderNodeAddress,
+                                 int nonce,
+                                 KnownHashesFilter knownHashesFilter) {
+        this(senderNodeAddress,
+                nonce,
+                new HashSet<>(),
+                Version.VERSION,
+                knownHashesFilter,
                 Version.getP2PMessageVersion());
     }
 
@@ -62,11 +76,13 @@ public final class GetUpdatedDataRequest extends GetDataRequest implements Sende
                                   int nonce,
                                   Set<byte[]> excludedKeys,
                                   @Nullable String version,
+                                  @Nullable KnownHashesFilter knownHashesFilter,
                                   int messageVersion) {
         super(messageVersion,
                 nonce,
                 excludedKeys,
-                version);
+                version,
+                knownHashesFilter);
         this.senderNodeAddress = senderNodeAddress;
     }
 
@@ -79,23 +95,31 @@ public final class GetUpdatedDataRequest extends GetDataRequest implements Sende
                         .map(ByteString::copyFrom)
                         .collect(Collectors.toList()));
         Optional.ofNullable(version).ifPresent(builder::setVersion);
+        Optional.ofNullable(knownHashesFilter).ifPresent(e -> builder.setKnownHashesFilter(e.toProtoMessage()));
         NetworkEnvelope proto = getNetworkEnvelopeBuilder()
                 .setGetUpdatedDataRequest(builder)
                 .build();
-        log.info("Sending a GetUpdatedDataRequest with {} kB and {} excluded key entries. Requesters version={}",
-                proto.getSerializedSize() / 1000d, excludedKeys.size(), version);
+        log.info("Sending a GetUpdatedDataRequest with {} kB and {} excluded key entries{}. Requesters version={}",
+                proto.getSerializedSize() / 1000d, getNumKnownKeys(), knownHashesFilter != null ? " in filter" : "",
+                version);
         return proto;
     }
 
     public static GetUpdatedDataRequest fromProto(protobuf.GetUpdatedDataRequest proto, int messageVersion) {
         Set<byte[]> excludedKeys = ProtoUtil.byteSetFromProtoByteStringList(proto.getExcludedKeysList());
         String requestersVersion = ProtoUtil.stringOrNullFromProto(proto.getVersion());
-        log.info("Received a GetUpdatedDataRequest with {} kB and {} excluded key entries. Requesters version={}",
-                proto.getSerializedSize() / 1000d, excludedKeys.size(), requestersVersion);
+        KnownHashesFilter knownHashesFilter = proto.hasKnownHashesFilter() ?
+                KnownHashesFilter.fromProto(proto.getKnownHashesFilter()) : null;
+        log.info("Received a GetUpdatedDataRequest with {} kB and {} excluded key entries{}. Requesters version={}",
+                proto.getSerializedSize() / 1000d,
+                knownHashesFilter != null ? knownHashesFilter.getNumEntries() : excludedKeys.size(),
+                knownHashesFilter != null ? " in filter" : "",
+                requestersVersion);
         return new GetUpdatedDataRequest(NodeAddress.fromProto(proto.getSenderNodeAddress()),
                 proto.getNonce(),
                 excludedKeys,
                 requestersVersion,
+                knownHashesFilter,
                 messageVersion);
     }
 }
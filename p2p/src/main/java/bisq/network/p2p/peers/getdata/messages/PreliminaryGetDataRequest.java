@@ -19,6 +19,7 @@ package bisq.network.p2p.peers.getdata.messages;
 
 import bisq.network.p2p.AnonymousMessage;
 import bisq.network.p2p.SupportedCapabilitiesMessage;
+import bisq.network.p2p.storage.KnownHashesFilter;
 
 import bisq.common.app.Capabilities;
 import bisq.common.app.Version;
@@ -28,6 +29,7 @@ import protobuf.NetworkEnvelope;
 
 import com.google.protobuf.ByteString;
 
+import java.util.HashSet;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -48,6 +50,16 @@ public final class PreliminaryGetDataRequest extends GetDataRequest implements A
         this(nonce,
                 excludedKeys,
                 Version.VERSION,
+                null,
+                Capabilities.app,
+                Version.getP2PMessageVersion());
+    }
+
+    public PreliminaryGetDataRequest(int nonce, KnownHashesFilter knownHashesFilter) {
+        this(nonce,
+                new HashSet<>(),
+                Version.VERSION,
+                knownHashesFilter,
                 Capabilities.app,
                 Version.getP2PMessageVersion());
     }
@@ -60,9 +72,10 @@ public final class PreliminaryGetDataRequest extends GetDataRequest implements A
     private PreliminaryGetDataRequest(int nonce,
                                       Set<byte[]> excludedKeys,
                                       @Nullable String version,
+                                      @Nullable KnownHashesFilter knownHashesFilter,
                                       Capabilities supportedCapabilities,
                                       int messageVersion) {
-        super(messageVersion, nonce, excludedKeys, version);
+        super(messageVersion, nonce, excludedKeys, version, knownHashesFilter);
 
         this.supportedCapabilities = supportedCapabilities;
     }
@@ -76,22 +89,30 @@ public final class PreliminaryGetDataRequest extends GetDataRequest implements A
                         .map(ByteString::copyFrom)
                         .collect(Collectors.toList()));
         Optional.ofNullable(version).ifPresent(builder::setVersion);
+        Optional.ofNullable(knownHashesFilter).ifPresent(e -> builder.setKnownHashesFilter(e.toProtoMessage()));
         NetworkEnvelope proto = getNetworkEnvelopeBuilder()
                 .setPreliminaryGetDataRequest(builder)
                 .build();
-        log.info("Sending a PreliminaryGetDataRequest with {} kB and {} excluded key entries. Requesters version={}",
-                proto.getSerializedSize() / 1000d, excludedKeys.size(), version);
+        log.info("Sending a PreliminaryGetDataRequest with {} kB and {} excluded key entries{}. Requesters version={}",
+                proto.getSerializedSize() / 1000d, getNumKnownKeys(), knownHashesFilter != null ? " in filter" : "",
+                version);
         return proto;
     }
 
     public static PreliminaryGetDataRequest fromProto(protobuf.PreliminaryGetDataRequest proto, int messageVersion) {
         Set<byte[]> excludedKeys = ProtoUtil.byteSetFromProtoByteStringList(proto.getExcludedKeysList());
         String requestersVersion = ProtoUtil.stringOrNullFromProto(proto.getVersion());
-        log.info("Received a PreliminaryGetDataRequest with {} kB and {} excluded key entries. Requesters version={}",
-                proto.getSerializedSize() / 1000d, excludedKeys.size(), requestersVersion);
+        KnownHashesFilter knownHashesFilter = proto.hasKnownHashesFilter() ?
+                KnownHashesFilter.fromProto(proto.getKnownHashesFilter()) : null;
+        log.info("Received a PreliminaryGetDataRequest with {} kB and {} excluded key entries{}. Requesters version={}",
+                proto.getSerializedSize() / 1000d,
+                knownHashesFilter != null ? knownHashesFilter.getNumEntries() : excludedKeys.size(),
+                knownHashesFilter != null ? " in filter" : "",
+                requestersVersion);
         return new PreliminaryGetDataRequest(proto.getNonce(),
                 excludedKeys,
                 requestersVersion,
+                knownHashesFilter,
                 Capabilities.fromIntList(proto.getSupportedCapabilitiesList()),
                 messageVersion);
     }
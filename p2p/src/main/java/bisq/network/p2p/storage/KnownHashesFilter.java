@@ -0,0 +1,183 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.storage;
+
+import bisq.common.proto.network.NetworkPayload;
+
+import com.google.protobuf.ByteString;
+
+import java.security.SecureRandom;
+
+import java.util.Collection;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Bloom filter over the payload hashes a node already knows. Used in GetDataRequests as compact replacement for the
+ * list of excluded keys if the peer supports the GET_DATA_KNOWN_HASHES_FILTER capability.
+ *
+ * The keys are already cryptographic hashes, so we derive the bit positions directly from the key bytes by double
+ * hashing instead of hashing them again. A random tweak is mixed in for each request so that a false positive (a
+ * payload the peer does not send us because the filter wrongly claims we know it) is independent between our
+ * requests to different seed nodes and will be recovered by one of the following requests.
+ */
+@Getter
+@EqualsAndHashCode
+public final class KnownHashesFilter implements NetworkPayload {
+    // 0.1% false positive rate results in about 14.4 bits per entry, compared to 20 or 32 bytes for the raw hash.
+    public static final double FALSE_POSITIVE_RATE = 0.001;
+    // Protects the seed node from requests which would cause excessive memory or CPU usage
+    private static final int MAX_NUM_BITS = 64 * 1024 * 1024;
+    private static final int MAX_NUM_HASH_FUNCTIONS = 32;
+
+    private final byte[] bits;
+    private final int numHashFunctions;
+    private final long tweak;
+    private final int numEntries;
+
+    public static KnownHashesFilter fromHashes(Collection<byte[]> hashes) {
+        int numEntries = Math.max(1, hashes.size());
+        double ln2 = Math.log(2);
+        long numBits = (long) Math.ceil(-numEntries * Math.log(FALSE_POSITIVE_RATE) / (ln2 * ln2));
+        numBits = Math.min(MAX_NUM_BITS, Math.max(64, numBits));
+        int numHashFunctions = (int) Math.round((double) numBits / numEntries * ln2);
+        numHashFunctions = Math.min(MAX_NUM_HASH_FUNCTIONS, Math.max(1, numHashFunctions));
+
+        KnownHashesFilter filter = new KnownHashesFilter(new byte[(int) ((numBits + 7) / 8)],
+                numHashFunctions,
+                new SecureRandom().nextLong(),
+                hashes.size());
+        hashes.forEach(filter::put);
+        return filter;
+    }
+
+    private KnownHashesFilter(byte[] bits, int numHashFunctions, long tweak, int numEntries) {
+        this.bits = bits;
+        this.numHashFunctions = numHashFunctions;
+        this.tweak = tweak;
+        this.numEntries = numEntries;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // PROTO BUFFER
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public protobuf.KnownHashesFilter toProtoMessage() {
+        return protobuf.KnownHashesFilter.newBuilder()
+                .setBits(ByteString.copyFrom(bits))
+                .setNumHashFunctions(numHashFunctions)
+                .setTweak(tweak)
+                .setNumEntries(numEntries)
+                .build();
+    }
+
+    public static KnownHashesFilter fromProto(protobuf.KnownHashesFilter proto) {
+        byte[] bits = proto.getBits().toByteArray();
+        checkArgument(bits.length > 0 && bits.length <= MAX_NUM_BITS / 8,
+                "Invalid size of KnownHashesFilter bits: %s", bits.length);
+        checkArgument(proto.getNumHashFunctions() > 0 && proto.getNumHashFunctions() <= MAX_NUM_HASH_FUNCTIONS,
+                "Invalid numHashFunctions of KnownHashesFilter: %s", proto.getNumHashFunctions());
+        return new KnownHashesFilter(bits,
+                proto.getNumHashFunctions(),
+                proto.getTweak(),
+                proto.getNumEntries());
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Returns true if the hash might have been added to the filter. A false result guarantees that the requester
+     * does not know the hash.
+     */
+    public boolean mightContain(byte[] hash) {
+        long numBits = (long) bits.length * 8;
+        long h1 = getFirstHash(hash);
+        long h2 = getSecondHash(hash);
+        for (int i = 0; i < numHashFunctions; i++) {
+            long index = Long.remainderUnsigned(h1 + i * h2, numBits);
+            if ((bits[(int) (index >>> 3)] & (1 << (index & 7))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean mightContain(P2PDataStorage.ByteArray hash) {
+        return mightContain(hash.bytes);
+    }
+
+    public int getSerializedSize() {
+        return bits.length;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private void put(byte[] hash) {
+        long numBits = (long) bits.length * 8;
+        long h1 = getFirstHash(hash);
+        long h2 = getSecondHash(hash);
+        for (int i = 0; i < numHashFunctions; i++) {
+            long index = Long.remainderUnsigned(h1 + i * h2, numBits);
+            bits[(int) (index >>> 3)] |= (1 << (index & 7));
+        }
+    }
+
+    private long getFirstHash(byte[] hash) {
+        return mix(readLong(hash, 0) ^ tweak);
+    }
+
+    private long getSecondHash(byte[] hash) {
+        // Avoid a zero step which would map all hash functions to the same bit
+        return mix(readLong(hash, 8) + tweak) | 1;
+    }
+
+    // Folds all bytes starting at offset into a long. The hashes are at least 20 bytes, so both halves used for the
+    // double hashing are derived from different parts of the hash.
+    private static long readLong(byte[] hash, int offset) {
+        long result = 0;
+        for (int i = offset; i < hash.length; i++) {
+            int shift = ((i - offset) & 7) * 8;
+            result ^= (hash[i] & 0xFFL) << shift;
+            if (((i - offset) & 7) == 7) {
+                result = mix(result);
+            }
+        }
+        return result;
+    }
+
+    // Finalizer of MurmurHash3 (fmix64)
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
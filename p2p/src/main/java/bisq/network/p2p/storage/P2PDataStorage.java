@@ -39,6 +39,7 @@ import bisq.network.p2p.storage.messages.RemoveMailboxDataMessage;
 import bisq.network.p2p.storage.payload.CapabilityRequiringPayload;
 import bisq.network.p2p.storage.payload.DateSortedTruncatablePayload;
 import bisq.network.p2p.storage.payload.DateTolerantPayload;
+import bisq.network.p2p.storage.payload.HashCachingPayload;
 import bisq.network.p2p.storage.payload.MailboxStoragePayload;
 import bisq.network.p2p.storage.payload.PersistableNetworkPayload;
 import bisq.network.p2p.storage.payload.ProcessOncePersistableNetworkPayload;
@@ -48,6 +49,7 @@ import bisq.network.p2p.storage.payload.ProtectedStoragePayload;
 import bisq.network.p2p.storage.payload.RequiresOwnerIsOnlinePayload;
 import bisq.network.p2p.storage.persistence.AppendOnlyDataStoreListener;
 import bisq.network.p2p.storage.persistence.AppendOnlyDataStoreService;
+import bisq.network.p2p.storage.persistence.CompositeMapView;
 import bisq.network.p2p.storage.persistence.HistoricalDataStoreService;
 import bisq.network.p2p.storage.persistence.PersistableNetworkPayloadStore;
 import bisq.network.p2p.storage.persistence.ProtectedDataStoreService;
@@ -105,6 +107,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -127,6 +130,12 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
 
     @VisibleForTesting
     public static final int CHECK_TTL_INTERVAL_SEC = 60;
+    private static final long LOG_HASH_STATISTICS_INTERVAL_SEC = TimeUnit.MINUTES.toSeconds(5);
+
+    // Counters for monitoring the payload hash cache. Serializing payloads for hashing is costly, so we want to see
+    // how often that still happens.
+    private static final AtomicLong numHashComputations = new AtomicLong();
+    private static final AtomicLong numCachedHashLookups = new AtomicLong();
 
     private boolean initialRequestApplied = false;
 
@@ -140,6 +149,9 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
     private final Map<ByteArray, ProtectedStorageEntry> map = new ConcurrentHashMap<>();
     private final Set<HashMapChangedListener> hashMapChangedListeners = new CopyOnWriteArraySet<>();
     private Timer removeExpiredEntriesTimer;
+    private Timer logHashStatisticsTimer;
+    private long lastNumHashComputations;
+    private long lastNumCachedHashLookups;
 
     private final PersistenceManager<SequenceNumberMap> persistenceManager;
 
@@ -265,14 +277,40 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
      * Returns a PreliminaryGetDataRequest that can be sent to a peer node to request missing Payload data.
      */
     public PreliminaryGetDataRequest buildPreliminaryGetDataRequest(int nonce) {
-        return new PreliminaryGetDataRequest(nonce, getKnownPayloadHashes());
+        return buildPreliminaryGetDataRequest(nonce, false);
+    }
+
+    /**
+     * Returns a PreliminaryGetDataRequest. If useKnownHashesFilter is true the known payload hashes are sent as
+     * bloom filter instead of the full list. Must only be used if the peer has the GET_DATA_KNOWN_HASHES_FILTER
+     * capability.
+     */
+    public PreliminaryGetDataRequest buildPreliminaryGetDataRequest(int nonce, boolean useKnownHashesFilter) {
+        Set<byte[]> knownPayloadHashes = getKnownPayloadHashes();
+        return useKnownHashesFilter ?
+                new PreliminaryGetDataRequest(nonce, KnownHashesFilter.fromHashes(knownPayloadHashes)) :
+                new PreliminaryGetDataRequest(nonce, knownPayloadHashes);
     }
 
     /**
      * Returns a GetUpdatedDataRequest that can be sent to a peer node to request missing Payload data.
      */
     public GetUpdatedDataRequest buildGetUpdatedDataRequest(NodeAddress senderNodeAddress, int nonce) {
-        return new GetUpdatedDataRequest(senderNodeAddress, nonce, getKnownPayloadHashes());
+        return buildGetUpdatedDataRequest(senderNodeAddress, nonce, false);
+    }
+
+    /**
+     * Returns a GetUpdatedDataRequest. If useKnownHashesFilter is true the known payload hashes are sent as
+     * bloom filter instead of the full list. Must only be used if the peer has the GET_DATA_KNOWN_HASHES_FILTER
+     * capability.
+     */
+    public GetUpdatedDataRequest buildGetUpdatedDataRequest(NodeAddress senderNodeAddress,
+                                                            int nonce,
+                                                            boolean useKnownHashesFilter) {
+        Set<byte[]> knownPayloadHashes = getKnownPayloadHashes();
+        return useKnownHashesFilter ?
+                new GetUpdatedDataRequest(senderNodeAddress, nonce, KnownHashesFilter.fromHashes(knownPayloadHashes)) :
+                new GetUpdatedDataRequest(senderNodeAddress, nonce, knownPayloadHashes);
     }
 
     /**
@@ -309,8 +347,17 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
             AtomicBoolean wasProtectedStorageEntriesTruncated,
             Capabilities peerCapabilities) {
 
-        Set<P2PDataStorage.ByteArray> excludedKeysAsByteArray =
-                P2PDataStorage.ByteArray.convertBytesSetToByteArraySet(getDataRequest.getExcludedKeys());
+        // If the requester sent a bloom filter we test against it directly and avoid building a set of the keys.
+        Predicate<ByteArray> isKnownHash;
+        KnownHashesFilter knownHashesFilter = getDataRequest.getKnownHashesFilter();
+        if (knownHashesFilter != null) {
+            isKnownHash = knownHashesFilter::mightContain;
+        } else {
+            Set<P2PDataStorage.ByteArray> excludedKeysAsByteArray =
+                    P2PDataStorage.ByteArray.convertBytesSetToByteArraySet(getDataRequest.getExcludedKeys());
+            isKnownHash = excludedKeysAsByteArray::contains;
+        }
+        log.info("Num knownHashes {}", getDataRequest.getNumKnownKeys());
 
         // Pre v 1.4.0 requests do not have set the requesters version field so it is null.
         // The methods in HistoricalDataStoreService will return all historical data in that case.
@@ -321,7 +368,7 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
                 filterKnownHashes(
                         mapForDataResponse,
                         Function.identity(),
-                        excludedKeysAsByteArray,
+                        isKnownHash,
                         peerCapabilities,
                         maxEntriesPerType,
                         wasPersistableNetworkPayloadsTruncated);
@@ -337,7 +384,7 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
                 filterKnownHashes(
                         map,
                         ProtectedStorageEntry::getProtectedStoragePayload,
-                        excludedKeysAsByteArray,
+                        isKnownHash,
                         peerCapabilities,
                         maxEntriesPerType,
                         wasProtectedStorageEntriesTruncated);
@@ -381,42 +428,39 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         return map;
     }
 
+    // Returns a read-only view of the maps of all appendOnlyDataStoreServices as that is called at each data request.
+    // Copying the entries would cause a lot of garbage on seed nodes.
     public Map<ByteArray, PersistableNetworkPayload> getMapForDataResponse(String requestersVersion) {
-        Map<ByteArray, PersistableNetworkPayload> map = new HashMap<>();
+        List<Map<ByteArray, PersistableNetworkPayload>> maps = new ArrayList<>();
         appendOnlyDataStoreService.getServices()
                 .forEach(service -> {
-                    Map<ByteArray, PersistableNetworkPayload> serviceMap;
                     if (service instanceof HistoricalDataStoreService) {
                         var historicalDataStoreService = (HistoricalDataStoreService<? extends PersistableNetworkPayloadStore>) service;
-                        serviceMap = historicalDataStoreService.getMapSinceVersion(requestersVersion);
+                        maps.add(historicalDataStoreService.getMapSinceVersion(requestersVersion));
                     } else {
-                        serviceMap = service.getMap();
+                        maps.add(service.getMap());
                     }
-                    map.putAll(serviceMap);
-                    log.info("We added {} entries from {} to be filtered by excluded keys",
-                            serviceMap.size(), service.getClass().getSimpleName());
+                    log.info("We added the data of {} to be filtered by excluded keys", service.getClass().getSimpleName());
                 });
-        return map;
+        return new CompositeMapView<>(maps);
     }
 
     /**
      * Generic function that can be used to filter a Map<ByteArray, ProtectedStorageEntry || PersistableNetworkPayload>
-     * by a given set of keys and peer capabilities.
+     * by a given predicate for known keys and peer capabilities.
      */
     static private <T extends NetworkPayload> Set<T> filterKnownHashes(
             Map<ByteArray, T> toFilter,
             Function<T, ? extends NetworkPayload> objToPayload,
-            Set<ByteArray> knownHashes,
+            Predicate<ByteArray> isKnownHash,
             Capabilities peerCapabilities,
             int maxEntries,
             AtomicBoolean outTruncated) {
 
-        log.info("Num knownHashes {}", knownHashes.size());
-
         Set<Map.Entry<ByteArray, T>> entries = toFilter.entrySet();
         List<T> dateSortedTruncatablePayloads = entries.stream()
                 .filter(entry -> entry.getValue() instanceof DateSortedTruncatablePayload)
-                .filter(entry -> !knownHashes.contains(entry.getKey()))
+                .filter(entry -> !isKnownHash.test(entry.getKey()))
                 .map(Map.Entry::getValue)
                 .filter(payload -> shouldTransmitPayloadToPeer(peerCapabilities, objToPayload.apply(payload)))
                 .sorted(Comparator.comparing(payload -> ((DateSortedTruncatablePayload) payload).getDate()))
@@ -434,7 +478,7 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
 
         List<T> filteredResults = entries.stream()
                 .filter(entry -> !(entry.getValue() instanceof DateSortedTruncatablePayload))
-                .filter(entry -> !knownHashes.contains(entry.getKey()))
+                .filter(entry -> !isKnownHash.test(entry.getKey()))
                 .map(Map.Entry::getValue)
                 .filter(payload -> shouldTransmitPayloadToPeer(peerCapabilities, objToPayload.apply(payload)))
                 .collect(Collectors.toList());
@@ -537,6 +581,9 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
     public void shutDown() {
         if (removeExpiredEntriesTimer != null)
             removeExpiredEntriesTimer.stop();
+
+        if (logHashStatisticsTimer != null)
+            logHashStatisticsTimer.stop();
     }
 
     @VisibleForTesting
@@ -563,12 +610,27 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
 
         if (sequenceNumberMap.size() > this.maxSequenceNumberMapSizeBeforePurge) {
             sequenceNumberMap.setMap(getPurgedSequenceNumberMap(sequenceNumberMap.getMap()));
-            requestPersistence();
+            // The journal cannot record the purged entries, so we need a full write
+            persistenceManager.requestPersistenceAfterRemoval();
         }
     }
 
     public void onBootstrapped() {
         removeExpiredEntriesTimer = UserThread.runPeriodically(this::removeExpiredEntries, CHECK_TTL_INTERVAL_SEC);
+        logHashStatisticsTimer = UserThread.runPeriodically(this::logHashStatistics, LOG_HASH_STATISTICS_INTERVAL_SEC);
+    }
+
+    private void logHashStatistics() {
+        long numComputations = getNumHashComputations();
+        long numCachedLookups = getNumCachedHashLookups();
+        log.info("Payload hash computations per sec: {}, cached payload hash lookups per sec: {}. " +
+                        "Total hash computations: {}, total cached hash lookups: {}",
+                (numComputations - lastNumHashComputations) / LOG_HASH_STATISTICS_INTERVAL_SEC,
+                (numCachedLookups - lastNumCachedHashLookups) / LOG_HASH_STATISTICS_INTERVAL_SEC,
+                numComputations,
+                numCachedLookups);
+        lastNumHashComputations = numComputations;
+        lastNumCachedHashLookups = numCachedLookups;
     }
 
 
@@ -801,8 +863,7 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         hashMapChangedListeners.forEach(e -> e.onAdded(Collections.singletonList(protectedStorageEntry)));
 
         // Record the updated sequence number and persist it. Higher delay so we can batch more items.
-        sequenceNumberMap.put(hashOfPayload, new MapValue(protectedStorageEntry.getSequenceNumber(), this.clock.millis()));
-        requestPersistence();
+        putSequenceNumber(hashOfPayload, new MapValue(protectedStorageEntry.getSequenceNumber(), this.clock.millis()));
 
         //log.trace("## ProtectedStorageEntry added to map. hash={}, map={}", hashOfPayload, printMap());
 
@@ -890,8 +951,7 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
             map.put(hashOfPayload, updatedEntry);
 
             // Record the latest sequence number and persist it
-            sequenceNumberMap.put(hashOfPayload, new MapValue(updatedEntry.getSequenceNumber(), this.clock.millis()));
-            requestPersistence();
+            putSequenceNumber(hashOfPayload, new MapValue(updatedEntry.getSequenceNumber(), this.clock.millis()));
 
             // Always broadcast refreshes
             broadcaster.broadcast(refreshTTLMessage, sender);
@@ -931,8 +991,7 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
             return false;
 
         // Record the latest sequence number and persist it
-        sequenceNumberMap.put(hashOfPayload, new MapValue(protectedStorageEntry.getSequenceNumber(), this.clock.millis()));
-        requestPersistence();
+        putSequenceNumber(hashOfPayload, new MapValue(protectedStorageEntry.getSequenceNumber(), this.clock.millis()));
 
         // Update that we have seen this AddOncePayload so the next time it is seen it fails verification
         if (protectedStoragePayload instanceof AddOncePayload) {
@@ -1087,6 +1146,12 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         persistenceManager.requestPersistence();
     }
 
+    // With the journaled persistence mode only the changed entry gets written
+    private void putSequenceNumber(ByteArray hashOfPayload, MapValue mapValue) {
+        sequenceNumberMap.put(hashOfPayload, mapValue);
+        persistenceManager.appendToJournal(SequenceNumberMap.toJournalRecord(hashOfPayload, mapValue));
+    }
+
     public static ByteArray get32ByteHashAsByteArray(NetworkPayload data) {
         return new ByteArray(P2PDataStorage.get32ByteHash(data));
     }
@@ -1152,9 +1217,31 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
      * @return Hash of data
      */
     public static byte[] get32ByteHash(NetworkPayload data) {
+        if (data instanceof HashCachingPayload) {
+            byte[] hash = ((HashCachingPayload) data).getHash();
+            if (hash != null) {
+                numCachedHashLookups.incrementAndGet();
+                return hash;
+            }
+        }
+        numHashComputations.incrementAndGet();
         return Hash.getSha256Hash(data.toProtoMessage().toByteArray());
     }
 
+    /**
+     * @return Number of hashes computed by get32ByteHash because the payload did not provide a cached hash
+     */
+    public static long getNumHashComputations() {
+        return numHashComputations.get();
+    }
+
+    /**
+     * @return Number of hashes get32ByteHash took from the payloads cache
+     */
+    public static long getNumCachedHashLookups() {
+        return numCachedHashLookups.get();
+    }
+
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Static class
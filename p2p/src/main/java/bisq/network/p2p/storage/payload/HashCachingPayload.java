@@ -0,0 +1,38 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.storage.payload;
+
+import bisq.common.proto.network.NetworkPayload;
+
+import javax.annotation.Nullable;
+
+/**
+ * Payloads which cache the hash of their serialized data. P2PDataStorage.get32ByteHash uses the cached hash instead
+ * of serializing and hashing the payload at each call.
+ * <p/>
+ * The hash must only be cached once the data which is part of the serialized payload cannot change anymore.
+ * Payloads with mutable fields have to return null until those are set or need to clear the cached hash when they
+ * get changed.
+ */
+public interface HashCachingPayload extends NetworkPayload {
+    /**
+     * @return The SHA-256 hash of the serialized payload or null if the hash cannot be cached (yet).
+     */
+    @Nullable
+    byte[] getHash();
+}
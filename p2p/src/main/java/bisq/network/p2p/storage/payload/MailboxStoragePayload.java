@@ -20,6 +20,7 @@ package bisq.network.p2p.storage.payload;
 import bisq.network.p2p.PrefixedSealedAndSignedMessage;
 import bisq.network.p2p.storage.messages.AddOncePayload;
 
+import bisq.common.crypto.Hash;
 import bisq.common.crypto.Sig;
 import bisq.common.util.CollectionUtils;
 import bisq.common.util.ExtraDataMapValidator;
@@ -53,7 +54,8 @@ import javax.annotation.Nullable;
 @Getter
 @EqualsAndHashCode
 @Slf4j
-public final class MailboxStoragePayload implements ProtectedStoragePayload, ExpirablePayload, AddOncePayload {
+public final class MailboxStoragePayload implements ProtectedStoragePayload, ExpirablePayload, AddOncePayload,
+        HashCachingPayload {
     public static final long TTL = TimeUnit.DAYS.toMillis(15);
 
     // Added in 1.5.5
@@ -72,6 +74,9 @@ public final class MailboxStoragePayload implements ProtectedStoragePayload, Exp
     @Nullable
     private Map<String, String> extraDataMap;
 
+    // Cache. The payload is immutable, so the hash never changes.
+    private transient byte[] hash;
+
     public MailboxStoragePayload(PrefixedSealedAndSignedMessage prefixedSealedAndSignedMessage,
                                  @NotNull PublicKey senderPubKeyForAddOperation,
                                  PublicKey ownerPubKey,
@@ -131,6 +136,14 @@ public final class MailboxStoragePayload implements ProtectedStoragePayload, Exp
     // API
     ///////////////////////////////////////////////////////////////////////////////////////////
 
+    @Override
+    public byte[] getHash() {
+        if (hash == null) {
+            hash = Hash.getSha256Hash(toProtoMessage().toByteArray());
+        }
+        return hash;
+    }
+
     @Override
     public long getTTL() {
         if (extraDataMap != null && extraDataMap.containsKey(EXTRA_MAP_KEY_TTL)) {
@@ -0,0 +1,154 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.storage.persistence;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Read-only view over a list of maps (layers) which does not copy any entries. Lookups are delegated to the layers in
+ * the given order, so if a key is contained in multiple layers the value of the first layer is used. Iteration skips
+ * entries whose key is contained in a previous layer.
+ *
+ * Changes of the underlying maps are visible in the view. The view itself cannot be modified.
+ */
+public class CompositeMapView<K, V> extends AbstractMap<K, V> {
+    private final List<Map<K, V>> layers;
+    private Set<Entry<K, V>> entrySet;
+
+    public CompositeMapView(List<? extends Map<K, V>> layers) {
+        List<Map<K, V>> unmodifiableLayers = new ArrayList<>(layers.size());
+        layers.forEach(layer -> unmodifiableLayers.add(Collections.unmodifiableMap(layer)));
+        this.layers = Collections.unmodifiableList(unmodifiableLayers);
+    }
+
+    @Override
+    public V get(Object key) {
+        for (Map<K, V> layer : layers) {
+            V value = layer.get(key);
+            if (value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        for (Map<K, V> layer : layers) {
+            if (layer.containsKey(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return layers.stream().allMatch(Map::isEmpty);
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet();
+        }
+        return entrySet;
+    }
+
+    private boolean isContainedInPreviousLayer(Object key, int layerIndex) {
+        for (int i = 0; i < layerIndex; i++) {
+            if (layers.get(i).containsKey(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private class EntrySet extends AbstractSet<Entry<K, V>> {
+        @Override
+        public Iterator<Entry<K, V>> iterator() {
+            return new EntryIterator();
+        }
+
+        @Override
+        public int size() {
+            // The first layer cannot contain duplicates, so we only need to iterate the other layers.
+            int size = layers.isEmpty() ? 0 : layers.get(0).size();
+            for (int i = 1; i < layers.size(); i++) {
+                for (K key : layers.get(i).keySet()) {
+                    if (!isContainedInPreviousLayer(key, i)) {
+                        size++;
+                    }
+                }
+            }
+            return size;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof Entry)) {
+                return false;
+            }
+            Entry<?, ?> entry = (Entry<?, ?>) o;
+            V value = get(entry.getKey());
+            return value != null && value.equals(entry.getValue());
+        }
+    }
+
+    private class EntryIterator implements Iterator<Entry<K, V>> {
+        private int layerIndex = -1;
+        private Iterator<Entry<K, V>> layerIterator = Collections.emptyIterator();
+        private Entry<K, V> next;
+
+        @Override
+        public boolean hasNext() {
+            while (next == null) {
+                if (layerIterator.hasNext()) {
+                    Entry<K, V> candidate = layerIterator.next();
+                    if (!isContainedInPreviousLayer(candidate.getKey(), layerIndex)) {
+                        next = candidate;
+                    }
+                } else if (layerIndex + 1 < layers.size()) {
+                    layerIndex++;
+                    layerIterator = layers.get(layerIndex).entrySet().iterator();
+                } else {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public Entry<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Entry<K, V> result = next;
+            next = null;
+            return result;
+        }
+    }
+}
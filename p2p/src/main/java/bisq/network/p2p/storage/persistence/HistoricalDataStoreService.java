@@ -28,7 +28,9 @@ import com.google.common.collect.ImmutableMap;
 
 import java.io.File;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -60,11 +62,13 @@ public abstract class HistoricalDataStoreService<T extends PersistableNetworkPay
     // API
     ///////////////////////////////////////////////////////////////////////////////////////////
 
-    // We give back a map of our live map and all historical maps newer than the requested version.
+    // We give back a view of our live map and all historical maps newer than the requested version.
     // If requestersVersion is null we return all historical data.
+    // The returned map is a read-only view and does not copy the entries, as that method is called at each data request.
     public Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> getMapSinceVersion(String requestersVersion) {
         // We add all our live data
-        Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> result = new HashMap<>(store.getMap());
+        List<Map<P2PDataStorage.ByteArray, PersistableNetworkPayload>> maps = new ArrayList<>();
+        maps.add(store.getMap());
 
         // If we have a store with a newer version than the requesters version we will add those as well.
         storesByVersion.entrySet().stream()
@@ -88,21 +92,20 @@ public abstract class HistoricalDataStoreService<T extends PersistableNetworkPay
                     return newVersion;
                 })
                 .map(e -> e.getValue().getMap())
-                .forEach(result::putAll);
+                .forEach(maps::add);
 
-        log.info("We found {} entries since requesters version {}",
-                result.size(), requestersVersion);
-        return result;
+        log.info("We added {} historical data stores since requesters version {}",
+                maps.size() - 1, requestersVersion);
+        return new CompositeMapView<>(maps);
     }
 
     public Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> getMapOfLiveData() {
         return store.getMap();
     }
 
+    // Returns a read-only view of the live data and the historical data.
     public Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> getMapOfAllData() {
-        Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> result = new HashMap<>(getMapOfLiveData());
-        result.putAll(allHistoricalPayloads);
-        return result;
+        return new CompositeMapView<>(List.of(getMapOfLiveData(), allHistoricalPayloads));
     }
 
 
@@ -124,7 +127,7 @@ public abstract class HistoricalDataStoreService<T extends PersistableNetworkPay
         }
 
         getMapOfLiveData().put(hash, payload);
-        requestPersistence();
+        persistenceManager.appendToJournal(store.toJournalRecord(hash, payload));
     }
 
     @Override
@@ -137,7 +140,7 @@ public abstract class HistoricalDataStoreService<T extends PersistableNetworkPay
         // So it will be always null. We still keep the return type as we override the method from MapStoreService which
         // follow the Map.putIfAbsent signature.
         getMapOfLiveData().put(hash, payload);
-        requestPersistence();
+        persistenceManager.appendToJournal(store.toJournalRecord(hash, payload));
         return null;
     }
 
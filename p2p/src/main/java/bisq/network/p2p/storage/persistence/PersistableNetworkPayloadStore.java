@@ -20,6 +20,8 @@ package bisq.network.p2p.storage.persistence;
 import bisq.network.p2p.storage.P2PDataStorage;
 import bisq.network.p2p.storage.payload.PersistableNetworkPayload;
 
+import bisq.common.persistence.JournaledPersistableEnvelope;
+import bisq.common.persistence.SnapshotPersistableEnvelope;
 import bisq.common.proto.persistable.PersistableEnvelope;
 
 import java.util.Collection;
@@ -29,12 +31,15 @@ import java.util.concurrent.ConcurrentHashMap;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
+import javax.annotation.Nullable;
+
 
 /**
  * Store for PersistableNetworkPayload map entries with it's data hash as key.
  */
 @Slf4j
-public abstract class PersistableNetworkPayloadStore<T extends PersistableNetworkPayload> implements PersistableEnvelope {
+public abstract class PersistableNetworkPayloadStore<T extends PersistableNetworkPayload> implements
+        JournaledPersistableEnvelope, SnapshotPersistableEnvelope {
     @Getter
     protected final Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> map = new ConcurrentHashMap<>();
 
@@ -48,4 +53,27 @@ public abstract class PersistableNetworkPayloadStore<T extends PersistableNetwor
     public boolean containsKey(P2PDataStorage.ByteArray hash) {
         return map.containsKey(hash);
     }
+
+    /**
+     * Returns a store of the same type which contains only the given payload, used as record for the journaled
+     * persistence mode. Stores which do not support that mode return null.
+     */
+    @Nullable
+    public PersistableNetworkPayloadStore<T> toJournalRecord(P2PDataStorage.ByteArray hash,
+                                                             PersistableNetworkPayload payload) {
+        return null;
+    }
+
+    // The payloads are immutable and the map is a ConcurrentHashMap, so we can get serialized on the write thread.
+    // A payload added while serializing might be contained or not, but that does not harm as it gets persisted with
+    // the next write (or the journal) anyway.
+    @Override
+    public PersistableEnvelope getSnapshot() {
+        return this;
+    }
+
+    @Override
+    public void applyJournalRecord(PersistableEnvelope record) {
+        map.putAll(((PersistableNetworkPayloadStore<?>) record).getMap());
+    }
 }
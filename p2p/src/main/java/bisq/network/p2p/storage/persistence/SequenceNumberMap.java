@@ -19,6 +19,8 @@ package bisq.network.p2p.storage.persistence;
 
 import bisq.network.p2p.storage.P2PDataStorage;
 
+import bisq.common.persistence.JournaledPersistableEnvelope;
+import bisq.common.persistence.SnapshotPersistableEnvelope;
 import bisq.common.proto.persistable.PersistableEnvelope;
 
 import java.util.HashMap;
@@ -27,17 +29,16 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import lombok.Getter;
-import lombok.Setter;
 
 /**
  * This class was not generalized to HashMapPersistable (like we did with #ListPersistable) because
  * in protobuffer the map construct can't be anything, so the straightforward mapping was not possible.
  * Hence this Persistable class.
  */
-public class SequenceNumberMap implements PersistableEnvelope {
+public class SequenceNumberMap implements JournaledPersistableEnvelope, SnapshotPersistableEnvelope {
+    // We keep a ConcurrentHashMap of immutable MapValues as we get serialized on the write thread
     @Getter
-    @Setter
-    private Map<P2PDataStorage.ByteArray, P2PDataStorage.MapValue> map = new ConcurrentHashMap<>();
+    private volatile Map<P2PDataStorage.ByteArray, P2PDataStorage.MapValue> map = new ConcurrentHashMap<>();
 
     public SequenceNumberMap() {
     }
@@ -76,6 +77,10 @@ public class SequenceNumberMap implements PersistableEnvelope {
     // API
     ///////////////////////////////////////////////////////////////////////////////////////////
 
+    public void setMap(Map<P2PDataStorage.ByteArray, P2PDataStorage.MapValue> map) {
+        this.map = new ConcurrentHashMap<>(map);
+    }
+
     // Delegates
     public int size() {
         return map.size();
@@ -92,4 +97,19 @@ public class SequenceNumberMap implements PersistableEnvelope {
     public void put(P2PDataStorage.ByteArray key, P2PDataStorage.MapValue value) {
         map.put(key, value);
     }
+
+    // Returns a SequenceNumberMap with only the given entry, used as record for the journaled persistence mode
+    public static SequenceNumberMap toJournalRecord(P2PDataStorage.ByteArray key, P2PDataStorage.MapValue value) {
+        return new SequenceNumberMap(Map.of(key, value));
+    }
+
+    @Override
+    public PersistableEnvelope getSnapshot() {
+        return this;
+    }
+
+    @Override
+    public void applyJournalRecord(PersistableEnvelope record) {
+        map.putAll(((SequenceNumberMap) record).getMap());
+    }
 }
@@ -0,0 +1,214 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.mailbox;
+
+import bisq.network.crypto.EncryptionService;
+import bisq.network.p2p.DecryptedMessageWithPubKey;
+import bisq.network.p2p.NodeAddress;
+import bisq.network.p2p.PrefixedSealedAndSignedMessage;
+import bisq.network.p2p.network.NetworkNode;
+import bisq.network.p2p.peers.PeerManager;
+import bisq.network.p2p.storage.P2PDataStorage;
+import bisq.network.p2p.storage.payload.MailboxStoragePayload;
+import bisq.network.p2p.storage.payload.ProtectedMailboxStorageEntry;
+import bisq.network.p2p.storage.payload.ProtectedStorageEntry;
+
+import bisq.common.crypto.CryptoException;
+import bisq.common.crypto.Hash;
+import bisq.common.crypto.KeyRing;
+import bisq.common.crypto.SealedAndSigned;
+import bisq.common.persistence.PersistenceManager;
+
+import java.nio.charset.StandardCharsets;
+
+import java.security.KeyPair;
+import java.security.PublicKey;
+
+import java.time.Clock;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.mockito.ArgumentCaptor;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class MailboxMessageServiceTest {
+    private final List<String> receivedUids = Collections.synchronizedList(new ArrayList<>());
+    private final PublicKey myPubKey = mock(PublicKey.class);
+    private EncryptionService encryptionService;
+    private IgnoredMailboxService ignoredMailboxService;
+    private MailboxMessageService mailboxMessageService;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        NetworkNode networkNode = mock(NetworkNode.class);
+        when(networkNode.getNodeAddress()).thenReturn(new NodeAddress("localhost:9999"));
+        encryptionService = mock(EncryptionService.class);
+        ignoredMailboxService = mock(IgnoredMailboxService.class);
+        when(ignoredMailboxService.isIgnored(anyString())).thenReturn(false);
+        KeyRing keyRing = mock(KeyRing.class);
+        when(keyRing.getSignatureKeyPair()).thenReturn(new KeyPair(myPubKey, null));
+
+        mailboxMessageService = new MailboxMessageService(networkNode,
+                mock(PeerManager.class),
+                mock(P2PDataStorage.class),
+                encryptionService,
+                ignoredMailboxService,
+                mock(PersistenceManager.class),
+                keyRing,
+                Clock.systemDefaultZone(),
+                false);
+        mailboxMessageService.addDecryptedMailboxListener((decryptedMessageWithPubKey, senderNodeAddress) ->
+                receivedUids.add(((PrefixedSealedAndSignedMessage) decryptedMessageWithPubKey.getNetworkEnvelope()).getUid()));
+    }
+
+    @After
+    public void tearDown() {
+        mailboxMessageService.shutDown();
+    }
+
+    @Test
+    public void testBatchKeepsOrderOfEntries() throws Exception {
+        // More than 2 chunks
+        List<String> uids = createUids(120);
+        List<ProtectedStorageEntry> entries = new ArrayList<>();
+        for (String uid : uids) {
+            entries.add(createEntry(uid, myPubKey));
+        }
+
+        mailboxMessageService.onAdded(entries);
+
+        await(() -> receivedUids.size() == uids.size());
+        assertEquals(uids, receivedUids);
+        assertEquals(120, mailboxMessageService.getNumDecrypted());
+        assertEquals(0, mailboxMessageService.getNumFailedDecryption());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testFailureOfSingleEntry() throws Exception {
+        List<String> uids = createUids(10);
+        List<ProtectedStorageEntry> entries = new ArrayList<>();
+        for (String uid : uids) {
+            entries.add(createEntry(uid, uid.equals("uid7") ? mock(PublicKey.class) : myPubKey));
+        }
+        // Not for us
+        when(encryptionService.decryptAndVerify(getSealedAndSigned(entries.get(3))))
+                .thenThrow(new CryptoException("Decryption failed"));
+        // Unexpected failure
+        when(encryptionService.decryptAndVerify(getSealedAndSigned(entries.get(5))))
+                .thenThrow(new IllegalStateException("Unexpected failure"));
+
+        mailboxMessageService.onAdded(entries);
+
+        List<String> expected = uids.stream()
+                .filter(uid -> !uid.equals("uid3") && !uid.equals("uid5") && !uid.equals("uid7"))
+                .collect(Collectors.toList());
+        await(() -> receivedUids.size() == expected.size());
+        assertEquals(expected, receivedUids);
+        assertEquals(7, mailboxMessageService.getNumDecrypted());
+        assertEquals(2, mailboxMessageService.getNumFailedDecryption());
+        assertEquals(1, mailboxMessageService.getNumSkippedByReceiversPubKey());
+        assertEquals(0, mailboxMessageService.getNumPreviouslyIgnored());
+
+        // Only the entry which was not for us gets ignored at the next startup
+        ArgumentCaptor<Map<String, Long>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(ignoredMailboxService).ignore(captor.capture());
+        assertEquals(Collections.singleton("uid3"), captor.getValue().keySet());
+    }
+
+    @Test
+    public void testSequentialFallbackAfterShutDown() throws Exception {
+        mailboxMessageService.shutDown();
+        List<String> uids = createUids(60);
+        List<ProtectedStorageEntry> entries = new ArrayList<>();
+        for (String uid : uids) {
+            entries.add(createEntry(uid, myPubKey));
+        }
+
+        mailboxMessageService.onAdded(entries);
+
+        // The entries got decrypted on the calling thread
+        assertEquals(uids, receivedUids);
+        assertEquals(60, mailboxMessageService.getNumDecrypted());
+    }
+
+    @Test
+    public void testSingleEntryIsProcessedSequentially() throws Exception {
+        mailboxMessageService.onAdded(Collections.singletonList(createEntry("uid0", myPubKey)));
+
+        assertEquals(Collections.singletonList("uid0"), receivedUids);
+        assertEquals(1, mailboxMessageService.getNumDecrypted());
+    }
+
+    private static List<String> createUids(int numUids) {
+        return IntStream.range(0, numUids).mapToObj(i -> "uid" + i).collect(Collectors.toList());
+    }
+
+    private ProtectedMailboxStorageEntry createEntry(String uid, PublicKey receiversPubKey) throws Exception {
+        SealedAndSigned sealedAndSigned = mock(SealedAndSigned.class);
+        PrefixedSealedAndSignedMessage prefixedSealedAndSignedMessage = mock(PrefixedSealedAndSignedMessage.class);
+        when(prefixedSealedAndSignedMessage.getUid()).thenReturn(uid);
+        when(prefixedSealedAndSignedMessage.getSealedAndSigned()).thenReturn(sealedAndSigned);
+        when(prefixedSealedAndSignedMessage.getSenderNodeAddress()).thenReturn(new NodeAddress("sender:9999"));
+
+        MailboxStoragePayload mailboxStoragePayload = mock(MailboxStoragePayload.class);
+        when(mailboxStoragePayload.getPrefixedSealedAndSignedMessage()).thenReturn(prefixedSealedAndSignedMessage);
+        when(mailboxStoragePayload.getHash()).thenReturn(Hash.getSha256Hash(uid.getBytes(StandardCharsets.UTF_8)));
+
+        ProtectedMailboxStorageEntry entry = mock(ProtectedMailboxStorageEntry.class);
+        when(entry.getMailboxStoragePayload()).thenReturn(mailboxStoragePayload);
+        when(entry.getProtectedStoragePayload()).thenReturn(mailboxStoragePayload);
+        when(entry.getReceiversPubKey()).thenReturn(receiversPubKey);
+        when(entry.getCreationTimeStamp()).thenReturn(System.currentTimeMillis());
+
+        // The decrypted message is the same mock, which carries the uid we check at the listener
+        DecryptedMessageWithPubKey decryptedMessageWithPubKey = mock(DecryptedMessageWithPubKey.class);
+        when(decryptedMessageWithPubKey.getNetworkEnvelope()).thenReturn(prefixedSealedAndSignedMessage);
+        when(encryptionService.decryptAndVerify(sealedAndSigned)).thenReturn(decryptedMessageWithPubKey);
+        return entry;
+    }
+
+    private static SealedAndSigned getSealedAndSigned(ProtectedStorageEntry entry) {
+        return ((ProtectedMailboxStorageEntry) entry).getMailboxStoragePayload()
+                .getPrefixedSealedAndSignedMessage()
+                .getSealedAndSigned();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
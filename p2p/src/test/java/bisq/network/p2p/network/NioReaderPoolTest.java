@@ -0,0 +1,153 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.network;
+
+import bisq.network.p2p.peers.keepalive.messages.Ping;
+
+import bisq.common.proto.network.NetworkEnvelope;
+import bisq.common.proto.network.NetworkProtoResolver;
+
+import com.google.protobuf.CodedOutputStream;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class NioReaderPoolTest {
+    private final List<NetworkEnvelope> receivedEnvelopes = new CopyOnWriteArrayList<>();
+    private final ConnectionListener connectionListener = mock(ConnectionListener.class);
+    private NioReaderPool nioReaderPool;
+    private ServerSocketChannel serverSocketChannel;
+    private Socket client;
+    private Connection connection;
+    private CountDownLatch receivedLatch;
+
+    @Before
+    public void setUp() throws Exception {
+        nioReaderPool = new NioReaderPool("NioReaderPoolTest", 1);
+        serverSocketChannel = ServerSocketChannel.open();
+        serverSocketChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        client = new Socket(InetAddress.getLoopbackAddress(), serverSocketChannel.socket().getLocalPort());
+        SocketChannel socketChannel = serverSocketChannel.accept();
+
+        NetworkProtoResolver networkProtoResolver = mock(NetworkProtoResolver.class);
+        when(networkProtoResolver.fromProto(any(protobuf.NetworkEnvelope.class))).thenAnswer(invocation -> {
+            protobuf.NetworkEnvelope proto = invocation.getArgument(0);
+            return Ping.fromProto(proto.getPing(), proto.getMessageVersion());
+        });
+
+        receivedLatch = new CountDownLatch(3);
+        connection = new InboundConnection(socketChannel.socket(),
+                (networkEnvelope, c) -> {
+                    receivedEnvelopes.add(networkEnvelope);
+                    receivedLatch.countDown();
+                },
+                connectionListener,
+                networkProtoResolver,
+                null,
+                nioReaderPool);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        connection.shutDown(CloseConnectionReason.APP_SHUT_DOWN);
+        client.close();
+        serverSocketChannel.close();
+        nioReaderPool.shutDown();
+    }
+
+    @Test
+    public void testMessagesSplitAcrossReads() throws Exception {
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        for (int nonce = 1; nonce <= 3; nonce++) {
+            new Ping(nonce, 0).toProtoNetworkEnvelope().writeDelimitedTo(byteArrayOutputStream);
+        }
+        byte[] bytes = byteArrayOutputStream.toByteArray();
+
+        // We send the first bytes one by one, so the size prefix and the message get split across reads
+        OutputStream outputStream = client.getOutputStream();
+        for (int i = 0; i < 5; i++) {
+            outputStream.write(bytes[i]);
+            outputStream.flush();
+            Thread.sleep(10);
+        }
+        outputStream.write(bytes, 5, bytes.length - 5);
+        outputStream.flush();
+
+        // The messages are sent within 10 ms, so the inbound throttle delays the processing of the later ones
+        assertTrue(receivedLatch.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(1, 2, 3), receivedEnvelopes.stream()
+                .map(networkEnvelope -> ((Ping) networkEnvelope).getNonce())
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testTooLargeMessageClosesConnection() throws Exception {
+        CodedOutputStream codedOutputStream = CodedOutputStream.newInstance(client.getOutputStream());
+        codedOutputStream.writeUInt32NoTag(Connection.getMaxPermittedMessageSize() + 1);
+        codedOutputStream.flush();
+
+        verify(connectionListener, timeout(5000)).onDisconnect(eq(CloseConnectionReason.CORRUPTED_DATA), any());
+    }
+
+    @Test
+    public void testSendMessage() throws Exception {
+        connection.sendMessage(new Ping(7, 0));
+
+        protobuf.NetworkEnvelope proto = protobuf.NetworkEnvelope.parseDelimitedFrom(client.getInputStream());
+        assertEquals(7, proto.getPing().getNonce());
+    }
+
+    @Test
+    public void testReadFrameSize() throws Exception {
+        // 300 is encoded as varint in 2 bytes
+        ByteBuffer buffer = ByteBuffer.wrap(new byte[]{(byte) 0xAC, 0x02, 0x01});
+        assertEquals(300, NioReaderPool.readFrameSize(buffer));
+        assertEquals(2, buffer.position());
+
+        ByteBuffer incomplete = ByteBuffer.wrap(new byte[]{(byte) 0xAC});
+        assertEquals(-1, NioReaderPool.readFrameSize(incomplete));
+    }
+}
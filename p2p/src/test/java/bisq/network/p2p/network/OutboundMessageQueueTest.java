@@ -0,0 +1,232 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.network;
+
+import bisq.network.p2p.BundleOfEnvelopes;
+import bisq.network.p2p.CloseConnectionMessage;
+import bisq.network.p2p.storage.messages.AddDataMessage;
+
+import bisq.common.proto.network.NetworkEnvelope;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class OutboundMessageQueueTest {
+    private final List<NetworkEnvelope> writtenEnvelopes = new ArrayList<>();
+    private final List<List<NetworkEnvelope>> sentEnvelopes = new ArrayList<>();
+    private OutboundMessageQueue outboundMessageQueue;
+
+    @After
+    public void tearDown() {
+        if (outboundMessageQueue != null) {
+            outboundMessageQueue.shutDown();
+        }
+    }
+
+    @Test
+    public void testQueuedBroadcastMessagesGetBundled() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(4);
+        outboundMessageQueue = createQueue(true, latch);
+
+        NetworkEnvelope first = mock(AddDataMessage.class);
+        NetworkEnvelope broadcast1 = mock(AddDataMessage.class);
+        NetworkEnvelope broadcast2 = mock(AddDataMessage.class);
+        NetworkEnvelope closeConnectionMessage = new CloseConnectionMessage("test");
+        NetworkEnvelope broadcast3 = mock(AddDataMessage.class);
+        // The first message takes the only token, so the following messages get queued while the writer waits for
+        // the next token.
+        offer(first);
+        offer(broadcast1);
+        offer(broadcast2);
+        offer(closeConnectionMessage);
+        offer(broadcast3);
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        synchronized (writtenEnvelopes) {
+            assertEquals(4, writtenEnvelopes.size());
+            assertEquals(first, writtenEnvelopes.get(0));
+            assertTrue(writtenEnvelopes.get(1) instanceof BundleOfEnvelopes);
+            assertEquals(List.of(broadcast1, broadcast2), ((BundleOfEnvelopes) writtenEnvelopes.get(1)).getEnvelopes());
+            assertEquals(closeConnectionMessage, writtenEnvelopes.get(2));
+            assertEquals(broadcast3, writtenEnvelopes.get(3));
+            assertEquals(List.of(broadcast1, broadcast2), sentEnvelopes.get(1));
+        }
+    }
+
+    @Test
+    public void testNoBundlesIfNotSupportedByPeer() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(3);
+        outboundMessageQueue = createQueue(false, latch);
+
+        NetworkEnvelope broadcast1 = mock(AddDataMessage.class);
+        NetworkEnvelope broadcast2 = mock(AddDataMessage.class);
+        NetworkEnvelope broadcast3 = mock(AddDataMessage.class);
+        offer(broadcast1);
+        offer(broadcast2);
+        offer(broadcast3);
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        synchronized (writtenEnvelopes) {
+            assertEquals(List.of(broadcast1, broadcast2, broadcast3), writtenEnvelopes);
+        }
+    }
+
+    @Test
+    public void testOfferAfterShutDown() {
+        outboundMessageQueue = createQueue(true, new CountDownLatch(1));
+        outboundMessageQueue.shutDown();
+
+        assertFalse(outboundMessageQueue.offer(mock(AddDataMessage.class)));
+    }
+
+    @Test
+    public void testOfferDoesNotBlockIfQueueIsFull() {
+        // The writer waits an hour for the next token, so the queue fills up
+        outboundMessageQueue = createQueue(false, new CountDownLatch(1), TimeUnit.HOURS.toMillis(1));
+        long ts = System.currentTimeMillis();
+        boolean rejected = false;
+        // The writer takes up to 2 messages from the queue, the one it has sent and the one waiting for the token
+        for (int i = 0; i < OutboundMessageQueue.MAX_QUEUED_MESSAGES + 3; i++) {
+            rejected |= !outboundMessageQueue.offer(mock(AddDataMessage.class));
+        }
+
+        assertTrue(rejected);
+        assertTrue(System.currentTimeMillis() - ts < 1000);
+    }
+
+    @Test
+    public void testLastMessageIsSentAheadOfQueuedMessages() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        outboundMessageQueue = createQueue(false, latch, TimeUnit.HOURS.toMillis(1));
+        NetworkEnvelope first = mock(AddDataMessage.class);
+        offer(first);
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        // The first queued message waits for the next token, the others are in the queue
+        for (int i = 0; i < 10; i++) {
+            offer(mock(AddDataMessage.class));
+        }
+
+        NetworkEnvelope closeConnectionMessage = new CloseConnectionMessage("PEER_BANNED");
+        assertTrue(outboundMessageQueue.sendLastMessage(closeConnectionMessage,
+                CloseConnectionReason.PEER_BANNED,
+                5,
+                TimeUnit.SECONDS));
+        assertFalse(outboundMessageQueue.offer(mock(AddDataMessage.class)));
+        synchronized (writtenEnvelopes) {
+            assertEquals(List.of(first, closeConnectionMessage), writtenEnvelopes);
+        }
+    }
+
+    @Test
+    public void testQueuedMessagesAreWrittenAtAppShutDown() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        outboundMessageQueue = createQueue(false, latch, TimeUnit.HOURS.toMillis(1));
+        NetworkEnvelope first = mock(AddDataMessage.class);
+        offer(first);
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        // The first queued message waits for the next token, the others are in the queue
+        List<NetworkEnvelope> expected = new ArrayList<>(List.of(first));
+        for (int i = 0; i < 10; i++) {
+            NetworkEnvelope networkEnvelope = mock(AddDataMessage.class);
+            offer(networkEnvelope);
+            expected.add(networkEnvelope);
+        }
+
+        // The queued messages are written without waiting for the rate limit, before the close message
+        NetworkEnvelope closeConnectionMessage = new CloseConnectionMessage("APP_SHUT_DOWN");
+        assertTrue(outboundMessageQueue.sendLastMessage(closeConnectionMessage,
+                CloseConnectionReason.APP_SHUT_DOWN,
+                5,
+                TimeUnit.SECONDS));
+        assertFalse(outboundMessageQueue.offer(mock(AddDataMessage.class)));
+        expected.add(closeConnectionMessage);
+        synchronized (writtenEnvelopes) {
+            assertEquals(expected, writtenEnvelopes);
+        }
+    }
+
+    @Test
+    public void testLastMessageIsWrittenIfQueueIsFull() throws InterruptedException {
+        outboundMessageQueue = createQueue(false, new CountDownLatch(1), TimeUnit.HOURS.toMillis(1));
+        //noinspection StatementWithEmptyBody
+        while (outboundMessageQueue.offer(mock(AddDataMessage.class))) {
+        }
+
+        NetworkEnvelope closeConnectionMessage = new CloseConnectionMessage("APP_SHUT_DOWN");
+        assertTrue(outboundMessageQueue.sendLastMessage(closeConnectionMessage,
+                CloseConnectionReason.APP_SHUT_DOWN,
+                5,
+                TimeUnit.SECONDS));
+        synchronized (writtenEnvelopes) {
+            assertEquals(closeConnectionMessage, writtenEnvelopes.get(writtenEnvelopes.size() - 1));
+        }
+    }
+
+    private void offer(NetworkEnvelope networkEnvelope) {
+        assertTrue(outboundMessageQueue.offer(networkEnvelope));
+    }
+
+    private OutboundMessageQueue createQueue(boolean peerSupportsBundles, CountDownLatch latch) {
+        return createQueue(peerSupportsBundles, latch, 300);
+    }
+
+    private OutboundMessageQueue createQueue(boolean peerSupportsBundles,
+                                             CountDownLatch latch,
+                                             long refillIntervalMs) {
+        ProtoOutputStream protoOutputStream = mock(ProtoOutputStream.class);
+        when(protoOutputStream.writeEnvelope(any())).thenAnswer(invocation -> {
+            synchronized (writtenEnvelopes) {
+                writtenEnvelopes.add(invocation.getArgument(0));
+            }
+            return 100;
+        });
+
+        return new OutboundMessageQueue("OutboundMessageQueueTest",
+                protoOutputStream,
+                () -> peerSupportsBundles,
+                refillIntervalMs,
+                1,
+                new OutboundMessageQueue.Listener() {
+                    @Override
+                    public void onMessagesSent(List<NetworkEnvelope> networkEnvelopes,
+                                               int serializedSize,
+                                               long durationSinceQueued) {
+                        synchronized (writtenEnvelopes) {
+                            sentEnvelopes.add(networkEnvelopes);
+                        }
+                        latch.countDown();
+                    }
+
+                    @Override
+                    public void onWriteFailed(Throwable throwable) {
+                    }
+                });
+    }
+}
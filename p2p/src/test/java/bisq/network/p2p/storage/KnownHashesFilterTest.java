@@ -0,0 +1,78 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.storage;
+
+import bisq.common.crypto.Hash;
+
+import java.nio.ByteBuffer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class KnownHashesFilterTest {
+    private static List<byte[]> createHashes(int from, int to) {
+        List<byte[]> hashes = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            hashes.add(Hash.getSha256Hash(ByteBuffer.allocate(4).putInt(i).array()));
+        }
+        return hashes;
+    }
+
+    @Test
+    public void testContainsAllAddedHashes() {
+        List<byte[]> hashes = createHashes(0, 10000);
+        KnownHashesFilter filter = KnownHashesFilter.fromHashes(hashes);
+        hashes.forEach(hash -> assertTrue(filter.mightContain(hash)));
+    }
+
+    @Test
+    public void testFalsePositiveRate() {
+        KnownHashesFilter filter = KnownHashesFilter.fromHashes(createHashes(0, 10000));
+        long falsePositives = createHashes(10000, 110000).stream().filter(filter::mightContain).count();
+        // Expected are about 100 false positives (0.1%)
+        assertTrue("falsePositives=" + falsePositives, falsePositives < 300);
+    }
+
+    @Test
+    public void testEmptyFilter() {
+        KnownHashesFilter filter = KnownHashesFilter.fromHashes(Collections.emptyList());
+        createHashes(0, 100).forEach(hash -> assertFalse(filter.mightContain(hash)));
+    }
+
+    @Test
+    public void testProtoRoundTrip() {
+        List<byte[]> hashes = createHashes(0, 1000);
+        KnownHashesFilter filter = KnownHashesFilter.fromHashes(hashes);
+        KnownHashesFilter fromProto = KnownHashesFilter.fromProto(filter.toProtoMessage());
+        assertEquals(filter, fromProto);
+        hashes.forEach(hash -> assertTrue(fromProto.mightContain(hash)));
+    }
+
+    @Test
+    public void testSizeIsMuchSmallerThanHashes() {
+        KnownHashesFilter filter = KnownHashesFilter.fromHashes(createHashes(0, 10000));
+        assertTrue(filter.getSerializedSize() * 10 < 10000 * 32);
+    }
+}
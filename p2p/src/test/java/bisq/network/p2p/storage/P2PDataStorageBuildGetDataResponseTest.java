@@ -479,4 +479,20 @@ public class P2PDataStorageBuildGetDataResponseTest {
             return new GetUpdatedDataRequest(new NodeAddress("peer", 10), nonce, knownKeys);
         }
     }
+
+    public static class P2PDataStorageBuildGetDataResponseTestPreliminaryWithFilter extends P2PDataStorageBuildGetDataResponseTestBase {
+
+        @Override
+        GetDataRequest buildGetDataRequest(int nonce, Set<byte[]> knownKeys) {
+            return new PreliminaryGetDataRequest(nonce, KnownHashesFilter.fromHashes(knownKeys));
+        }
+    }
+
+    public static class P2PDataStorageBuildGetDataResponseTestUpdatedWithFilter extends P2PDataStorageBuildGetDataResponseTestBase {
+
+        @Override
+        GetDataRequest buildGetDataRequest(int nonce, Set<byte[]> knownKeys) {
+            return new GetUpdatedDataRequest(new NodeAddress("peer", 10), nonce, KnownHashesFilter.fromHashes(knownKeys));
+        }
+    }
 }
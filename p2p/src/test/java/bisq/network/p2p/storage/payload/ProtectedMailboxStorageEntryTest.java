@@ -23,6 +23,7 @@ import bisq.network.p2p.storage.P2PDataStorage;
 
 import bisq.common.app.Version;
 import bisq.common.crypto.CryptoException;
+import bisq.common.crypto.Hash;
 import bisq.common.crypto.Sig;
 
 import java.security.KeyPair;
@@ -73,6 +74,18 @@ public class ProtectedMailboxStorageEntryTest {
         Version.setBaseCryptoNetworkId(1);
     }
 
+    // TESTCASE: get32ByteHash() should use the cached hash of the MailboxStoragePayload
+    @Test
+    public void get32ByteHashUsesCachedHash() throws NoSuchAlgorithmException {
+        KeyPair senderKeys = TestUtils.generateKeyPair();
+        KeyPair receiverKeys = TestUtils.generateKeyPair();
+        MailboxStoragePayload mailboxStoragePayload = buildMailboxStoragePayload(senderKeys.getPublic(), receiverKeys.getPublic());
+
+        byte[] hash = P2PDataStorage.get32ByteHash(mailboxStoragePayload);
+        Assert.assertArrayEquals(Hash.getSha256Hash(mailboxStoragePayload.toProtoMessage().toByteArray()), hash);
+        Assert.assertSame(hash, P2PDataStorage.get32ByteHash(mailboxStoragePayload));
+    }
+
     // TESTCASE: validForAddOperation() should return true if the Entry owner and sender key specified in payload match
     @Test
     public void isValidForAddOperation() throws NoSuchAlgorithmException, CryptoException {
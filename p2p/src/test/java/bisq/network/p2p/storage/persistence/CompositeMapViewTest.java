@@ -0,0 +1,77 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.storage.persistence;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CompositeMapViewTest {
+    private Map<String, Integer> live;
+    private Map<String, Integer> historical;
+    private Map<String, Integer> view;
+
+    @Before
+    public void setup() {
+        live = new HashMap<>(Map.of("a", 1, "b", 2));
+        historical = Map.of("b", 20, "c", 3);
+        view = new CompositeMapView<>(List.of(live, historical));
+    }
+
+    @Test
+    public void testFirstLayerWins() {
+        assertEquals(Map.of("a", 1, "b", 2, "c", 3), view);
+        assertEquals(3, view.size());
+        assertEquals(3, view.entrySet().stream().count());
+        assertEquals((Integer) 2, view.get("b"));
+        assertTrue(view.containsKey("c"));
+        assertFalse(view.containsKey("d"));
+    }
+
+    @Test
+    public void testChangesOfLayersAreVisible() {
+        live.put("d", 4);
+        live.remove("b");
+
+        assertEquals(Map.of("a", 1, "b", 20, "c", 3, "d", 4), view);
+    }
+
+    @Test
+    public void testEmpty() {
+        assertTrue(new CompositeMapView<>(List.of(new HashMap<>(), Map.of())).isEmpty());
+        assertEquals(0, new CompositeMapView<String, Integer>(List.of()).size());
+        assertFalse(view.isEmpty());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testPutNotSupported() {
+        view.put("d", 4);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testRemoveNotSupported() {
+        view.keySet().remove("a");
+    }
+}
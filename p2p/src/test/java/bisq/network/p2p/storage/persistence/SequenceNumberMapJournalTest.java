@@ -0,0 +1,213 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.storage.persistence;
+
+import bisq.network.p2p.storage.P2PDataStorage;
+
+import bisq.common.file.CorruptedStorageFileHandler;
+import bisq.common.persistence.PersistenceManager;
+import bisq.common.proto.persistable.PersistenceProtoResolver;
+
+import com.google.protobuf.CodedOutputStream;
+
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+
+import java.io.File;
+
+import java.math.BigInteger;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SequenceNumberMapJournalTest {
+    private static final String FILE_NAME = "SequenceNumberMapJournalTest";
+
+    private File dir;
+    private File journalFile;
+    private PersistenceProtoResolver persistenceProtoResolver;
+    private PersistenceManager<SequenceNumberMap> persistenceManager;
+    private SequenceNumberMap sequenceNumberMap;
+
+    @Before
+    public void setUp() throws Exception {
+        dir = Files.createTempDirectory(FILE_NAME).toFile();
+        journalFile = new File(dir, FILE_NAME + ".journal");
+        persistenceProtoResolver = mock(PersistenceProtoResolver.class);
+        when(persistenceProtoResolver.fromProto(any(protobuf.PersistableEnvelope.class))).thenAnswer(invocation ->
+                SequenceNumberMap.fromProto(((protobuf.PersistableEnvelope) invocation.getArgument(0)).getSequenceNumberMap()));
+
+        PersistenceManager.setUseJournal(true);
+        PersistenceManager.onAllServicesInitialized();
+        persistenceManager = createPersistenceManager();
+    }
+
+    @After
+    public void tearDown() {
+        persistenceManager.shutdown();
+        PersistenceManager.setUseJournal(false);
+    }
+
+    @Test
+    public void testJournalIsReplayed() throws Exception {
+        assertNull(persistenceManager.getPersisted());
+        SequenceNumberMap record1 = record(1, 1);
+        SequenceNumberMap record2 = record(2, 1);
+        SequenceNumberMap record3 = record(1, 2);
+        persistenceManager.appendToJournal(record1);
+        persistenceManager.appendToJournal(record2);
+        persistenceManager.appendToJournal(record3);
+        awaitJournalLength(serializedLength(record1) + serializedLength(record2) + serializedLength(record3));
+
+        SequenceNumberMap persisted = restart().getPersisted();
+        assertEquals(Map.of(key(1), mapValue(2), key(2), mapValue(1)), persisted.getMap());
+    }
+
+    @Test
+    public void testJournalIsTruncatedAfterPersistingAllData() throws Exception {
+        persistenceManager.getPersisted();
+        SequenceNumberMap record = record(1, 1);
+        persistenceManager.appendToJournal(record);
+        awaitJournalLength(serializedLength(record));
+
+        PersistenceManager<SequenceNumberMap> restarted = restart();
+        restarted.getPersisted();
+        CountDownLatch latch = new CountDownLatch(1);
+        restarted.persistNow(latch::countDown);
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(0, journalFile.length());
+
+        assertEquals(Map.of(key(1), mapValue(1)), restart().getPersisted().getMap());
+    }
+
+    @Test
+    public void testIncompleteRecordIsCutOff() throws Exception {
+        persistenceManager.getPersisted();
+        SequenceNumberMap record = record(1, 1);
+        persistenceManager.appendToJournal(record);
+        long length = serializedLength(record);
+        awaitJournalLength(length);
+        Files.write(journalFile.toPath(), new byte[]{10, 100, 1}, StandardOpenOption.APPEND);
+
+        assertEquals(Map.of(key(1), mapValue(1)), restart().getPersisted().getMap());
+        assertEquals(length, journalFile.length());
+    }
+
+    @Test
+    public void testRemovedEntriesAreNotReplayed() throws Exception {
+        persistenceManager.getPersisted();
+        SequenceNumberMap record1 = record(1, 1);
+        SequenceNumberMap record2 = record(2, 1);
+        sequenceNumberMap.put(key(1), mapValue(1));
+        persistenceManager.appendToJournal(record1);
+        sequenceNumberMap.put(key(2), mapValue(1));
+        persistenceManager.appendToJournal(record2);
+        awaitJournalLength(serializedLength(record1) + serializedLength(record2));
+
+        // Like the purge of the SequenceNumberMap in P2PDataStorage
+        sequenceNumberMap.setMap(Map.of(key(2), mapValue(1)));
+        persistenceManager.requestPersistenceAfterRemoval();
+
+        // The shut down at restart waits for the write
+        assertEquals(Map.of(key(2), mapValue(1)), restart().getPersisted().getMap());
+        assertEquals(0, journalFile.length());
+    }
+
+    @Test
+    public void testMutationWhileSerializingOnWriteThread() throws Exception {
+        int numEntries = 50_000;
+        for (int i = 0; i < numEntries; i++) {
+            sequenceNumberMap.put(key(i), mapValue(1));
+        }
+
+        // We mutate the map on this thread, which acts as UserThread, until the write thread has written the file
+        CountDownLatch latch = new CountDownLatch(1);
+        persistenceManager.persistNow(latch::countDown);
+        int numAdded = 0;
+        while (latch.getCount() > 0) {
+            sequenceNumberMap.put(key(numEntries + numAdded), mapValue(1));
+            sequenceNumberMap.put(key(numAdded % numEntries), mapValue(2));
+            numAdded++;
+        }
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+
+        // The file contains all entries which existed before the write, each with the old or the new value, and
+        // some of the entries added while writing.
+        Map<P2PDataStorage.ByteArray, P2PDataStorage.MapValue> persisted = restart().getPersisted().getMap();
+        for (int i = 0; i < numEntries; i++) {
+            P2PDataStorage.MapValue value = persisted.get(key(i));
+            assertTrue(mapValue(1).equals(value) || mapValue(2).equals(value));
+        }
+        assertTrue(persisted.size() <= numEntries + numAdded);
+    }
+
+    private PersistenceManager<SequenceNumberMap> createPersistenceManager() {
+        PersistenceManager<SequenceNumberMap> persistenceManager = new PersistenceManager<>(dir,
+                persistenceProtoResolver,
+                mock(CorruptedStorageFileHandler.class));
+        sequenceNumberMap = new SequenceNumberMap();
+        persistenceManager.initialize(sequenceNumberMap, FILE_NAME, PersistenceManager.Source.PRIVATE_LOW_PRIO);
+        return persistenceManager;
+    }
+
+    private PersistenceManager<SequenceNumberMap> restart() {
+        persistenceManager.shutdown();
+        persistenceManager = createPersistenceManager();
+        return persistenceManager;
+    }
+
+    private void awaitJournalLength(long length) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (journalFile.length() < length && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(length, journalFile.length());
+    }
+
+    private static long serializedLength(SequenceNumberMap record) {
+        int size = record.toProtoMessage().getSerializedSize();
+        return CodedOutputStream.computeUInt32SizeNoTag(size) + size;
+    }
+
+    private static SequenceNumberMap record(int key, int sequenceNr) {
+        return SequenceNumberMap.toJournalRecord(key(key), mapValue(sequenceNr));
+    }
+
+    private static P2PDataStorage.ByteArray key(int key) {
+        return new P2PDataStorage.ByteArray(BigInteger.valueOf(key).toByteArray());
+    }
+
+    private static P2PDataStorage.MapValue mapValue(int sequenceNr) {
+        return P2PDataStorage.MapValue.fromProto(protobuf.MapValue.newBuilder()
+                .setSequenceNr(sequenceNr)
+                .setTimeStamp(1000)
+                .build());
+    }
+}